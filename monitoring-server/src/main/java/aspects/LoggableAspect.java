@@ -1,15 +1,33 @@
 package aspects;
 
+import config.ServerConfig;
+import metrics.MethodMetrics;
+import metrics.MethodTimer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import tracing.MethodTracer;
+import tracing.TraceSession;
+import utils.LoggerConfig;
 
 /**
- * Аспект для логирования вызовов методов, аннотированных @Loggable.
+ * Аспект для учета вызовов методов, аннотированных @Loggable.
+ * Время выполнения каждого метода записывается в гистограмму {@link MethodMetrics#getDefault()}.
+ * Построчный вывод вызовов выключен по умолчанию и включается настройкой aspect.log.calls;
+ * он идет в журнал на уровне DEBUG, а не в стандартный вывод.
+ * Если администратор включил трассировку ({@link MethodTracer}), подходящие вызовы из выборки
+ * записываются в буфер трассировки; выключенная трассировка стоит одного чтения volatile-поля.
  */
 @Aspect
 public class LoggableAspect {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final boolean LOG_CALLS = ServerConfig.getBoolean("aspect.log.calls", false);
+
+    private final MethodMetrics metrics = MethodMetrics.getDefault();
+    private final MethodTracer tracer = MethodTracer.getDefault();
+
     /**
      * Определение среза для методов, аннотированных @Loggable.
      */
@@ -17,7 +35,7 @@ public class LoggableAspect {
     public void annotatedByLoggable(){}
 
     /**
-     * Совет, который логирует время выполнения методов, аннотированных @Loggable.
+     * Совет, который записывает время выполнения методов, аннотированных @Loggable.
      *
      * @param proceedingJoinPoint Объект ProceedingJoinPoint, представляющий выполнение метода.
      * @return Object Результат выполнения метода.
@@ -25,12 +43,32 @@ public class LoggableAspect {
      */
     @Around("annotatedByLoggable()")
     public Object logging(ProceedingJoinPoint proceedingJoinPoint) throws Throwable{
-        System.out.println("Calling method " + proceedingJoinPoint.getSignature());
-        long start = System.currentTimeMillis();
-        Object result = proceedingJoinPoint.proceed();
-        long end = System.currentTimeMillis() - start;
-        System.out.println("Execution of method " + proceedingJoinPoint.getSignature() +
-                " finished. Execution time is " + end + " ms.");
-        return result;
+        MethodTimer timer = metrics.timer(proceedingJoinPoint.getStaticPart());
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            return proceedingJoinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            completed(timer, System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * Учитывает завершившийся вызов. Вынесено из совета, чтобы блок finally, который компилятор копирует
+     * на каждый путь выхода, оставался коротким и совет встраивался в вызывающий код вместе с proceed().
+     */
+    private void completed(MethodTimer timer, long elapsed, Throwable error) {
+        timer.record(elapsed, error != null);
+        TraceSession trace = tracer.session();
+        if (trace != null) {
+            trace.onCall(timer, elapsed, error);
+        }
+        if (LOG_CALLS && logger.isDebugEnabled()) {
+            logger.debug("Execution of method " + timer.getName() + " finished. Execution time is "
+                    + elapsed + " ns.");
+        }
     }
 }
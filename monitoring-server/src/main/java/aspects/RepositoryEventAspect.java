@@ -0,0 +1,78 @@
+package aspects;
+
+import jfr.RepositoryCallEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import utils.TokenClaims;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Аспект, записывающий событие JFR {@link RepositoryCallEvent} о каждом вызове методов интерфейсов
+ * ReadingsRepository, UserRepository и AuditRepository во всех их реализациях.
+ * Если запись JFR не ведется, совет только проверяет, включено ли событие.
+ */
+@Aspect
+public class RepositoryEventAspect {
+
+    /**
+     * Определение среза для реализаций методов интерфейсов репозиториев.
+     */
+    @Pointcut("execution(* dao.readings.ReadingsRepository.*(..)) || execution(* dao.user.UserRepository.*(..))"
+            + " || execution(* dao.audit.AuditRepository.*(..))")
+    public void repositoryMethod() {
+    }
+
+    /**
+     * Совет, который записывает событие о вызове метода репозитория.
+     *
+     * @param proceedingJoinPoint Объект ProceedingJoinPoint, представляющий выполнение метода.
+     * @return Object Результат выполнения метода.
+     * @throws Throwable В случае ошибки во время выполнения метода.
+     */
+    @Around("repositoryMethod()")
+    public Object recordEvent(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return proceedingJoinPoint.proceed();
+        }
+        RepositoryCallEvent previous = event.attach();
+        boolean failed = true;
+        Object result = null;
+        event.begin();
+        try {
+            result = proceedingJoinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            event.detach(previous);
+            if (event.shouldCommit()) {
+                TokenClaims claims = TokenClaims.current();
+                event.setRepository(proceedingJoinPoint.getSignature().getDeclaringType().getSimpleName());
+                event.setMethod(proceedingJoinPoint.getSignature().getName());
+                event.setUserId(claims == null ? 0 : claims.getUserId());
+                event.setRows(rows(result));
+                event.setFailed(failed);
+                event.commit();
+            }
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result == null || result instanceof Boolean ? 0 : 1;
+    }
+}
@@ -4,7 +4,9 @@ import annotations.Loggable;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
+import utils.DBConnectionManager;
 import utils.DBInitializer;
+import utils.ServiceFactory;
 
 /**
  * Слушатель контекста приложения.
@@ -19,21 +21,34 @@ public class AppContextListener implements ServletContextListener {
 
     /**
      * Метод, вызываемый при инициализации контекста приложения.
-     * Инициализирует базу данных.
+     * Инициализирует базу данных, заранее открывает соединения пула, загружает справочник типов счетчиков,
+     * запускает обслуживание секций журнала аудита, фоновую запись аудита и удаление истекших сессий.
      *
      * @param servletContextEvent Объект ServletContextEvent, содержащий информацию о событии.
      */
     public void contextInitialized(ServletContextEvent servletContextEvent) {
         DBInitializer.initialize();
+        DBConnectionManager.initialize();
+        ServiceFactory.getMeterTypeDictionary().refresh();
+        ServiceFactory.getAuditPartitionMaintenance().start();
+        ServiceFactory.getAuditWriter();
+        ServiceFactory.getSessionStore().start();
     }
 
     /**
      * Метод, вызываемый при уничтожении контекста приложения.
-     * В текущей реализации этот метод не выполняет никаких действий.
+     * Дописывает накопленные события аудита, останавливает обслуживание секций журнала аудита,
+     * удаление истекших сессий и фоновое обновление справочника типов счетчиков и закрывает пул соединений
+     * с базой данных.
      *
      * @param servletContextEvent Объект ServletContextEvent, содержащий информацию о событии.
      */
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
+        ServiceFactory.getAuditWriter().shutdown(ServerConfig.getLong("audit.shutdown.timeout.ms", 10000));
+        ServiceFactory.getAuditPartitionMaintenance().shutdown();
+        ServiceFactory.getSessionStore().shutdown();
+        ServiceFactory.getMeterTypeDictionary().shutdown();
+        DBConnectionManager.shutdown();
     }
 }
 
@@ -0,0 +1,93 @@
+package config;
+
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Класс конфигурации сервера.
+ * Загружает настройки из файла свойств server.properties. Значение системного свойства с тем же именем
+ * имеет приоритет над значением из файла, что позволяет переопределять настройки при запуске и в тестах.
+ */
+public class ServerConfig {
+    private static final Properties properties = new Properties();
+
+    private static final Logger logger = LoggerConfig.getLogger();
+
+    /**
+     * Статический блок инициализации для загрузки настроек из файла свойств.
+     */
+    static {
+        try (InputStream input = ServerConfig.class.getClassLoader().getResourceAsStream("server.properties")) {
+            if (input == null) {
+                logger.error("Не удалось найти файл свойств сервера");
+            } else {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            logger.error("Произошла ошибка при чтении файла свойств сервера");
+            logger.error(e.getMessage());
+        }
+    }
+
+    private ServerConfig() {
+    }
+
+    /**
+     * Возвращает строковое значение настройки.
+     *
+     * @param key          имя настройки
+     * @param defaultValue значение по умолчанию
+     * @return значение настройки или значение по умолчанию, если настройка не задана
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Возвращает целочисленное значение настройки.
+     *
+     * @param key          имя настройки
+     * @param defaultValue значение по умолчанию
+     * @return значение настройки или значение по умолчанию, если настройка не задана или некорректна
+     */
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Возвращает длинное целочисленное значение настройки.
+     *
+     * @param key          имя настройки
+     * @param defaultValue значение по умолчанию
+     * @return значение настройки или значение по умолчанию, если настройка не задана или некорректна
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.error("Некорректное числовое значение настройки " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Возвращает логическое значение настройки.
+     *
+     * @param key          имя настройки
+     * @param defaultValue значение по умолчанию
+     * @return значение настройки или значение по умолчанию, если настройка не задана
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -2,10 +2,26 @@ package dao.audit;
 
 import model.audit.AuditLog;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface AuditRepository {
     void recordAction(AuditLog auditLog);
 
+    AuditWriteResult recordActions(List<AuditLog> auditLogs);
+
     List<AuditLog> getUserActions(int userId);
+
+    List<AuditLog> getUserActions(int userId, LocalDateTime from, LocalDateTime to);
+
+    List<AuditLog> getUserActionsBefore(int userId, LocalDateTime before, int limit);
+
+    List<YearMonth> getPartitionMonths();
+
+    List<YearMonth> getDefaultPartitionMonths();
+
+    boolean createPartition(YearMonth month);
+
+    boolean removePartition(YearMonth month, boolean drop);
 }
@@ -1,6 +1,8 @@
 package dao.audit;
 
 import annotations.Loggable;
+import dao.statement.SqlParameter;
+import dao.statement.Statements;
 import model.audit.ActionType;
 import model.audit.AuditLog;
 import org.slf4j.Logger;
@@ -9,7 +11,11 @@ import utils.LoggerConfig;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,6 +27,8 @@ import java.util.List;
 @Loggable
 public class AuditRepositoryImpl implements AuditRepository {
     private static final Logger logger = LoggerConfig.getLogger();
+    private static final String PARTITION_PREFIX = "audit_logs_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
 
     /**
      * Записывает действие пользователя в базу данных.
@@ -34,17 +42,12 @@ public class AuditRepositoryImpl implements AuditRepository {
         VALUES (?, ?, ?, ?)
         """;
 
-        int actionTypeId = switch (auditLog.getActionType()) {
-            case LOGIN -> 1;
-            case LOGOUT -> 2;
-            case SUBMIT_READING -> 3;
-            case VIEW_READING_HISTORY -> 4;
-            case REGISTER -> 5;
-        };
+        int actionTypeId = getActionTypeId(auditLog.getActionType());
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, auditLog.getUserId(), actionTypeId,
-                     auditLog.getActionTime(), auditLog.getActionDescription())) {
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(auditLog.getUserId()), SqlParameter.of(actionTypeId),
+                     SqlParameter.of(auditLog.getActionTime()), SqlParameter.of(auditLog.getActionDescription()))) {
 
             connection.setAutoCommit(false);
 
@@ -63,10 +66,54 @@ public class AuditRepositoryImpl implements AuditRepository {
     }
 
     /**
-     * Получает действия пользователя из базы данных.
+     * Записывает пакет действий пользователей в базу данных одним запросом в одной транзакции.
+     * Если хотя бы одна строка не записана, не сохраняется ни одна.
+     *
+     * @param auditLogs Список действий пользователей.
+     * @return AuditWriteResult WRITTEN, если все действия записаны, REJECTED, если база данных отклонила
+     * данные пакета, иначе FAILED.
+     */
+    @Override
+    public AuditWriteResult recordActions(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return AuditWriteResult.WRITTEN;
+        }
+
+        String sql = """
+        INSERT INTO audit_schema.audit_logs (user_id, action_type_id, action_time, related_data)
+        VALUES (?, ?, ?, ?)
+        """;
+
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement preparedStatement = Statements.prepare(connection, sql)) {
+                for (AuditLog auditLog : auditLogs) {
+                    Statements.addBatch(preparedStatement, SqlParameter.of(auditLog.getUserId()),
+                            SqlParameter.of(getActionTypeId(auditLog.getActionType())),
+                            SqlParameter.of(auditLog.getActionTime()),
+                            SqlParameter.of(auditLog.getActionDescription()));
+                }
+                preparedStatement.executeBatch();
+                connection.commit();
+                return AuditWriteResult.WRITTEN;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка при записи пакета действий пользователей: " + e.getMessage());
+            return AuditWriteResult.of(e);
+        }
+    }
+
+    /**
+     * Получает все действия пользователя из базы данных.
+     * Запрос обращается ко всем секциям журнала; чтобы прочитать только нужные секции,
+     * используйте {@link #getUserActions(int, LocalDateTime, LocalDateTime)}
+     * или {@link #getUserActionsBefore(int, LocalDateTime, int)}.
      *
      * @param userId Идентификатор пользователя.
-     * @return List<AuditLog> Список действий пользователя.
+     * @return List<AuditLog> Список действий пользователя, начиная с последнего.
      */
     @Override
     public List<AuditLog> getUserActions(int userId) {
@@ -77,10 +124,78 @@ public class AuditRepositoryImpl implements AuditRepository {
         ORDER BY action_time DESC
         """;
 
+        return findUserActions(userId, sql, SqlParameter.of(userId));
+    }
+
+    /**
+     * Получает действия пользователя за период из базы данных.
+     * Условие на action_time отсекает секции журнала вне периода.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param from Начало периода включительно.
+     * @param to Конец периода не включительно.
+     * @return List<AuditLog> Список действий пользователя, начиная с последнего.
+     */
+    @Override
+    public List<AuditLog> getUserActions(int userId, LocalDateTime from, LocalDateTime to) {
+        String sql = """
+        SELECT action_type_id, action_time, related_data
+        FROM audit_schema.audit_logs
+        WHERE user_id = ? AND action_time >= ? AND action_time < ?
+        ORDER BY action_time DESC
+        """;
+
+        return findUserActions(userId, sql, SqlParameter.of(userId), SqlParameter.of(from), SqlParameter.of(to));
+    }
+
+    /**
+     * Получает страницу последних действий пользователя из базы данных.
+     * Выборка упорядочена по индексу (user_id, action_time DESC) секций журнала, поэтому LIMIT позволяет
+     * планировщику остановиться на самых новых секциях, не читая всю историю.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param before Время действия, раньше которого выбираются действия, или null для самых последних.
+     * @param limit Максимальное количество действий.
+     * @return List<AuditLog> Список действий пользователя, начиная с последнего.
+     */
+    @Override
+    public List<AuditLog> getUserActionsBefore(int userId, LocalDateTime before, int limit) {
+        if (before == null) {
+            String sql = """
+            SELECT action_type_id, action_time, related_data
+            FROM audit_schema.audit_logs
+            WHERE user_id = ?
+            ORDER BY action_time DESC
+            LIMIT ?
+            """;
+
+            return findUserActions(userId, sql, SqlParameter.of(userId), SqlParameter.of(limit));
+        }
+
+        String sql = """
+        SELECT action_type_id, action_time, related_data
+        FROM audit_schema.audit_logs
+        WHERE user_id = ? AND action_time < ?
+        ORDER BY action_time DESC
+        LIMIT ?
+        """;
+
+        return findUserActions(userId, sql, SqlParameter.of(userId), SqlParameter.of(before), SqlParameter.of(limit));
+    }
+
+    /**
+     * Выполняет запрос действий пользователя.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param sql Запрос, возвращающий action_type_id, action_time и related_data.
+     * @param parameters Параметры запроса.
+     * @return List<AuditLog> Список действий пользователя.
+     */
+    private List<AuditLog> findUserActions(int userId, String sql, SqlParameter... parameters) {
         List<AuditLog> auditLogs = new ArrayList<>();
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, userId);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, parameters);
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             while (resultSet.next()) {
@@ -108,27 +223,133 @@ public class AuditRepositoryImpl implements AuditRepository {
     }
 
     /**
-     * Подготавливает SQL-запрос для выполнения в базе данных.
+     * Получает месяцы, для которых существуют секции журнала аудита.
      *
-     * @param connection Объект Connection, представляющий соединение с базой данных.
-     * @param sql SQL-запрос.
-     * @param parameters Параметры SQL-запроса.
-     * @return PreparedStatement Объект PreparedStatement, представляющий подготовленный SQL-запрос.
-     * @throws SQLException В случае ошибки SQL.
+     * @return List<YearMonth> Список месяцев в порядке возрастания.
      */
-    private PreparedStatement prepareStatement(Connection connection, String sql, Object... parameters) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
-        for (int i = 0; i < parameters.length; i++) {
-            if (parameters[i] instanceof String) {
-                preparedStatement.setString(i + 1, (String) parameters[i]);
-            } else if (parameters[i] instanceof Integer) {
-                preparedStatement.setInt(i + 1, (Integer) parameters[i]);
-            } else if (parameters[i] instanceof LocalDateTime) {
-                preparedStatement.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) parameters[i]));
-            } else {
-                throw new IllegalArgumentException("Неизвестный тип параметра: " + parameters[i].getClass());
+    @Override
+    public List<YearMonth> getPartitionMonths() {
+        String sql = """
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        JOIN pg_namespace ON pg_namespace.oid = parent.relnamespace
+        WHERE pg_namespace.nspname = 'audit_schema' AND parent.relname = 'audit_logs'
+        """;
+
+        List<YearMonth> months = new ArrayList<>();
+
+        try (Connection connection = DBConnectionManager.getConnection();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while (resultSet.next()) {
+                String partitionName = resultSet.getString("relname");
+                if (partitionName.startsWith(PARTITION_PREFIX)) {
+                    months.add(YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+                }
+            }
+
+        } catch (SQLException | DateTimeParseException e) {
+            logger.error("Ошибка при получении секций журнала аудита: " + e.getMessage());
+        }
+
+        Collections.sort(months);
+        return months;
+    }
+
+    /**
+     * Получает месяцы, строки за которые попали в секцию журнала аудита по умолчанию,
+     * потому что секции за эти месяцы не были созданы заранее.
+     *
+     * @return List<YearMonth> Список месяцев в порядке возрастания.
+     */
+    @Override
+    public List<YearMonth> getDefaultPartitionMonths() {
+        String sql = """
+        SELECT DISTINCT date_trunc('month', action_time)::DATE AS month
+        FROM audit_schema.audit_logs_default
+        ORDER BY month
+        """;
+
+        List<YearMonth> months = new ArrayList<>();
+
+        try (Connection connection = DBConnectionManager.getConnection();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while (resultSet.next()) {
+                months.add(YearMonth.from(resultSet.getDate("month").toLocalDate()));
+            }
+
+        } catch (SQLException e) {
+            logger.error("Ошибка при чтении секции журнала аудита по умолчанию: " + e.getMessage());
+        }
+
+        return months;
+    }
+
+    /**
+     * Создает секцию журнала аудита за месяц, если ее еще нет.
+     * Строки за этот месяц, попавшие в секцию по умолчанию, переносятся в новую секцию.
+     *
+     * @param month Месяц секции.
+     * @return boolean Возвращает true, если секция создана или уже существовала, иначе false.
+     */
+    @Override
+    public boolean createPartition(YearMonth month) {
+        String sql = "SELECT audit_schema.create_audit_logs_partition(?)";
+
+        try (Connection connection = DBConnectionManager.getConnection();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(month.atDay(1)))) {
+            preparedStatement.execute();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Ошибка при создании секции журнала аудита за " + month + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Отсоединяет секцию журнала аудита за месяц и, если требуется, удаляет ее.
+     * Отсоединенная секция остается отдельной таблицей и может быть выгружена в архив.
+     *
+     * @param month Месяц секции.
+     * @param drop Удалить секцию после отсоединения.
+     * @return boolean Возвращает true, если секция отсоединена, иначе false.
+     */
+    @Override
+    public boolean removePartition(YearMonth month, boolean drop) {
+        String partition = "audit_schema." + PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE audit_schema.audit_logs DETACH PARTITION " + partition);
+            if (drop) {
+                statement.execute("DROP TABLE " + partition);
             }
+            return true;
+        } catch (SQLException e) {
+            logger.error("Ошибка при удалении секции журнала аудита за " + month + ": " + e.getMessage());
+            return false;
         }
-        return preparedStatement;
+    }
+
+    /**
+     * Возвращает идентификатор типа действия в таблице audit_schema.act_types.
+     *
+     * @param actionType Тип действия.
+     * @return int Идентификатор типа действия.
+     */
+    private int getActionTypeId(ActionType actionType) {
+        return switch (actionType) {
+            case LOGIN -> 1;
+            case LOGOUT -> 2;
+            case SUBMIT_READING -> 3;
+            case VIEW_READING_HISTORY -> 4;
+            case REGISTER -> 5;
+        };
     }
 }
\ No newline at end of file
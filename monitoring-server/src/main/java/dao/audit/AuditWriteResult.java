@@ -0,0 +1,40 @@
+package dao.audit;
+
+import java.sql.SQLException;
+
+/**
+ * Результат записи пакета событий аудита.
+ */
+public enum AuditWriteResult {
+    /**
+     * Все события пакета записаны.
+     */
+    WRITTEN,
+    /**
+     * Пакет не записан из-за временной ошибки: база данных недоступна, транзакция прервана и т.п.
+     * Запись того же пакета можно повторить позже.
+     */
+    FAILED,
+    /**
+     * База данных отклонила данные пакета (SQLSTATE классов 22 и 23: недопустимое значение, нарушение
+     * ограничения, нет секции для строки). Повтор того же пакета снова завершится ошибкой.
+     */
+    REJECTED;
+
+    /**
+     * Определяет результат по ошибке записи. Для ошибки пакетного запроса учитывается и ошибка строки,
+     * которую драйвер передает через getNextException().
+     *
+     * @param e ошибка записи
+     * @return REJECTED, если ошибка вызвана данными, иначе FAILED
+     */
+    public static AuditWriteResult of(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            String state = current.getSQLState();
+            if (state != null) {
+                return state.startsWith("22") || state.startsWith("23") ? REJECTED : FAILED;
+            }
+        }
+        return FAILED;
+    }
+}
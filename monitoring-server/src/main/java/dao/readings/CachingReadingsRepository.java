@@ -0,0 +1,236 @@
+package dao.readings;
+
+import config.ServerConfig;
+import model.readings.MeterReadings;
+import utils.UnitOfWork;
+import utils.cache.BoundedCache;
+import utils.cache.CacheStats;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Кэш показаний пользователя перед репозиторием показаний.
+ * Кэшируются текущие показания, показания за месяц и история показаний каждого пользователя,
+ * в том числе отсутствие показаний; для отсутствующих показаний задается отдельное, более короткое время жизни.
+ * Остальные методы передаются репозиторию без изменений.
+ * <p>
+ * Добавление показаний удаляет из кэша все записи пользователя, а после фиксации транзакции помещает
+ * в кэш добавленные показания за месяц, поэтому пользователь сразу видит свои показания. Если добавление
+ * выполняется в единице работы, записи пользователя удаляются повторно после ее завершения: значения,
+ * прочитанные другими запросами до фиксации, не остаются в кэше. Чтения внутри изменяющей единицы работы
+ * выполняются мимо кэша, чтобы незафиксированные данные не попали в кэш.
+ * <p>
+ * Показания за месяц не изменяются после подачи, поэтому повторная подача за месяц, показания
+ * за который уже есть в кэше, отклоняется без обращения к базе данных.
+ * <p>
+ * Возвращаемые объекты общие для всех обращений и не должны изменяться.
+ */
+public class CachingReadingsRepository implements ReadingsRepository {
+
+    private enum Query {
+        CURRENT,
+        MONTH,
+        HISTORY
+    }
+
+    private final ReadingsRepository delegate;
+    private final BoundedCache<Key, Object> cache;
+
+    /**
+     * @param delegate      репозиторий показаний
+     * @param maxSize       максимальное количество записей кэша
+     * @param ttlMs         время жизни найденных показаний в миллисекундах
+     * @param negativeTtlMs время жизни записи об отсутствии показаний в миллисекундах
+     */
+    public CachingReadingsRepository(ReadingsRepository delegate, int maxSize, long ttlMs, long negativeTtlMs) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maxSize, value -> isNegative(value) ? negativeTtlMs : ttlMs);
+    }
+
+    /**
+     * Создает кэш с настройками из файла свойств сервера.
+     *
+     * @param delegate репозиторий показаний
+     * @return кэширующий репозиторий
+     */
+    public static CachingReadingsRepository fromConfig(ReadingsRepository delegate) {
+        return new CachingReadingsRepository(delegate,
+                ServerConfig.getInt("readings.cache.max.size", 10000),
+                ServerConfig.getLong("readings.cache.ttl.ms", 300000),
+                ServerConfig.getLong("readings.cache.negative.ttl.ms", 30000));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<MeterReadings> getCurrentReadings(Integer userId) {
+        if (bypassCache()) {
+            return delegate.getCurrentReadings(userId);
+        }
+        return (Optional<MeterReadings>) cache.get(new Key(userId, Query.CURRENT, null),
+                key -> delegate.getCurrentReadings(userId));
+    }
+
+    @Override
+    public ReadingsInsertResult addNewReadings(Integer userId, MeterReadings meterReadings) {
+        Key monthKey = new Key(userId, Query.MONTH, meterReadings.getMonth());
+        Object cached = cache.getIfPresent(monthKey);
+        if (cached instanceof Optional && ((Optional<?>) cached).isPresent()) {
+            return ReadingsInsertResult.allRows(meterReadings.getReadings().keySet(),
+                    ReadingsInsertResult.RowOutcome.ALREADY_SUBMITTED);
+        }
+
+        invalidateUser(userId);
+        ReadingsInsertResult result = delegate.addNewReadings(userId, meterReadings);
+        MeterReadings submitted = new MeterReadings(Collections.unmodifiableMap(
+                new HashMap<>(meterReadings.getReadings())), meterReadings.getMonth());
+
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            invalidateUser(userId);
+            if (result.isSuccess()) {
+                cache.put(monthKey, Optional.of(submitted));
+            }
+        } else {
+            unitOfWork.afterCompletion(committed -> {
+                invalidateUser(userId);
+                if (committed && result.isSuccess()) {
+                    cache.put(monthKey, Optional.of(submitted));
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<MeterReadings> getReadingsForMonth(Integer userId, Month month) {
+        if (bypassCache()) {
+            return delegate.getReadingsForMonth(userId, month);
+        }
+        return (Optional<MeterReadings>) cache.get(new Key(userId, Query.MONTH, month),
+                key -> delegate.getReadingsForMonth(userId, month));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<MeterReadings> getReadingsHistory(Integer userId) {
+        if (bypassCache()) {
+            return delegate.getReadingsHistory(userId);
+        }
+        return (Collection<MeterReadings>) cache.get(new Key(userId, Query.HISTORY, null),
+                key -> Collections.unmodifiableList(new ArrayList<>(delegate.getReadingsHistory(userId))));
+    }
+
+    @Override
+    public Map<String, MeterReadings> getAllCurrentReadings() {
+        return delegate.getAllCurrentReadings();
+    }
+
+    @Override
+    public Map<String, MeterReadings> getCurrentReadingsPage(String afterUsername, int limit) {
+        return delegate.getCurrentReadingsPage(afterUsername, limit);
+    }
+
+    @Override
+    public boolean streamAllCurrentReadings(BiConsumer<String, MeterReadings> consumer) {
+        return delegate.streamAllCurrentReadings(consumer);
+    }
+
+    /**
+     * Загружает показания из CSV-файла. Файл может содержать показания любых пользователей,
+     * поэтому кэш очищается полностью.
+     */
+    @Override
+    public ReadingsImportResult importReadings(Reader csv) {
+        cache.invalidateAll();
+        try {
+            return delegate.importReadings(csv);
+        } finally {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork == null) {
+                cache.invalidateAll();
+            } else {
+                unitOfWork.afterCompletion(committed -> cache.invalidateAll());
+            }
+        }
+    }
+
+    @Override
+    public boolean exportReadings(int fromMonth, int toMonth, Integer meterTypeId, ReadingsExportFormat format,
+                                  OutputStream out) throws IOException {
+        return delegate.exportReadings(fromMonth, toMonth, meterTypeId, format, out);
+    }
+
+    @Override
+    public List<String> getAllMeterTypes() {
+        return delegate.getAllMeterTypes();
+    }
+
+    /**
+     * @return статистика кэша показаний
+     */
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private void invalidateUser(Integer userId) {
+        List<Key> keys = new ArrayList<>(Month.values().length + 2);
+        keys.add(new Key(userId, Query.CURRENT, null));
+        keys.add(new Key(userId, Query.HISTORY, null));
+        for (Month month : Month.values()) {
+            keys.add(new Key(userId, Query.MONTH, month));
+        }
+        cache.invalidateAll(keys);
+    }
+
+    private static boolean bypassCache() {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        return unitOfWork != null && !unitOfWork.isReadOnly();
+    }
+
+    private static boolean isNegative(Object value) {
+        return value instanceof Optional && ((Optional<?>) value).isEmpty()
+                || value instanceof Collection && ((Collection<?>) value).isEmpty();
+    }
+
+    private static final class Key {
+        private final int userId;
+        private final Query query;
+        private final Month month;
+
+        private Key(int userId, Query query, Month month) {
+            this.userId = userId;
+            this.query = query;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return userId == key.userId && query == key.query && month == key.month;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, query, month);
+        }
+    }
+}
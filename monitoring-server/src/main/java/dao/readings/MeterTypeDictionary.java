@@ -0,0 +1,283 @@
+package dao.readings;
+
+import org.slf4j.Logger;
+import utils.DBConnectionManager;
+import utils.LoggerConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Справочник типов счетчиков в памяти.
+ * Хранит взаимно однозначное соответствие идентификаторов и названий типов счетчиков из таблицы meter_types.
+ * Чтение выполняется без блокировок из неизменяемого снимка, снимок заменяется целиком при обновлении.
+ * <p>
+ * Справочник обновляется по требованию, по истечении времени жизни снимка (в фоне, читатели продолжают
+ * получать прежний снимок) и при обращении к неизвестному типу, но не чаще заданного интервала.
+ * Так изменения, внесенные через другой экземпляр сервера, становятся видны без координации между узлами.
+ */
+public class MeterTypeDictionary {
+    private static final Logger logger = LoggerConfig.getLogger();
+
+    /**
+     * Источник данных справочника.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Загружает все типы счетчиков.
+         *
+         * @return соответствие идентификаторов и названий, упорядоченное по идентификатору
+         * @throws SQLException в случае ошибки SQL
+         */
+        Map<Integer, String> load() throws SQLException;
+    }
+
+    /**
+     * Неизменяемый снимок справочника.
+     */
+    private static final class Snapshot {
+        private final Map<String, Integer> idsByName;
+        private final Map<Integer, String> namesById;
+        private final List<String> names;
+        private final long loadedAtNanos;
+        private final boolean stale;
+
+        private Snapshot(Map<Integer, String> namesById, long loadedAtNanos, boolean stale) {
+            Map<String, Integer> idsByName = new HashMap<>();
+            namesById.forEach((id, name) -> idsByName.put(name, id));
+            this.idsByName = Collections.unmodifiableMap(idsByName);
+            this.namesById = Collections.unmodifiableMap(new LinkedHashMap<>(namesById));
+            this.names = Collections.unmodifiableList(new ArrayList<>(namesById.values()));
+            this.loadedAtNanos = loadedAtNanos;
+            this.stale = stale;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), 0, true);
+
+    private final Source source;
+    private final long ttlNanos;
+    private final long missRefreshIntervalNanos;
+
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean loaded;
+    private volatile long lastMissRefreshNanos;
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "meter-type-dictionary-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Создает справочник.
+     *
+     * @param source                источник данных справочника
+     * @param ttlMs                 время жизни снимка в миллисекундах, 0 отключает обновление по времени
+     * @param missRefreshIntervalMs минимальный интервал между обновлениями при обращении к неизвестному типу
+     */
+    public MeterTypeDictionary(Source source, long ttlMs, long missRefreshIntervalMs) {
+        this.source = source;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.missRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missRefreshIntervalMs);
+        this.lastMissRefreshNanos = System.nanoTime() - missRefreshIntervalNanos;
+    }
+
+    /**
+     * Загружает типы счетчиков из таблицы meter_types.
+     *
+     * @return соответствие идентификаторов и названий, упорядоченное по идентификатору
+     * @throws SQLException в случае ошибки SQL
+     */
+    public static Map<Integer, String> loadFromDatabase() throws SQLException {
+        String sql = "SELECT meter_type_id, meter_type FROM meter_types ORDER BY meter_type_id";
+        Map<Integer, String> meterTypes = new LinkedHashMap<>();
+        try (Connection connection = DBConnectionManager.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                meterTypes.put(resultSet.getInt("meter_type_id"), resultSet.getString("meter_type"));
+            }
+        }
+        return meterTypes;
+    }
+
+    /**
+     * Возвращает идентификатор типа счетчика по названию.
+     *
+     * @param meterType название типа счетчика
+     * @return идентификатор или null, если тип неизвестен
+     */
+    public Integer getId(String meterType) {
+        Integer id = current().idsByName.get(meterType);
+        if (id == null && refreshOnMiss()) {
+            id = snapshot.idsByName.get(meterType);
+        }
+        count(id != null);
+        return id;
+    }
+
+    /**
+     * Возвращает название типа счетчика по идентификатору.
+     *
+     * @param meterTypeId идентификатор типа счетчика
+     * @return название или null, если тип неизвестен
+     */
+    public String getName(int meterTypeId) {
+        String name = current().namesById.get(meterTypeId);
+        if (name == null && refreshOnMiss()) {
+            name = snapshot.namesById.get(meterTypeId);
+        }
+        count(name != null);
+        return name;
+    }
+
+    /**
+     * Возвращает названия всех типов счетчиков.
+     *
+     * @return неизменяемый список названий, упорядоченный по идентификатору
+     */
+    public List<String> getNames() {
+        List<String> names = current().names;
+        hits.increment();
+        return names;
+    }
+
+    /**
+     * Перечитывает справочник из источника. При ошибке сохраняется прежний снимок.
+     *
+     * @return true, если справочник обновлен
+     */
+    public synchronized boolean refresh() {
+        try {
+            snapshot = new Snapshot(source.load(), System.nanoTime(), false);
+            loaded = true;
+            refreshes.increment();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Ошибка при загрузке справочника типов счетчиков: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Помечает снимок устаревшим: следующее обращение запустит обновление в фоне.
+     */
+    public void invalidate() {
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(current.namesById, current.loadedAtNanos, true);
+    }
+
+    /**
+     * Останавливает фоновое обновление справочника.
+     */
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * @return количество обращений, нашедших тип счетчика
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return количество обращений к неизвестному типу счетчика
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return количество успешных загрузок справочника
+     */
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    /**
+     * @return количество типов счетчиков в справочнике
+     */
+    public int size() {
+        return snapshot.names.size();
+    }
+
+    /**
+     * Возвращает текущий снимок. Первое обращение загружает справочник синхронно,
+     * устаревший снимок обновляется в фоне.
+     */
+    private Snapshot current() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+        Snapshot current = snapshot;
+        if (current.stale || (ttlNanos > 0 && System.nanoTime() - current.loadedAtNanos > ttlNanos)) {
+            scheduleRefresh();
+        }
+        return current;
+    }
+
+    /**
+     * Обновляет справочник синхронно при обращении к неизвестному типу, не чаще заданного интервала.
+     *
+     * @return true, если справочник был обновлен
+     */
+    private boolean refreshOnMiss() {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (now - lastMissRefreshNanos < missRefreshIntervalNanos) {
+                return false;
+            }
+            lastMissRefreshNanos = now;
+        }
+        return refresh();
+    }
+
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            try {
+                refresher.execute(() -> {
+                    try {
+                        refresh();
+                    } finally {
+                        refreshScheduled.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                refreshScheduled.set(false);
+            }
+        }
+    }
+
+    private void count(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dao.readings;
+
+/**
+ * Формат выгрузки показаний счетчиков.
+ */
+public enum ReadingsExportFormat {
+    /**
+     * CSV с заголовком: email, username, meter_type, month, reading.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * Один JSON-объект на строку с полями email, username, meterType, month, reading.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ReadingsExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
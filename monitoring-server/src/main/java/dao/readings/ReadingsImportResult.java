@@ -0,0 +1,167 @@
+package dao.readings;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Результат пакетной загрузки показаний счетчиков из CSV.
+ * Принятые строки сохраняются в одной транзакции, отклоненные перечисляются в отчете с номером строки и причиной.
+ */
+public class ReadingsImportResult {
+
+    /**
+     * Причина отклонения строки.
+     */
+    public enum RejectReason {
+        /**
+         * Пользователь с указанной электронной почтой не найден.
+         */
+        UNKNOWN_USER,
+        /**
+         * Тип счетчика не найден в справочнике.
+         */
+        UNKNOWN_METER_TYPE,
+        /**
+         * Месяц не является числом от 1 до 12 или названием месяца.
+         */
+        INVALID_MONTH,
+        /**
+         * Показание не является неотрицательным целым числом.
+         */
+        INVALID_READING,
+        /**
+         * Показание того же счетчика за тот же месяц уже встречалось в файле выше.
+         */
+        DUPLICATE_IN_FILE,
+        /**
+         * Показание того же счетчика за тот же месяц уже подано.
+         */
+        ALREADY_SUBMITTED
+    }
+
+    /**
+     * Отклоненная строка файла.
+     */
+    public static class Rejection {
+        private final long line;
+        private final String email;
+        private final String meterType;
+        private final String month;
+        private final String reading;
+        private final RejectReason reason;
+
+        public Rejection(long line, String email, String meterType, String month, String reading,
+                         RejectReason reason) {
+            this.line = line;
+            this.email = email;
+            this.meterType = meterType;
+            this.month = month;
+            this.reading = reading;
+            this.reason = reason;
+        }
+
+        /**
+         * @return номер строки данных в файле, начиная с 1, без учета заголовка
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getMeterType() {
+            return meterType;
+        }
+
+        public String getMonth() {
+            return month;
+        }
+
+        public String getReading() {
+            return reading;
+        }
+
+        public RejectReason getReason() {
+            return reason;
+        }
+    }
+
+    private final boolean success;
+    private final String error;
+    private final long total;
+    private final long imported;
+    private final long rejected;
+    private final List<Rejection> rejections;
+
+    public ReadingsImportResult(long total, long imported, long rejected, List<Rejection> rejections) {
+        this.success = true;
+        this.error = null;
+        this.total = total;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    private ReadingsImportResult(String error) {
+        this.success = false;
+        this.error = error;
+        this.total = 0;
+        this.imported = 0;
+        this.rejected = 0;
+        this.rejections = Collections.emptyList();
+    }
+
+    /**
+     * Создает результат загрузки, не сохранившей ни одной строки.
+     *
+     * @param error описание ошибки
+     * @return результат загрузки
+     */
+    public static ReadingsImportResult failed(String error) {
+        return new ReadingsImportResult(error);
+    }
+
+    /**
+     * @return true, если файл прочитан и принятые строки сохранены
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return описание ошибки, если загрузка не выполнена
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return количество строк данных в файле
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return количество сохраненных строк
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return количество отклоненных строк
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return отклоненные строки в порядке следования в файле, не более readings.import.max.rejections
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+}
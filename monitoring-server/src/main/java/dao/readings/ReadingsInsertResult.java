@@ -0,0 +1,91 @@
+package dao.readings;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Результат добавления показаний счетчиков.
+ * Содержит итог по каждому типу счетчика. Показания добавляются в одной транзакции:
+ * если хотя бы одна строка не добавлена, не сохраняется ни одна.
+ */
+public class ReadingsInsertResult {
+
+    /**
+     * Итог добавления одной строки показаний.
+     */
+    public enum RowOutcome {
+        /**
+         * Строка добавлена.
+         */
+        INSERTED,
+        /**
+         * Тип счетчика не найден в справочнике.
+         */
+        UNKNOWN_METER_TYPE,
+        /**
+         * Показания за этот месяц уже поданы.
+         */
+        ALREADY_SUBMITTED,
+        /**
+         * Строка не добавлена из-за ошибки базы данных или отката транзакции.
+         */
+        FAILED
+    }
+
+    private final Map<String, RowOutcome> outcomes;
+    private final boolean success;
+
+    public ReadingsInsertResult(Map<String, RowOutcome> outcomes, boolean success) {
+        this.outcomes = Collections.unmodifiableMap(new LinkedHashMap<>(outcomes));
+        this.success = success;
+    }
+
+    /**
+     * Создает результат, в котором все строки завершились одинаково.
+     *
+     * @param meterTypes типы счетчиков
+     * @param outcome    итог для каждой строки
+     * @return результат добавления
+     */
+    public static ReadingsInsertResult allRows(Iterable<String> meterTypes, RowOutcome outcome) {
+        Map<String, RowOutcome> outcomes = new LinkedHashMap<>();
+        for (String meterType : meterTypes) {
+            outcomes.put(meterType, outcome);
+        }
+        return new ReadingsInsertResult(outcomes, outcome == RowOutcome.INSERTED);
+    }
+
+    /**
+     * @return итог по каждому типу счетчика
+     */
+    public Map<String, RowOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * @return true, если все показания сохранены
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return true, если показания не сохранены, потому что за этот месяц они уже поданы
+     */
+    public boolean isAlreadySubmitted() {
+        return outcomes.containsValue(RowOutcome.ALREADY_SUBMITTED);
+    }
+
+    /**
+     * @return true, если показания не сохранены, потому что среди них есть тип счетчика, которого нет в справочнике
+     */
+    public boolean hasUnknownMeterType() {
+        return outcomes.containsValue(RowOutcome.UNKNOWN_METER_TYPE);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadingsInsertResult{success=" + success + ", outcomes=" + outcomes + "}";
+    }
+}
@@ -2,16 +2,20 @@ package dao.readings;
 
 import model.readings.MeterReadings;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.time.Month;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 public interface ReadingsRepository {
     Optional<MeterReadings> getCurrentReadings(Integer userId);
 
-    Boolean addNewReadings(Integer userId, MeterReadings meterReadings);
+    ReadingsInsertResult addNewReadings(Integer userId, MeterReadings meterReadings);
 
     Optional<MeterReadings> getReadingsForMonth(Integer userId, Month month);
 
@@ -19,5 +23,14 @@ public interface ReadingsRepository {
 
     Map<String, MeterReadings> getAllCurrentReadings();
 
+    Map<String, MeterReadings> getCurrentReadingsPage(String afterUsername, int limit);
+
+    boolean streamAllCurrentReadings(BiConsumer<String, MeterReadings> consumer);
+
+    ReadingsImportResult importReadings(Reader csv);
+
+    boolean exportReadings(int fromMonth, int toMonth, Integer meterTypeId, ReadingsExportFormat format,
+                           OutputStream out) throws IOException;
+
     List<String> getAllMeterTypes();
 }
@@ -1,18 +1,28 @@
 package dao.readings;
 
 import annotations.Loggable;
+import config.ServerConfig;
 import dao.mapper.MeterReadingMapper;
+import dao.statement.SqlParameter;
+import dao.statement.Statements;
 import model.readings.MeterReadings;
+import org.postgresql.PGConnection;
 import org.slf4j.Logger;
 import utils.DBConnectionManager;
 import utils.LoggerConfig;
+import utils.ServiceFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Month;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -25,107 +35,114 @@ import java.util.stream.Collectors;
 public class ReadingsRepositoryImpl implements ReadingsRepository {
     private static final Logger logger = LoggerConfig.getLogger();
     private final MeterReadingMapper meterReadingMapper = new MeterReadingMapper();
-
-    /**
-     * Подготавливает SQL-запрос для выполнения в базе данных.
-     *
-     * @param connection Объект Connection, представляющий соединение с базой данных.
-     * @param sql SQL-запрос.
-     * @param parameters Параметры SQL-запроса.
-     * @return PreparedStatement Объект PreparedStatement, представляющий подготовленный SQL-запрос.
-     * @throws SQLException В случае ошибки SQL.
-     */
-    private PreparedStatement prepareStatement(Connection connection, String sql, Object... parameters) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
-        for (int i = 0; i < parameters.length; i++) {
-            if (parameters[i] instanceof String) {
-                preparedStatement.setString(i + 1, (String) parameters[i]);
-            } else if (parameters[i] instanceof Integer) {
-                preparedStatement.setInt(i + 1, (Integer) parameters[i]);
-            } else {
-                throw new IllegalArgumentException("Неизвестный тип параметра: " + parameters[i].getClass());
-            }
-        }
-        return preparedStatement;
-    }
+    private final MeterTypeDictionary meterTypeDictionary = ServiceFactory.getMeterTypeDictionary();
+    private final int streamFetchSize = ServerConfig.getInt("readings.stream.fetch.size", 500);
+    private final int importMaxRejections = ServerConfig.getInt("readings.import.max.rejections", 10000);
 
     /**
      * Добавляет новые показания счетчиков в базу данных.
+     * Идентификаторы типов счетчиков берутся из справочника в памяти. Все строки добавляются одним запросом
+     * из массивов типов и значений, тот же запрос обновляет проекцию последних показаний latest_readings.
+     * Строки, для которых показания за месяц уже поданы, пропускаются ограничением уникальности
+     * (user_id, month, meter_type_id) и не возвращаются запросом. Если хотя бы одна строка не добавлена,
+     * транзакция откатывается и не сохраняется ни одна.
      *
      * @param userId Идентификатор пользователя.
      * @param meterReadings Объект MeterReadings, содержащий показания счетчиков.
-     * @return Boolean Возвращает true, если показания успешно добавлены, иначе false.
+     * @return ReadingsInsertResult Итог добавления по каждому типу счетчика.
      */
     @Override
-    public Boolean addNewReadings(Integer userId, MeterReadings meterReadings) {
+    public ReadingsInsertResult addNewReadings(Integer userId, MeterReadings meterReadings) {
         String sql = """
-            INSERT INTO meter_readings (user_id, meter_type_id, reading, month)
-            VALUES (?, ?, ?, ?)
+            WITH submitted AS (
+                INSERT INTO meter_readings (user_id, meter_type_id, reading, month)
+                SELECT ?, t.meter_type_id, t.reading, ?
+                FROM unnest(?::INTEGER[], ?::INTEGER[]) AS t(meter_type_id, reading)
+                ON CONFLICT (user_id, month, meter_type_id) DO NOTHING
+                RETURNING user_id, meter_type_id, reading, month
+            ),
+            latest AS (
+                INSERT INTO latest_readings (user_id, meter_type_id, reading, month)
+                SELECT user_id, meter_type_id, reading, month
+                FROM submitted
+                ON CONFLICT (user_id, meter_type_id) DO UPDATE
+                SET reading = EXCLUDED.reading, month = EXCLUDED.month
+                WHERE latest_readings.month <= EXCLUDED.month
+            )
+            SELECT meter_type_id FROM submitted
             """;
 
-        try (Connection connection = DBConnectionManager.getConnection()) {
-            connection.setAutoCommit(false);
+        Map<String, ReadingsInsertResult.RowOutcome> outcomes = new LinkedHashMap<>();
+        Map<String, Integer> meterTypeIds = new LinkedHashMap<>();
+        for (String meterType : meterReadings.getReadings().keySet()) {
+            Integer meterTypeId = meterTypeDictionary.getId(meterType);
+            if (meterTypeId == null) {
+                logger.error("Неизвестный тип счетчика: " + meterType);
+                outcomes.put(meterType, ReadingsInsertResult.RowOutcome.UNKNOWN_METER_TYPE);
+            } else {
+                meterTypeIds.put(meterType, meterTypeId);
+            }
+        }
+        if (!outcomes.isEmpty()) {
+            meterTypeIds.keySet().forEach(meterType -> outcomes.put(meterType, ReadingsInsertResult.RowOutcome.FAILED));
+            return new ReadingsInsertResult(outcomes, false);
+        }
 
-            for (Map.Entry<String, Integer> entry : meterReadings.getReadings().entrySet()) {
-                String meterType = entry.getKey();
-                Integer reading = entry.getValue();
+        int[] typeIds = new int[meterTypeIds.size()];
+        int[] values = new int[meterTypeIds.size()];
+        int row = 0;
+        for (Map.Entry<String, Integer> entry : meterTypeIds.entrySet()) {
+            typeIds[row] = entry.getValue();
+            values[row] = meterReadings.getReadings().get(entry.getKey());
+            row++;
+        }
 
-                Integer meterTypeId = getMeterTypeId(meterType, connection);
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
 
-                if (meterTypeId == null) {
-                    logger.error("Неизвестный тип счетчика: " + meterType);
-                    return false;
+            Set<Integer> inserted = new HashSet<>();
+            try (PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(userId),
+                    SqlParameter.of(meterReadings.getMonth().getValue()), SqlParameter.of(typeIds),
+                    SqlParameter.of(values));
+                 ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    inserted.add(resultSet.getInt("meter_type_id"));
                 }
+            } catch (SQLException e) {
+                logger.error("Ошибка при добавлении показаний счетчиков: " + e.getMessage());
+                connection.rollback();
+                return ReadingsInsertResult.allRows(meterTypeIds.keySet(), ReadingsInsertResult.RowOutcome.FAILED);
+            }
 
-                try (PreparedStatement preparedStatement = prepareStatement(connection, sql, userId, meterTypeId, reading,
-                        meterReadings.getMonth().getValue())) {
-                    int rowsAffected = preparedStatement.executeUpdate();
-
-                    if (rowsAffected > 0) {
-                        logger.info("Показания счетчиков успешно добавлены.");
-                    } else {
-                        logger.warn("Не удалось добавить показания счетчиков.");
-                        return false;
-                    }
-                } catch (SQLException e) {
-                    logger.error("Ошибка при добавлении показаний счетчиков: " + e.getMessage());
-                    connection.rollback();
-                    return false;
+            boolean success = inserted.size() == meterTypeIds.size();
+            for (Map.Entry<String, Integer> entry : meterTypeIds.entrySet()) {
+                ReadingsInsertResult.RowOutcome outcome;
+                if (!inserted.contains(entry.getValue())) {
+                    outcome = ReadingsInsertResult.RowOutcome.ALREADY_SUBMITTED;
+                } else if (success) {
+                    outcome = ReadingsInsertResult.RowOutcome.INSERTED;
+                } else {
+                    outcome = ReadingsInsertResult.RowOutcome.FAILED;
                 }
+                outcomes.put(entry.getKey(), outcome);
             }
 
-            connection.commit();
-        } catch (SQLException e) {
-            logger.error("Ошибка при добавлении показаний счетчиков: " + e.getMessage());
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * Получает идентификатор типа счетчика из базы данных.
-     *
-     * @param meterType Тип счетчика.
-     * @param connection Объект Connection, представляющий соединение с базой данных.
-     * @return Integer Идентификатор типа счетчика.
-     */
-    private Integer getMeterTypeId(String meterType, Connection connection) {
-        String sql = "SELECT meter_type_id FROM meter_types WHERE meter_type = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setString(1, meterType);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getInt("meter_type_id");
-                }
+            if (success) {
+                connection.commit();
+                logger.info("Показания счетчиков успешно добавлены.");
+            } else {
+                connection.rollback();
+                logger.warn("Показания за этот месяц уже поданы.");
             }
+            return new ReadingsInsertResult(outcomes, success);
         } catch (SQLException e) {
-            logger.error("Ошибка при получении meter_type_id: " + e.getMessage());
+            logger.error("Ошибка при добавлении показаний счетчиков: " + e.getMessage());
+            return ReadingsInsertResult.allRows(meterTypeIds.keySet(), ReadingsInsertResult.RowOutcome.FAILED);
         }
-        return null;
     }
 
     /**
-     * Получает текущие показания счетчиков пользователя из базы данных.
+     * Получает текущие показания счетчиков пользователя из проекции последних показаний.
      *
      * @param userId Идентификатор пользователя.
      * @return Optional<MeterReadings> Объект MeterReadings, содержащий текущие показания счетчиков, или пустой Optional, если показания отсутствуют.
@@ -134,22 +151,22 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
     public Optional<MeterReadings> getCurrentReadings(Integer userId) {
         String sql = """
             SELECT
-                meter_readings.meter_type_id,
+                latest_readings.meter_type_id,
                 meter_types.meter_type,
-                meter_readings.reading,
-                meter_readings.month
+                latest_readings.reading,
+                latest_readings.month
             FROM
-                meter_readings
+                latest_readings
             JOIN
-                meter_types ON meter_readings.meter_type_id = meter_types.meter_type_id
+                meter_types ON latest_readings.meter_type_id = meter_types.meter_type_id
             WHERE
-                meter_readings.user_id = ?
+                latest_readings.user_id = ?
             ORDER BY
-                meter_readings.month ASC
+                latest_readings.month ASC
             """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, userId);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(userId));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             MeterReadings meterReadings = meterReadingMapper.map(resultSet);
@@ -186,7 +203,8 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
             """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, userId, month.getValue());
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(userId),
+                     SqlParameter.of(month.getValue()));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             if (resultSet.next()) {
@@ -219,7 +237,7 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
         Map<Month, Map<String, Integer>> readingsHistoryMap = new HashMap<>();
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, userId);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(userId));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             while (resultSet.next()) {
@@ -240,25 +258,24 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
     }
 
     /**
-     * Получает все текущие показания счетчиков всех пользователей из базы данных.
+     * Получает все текущие показания счетчиков всех пользователей из проекции последних показаний.
      *
      * @return Map<String, MeterReadings> Карта, где ключ - имя пользователя, а значение - объект MeterReadings, содержащий текущие показания счетчиков.
      */
     @Override
     public Map<String, MeterReadings> getAllCurrentReadings() {
         String sql = """
-                SELECT u.username, mt.meter_type, mr.reading, mr.month
-                FROM users u
-                JOIN meter_readings mr ON u.user_id = mr.user_id
-                JOIN meter_types mt ON mr.meter_type_id = mt.meter_type_id
-                WHERE mr.month = (SELECT MAX(month) FROM meter_readings WHERE user_id = u.user_id)
+                SELECT u.username, mt.meter_type, lr.reading, lr.month
+                FROM latest_readings lr
+                JOIN users u ON u.user_id = lr.user_id
+                JOIN meter_types mt ON lr.meter_type_id = mt.meter_type_id
                 """;
 
         Map<String, Map<String, Integer>> allCurrentReadingsMap = new HashMap<>();
         Map<String, Month> monthMap = new HashMap<>();
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql);
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             while (resultSet.next()) {
@@ -268,7 +285,7 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
                 Month month = Month.of(resultSet.getInt("month"));
                 allCurrentReadingsMap.computeIfAbsent(username, k -> new HashMap<>()).put(meterType,
                         resultSet.getInt("reading"));
-                monthMap.put(username, month);
+                monthMap.merge(username, month, (a, b) -> a.compareTo(b) >= 0 ? a : b);
             }
 
         } catch (SQLException e) {
@@ -281,25 +298,324 @@ public class ReadingsRepositoryImpl implements ReadingsRepository {
     }
 
     /**
-     * Получает все типы счетчиков из базы данных.
+     * Получает страницу текущих показаний пользователей, упорядоченную по имени пользователя.
+     * Страница начинается с первого имени, большего afterUsername, и выбирается по индексу без OFFSET,
+     * поэтому стоимость запроса не зависит от номера страницы. В страницу попадают только пользователи,
+     * у которых есть показания.
      *
-     * @return List<String> Список всех типов счетчиков.
+     * @param afterUsername Имя пользователя, после которого начинается страница, или null для первой страницы.
+     * @param limit Максимальное количество пользователей на странице.
+     * @return Map<String, MeterReadings> Карта, упорядоченная по имени пользователя.
      */
     @Override
-    public List<String> getAllMeterTypes() {
-        List<String> meterTypes = new ArrayList<>();
-        String sql = "SELECT meter_type FROM meter_types";
+    public Map<String, MeterReadings> getCurrentReadingsPage(String afterUsername, int limit) {
+        String sql = """
+                WITH page AS (
+                    SELECT DISTINCT u.username
+                    FROM users u
+                    WHERE u.username > ?
+                      AND EXISTS (SELECT 1 FROM latest_readings lr WHERE lr.user_id = u.user_id)
+                    ORDER BY u.username
+                    LIMIT ?
+                )
+                SELECT u.username, mt.meter_type, lr.reading, lr.month
+                FROM page p
+                JOIN users u ON u.username = p.username
+                JOIN latest_readings lr ON lr.user_id = u.user_id
+                JOIN meter_types mt ON lr.meter_type_id = mt.meter_type_id
+                ORDER BY u.username
+                """;
+
+        Map<String, MeterReadings> page = new LinkedHashMap<>();
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(afterUsername == null ? "" : afterUsername), SqlParameter.of(limit));
              ResultSet resultSet = preparedStatement.executeQuery()) {
+            readGroupedByUsername(resultSet, page::put);
+        } catch (SQLException e) {
+            logger.error("Ошибка при получении страницы текущих показаний: " + e.getMessage());
+            return Collections.emptyMap();
+        }
+        return page;
+    }
 
-            while (resultSet.next()) {
-                meterTypes.add(resultSet.getString("meter_type"));
+    /**
+     * Передает текущие показания всех пользователей потребителю по мере чтения строк из базы данных.
+     * Запрос выполняется через курсор на стороне сервера: строки читаются порциями размера fetchSize,
+     * поэтому расход памяти не зависит от количества пользователей. Показания одного пользователя
+     * передаются одним вызовом, пользователи упорядочены по имени.
+     *
+     * @param consumer Потребитель пар имя пользователя - текущие показания.
+     * @return boolean Возвращает true, если все показания прочитаны, иначе false.
+     */
+    @Override
+    public boolean streamAllCurrentReadings(BiConsumer<String, MeterReadings> consumer) {
+        String sql = """
+                SELECT u.username, mt.meter_type, lr.reading, lr.month
+                FROM latest_readings lr
+                JOIN users u ON u.user_id = lr.user_id
+                JOIN meter_types mt ON lr.meter_type_id = mt.meter_type_id
+                ORDER BY u.username
+                """;
+
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            // Драйвер PostgreSQL использует курсор только вне режима автоматической фиксации
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement preparedStatement = Statements.prepare(connection, sql)) {
+                preparedStatement.setFetchSize(streamFetchSize);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    readGroupedByUsername(resultSet, consumer);
+                }
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Ошибка при потоковом чтении текущих показаний: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Читает строки (username, meter_type, reading, month), упорядоченные по имени пользователя,
+     * и передает потребителю показания каждого пользователя, как только прочитаны все его строки.
+     * Месяцем показаний пользователя считается наибольший месяц среди его строк.
+     *
+     * @param resultSet Результат запроса.
+     * @param consumer Потребитель пар имя пользователя - текущие показания.
+     * @throws SQLException В случае ошибки SQL.
+     */
+    private void readGroupedByUsername(ResultSet resultSet, BiConsumer<String, MeterReadings> consumer)
+            throws SQLException {
+        String currentUsername = null;
+        Map<String, Integer> readings = new HashMap<>();
+        Month month = null;
+
+        while (resultSet.next()) {
+            String username = resultSet.getString("username");
+            if (currentUsername != null && !currentUsername.equals(username)) {
+                consumer.accept(currentUsername, new MeterReadings(readings, month));
+                readings = new HashMap<>();
+                month = null;
+            }
+            currentUsername = username;
+
+            Month rowMonth = Month.of(resultSet.getInt("month"));
+            readings.put(resultSet.getString("meter_type"), resultSet.getInt("reading"));
+            month = month == null || rowMonth.compareTo(month) > 0 ? rowMonth : month;
+        }
+
+        if (currentUsername != null) {
+            consumer.accept(currentUsername, new MeterReadings(readings, month));
+        }
+    }
+
+    /**
+     * Загружает показания счетчиков из CSV с заголовком и колонками email, meter_type, month, reading.
+     * Файл передается в базу данных командой COPY во временную таблицу без разбора на стороне приложения,
+     * затем строки проверяются и переносятся в meter_readings несколькими запросами над всем набором сразу.
+     * Принятые строки и проекция последних показаний сохраняются в одной транзакции,
+     * отклоненные строки возвращаются с номером строки и причиной. Строки, которые между проверкой и вставкой
+     * успела сохранить параллельная подача, пропускаются ограничением уникальности (user_id, month, meter_type_id)
+     * и попадают в отчет как уже поданные, а не прерывают загрузку.
+     * Строка с неверным количеством колонок прерывает загрузку целиком.
+     *
+     * @param csv Содержимое CSV-файла.
+     * @return ReadingsImportResult Результат загрузки с отчетом об отклоненных строках.
+     */
+    @Override
+    public ReadingsImportResult importReadings(Reader csv) {
+        String createStagingSql = """
+                CREATE TEMP TABLE readings_import (
+                    line_no BIGINT GENERATED ALWAYS AS IDENTITY,
+                    email TEXT,
+                    meter_type TEXT,
+                    month TEXT,
+                    reading TEXT
+                ) ON COMMIT DROP
+                """;
+        String copySql = """
+                COPY readings_import (email, meter_type, month, reading)
+                FROM STDIN WITH (FORMAT csv, HEADER true)
+                """;
+        String checkSql = """
+                CREATE TEMP TABLE readings_import_checked ON COMMIT DROP AS
+                WITH parsed AS (
+                    SELECT s.line_no, u.user_id, mt.meter_type_id,
+                           CASE
+                               WHEN s.month ~ '^\\s*\\d{1,2}\\s*$' THEN
+                                   CASE WHEN trim(s.month)::INTEGER BETWEEN 1 AND 12 THEN trim(s.month)::INTEGER END
+                               ELSE array_position(ARRAY['JANUARY', 'FEBRUARY', 'MARCH', 'APRIL', 'MAY', 'JUNE', 'JULY',
+                                   'AUGUST', 'SEPTEMBER', 'OCTOBER', 'NOVEMBER', 'DECEMBER'], upper(trim(s.month)))
+                           END AS month,
+                           CASE WHEN s.reading ~ '^\\s*\\d{1,8}\\s*$' THEN trim(s.reading)::INTEGER END AS reading
+                    FROM readings_import s
+                    LEFT JOIN users u ON u.email = trim(s.email)
+                    LEFT JOIN meter_types mt ON mt.meter_type = trim(s.meter_type)
+                ),
+                ranked AS (
+                    SELECT p.*,
+                           row_number() OVER (
+                               PARTITION BY p.user_id, p.meter_type_id, p.month,
+                                   (p.user_id IS NULL OR p.meter_type_id IS NULL OR p.month IS NULL OR p.reading IS NULL)
+                               ORDER BY p.line_no) AS occurrence
+                    FROM parsed p
+                ),
+                existing AS (
+                    SELECT DISTINCT mr.user_id, mr.meter_type_id, mr.month
+                    FROM meter_readings mr
+                    JOIN (SELECT DISTINCT user_id FROM parsed WHERE user_id IS NOT NULL) imported_users
+                        ON imported_users.user_id = mr.user_id
+                )
+                SELECT r.line_no, r.user_id, r.meter_type_id, r.month, r.reading,
+                       CASE
+                           WHEN r.user_id IS NULL THEN 'UNKNOWN_USER'
+                           WHEN r.meter_type_id IS NULL THEN 'UNKNOWN_METER_TYPE'
+                           WHEN r.month IS NULL THEN 'INVALID_MONTH'
+                           WHEN r.reading IS NULL THEN 'INVALID_READING'
+                           WHEN r.occurrence > 1 THEN 'DUPLICATE_IN_FILE'
+                           WHEN e.user_id IS NOT NULL THEN 'ALREADY_SUBMITTED'
+                       END AS reject_reason
+                FROM ranked r
+                LEFT JOIN existing e
+                    ON e.user_id = r.user_id AND e.meter_type_id = r.meter_type_id AND e.month = r.month
+                """;
+        String insertSql = """
+                WITH inserted AS (
+                    INSERT INTO meter_readings (user_id, meter_type_id, reading, month)
+                    SELECT user_id, meter_type_id, reading, month
+                    FROM readings_import_checked
+                    WHERE reject_reason IS NULL
+                    ORDER BY line_no
+                    ON CONFLICT (user_id, month, meter_type_id) DO NOTHING
+                    RETURNING user_id, meter_type_id, month
+                ),
+                conflicted AS (
+                    UPDATE readings_import_checked c
+                    SET reject_reason = 'ALREADY_SUBMITTED'
+                    WHERE c.reject_reason IS NULL
+                      AND NOT EXISTS (
+                          SELECT 1 FROM inserted i
+                          WHERE i.user_id = c.user_id AND i.meter_type_id = c.meter_type_id AND i.month = c.month)
+                )
+                SELECT count(*) AS imported FROM inserted
+                """;
+        String latestSql = """
+                INSERT INTO latest_readings (user_id, meter_type_id, reading, month)
+                SELECT DISTINCT ON (user_id, meter_type_id) user_id, meter_type_id, reading, month
+                FROM readings_import_checked
+                WHERE reject_reason IS NULL
+                ORDER BY user_id, meter_type_id, month DESC
+                ON CONFLICT (user_id, meter_type_id) DO UPDATE
+                SET reading = EXCLUDED.reading, month = EXCLUDED.month
+                WHERE latest_readings.month <= EXCLUDED.month
+                """;
+        String rejectionsSql = """
+                SELECT c.line_no, s.email, s.meter_type, s.month, s.reading, c.reject_reason
+                FROM readings_import_checked c
+                JOIN readings_import s ON s.line_no = c.line_no
+                WHERE c.reject_reason IS NOT NULL
+                ORDER BY c.line_no
+                LIMIT ?
+                """;
+
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(createStagingSql);
+                long total = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql, csv);
+                statement.execute("ANALYZE readings_import");
+                statement.execute(checkSql);
+                long imported;
+                try (ResultSet resultSet = statement.executeQuery(insertSql)) {
+                    resultSet.next();
+                    imported = resultSet.getLong("imported");
+                }
+                statement.executeUpdate(latestSql);
+
+                List<ReadingsImportResult.Rejection> rejections = new ArrayList<>();
+                try (PreparedStatement preparedStatement = Statements.prepare(connection, rejectionsSql,
+                        SqlParameter.of(importMaxRejections));
+                     ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rejections.add(new ReadingsImportResult.Rejection(
+                                resultSet.getLong("line_no"),
+                                resultSet.getString("email"),
+                                resultSet.getString("meter_type"),
+                                resultSet.getString("month"),
+                                resultSet.getString("reading"),
+                                ReadingsImportResult.RejectReason.valueOf(resultSet.getString("reject_reason"))));
+                    }
+                }
+
+                connection.commit();
+                logger.info("Загружено показаний счетчиков: " + imported + " из " + total);
+                return new ReadingsImportResult(total, imported, total - imported, rejections);
+            } catch (SQLException | IOException e) {
+                connection.rollback();
+                logger.error("Ошибка при загрузке показаний счетчиков: " + e.getMessage());
+                return ReadingsImportResult.failed(e.getMessage());
             }
+        } catch (SQLException e) {
+            logger.error("Ошибка при загрузке показаний счетчиков: " + e.getMessage());
+            return ReadingsImportResult.failed(e.getMessage());
+        }
+    }
+
+    /**
+     * Выгружает показания счетчиков за диапазон месяцев командой COPY TO STDOUT прямо в поток вывода.
+     * Строки не превращаются в объекты Java: байты ответа базы данных копируются в поток по мере получения,
+     * поэтому расход памяти не зависит от объема выгрузки. COPY не принимает параметры запроса,
+     * поэтому в текст запроса подставляются только целые числа.
+     * <p>
+     * NDJSON выгружается в формате csv с управляющими символами в качестве кавычки и разделителя:
+     * json_build_object экранирует управляющие символы, поэтому строки JSON передаются без изменений.
+     *
+     * @param fromMonth Первый месяц диапазона, от 1 до 12.
+     * @param toMonth Последний месяц диапазона включительно, от 1 до 12.
+     * @param meterTypeId Идентификатор типа счетчика или null для всех типов.
+     * @param format Формат выгрузки.
+     * @param out Поток вывода.
+     * @return boolean Возвращает true, если выгрузка завершена, иначе false.
+     * @throws IOException В случае ошибки записи в поток вывода.
+     */
+    @Override
+    public boolean exportReadings(int fromMonth, int toMonth, Integer meterTypeId, ReadingsExportFormat format,
+                                  OutputStream out) throws IOException {
+        String filter = "mr.month BETWEEN " + fromMonth + " AND " + toMonth
+                + (meterTypeId == null ? "" : " AND mr.meter_type_id = " + meterTypeId.intValue());
+        String from = """
+                FROM meter_readings mr
+                JOIN users u ON u.user_id = mr.user_id
+                JOIN meter_types mt ON mt.meter_type_id = mr.meter_type_id
+                WHERE %s
+                ORDER BY mr.user_id, mr.month, mt.meter_type
+                """.formatted(filter);
+        String sql = switch (format) {
+            case CSV -> "COPY (SELECT u.email, u.username, mt.meter_type, mr.month, mr.reading " + from
+                    + ") TO STDOUT WITH (FORMAT csv, HEADER true)";
+            case NDJSON -> "COPY (SELECT json_build_object('email', u.email, 'username', u.username, "
+                    + "'meterType', mt.meter_type, 'month', mr.month, 'reading', mr.reading) " + from
+                    + ") TO STDOUT WITH (FORMAT csv, QUOTE e'\\x01', DELIMITER e'\\x02')";
+        };
 
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            logger.info("Выгружено показаний счетчиков: " + rows);
+            return true;
         } catch (SQLException e) {
-            logger.error("Ошибка при получении всех типов счетчиков: " + e.getMessage());
+            logger.error("Ошибка при выгрузке показаний счетчиков: " + e.getMessage());
+            return false;
         }
-        return meterTypes;
+    }
+
+    /**
+     * Получает все типы счетчиков из справочника в памяти.
+     *
+     * @return List<String> Список всех типов счетчиков.
+     */
+    @Override
+    public List<String> getAllMeterTypes() {
+        return meterTypeDictionary.getNames();
     }
 }
\ No newline at end of file
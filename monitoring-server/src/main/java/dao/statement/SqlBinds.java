@@ -0,0 +1,210 @@
+package dao.statement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Определение столбцов, с которыми связаны параметры ? SQL-запроса, чтобы скрывать в журнале медленных
+ * запросов значения паролей, солей, идентификаторов сессий и адресов электронной почты.
+ * <p>
+ * Столбец определяется по списку столбцов INSERT ... (столбцы) VALUES (параметры) и по сравнениям вида
+ * столбец = ?, столбец IN (?, ?) и SET столбец = ?. Если столбец определить не удалось, значение
+ * считается открытым.
+ */
+public final class SqlBinds {
+    /**
+     * Части имен столбцов, значения которых не выводятся в журнал.
+     */
+    private static final String[] SENSITIVE = {"password", "salt", "session", "token", "secret", "email"};
+
+    private static final String[] OPERATORS = {"=", "<>", "!=", "<", ">", "<=", ">=", "LIKE", "ILIKE"};
+
+    private SqlBinds() {
+    }
+
+    /**
+     * Определяет, какие параметры запроса связаны со столбцами, значения которых нужно скрывать.
+     *
+     * @param sql текст запроса
+     * @return признаки по номерам параметров, начиная с 0
+     */
+    public static boolean[] sensitiveParameters(String sql) {
+        List<String> columns = parameterColumns(sql);
+        boolean[] sensitive = new boolean[columns.size()];
+        for (int i = 0; i < sensitive.length; i++) {
+            sensitive[i] = isSensitive(columns.get(i));
+        }
+        return sensitive;
+    }
+
+    /**
+     * Определяет столбцы, с которыми связаны параметры запроса.
+     *
+     * @param sql текст запроса
+     * @return имена столбцов без псевдонима таблицы по номерам параметров, начиная с 0, или null,
+     * если столбец не определен
+     */
+    public static List<String> parameterColumns(String sql) {
+        List<String> tokens = tokenize(sql);
+        List<String> columns = new ArrayList<>();
+        List<String> insertColumns = insertColumns(tokens);
+        boolean inValues = false;
+        int depth = 0;
+        int valuesParameter = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equalsIgnoreCase("VALUES") && insertColumns != null) {
+                inValues = true;
+            } else if (inValues && token.equals("(")) {
+                if (depth++ == 0) {
+                    valuesParameter = 0;
+                }
+            } else if (inValues && token.equals(")")) {
+                depth--;
+            } else if (inValues && token.equals(",") && depth == 1) {
+                valuesParameter++;
+            } else if (inValues && depth == 0 && !token.equals(",")) {
+                inValues = false;
+            }
+            if (!token.equals("?")) {
+                continue;
+            }
+            if (inValues && depth > 0) {
+                columns.add(valuesParameter < insertColumns.size() ? insertColumns.get(valuesParameter) : null);
+            } else {
+                columns.add(comparedColumn(tokens, i));
+            }
+        }
+        return columns;
+    }
+
+    private static boolean isSensitive(String column) {
+        if (column == null) {
+            return false;
+        }
+        String lower = column.toLowerCase(Locale.ROOT);
+        for (String part : SENSITIVE) {
+            if (lower.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает список столбцов INSERT INTO таблица (столбцы) или null, если это не такой запрос.
+     */
+    private static List<String> insertColumns(List<String> tokens) {
+        for (int i = 0; i + 3 < tokens.size(); i++) {
+            if (tokens.get(i).equalsIgnoreCase("INSERT") && tokens.get(i + 1).equalsIgnoreCase("INTO")
+                    && tokens.get(i + 3).equals("(")) {
+                List<String> columns = new ArrayList<>();
+                for (int j = i + 4; j < tokens.size() && !tokens.get(j).equals(")"); j++) {
+                    if (!tokens.get(j).equals(",")) {
+                        columns.add(tokens.get(j));
+                    }
+                }
+                return columns;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Находит столбец слева от сравнения с параметром: столбец = ?, столбец IN (?, ?, ?).
+     */
+    private static String comparedColumn(List<String> tokens, int parameter) {
+        int i = parameter - 1;
+        while (i > 0 && (tokens.get(i).equals("?") || tokens.get(i).equals(","))) {
+            i--;
+        }
+        if (i > 0 && tokens.get(i).equals("(") && tokens.get(i - 1).equalsIgnoreCase("IN")) {
+            i -= 2;
+        } else if (i > 0 && isOperator(tokens.get(i))) {
+            i--;
+        } else {
+            return null;
+        }
+        if (i < 0 || !isName(tokens.get(i))) {
+            return null;
+        }
+        String name = tokens.get(i);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static boolean isOperator(String token) {
+        for (String operator : OPERATORS) {
+            if (operator.equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isName(String token) {
+        char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_' || first == '"';
+    }
+
+    /**
+     * Разбивает запрос на имена, параметры ?, скобки, запятые и операторы сравнения.
+     * Строковые литералы пропускаются, приведения типов вида ::INTEGER[] отбрасываются.
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+            } else if (c == ':' && i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                i += 2;
+                while (i < sql.length() && (isNamePart(sql.charAt(i)) || "[]".indexOf(sql.charAt(i)) >= 0)) {
+                    i++;
+                }
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (isNamePart(c)) {
+                int start = i;
+                while (i < sql.length() && (isNamePart(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            } else if (c == '<' || c == '>' || c == '!' || c == '=') {
+                int start = i;
+                while (i < sql.length() && "<>!=".indexOf(sql.charAt(i)) >= 0) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            } else {
+                if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,109 @@
+package dao.statement;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Короткие идентификаторы SQL-запросов для событий и статистики.
+ * Идентификатор вычисляется по нормализованному тексту запроса: пробельные символы схлопываются,
+ * строковые и числовые литералы заменяются на ?, поэтому запросы, отличающиеся только значениями
+ * или форматированием, получают один идентификатор.
+ */
+public final class SqlIds {
+    /**
+     * Тексты запросов в репозиториях постоянны, поэтому их немного; запросы, собранные динамически,
+     * сверх этого количества не кэшируются, чтобы кэш не рос без ограничения.
+     */
+    private static final int MAX_CACHED = 1024;
+
+    private static final Map<String, String> IDS = new ConcurrentHashMap<>();
+
+    private SqlIds() {
+    }
+
+    /**
+     * Возвращает идентификатор запроса: 8 шестнадцатеричных цифр CRC32 нормализованного текста.
+     *
+     * @param sql текст запроса
+     * @return идентификатор запроса
+     */
+    public static String of(String sql) {
+        String id = IDS.get(sql);
+        if (id == null) {
+            CRC32 crc = new CRC32();
+            crc.update(normalize(sql).getBytes(StandardCharsets.UTF_8));
+            id = String.format("%08x", crc.getValue());
+            if (IDS.size() < MAX_CACHED) {
+                IDS.put(sql, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Нормализует текст запроса: схлопывает пробельные символы и заменяет литералы на ?.
+     * Идентификаторы в двойных кавычках и имена вроде table1 не меняются.
+     *
+     * @param sql текст запроса
+     * @return нормализованный текст
+     */
+    public static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean space = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                i++;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                normalized.append('?');
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                normalized.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !partOfName(normalized)) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                normalized.append('?');
+            } else {
+                normalized.append(c);
+                i++;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean partOfName(StringBuilder normalized) {
+        if (normalized.length() == 0) {
+            return false;
+        }
+        char previous = normalized.charAt(normalized.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+}
@@ -0,0 +1,89 @@
+package dao.statement;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Параметр SQL-запроса, связанный со своим типом при компиляции.
+ * Фабричные методы выбираются по типу аргумента, поэтому при подстановке параметра
+ * не требуется проверка типа во время выполнения.
+ */
+@FunctionalInterface
+public interface SqlParameter {
+
+    /**
+     * Подставляет значение параметра в подготовленный запрос.
+     *
+     * @param preparedStatement подготовленный запрос
+     * @param index             номер параметра, начиная с 1
+     * @throws SQLException в случае ошибки SQL
+     */
+    void bind(PreparedStatement preparedStatement, int index) throws SQLException;
+
+    static SqlParameter of(int value) {
+        return (preparedStatement, index) -> preparedStatement.setInt(index, value);
+    }
+
+    static SqlParameter of(long value) {
+        return (preparedStatement, index) -> preparedStatement.setLong(index, value);
+    }
+
+    /**
+     * @param value строка или null для значения NULL
+     */
+    static SqlParameter of(String value) {
+        return (preparedStatement, index) -> {
+            if (value == null) {
+                preparedStatement.setNull(index, Types.VARCHAR);
+            } else {
+                preparedStatement.setString(index, value);
+            }
+        };
+    }
+
+    /**
+     * Подставляет массив целых чисел как INTEGER[], например для unnest(?::INTEGER[]).
+     *
+     * @param values значения массива
+     */
+    static SqlParameter of(int[] values) {
+        return (preparedStatement, index) -> {
+            Integer[] boxed = new Integer[values.length];
+            for (int i = 0; i < values.length; i++) {
+                boxed[i] = values[i];
+            }
+            preparedStatement.setArray(index, preparedStatement.getConnection().createArrayOf("integer", boxed));
+        };
+    }
+
+    /**
+     * @param value время или null для значения NULL
+     */
+    static SqlParameter of(LocalDateTime value) {
+        return (preparedStatement, index) -> {
+            if (value == null) {
+                preparedStatement.setNull(index, Types.TIMESTAMP);
+            } else {
+                preparedStatement.setTimestamp(index, Timestamp.valueOf(value));
+            }
+        };
+    }
+
+    /**
+     * @param value дата или null для значения NULL
+     */
+    static SqlParameter of(LocalDate value) {
+        return (preparedStatement, index) -> {
+            if (value == null) {
+                preparedStatement.setNull(index, Types.DATE);
+            } else {
+                preparedStatement.setDate(index, Date.valueOf(value));
+            }
+        };
+    }
+}
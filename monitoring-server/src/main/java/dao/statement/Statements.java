@@ -0,0 +1,53 @@
+package dao.statement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Общий слой подготовки SQL-запросов для репозиториев.
+ * Запросы готовятся через connection.prepareStatement(String), поэтому соединение из пула
+ * выдает их из своего кэша подготовленных запросов. Закрытие запроса возвращает его в кэш.
+ */
+public final class Statements {
+
+    private Statements() {
+    }
+
+    /**
+     * Подготавливает SQL-запрос и подставляет параметры в порядке их перечисления.
+     *
+     * @param connection Объект Connection, представляющий соединение с базой данных.
+     * @param sql SQL-запрос.
+     * @param parameters Параметры SQL-запроса.
+     * @return PreparedStatement Объект PreparedStatement, представляющий подготовленный SQL-запрос.
+     * @throws SQLException В случае ошибки SQL.
+     */
+    public static PreparedStatement prepare(Connection connection, String sql, SqlParameter... parameters)
+            throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i].bind(preparedStatement, i + 1);
+            }
+        } catch (SQLException | RuntimeException e) {
+            preparedStatement.close();
+            throw e;
+        }
+        return preparedStatement;
+    }
+
+    /**
+     * Подставляет параметры в подготовленный запрос в порядке их перечисления и добавляет его в пакет.
+     *
+     * @param preparedStatement Подготовленный SQL-запрос.
+     * @param parameters Параметры SQL-запроса.
+     * @throws SQLException В случае ошибки SQL.
+     */
+    public static void addBatch(PreparedStatement preparedStatement, SqlParameter... parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i].bind(preparedStatement, i + 1);
+        }
+        preparedStatement.addBatch();
+    }
+}
@@ -0,0 +1,127 @@
+package dao.user;
+
+import config.ServerConfig;
+import model.user.User;
+import utils.UnitOfWork;
+import utils.cache.BoundedCache;
+import utils.cache.CacheStats;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш пользователей перед репозиторием пользователей.
+ * Пользователи кэшируются по электронной почте и по идентификатору; найденный одним способом пользователь
+ * сразу доступен и другим. Отсутствие пользователя с электронной почтой тоже кэшируется, с отдельным,
+ * более коротким временем жизни. Одновременные промахи по одному ключу выполняют один запрос к базе данных.
+ * <p>
+ * Добавление пользователя удаляет запись о его электронной почте. Пока транзакция единицы работы,
+ * добавившей пользователя, не завершена, поиск по этой электронной почте выполняется мимо кэша,
+ * чтобы незафиксированный пользователь не попал в кэш; после завершения запись удаляется повторно.
+ * <p>
+ * Возвращаемые объекты общие для всех обращений и не должны изменяться.
+ */
+public class CachingUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final BoundedCache<String, Optional<User>> byEmail;
+    private final BoundedCache<Integer, Optional<User>> byId;
+
+    /**
+     * Количество незавершенных единиц работы, добавивших пользователя, по электронной почте.
+     */
+    private final ConcurrentHashMap<String, Integer> pendingWrites = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate      репозиторий пользователей
+     * @param maxSize       максимальное количество пользователей в каждом из кэшей
+     * @param ttlMs         время жизни найденного пользователя в миллисекундах
+     * @param negativeTtlMs время жизни записи об отсутствии пользователя в миллисекундах
+     */
+    public CachingUserRepository(UserRepository delegate, int maxSize, long ttlMs, long negativeTtlMs) {
+        this.delegate = delegate;
+        this.byEmail = new BoundedCache<>(maxSize, user -> user.isPresent() ? ttlMs : negativeTtlMs);
+        this.byId = new BoundedCache<>(maxSize, user -> user.isPresent() ? ttlMs : negativeTtlMs);
+    }
+
+    /**
+     * Создает кэш с настройками из файла свойств сервера.
+     *
+     * @param delegate репозиторий пользователей
+     * @return кэширующий репозиторий
+     */
+    public static CachingUserRepository fromConfig(UserRepository delegate) {
+        return new CachingUserRepository(delegate,
+                ServerConfig.getInt("users.cache.max.size", 10000),
+                ServerConfig.getLong("users.cache.ttl.ms", 600000),
+                ServerConfig.getLong("users.cache.negative.ttl.ms", 5000));
+    }
+
+    @Override
+    public Optional<Integer> addNewUser(String username, String email, String password, String salt) {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            try {
+                return delegate.addNewUser(username, email, password, salt);
+            } finally {
+                byEmail.invalidate(email);
+            }
+        }
+
+        pendingWrites.merge(email, 1, Integer::sum);
+        unitOfWork.afterCompletion(committed -> {
+            pendingWrites.computeIfPresent(email, (key, count) -> count == 1 ? null : count - 1);
+            byEmail.invalidate(email);
+        });
+        byEmail.invalidate(email);
+        return delegate.addNewUser(username, email, password, salt);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (pendingWrites.containsKey(email)) {
+            return delegate.findByEmail(email);
+        }
+        return byEmail.get(email, key -> {
+            Optional<User> user = delegate.findByEmail(key);
+            user.ifPresent(found -> byId.put(found.getId(), user));
+            return user;
+        });
+    }
+
+    @Override
+    public Optional<User> findById(Integer id) {
+        return byId.get(id, key -> {
+            Optional<User> user = delegate.findById(key);
+            user.filter(found -> !pendingWrites.containsKey(found.getEmail()))
+                    .ifPresent(found -> byEmail.put(found.getEmail(), user));
+            return user;
+        });
+    }
+
+    @Override
+    public Integer getUserIdFromName(String name) {
+        return delegate.getUserIdFromName(name);
+    }
+
+    /**
+     * Проверяет пароль пользователя по кэшированной записи, не выполняя отдельный запрос.
+     */
+    @Override
+    public boolean validateUser(String email, String password) {
+        return findByEmail(email).map(user -> user.getPassword().equals(password)).orElse(false);
+    }
+
+    /**
+     * @return статистика кэша пользователей по электронной почте
+     */
+    public CacheStats getEmailCacheStats() {
+        return byEmail.getStats();
+    }
+
+    /**
+     * @return статистика кэша пользователей по идентификатору
+     */
+    public CacheStats getIdCacheStats() {
+        return byId.getStats();
+    }
+}
@@ -10,10 +10,15 @@ import java.util.Optional;
  */
 public interface UserRepository {
 
-    void addNewUser(String username, String email, String password, String salt);
+    /**
+     * @return идентификатор добавленного пользователя или пустой Optional, если электронная почта уже занята
+     */
+    Optional<Integer> addNewUser(String username, String email, String password, String salt);
 
     Optional<User> findByEmail(String email);
 
+    Optional<User> findById(Integer id);
+
     Integer getUserIdFromName(String email);
 
     boolean validateUser(String email, String password);
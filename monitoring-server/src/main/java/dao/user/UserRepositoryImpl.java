@@ -2,6 +2,8 @@ package dao.user;
 
 import annotations.Loggable;
 import dao.mapper.UserMapper;
+import dao.statement.SqlParameter;
+import dao.statement.Statements;
 import model.user.User;
 import org.slf4j.Logger;
 import utils.DBConnectionManager;
@@ -26,50 +28,39 @@ public class UserRepositoryImpl implements UserRepository {
     private final UserMapper userMapper = new UserMapper();
 
     /**
-     * Подготавливает SQL-запрос для выполнения в базе данных.
-     *
-     * @param connection Объект Connection, представляющий соединение с базой данных.
-     * @param sql SQL-запрос.
-     * @param parameters Параметры SQL-запроса.
-     * @return PreparedStatement Объект PreparedStatement, представляющий подготовленный SQL-запрос.
-     * @throws SQLException В случае ошибки SQL.
-     */
-    private PreparedStatement prepareStatement(Connection connection, String sql, String... parameters) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
-        for (int i = 0; i < parameters.length; i++) {
-            preparedStatement.setString(i + 1, parameters[i]);
-        }
-        return preparedStatement;
-    }
-
-    /**
-     * Добавляет нового пользователя в базу данных.
+     * Добавляет нового пользователя в базу данных, если пользователь с такой электронной почтой еще не существует.
+     * Проверка и добавление выполняются одним запросом.
      *
      * @param username Имя пользователя.
      * @param email Электронная почта пользователя.
      * @param password Пароль пользователя.
      * @param salt Соль для хеширования пароля.
+     * @return Optional<Integer> Идентификатор добавленного пользователя или пустой Optional, если пользователь
+     * с такой электронной почтой уже существует или добавить его не удалось.
      */
     @Override
-    public void addNewUser(String username, String email, String password, String salt) {
+    public Optional<Integer> addNewUser(String username, String email, String password, String salt) {
         String sql = """
         INSERT INTO users (username, email, password, salt)
         VALUES (?, ?, ?, ?)
+        ON CONFLICT (email) DO NOTHING
+        RETURNING user_id
         """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, username, email, password, salt)) {
-
-            int rowsAffected = preparedStatement.executeUpdate();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(username),
+                     SqlParameter.of(email), SqlParameter.of(password), SqlParameter.of(salt));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
 
-            if (rowsAffected > 0) {
+            if (resultSet.next()) {
                 logger.info("Пользователь успешно добавлен.");
-            } else {
-                logger.warn("Не удалось добавить пользователя.");
+                return Optional.of(resultSet.getInt("user_id"));
             }
+            logger.warn("Пользователь с такой электронной почтой уже существует.");
         } catch (SQLException e) {
             logger.error("Ошибка при добавлении пользователя: " + e.getMessage());
         }
+        return Optional.empty();
     }
 
     /**
@@ -87,7 +78,7 @@ public class UserRepositoryImpl implements UserRepository {
         """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, email);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(email));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             if (resultSet.next()) {
@@ -102,6 +93,35 @@ public class UserRepositoryImpl implements UserRepository {
         return Optional.empty();
     }
 
+    /**
+     * Ищет пользователя по идентификатору в базе данных.
+     *
+     * @param id Идентификатор пользователя.
+     * @return Optional<User> Объект User, содержащий данные пользователя, или пустой Optional, если пользователь не найден.
+     */
+    @Override
+    public Optional<User> findById(Integer id) {
+        String sql = """
+        SELECT user_id, username, email, password, salt, is_admin
+        FROM users
+        WHERE user_id = ?
+        """;
+
+        try (Connection connection = DBConnectionManager.getConnection();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(id));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            if (resultSet.next()) {
+                return Optional.ofNullable(userMapper.map(resultSet));
+            }
+
+        } catch (SQLException e) {
+            logger.error("Ошибка при поиске пользователя: " + e.getMessage());
+        }
+
+        return Optional.empty();
+    }
+
     /**
      * Получает идентификатор пользователя по имени из базы данных.
      *
@@ -117,7 +137,7 @@ public class UserRepositoryImpl implements UserRepository {
         """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, name);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(name));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             if (resultSet.next()) {
@@ -146,7 +166,8 @@ public class UserRepositoryImpl implements UserRepository {
         """;
 
         try (Connection connection = DBConnectionManager.getConnection();
-             PreparedStatement preparedStatement = prepareStatement(connection, sql, email, password);
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(email),
+                     SqlParameter.of(password));
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             return resultSet.next();
@@ -5,15 +5,21 @@ import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import service.user.UserService;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import service.session.Session;
+import service.session.SessionStore;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenClaims;
+import utils.TokenSigner;
 
 import java.io.IOException;
 
 /**
  * Фильтр авторизации.
  * Этот класс реализует интерфейс Filter и предоставляет методы для проверки авторизации пользователя.
+ * В цепочке /meter/* выполняется после MetricsFilter и до UnitOfWorkFilter (порядок задан в web.xml),
+ * поэтому отказ авторизации учитывается в метриках и не открывает транзакцию.
  *
  * @Loggable Аннотация, указывающая, что вызовы методов этого класса должны быть залогированы.
  * @WebFilter(filterName = "AuthorizationFilter", urlPatterns = {"/meter/*"}) Аннотация, указывающая, что этот класс является фильтром веб-запросов.
@@ -21,7 +27,12 @@ import java.io.IOException;
 @Loggable
 @WebFilter(filterName = "AuthorizationFilter", urlPatterns = {"/meter/*"})
 public class AuthorizationFilter implements Filter {
-    private UserService userService;
+    private SessionStore sessionStore;
+    private TokenSigner tokenSigner;
+    private Counter missingToken;
+    private Counter invalidToken;
+    private Counter sessionExpired;
+    private Counter sessionMismatch;
 
     /**
      * Инициализация фильтра.
@@ -29,11 +40,21 @@ public class AuthorizationFilter implements Filter {
      * @param filterConfig Объект FilterConfig, содержащий конфигурацию фильтра.
      */
     public void init(FilterConfig filterConfig) {
-        this.userService = ServiceFactory.getUserService();
+        this.sessionStore = ServiceFactory.getSessionStore();
+        this.tokenSigner = ServiceFactory.getTokenSigner();
+        MetricsRegistry registry = ServiceFactory.getMetricsRegistry();
+        String help = "Requests rejected by the authorization filter";
+        this.missingToken = registry.counter("auth_rejections_total", help, "reason", "missing_token");
+        this.invalidToken = registry.counter("auth_rejections_total", help, "reason", "invalid_token");
+        this.sessionExpired = registry.counter("auth_rejections_total", help, "reason", "session_expired");
+        this.sessionMismatch = registry.counter("auth_rejections_total", help, "reason", "session_mismatch");
     }
 
     /**
      * Выполнение фильтрации.
+     * Подпись и срок действия токена проверяются один раз, сессия токена должна быть действующей.
+     * Данные токена сохраняются в атрибуте запроса {@link TokenClaims#REQUEST_ATTRIBUTE} для сервлетов
+     * и привязываются к потоку на время обработки запроса.
      *
      * @param request Объект ServletRequest, содержащий запрос клиента.
      * @param response Объект ServletResponse, содержащий ответ сервера.
@@ -43,22 +64,46 @@ public class AuthorizationFilter implements Filter {
      */
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        String authHeader = httpRequest.getHeader("Authorization");
         String path = httpRequest.getServletPath();
 
         if (!path.equals("/meter/register") && !path.equals("/meter/login")) {
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                authHeader = authHeader.substring(7); // Удаляем "Bearer "
+            String header = httpRequest.getHeader("Authorization");
+            if (header == null) {
+                reject(response, missingToken);
+                return;
+            }
+            TokenClaims claims = tokenSigner.verify(header);
+            if (claims == null) {
+                reject(response, invalidToken);
+                return;
+            }
+            Session session = sessionStore.touch(claims.getSessionId());
+            if (session == null) {
+                reject(response, sessionExpired);
+                return;
             }
-            if (authHeader == null || !userService.isLogin(Token.getUsernameFromToken(authHeader))) {
-                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Bad request. Please, Log in");
+            if (session.getUserId() != claims.getUserId()) {
+                reject(response, sessionMismatch);
                 return;
             }
+            request.setAttribute(TokenClaims.REQUEST_ATTRIBUTE, claims);
+            TokenClaims.bind(claims);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                TokenClaims.unbind();
+            }
+            return;
         }
         chain.doFilter(request, response);
     }
 
+    private void reject(ServletResponse response, Counter reason) throws IOException {
+        reason.increment();
+        ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.getWriter().write("Bad request. Please, Log in");
+    }
+
 
     public void destroy() {
     }
@@ -0,0 +1,337 @@
+package filter;
+
+import config.ServerConfig;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jfr.HttpRequestEvent;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.QueryTimer;
+import metrics.RequestDbStats;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фильтр, считающий запросы и время их обработки по сервлетам и HTTP-методам.
+ * Метрики каждой пары сервлет/метод регистрируются при первом запросе и дальше берутся из локальной таблицы,
+ * так что запись не обращается к реестру и выполняется без блокировок. Метод приводится к одному из
+ * стандартных (GET, POST, PUT, DELETE, HEAD, OPTIONS), остальные учитываются как other: иначе
+ * произвольные методы от клиентов создавали бы новые ряды метрик без ограничения.
+ * Если ведется запись JFR, о каждом запросе записывается событие {@link HttpRequestEvent}.
+ * <p>
+ * Кроме того, фильтр считает обращения к базе данных при обработке запроса ({@link RequestDbStats}):
+ * SQL-запросы, соединения из пула и прочитанные строки возвращаются клиенту в заголовке Server-Timing
+ * и суммируются по сервлетам. Если запрос выполнил больше SQL-запросов, чем задано бюджетом сервлета
+ * (db.budget.&lt;сервлет&gt;.&lt;метод&gt; или db.budget.default), или повторил один запрос
+ * db.repeated.query.threshold раз (N+1), в журнал выводится предупреждение, не чаще раза в секунду на сервлет.
+ * В строгом режиме (db.budget.strict=true), который включается в тестах, превышение бюджета завершает
+ * запрос исключением ServletException.
+ * <p>
+ * Фильтр внешний в цепочке /meter/* (порядок задан в web.xml: MetricsFilter, AuthorizationFilter,
+ * UnitOfWorkFilter): время запроса и заголовок Server-Timing включают фиксацию транзакции, отказы
+ * авторизации учитываются с кодом 401, а исключение строгого бюджета выбрасывается уже после фиксации.
+ *
+ * @WebFilter(filterName = "MetricsFilter", urlPatterns = {"/meter/*"}) Аннотация, указывающая, что этот класс является фильтром веб-запросов.
+ */
+@WebFilter(filterName = "MetricsFilter", urlPatterns = {"/meter/*"})
+public class MetricsFilter implements Filter {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private MetricsRegistry registry;
+    private boolean serverTimingEnabled;
+    private int defaultBudget;
+    private boolean strictBudget;
+    private int repeatedQueryThreshold;
+
+    public void init(FilterConfig filterConfig) {
+        this.registry = ServiceFactory.getMetricsRegistry();
+        this.serverTimingEnabled = ServerConfig.getBoolean("http.server.timing", true);
+        this.defaultBudget = ServerConfig.getInt("db.budget.default", 0);
+        this.strictBudget = ServerConfig.getBoolean("db.budget.strict", false);
+        this.repeatedQueryThreshold = ServerConfig.getInt("db.repeated.query.threshold", 5);
+    }
+
+    /**
+     * Выполнение фильтрации.
+     * Запрос, завершившийся исключением, учитывается с кодом 500.
+     * Заголовок Server-Timing добавляется перед началом записи тела ответа, а после обработки запроса,
+     * если ответ еще не отправлен, заменяется итоговым.
+     *
+     * @param request Объект ServletRequest, содержащий запрос клиента.
+     * @param response Объект ServletResponse, содержащий ответ сервера.
+     * @param chain Объект FilterChain, содержащий цепочку фильтров.
+     * @throws IOException В случае ошибки ввода/вывода.
+     * @throws ServletException В случае ошибки сервлета.
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        long start = System.nanoTime();
+        RequestDbStats dbStats = new RequestDbStats();
+        RequestDbStats previous = dbStats.attach();
+        ServletResponse filtered = serverTimingEnabled
+                ? new ServerTimingResponse(httpResponse, dbStats, start)
+                : response;
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        String violation;
+        try {
+            chain.doFilter(request, filtered);
+            status = httpResponse.getStatus();
+        } finally {
+            dbStats.detach(previous);
+            long elapsed = System.nanoTime() - start;
+            if (serverTimingEnabled && !httpResponse.isCommitted()) {
+                httpResponse.setHeader(SERVER_TIMING, serverTiming(dbStats, elapsed));
+            }
+            String servlet = servletName(httpRequest);
+            EndpointMetrics endpoint = endpoint(servlet, normalizeMethod(httpRequest.getMethod()));
+            endpoint.record(elapsed, status);
+            violation = endpoint.recordDb(dbStats, repeatedQueryThreshold);
+            event.end();
+            if (event.shouldCommit()) {
+                TokenClaims claims = TokenClaims.from(request);
+                event.setServlet(servlet);
+                event.setMethod(httpRequest.getMethod());
+                event.setPath(httpRequest.getRequestURI());
+                event.setStatus(status);
+                event.setUserId(claims == null ? 0 : claims.getUserId());
+                event.commit();
+            }
+        }
+        if (violation != null && strictBudget) {
+            throw new ServletException(violation);
+        }
+    }
+
+    public void destroy() {
+    }
+
+    private EndpointMetrics endpoint(String servlet, String method) {
+        String key = servlet + ' ' + method;
+        EndpointMetrics endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(key, k -> new EndpointMetrics(registry, servlet, method,
+                    ServerConfig.getInt("db.budget." + servlet + '.' + method, defaultBudget)));
+        }
+        return endpoint;
+    }
+
+    /**
+     * Приводит HTTP-метод к ограниченному набору значений метки.
+     *
+     * @param method метод запроса
+     * @return стандартный метод или other
+     */
+    private static String normalizeMethod(String method) {
+        if (method == null) {
+            return "other";
+        }
+        return switch (method) {
+            case "GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS" -> method;
+            default -> "other";
+        };
+    }
+
+    /**
+     * Формирует значение заголовка Server-Timing, например
+     * {@code db;dur=12.345;desc="statements=5 connections=1 rows=42", total;dur=30.100}.
+     *
+     * @param stats        обращения к базе данных при обработке запроса
+     * @param elapsedNanos время обработки запроса в наносекундах
+     * @return значение заголовка
+     */
+    private static String serverTiming(RequestDbStats stats, long elapsedNanos) {
+        return String.format(Locale.ROOT,
+                "db;dur=%.3f;desc=\"statements=%d connections=%d rows=%d\", total;dur=%.3f",
+                stats.getNanos() / 1_000_000.0, stats.getStatements(), stats.getConnections(), stats.getRows(),
+                elapsedNanos / 1_000_000.0);
+    }
+
+    private static String servletName(HttpServletRequest request) {
+        HttpServletMapping mapping = request.getHttpServletMapping();
+        return mapping == null || mapping.getServletName() == null ? "unknown" : mapping.getServletName();
+    }
+
+    /**
+     * Метрики одной пары сервлет/метод.
+     */
+    private static final class EndpointMetrics {
+        private final String name;
+        private final int budget;
+        private final LatencyHistogram latency;
+        private final Counter[] requests = new Counter[STATUS_CLASSES.length];
+        private final LatencyHistogram dbLatency;
+        private final Counter dbStatements;
+        private final Counter dbConnections;
+        private final Counter dbRows;
+        private final Counter budgetExceeded;
+        private final Counter repeatedQueries;
+
+        /**
+         * Время последнего предупреждения в журнале, чтобы не выводить их чаще раза в секунду.
+         */
+        private final AtomicLong lastWarningNanos = new AtomicLong(System.nanoTime() - 1_000_000_000L);
+
+        private EndpointMetrics(MetricsRegistry registry, String servlet, String method, int budget) {
+            this.name = servlet + ' ' + method;
+            this.budget = budget;
+            this.latency = registry.histogram("http_request_duration_seconds", "Time to handle a request",
+                    "servlet", servlet, "method", method);
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = registry.counter("http_requests_total", "Handled requests by status class",
+                        "servlet", servlet, "method", method, "status", STATUS_CLASSES[i]);
+            }
+            this.dbLatency = registry.histogram("http_request_db_duration_seconds",
+                    "Time spent in SQL statements per request that used the database",
+                    "servlet", servlet, "method", method);
+            this.dbStatements = registry.counter("http_request_db_statements_total",
+                    "SQL statements executed while handling requests", "servlet", servlet, "method", method);
+            this.dbConnections = registry.counter("http_request_db_connections_total",
+                    "Connections borrowed from the pool while handling requests", "servlet", servlet, "method", method);
+            this.dbRows = registry.counter("http_request_db_rows_total",
+                    "Result rows fetched while handling requests", "servlet", servlet, "method", method);
+            this.budgetExceeded = registry.counter("http_request_db_budget_exceeded_total",
+                    "Requests that executed more SQL statements than the endpoint budget", "servlet", servlet,
+                    "method", method);
+            this.repeatedQueries = registry.counter("http_request_db_repeated_queries_total",
+                    "Requests that repeated one SQL statement at least db.repeated.query.threshold times",
+                    "servlet", servlet, "method", method);
+        }
+
+        private void record(long nanos, int status) {
+            latency.record(nanos);
+            int statusClass = Math.min(Math.max(status / 100, 1), 5) - 1;
+            requests[statusClass].increment();
+        }
+
+        /**
+         * Учитывает обращения к базе данных при обработке запроса и проверяет бюджет и повторы запросов.
+         *
+         * @param stats             обращения к базе данных
+         * @param repeatedThreshold количество выполнений одного запроса, начиная с которого он считается
+         *                          повторяющимся, или 0
+         * @return описание превышения бюджета или null, если бюджет не превышен
+         */
+        private String recordDb(RequestDbStats stats, int repeatedThreshold) {
+            if (stats.getConnections() > 0) {
+                dbConnections.add(stats.getConnections());
+            }
+            if (stats.getStatements() == 0) {
+                return null;
+            }
+            dbStatements.add(stats.getStatements());
+            dbRows.add(stats.getRows());
+            dbLatency.record(stats.getNanos());
+
+            QueryTimer repeated = stats.getMostRepeated();
+            int repeatedCount = stats.getMostRepeatedCount();
+            if (repeatedThreshold > 0 && repeatedCount >= repeatedThreshold) {
+                repeatedQueries.increment();
+                if (shouldWarn()) {
+                    logger.warn("Возможно N+1: запрос " + repeated.getId() + " выполнен " + repeatedCount
+                            + " раз при обработке " + name + ": " + repeated.getSql());
+                }
+            }
+            if (budget <= 0 || stats.getStatements() <= budget) {
+                return null;
+            }
+            budgetExceeded.increment();
+            String violation = "Запрос к " + name + " выполнил " + stats.getStatements()
+                    + " SQL-запросов при бюджете " + budget + "; чаще всего выполнялся запрос " + repeated.getId()
+                    + " (" + repeatedCount + " раз): " + repeated.getSql();
+            if (shouldWarn()) {
+                logger.warn(violation);
+            }
+            return violation;
+        }
+
+        private boolean shouldWarn() {
+            long now = System.nanoTime();
+            long last = lastWarningNanos.get();
+            return now - last >= 1_000_000_000L && lastWarningNanos.compareAndSet(last, now);
+        }
+    }
+
+    /**
+     * Ответ, который добавляет заголовок Server-Timing с обращениями к базе данных на момент начала
+     * записи тела, пока заголовки еще можно изменить.
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final RequestDbStats stats;
+        private final long start;
+
+        private ServerTimingResponse(HttpServletResponse response, RequestDbStats stats, long start) {
+            super(response);
+            this.stats = stats;
+            this.start = start;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+
+        private void addServerTiming() {
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, serverTiming(stats, System.nanoTime() - start));
+            }
+        }
+    }
+}
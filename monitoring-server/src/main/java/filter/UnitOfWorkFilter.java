@@ -0,0 +1,82 @@
+package filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+import utils.UnitOfWork;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Фильтр, открывающий единицу работы на время обработки запроса.
+ * Все обращения к базе данных в рамках запроса выполняются через одно соединение в одной транзакции.
+ * Запросы GET, HEAD и OPTIONS выполняются в транзакции только для чтения. Транзакция откатывается,
+ * если обработка завершилась исключением или кодом 5xx, иначе фиксируется.
+ * Фильтр внутренний в цепочке /meter/* (порядок задан в web.xml: MetricsFilter, AuthorizationFilter,
+ * UnitOfWorkFilter): транзакция открывается только для авторизованного запроса, а ее фиксация входит
+ * во время запроса, которое считает MetricsFilter.
+ *
+ * @WebFilter(filterName = "UnitOfWorkFilter", urlPatterns = {"/meter/*"}) Аннотация, указывающая, что этот класс является фильтром веб-запросов.
+ */
+@WebFilter(filterName = "UnitOfWorkFilter", urlPatterns = {"/meter/*"})
+public class UnitOfWorkFilter implements Filter {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final Set<String> READ_ONLY_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    public void init(FilterConfig filterConfig) {
+    }
+
+    /**
+     * Выполнение фильтрации.
+     *
+     * @param request Объект ServletRequest, содержащий запрос клиента.
+     * @param response Объект ServletResponse, содержащий ответ сервера.
+     * @param chain Объект FilterChain, содержащий цепочку фильтров.
+     * @throws IOException В случае ошибки ввода/вывода.
+     * @throws ServletException В случае ошибки сервлета.
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (UnitOfWork.current() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        boolean readOnly = READ_ONLY_METHODS.contains(((HttpServletRequest) request).getMethod());
+
+        UnitOfWork unitOfWork = UnitOfWork.begin(readOnly);
+        try {
+            chain.doFilter(request, response);
+            if (httpResponse.getStatus() >= 500) {
+                unitOfWork.setRollbackOnly();
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            unitOfWork.setRollbackOnly();
+            throw e;
+        } finally {
+            try {
+                unitOfWork.close();
+            } catch (SQLException e) {
+                logger.error("Ошибка при фиксации транзакции запроса: " + e.getMessage());
+                if (!httpResponse.isCommitted()) {
+                    httpResponse.reset();
+                    httpResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    httpResponse.getWriter().write("Something was wrong");
+                }
+            }
+        }
+    }
+
+    public void destroy() {
+    }
+}
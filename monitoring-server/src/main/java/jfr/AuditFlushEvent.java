@@ -0,0 +1,48 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о записи пакета событий аудита в базу данных фоновым потоком.
+ */
+@Name("monitoring.AuditFlush")
+@Label("Audit Flush")
+@Description("Запись пакета событий аудита в базу данных")
+@Category({"Monitoring Service", "Audit"})
+@StackTrace(false)
+public class AuditFlushEvent extends Event {
+    @Label("Batch Size")
+    private int batchSize;
+
+    @Label("Success")
+    private boolean success;
+
+    @Label("Replay")
+    @Description("Пакет перечитан из файла сохранения")
+    private boolean replay;
+
+    @Label("Queue Depth")
+    @Description("События, оставшиеся в очереди после выборки пакета")
+    private int queueDepth;
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public void setReplay(boolean replay) {
+        this.replay = replay;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+}
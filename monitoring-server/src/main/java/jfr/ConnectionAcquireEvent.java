@@ -0,0 +1,49 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о получении соединения из пула, включая ожидание свободного соединения.
+ * Стек вызова записывается, чтобы было видно, какой код ждал соединение.
+ */
+@Name("monitoring.ConnectionAcquire")
+@Label("Connection Acquire")
+@Description("Получение соединения из пула соединений с базой данных")
+@Category({"Monitoring Service", "Database"})
+@StackTrace(true)
+public class ConnectionAcquireEvent extends Event {
+    @Label("Timed Out")
+    private boolean timedOut;
+
+    @Label("Connection Opened")
+    @Description("Для выдачи открыто новое физическое соединение")
+    private boolean opened;
+
+    @Label("Active Connections")
+    private int active;
+
+    @Label("Waiters")
+    @Description("Потоки, ожидающие соединение, на момент выдачи")
+    private int waiters;
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    public void setOpened(boolean opened) {
+        this.opened = opened;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public void setWaiters(int waiters) {
+        this.waiters = waiters;
+    }
+}
@@ -0,0 +1,54 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR об обработке HTTP-запроса к /meter/*.
+ */
+@Name("monitoring.HttpRequest")
+@Label("HTTP Request")
+@Description("Обработка HTTP-запроса сервлетом, включая фильтры")
+@Category({"Monitoring Service", "HTTP"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+    @Label("Servlet")
+    private String servlet;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Status")
+    private int status;
+
+    @Label("User Id")
+    @Description("Идентификатор пользователя из токена или 0 для запроса без авторизации")
+    private int userId;
+
+    public void setServlet(String servlet) {
+        this.servlet = servlet;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+}
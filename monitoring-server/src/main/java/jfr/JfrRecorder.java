@@ -0,0 +1,132 @@
+package jfr;
+
+import config.ServerConfig;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Запись JFR по запросу администратора.
+ * <p>
+ * Одновременно ведется не больше одной записи. Запись ограничена по размеру на диске и по длительности:
+ * по истечении длительности JFR останавливает ее сам, а данные остаются доступны для выгрузки,
+ * пока запись не будет удалена или не начнется новая.
+ */
+public class JfrRecorder {
+    private static final String RECORDING_NAME = "monitoring-server";
+
+    private final long maxSizeBytes;
+    private final Duration maxDuration;
+    private Recording recording;
+
+    /**
+     * @param maxSizeBytes наибольший размер записи на диске
+     * @param maxDuration  наибольшая длительность записи
+     */
+    public JfrRecorder(long maxSizeBytes, Duration maxDuration) {
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Создает объект с настройками из конфигурации сервера.
+     *
+     * @return объект записи JFR
+     */
+    public static JfrRecorder fromConfig() {
+        return new JfrRecorder(ServerConfig.getLong("jfr.max.size.mb", 64) * 1024 * 1024,
+                Duration.ofSeconds(ServerConfig.getLong("jfr.max.duration.s", 600)));
+    }
+
+    /**
+     * Начинает запись. Предыдущая остановленная запись удаляется.
+     *
+     * @param settings имя настроек JFR: default (низкие накладные расходы) или profile
+     * @param duration длительность записи; null или больше наибольшей заменяется наибольшей
+     * @return фактическая длительность записи
+     * @throws IllegalStateException    если запись уже ведется
+     * @throws IllegalArgumentException если настройки с таким именем не найдены
+     */
+    public synchronized Duration start(String settings, Duration duration) {
+        if (isRunning()) {
+            throw new IllegalStateException("Запись JFR уже ведется");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Настройки JFR " + settings + " не найдены");
+        }
+        Duration limited = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        discard();
+        Recording started = new Recording(configuration);
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxSize(maxSizeBytes);
+        started.setDuration(limited);
+        started.start();
+        recording = started;
+        return limited;
+    }
+
+    /**
+     * Останавливает запись, данные остаются доступны для выгрузки.
+     *
+     * @return true, если запись велась
+     */
+    public synchronized boolean stop() {
+        if (!isRunning()) {
+            return false;
+        }
+        recording.stop();
+        return true;
+    }
+
+    /**
+     * Сохраняет данные записи во временный файл. Запись, которая еще ведется, продолжается.
+     * Файл удаляет вызывающий код.
+     *
+     * @return путь к файлу или null, если записи нет
+     * @throws IOException если файл не удалось записать
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            return null;
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Останавливает и удаляет запись вместе с данными.
+     *
+     * @return true, если запись была
+     */
+    public synchronized boolean discard() {
+        if (recording == null) {
+            return false;
+        }
+        recording.close();
+        recording = null;
+        return true;
+    }
+
+    /**
+     * @return true, если запись ведется
+     */
+    public synchronized boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+}
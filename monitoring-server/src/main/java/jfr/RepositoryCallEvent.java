@@ -0,0 +1,108 @@
+package jfr;
+
+import dao.statement.SqlIds;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о вызове метода репозитория показаний, пользователей или аудита.
+ * <p>
+ * Пока вызов выполняется, событие привязано к потоку, и соединение из пула отмечает в нем каждый
+ * подготовленный запрос ({@link #onStatement(String)}). Вложенный вызов, например кэширующего репозитория
+ * к базовому, временно заменяет внешнее событие. Если запись JFR не ведется, событие к потоку
+ * не привязывается и отметка запроса сводится к чтению ThreadLocal.
+ */
+@Name("monitoring.RepositoryCall")
+@Label("Repository Call")
+@Description("Вызов метода репозитория")
+@Category({"Monitoring Service", "Database"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    private static final ThreadLocal<RepositoryCallEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Repository")
+    private String repository;
+
+    @Label("Method")
+    private String method;
+
+    @Label("User Id")
+    @Description("Пользователь запроса, в рамках которого выполняется вызов, или 0")
+    private int userId;
+
+    @Label("SQL Id")
+    @Description("Идентификатор последнего подготовленного запроса, см. dao.statement.SqlIds")
+    private String sqlId;
+
+    @Label("Statements")
+    @Description("Количество подготовленных за вызов SQL-запросов")
+    private int statements;
+
+    @Label("Rows")
+    @Description("Количество строк в результате: размер коллекции, 1 для найденного значения")
+    private long rows;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * Отмечает подготовку SQL-запроса в событии, привязанном к текущему потоку.
+     *
+     * @param sql текст запроса
+     */
+    public static void onStatement(String sql) {
+        RepositoryCallEvent current = CURRENT.get();
+        if (current != null) {
+            current.statements++;
+            current.sqlId = SqlIds.of(sql);
+        }
+    }
+
+    /**
+     * Привязывает событие к текущему потоку.
+     *
+     * @return событие, привязанное до этого, которое нужно передать в {@link #detach(RepositoryCallEvent)}
+     */
+    public RepositoryCallEvent attach() {
+        RepositoryCallEvent previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    /**
+     * Возвращает потоку событие, привязанное до {@link #attach()}.
+     *
+     * @param previous предыдущее событие или null
+     */
+    public void detach(RepositoryCallEvent previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void setRepository(String repository) {
+        this.repository = repository;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+}
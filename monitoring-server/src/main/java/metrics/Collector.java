@@ -0,0 +1,15 @@
+package metrics;
+
+/**
+ * Источник метрик, значения которых читаются при выгрузке, например статистика пула соединений или кэшей.
+ */
+@FunctionalInterface
+public interface Collector {
+
+    /**
+     * Записывает текущие значения метрик.
+     *
+     * @param writer получатель метрик
+     */
+    void collect(PrometheusWriter writer);
+}
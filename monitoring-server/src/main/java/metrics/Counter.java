@@ -0,0 +1,25 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Монотонно возрастающий счетчик. Увеличение выполняется без блокировок.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * @param amount неотрицательное приращение
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
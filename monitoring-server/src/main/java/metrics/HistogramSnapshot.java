@@ -0,0 +1,93 @@
+package metrics;
+
+/**
+ * Снимок гистограммы длительностей.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long totalNanos, long maxNanos) {
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return количество записанных значений
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return сумма записанных значений в наносекундах
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return среднее значение в наносекундах или 0, если значений нет
+     */
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Возвращает значение, не больше которого не меньше заданной доли записанных значений.
+     * Результат округляется вверх до границы корзины и не превышает максимума.
+     *
+     * @param percentile процентиль от 0 до 100
+     * @return значение в наносекундах или 0, если значений нет
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Возвращает количество значений, не превышающих границу. Используется для выгрузки гистограммы
+     * с произвольными границами корзин; значения из корзины, пересекающей границу, учитываются,
+     * если вся корзина не превышает границу.
+     *
+     * @param nanos граница в наносекундах
+     * @return количество значений
+     */
+    public long getCountAtOrBelow(long nanos) {
+        long seen = 0;
+        for (int i = 0; i < counts.length && LatencyHistogram.highestValueOf(i) <= nanos; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{count=" + count + ", meanNanos=" + getMeanNanos()
+                + ", p50Nanos=" + getValueAtPercentile(50) + ", p99Nanos=" + getValueAtPercentile(99)
+                + ", maxNanos=" + maxNanos + '}';
+    }
+}
@@ -0,0 +1,55 @@
+package metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Метрики JVM: сборки мусора, куча, память вне кучи и потоки.
+ */
+public class JvmCollector implements Collector {
+    private static final String HEAP = PrometheusWriter.labels("area", "heap");
+    private static final String NON_HEAP = PrometheusWriter.labels("area", "nonheap");
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final String[] collectorLabels = new String[collectors.size()];
+
+    public JvmCollector() {
+        for (int i = 0; i < collectors.size(); i++) {
+            collectorLabels[i] = PrometheusWriter.labels("gc", collectors.get(i).getName());
+        }
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.family("jvm_gc_collections_total", "Number of garbage collections", "counter");
+        for (int i = 0; i < collectorLabels.length; i++) {
+            writer.sample("jvm_gc_collections_total", collectorLabels[i], collectors.get(i).getCollectionCount());
+        }
+        writer.family("jvm_gc_collection_seconds_total", "Accumulated garbage collection time", "counter");
+        for (int i = 0; i < collectorLabels.length; i++) {
+            writer.sample("jvm_gc_collection_seconds_total", collectorLabels[i],
+                    collectors.get(i).getCollectionTime() / 1000.0);
+        }
+
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        writer.family("jvm_memory_used_bytes", "Used memory", "gauge");
+        writer.sample("jvm_memory_used_bytes", HEAP, heap.getUsed());
+        writer.sample("jvm_memory_used_bytes", NON_HEAP, nonHeap.getUsed());
+        writer.family("jvm_memory_committed_bytes", "Committed memory", "gauge");
+        writer.sample("jvm_memory_committed_bytes", HEAP, heap.getCommitted());
+        writer.sample("jvm_memory_committed_bytes", NON_HEAP, nonHeap.getCommitted());
+        writer.family("jvm_memory_max_bytes", "Maximum memory, -1 if undefined", "gauge");
+        writer.sample("jvm_memory_max_bytes", HEAP, heap.getMax());
+        writer.sample("jvm_memory_max_bytes", NON_HEAP, nonHeap.getMax());
+
+        writer.family("jvm_threads_live", "Live threads", "gauge");
+        writer.sample("jvm_threads_live", "", threads.getThreadCount());
+    }
+}
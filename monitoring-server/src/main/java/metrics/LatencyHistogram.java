@@ -0,0 +1,112 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram.
+ * <p>
+ * Значения меньше 64 нс хранятся точно. Каждый следующий диапазон [2^k, 2^(k+1)) делится на 32 равные
+ * корзины, поэтому относительная погрешность не превышает 1/32 (около 3%). Значения больше 2^43 нс
+ * (около 2,4 часа) попадают в последнюю корзину.
+ * <p>
+ * Запись выполняется без блокировок: одно атомарное увеличение счетчика корзины, добавление к сумме
+ * и, редко, обновление максимума. Снимок читает счетчики без остановки записи, поэтому при одновременной
+ * записи он может не учитывать последние значения.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 43;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (MAX_EXPONENT - SUB_BUCKET_BITS + 2);
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Записывает длительность.
+     *
+     * @param nanos длительность в наносекундах; отрицательные значения считаются нулем
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE)));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return снимок гистограммы
+     */
+    public HistogramSnapshot snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(snapshot, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Подсчитывает количество значений не больше каждой границы за один проход по корзинам, без снимка.
+     * Значения из корзины, пересекающей границу, относятся к следующей границе.
+     *
+     * @param boundsNanos границы в наносекундах по возрастанию
+     * @param out         массив длиной не меньше количества границ для результата
+     * @return общее количество значений
+     */
+    public long cumulativeCounts(long[] boundsNanos, long[] out) {
+        long seen = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            long highest = highestValueOf(i);
+            while (bound < boundsNanos.length && highest > boundsNanos[bound]) {
+                out[bound++] = seen;
+            }
+            seen += count;
+        }
+        while (bound < boundsNanos.length) {
+            out[bound++] = seen;
+        }
+        return seen;
+    }
+
+    /**
+     * @return сумма записанных значений в наносекундах
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Вычисляет номер корзины значения.
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT * (shift + 1) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Вычисляет наибольшее значение, попадающее в корзину.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long top = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+}
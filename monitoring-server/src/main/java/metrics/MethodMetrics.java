@@ -0,0 +1,97 @@
+package metrics;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.CodeSignature;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр времени выполнения методов, вызовы которых перехватывает аспект.
+ * <p>
+ * Таймеры ключуются статической частью точки соединения: AspectJ создает ее один раз на метод,
+ * поэтому поиск таймера на каждом вызове сравнивает ссылки и не строит имя метода.
+ * Имя строится один раз при создании таймера.
+ * <p>
+ * При выгрузке в Prometheus методы различаются метками class и method.
+ */
+public class MethodMetrics implements Collector {
+    private static final MethodMetrics DEFAULT = new MethodMetrics();
+
+    private final ConcurrentHashMap<JoinPoint.StaticPart, MethodTimer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @return реестр, в который пишет аспект
+     */
+    public static MethodMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Возвращает таймер метода, создавая его при первом обращении.
+     *
+     * @param staticPart статическая часть точки соединения
+     * @return таймер метода
+     */
+    public MethodTimer timer(JoinPoint.StaticPart staticPart) {
+        MethodTimer timer = timers.get(staticPart);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(staticPart, part -> newTimer(part.getSignature()));
+        }
+        return timer;
+    }
+
+    /**
+     * Возвращает снимки всех таймеров, упорядоченные по имени метода.
+     * Перегруженные методы различаются типами параметров в имени.
+     *
+     * @return снимки по имени метода
+     */
+    public Map<String, MethodSnapshot> snapshot() {
+        Map<String, MethodSnapshot> snapshots = new TreeMap<>();
+        for (MethodTimer timer : timers.values()) {
+            snapshots.put(timer.getName(), timer.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Удаляет все таймеры.
+     */
+    public void reset() {
+        timers.clear();
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        if (timers.isEmpty()) {
+            return;
+        }
+        writer.family("method_duration_seconds", "Execution time of @Loggable methods", "histogram");
+        for (MethodTimer timer : timers.values()) {
+            writer.histogram("method_duration_seconds", timer.getLabels(), timer.getLatency());
+        }
+        writer.family("method_errors_total", "Calls of @Loggable methods that threw an exception", "counter");
+        for (MethodTimer timer : timers.values()) {
+            writer.sample("method_errors_total", timer.getLabels(), timer.getErrors());
+        }
+    }
+
+    private static MethodTimer newTimer(Signature signature) {
+        StringBuilder method = new StringBuilder(signature.getName()).append('(');
+        if (signature instanceof CodeSignature codeSignature) {
+            Class<?>[] parameterTypes = codeSignature.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (i > 0) {
+                    method.append(", ");
+                }
+                method.append(parameterTypes[i].getSimpleName());
+            }
+        }
+        method.append(')');
+        return new MethodTimer(signature.getDeclaringType().getSimpleName(), method.toString(),
+                signature.getDeclaringTypeName() + "." + signature.getName());
+    }
+}
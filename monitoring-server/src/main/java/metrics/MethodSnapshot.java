@@ -0,0 +1,42 @@
+package metrics;
+
+/**
+ * Снимок времени выполнения метода.
+ */
+public class MethodSnapshot {
+    private final String name;
+    private final long errors;
+    private final HistogramSnapshot latency;
+
+    public MethodSnapshot(String name, long errors, HistogramSnapshot latency) {
+        this.name = name;
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    /**
+     * @return имя метода вида Класс.метод(ТипыПараметров)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return количество вызовов, завершившихся исключением
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return распределение длительности вызовов, включая завершившиеся исключением
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodSnapshot{name=" + name + ", errors=" + errors + ", latency=" + latency + '}';
+    }
+}
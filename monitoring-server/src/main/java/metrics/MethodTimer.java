@@ -0,0 +1,78 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Время выполнения одного метода и количество завершений с исключением.
+ */
+public final class MethodTimer {
+    private final String name;
+    private final String qualifiedName;
+    private final String labels;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private Object traceMatch;
+
+    MethodTimer(String className, String method, String qualifiedName) {
+        this.name = className + "." + method;
+        this.qualifiedName = qualifiedName;
+        this.labels = PrometheusWriter.labels("class", className, "method", method);
+    }
+
+    /**
+     * Записывает вызов метода.
+     *
+     * @param nanos  длительность вызова в наносекундах
+     * @param failed true, если метод завершился исключением
+     */
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return полное имя класса и имя метода без параметров, например dao.user.UserRepositoryImpl.findByEmail
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Результат сравнения метода с шаблонами текущей трассировки, который хранит {@link tracing.TraceSession}.
+     * Поле не volatile: поток, не увидевший запись, просто сравнит метод с шаблонами еще раз.
+     *
+     * @return метка сессии трассировки или null
+     */
+    public Object getTraceMatch() {
+        return traceMatch;
+    }
+
+    public void setTraceMatch(Object traceMatch) {
+        this.traceMatch = traceMatch;
+    }
+
+    String getLabels() {
+        return labels;
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return снимок времени выполнения метода
+     */
+    public MethodSnapshot snapshot() {
+        return new MethodSnapshot(name, errors.sum(), latency.snapshot());
+    }
+}
@@ -0,0 +1,137 @@
+package metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Реестр метрик для выгрузки в формате Prometheus.
+ * <p>
+ * Метрики регистрируются один раз, обычно при инициализации компонента, и дальше используются напрямую:
+ * запись в счетчик или гистограмму не обращается к реестру и выполняется без блокировок.
+ * Повторная регистрация с тем же именем и метками возвращает существующую метрику.
+ * Значения, которые удобнее читать при выгрузке, отдают зарегистрированные {@link Collector}.
+ */
+public class MetricsRegistry {
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final List<Collector> collectors = new CopyOnWriteArrayList<>();
+    private volatile int lastScrapeLength = 4096;
+
+    /**
+     * Регистрирует счетчик.
+     *
+     * @param name       имя метрики
+     * @param help       описание
+     * @param labelPairs имена и значения меток через одно
+     * @return счетчик
+     */
+    public Counter counter(String name, String help, String... labelPairs) {
+        return (Counter) family(name, help, "counter")
+                .series.computeIfAbsent(PrometheusWriter.labels(labelPairs), labels -> new Counter());
+    }
+
+    /**
+     * Регистрирует гистограмму длительностей, выгружаемую в секундах.
+     *
+     * @param name       имя метрики
+     * @param help       описание
+     * @param labelPairs имена и значения меток через одно
+     * @return гистограмма для записи длительностей в наносекундах
+     */
+    public LatencyHistogram histogram(String name, String help, String... labelPairs) {
+        return (LatencyHistogram) family(name, help, "histogram")
+                .series.computeIfAbsent(PrometheusWriter.labels(labelPairs), labels -> new LatencyHistogram());
+    }
+
+    /**
+     * Регистрирует показатель, значение которого читается при выгрузке.
+     *
+     * @param name       имя метрики
+     * @param help       описание
+     * @param value      источник значения
+     * @param labelPairs имена и значения меток через одно
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labelPairs) {
+        family(name, help, "gauge").series.put(PrometheusWriter.labels(labelPairs), value);
+    }
+
+    /**
+     * Регистрирует источник метрик, читаемый при выгрузке.
+     *
+     * @param collector источник метрик
+     */
+    public void register(Collector collector) {
+        collectors.add(collector);
+    }
+
+    /**
+     * Выгружает все метрики в текстовом формате Prometheus.
+     *
+     * @return текст метрик
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(lastScrapeLength + lastScrapeLength / 8);
+        scrape(out);
+        lastScrapeLength = out.length();
+        return out.toString();
+    }
+
+    /**
+     * Дописывает все метрики в буфер.
+     *
+     * @param out буфер
+     */
+    public void scrape(StringBuilder out) {
+        PrometheusWriter writer = new PrometheusWriter(out);
+        for (Family family : families.values()) {
+            family.write(writer);
+        }
+        for (Collector collector : collectors) {
+            collector.collect(writer);
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована с типом " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Метрики с одним именем и разными метками.
+     */
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        private void write(PrometheusWriter writer) {
+            if (series.isEmpty()) {
+                return;
+            }
+            writer.family(name, help, type);
+            for (Map.Entry<String, Object> entry : series.entrySet()) {
+                Object metric = entry.getValue();
+                if (metric instanceof Counter counter) {
+                    writer.sample(name, entry.getKey(), counter.get());
+                } else if (metric instanceof LatencyHistogram histogram) {
+                    writer.histogram(name, entry.getKey(), histogram);
+                } else {
+                    writer.sample(name, entry.getKey(), ((DoubleSupplier) metric).getAsDouble());
+                }
+            }
+        }
+    }
+}
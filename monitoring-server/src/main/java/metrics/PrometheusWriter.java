@@ -0,0 +1,146 @@
+package metrics;
+
+/**
+ * Запись метрик в текстовом формате Prometheus 0.0.4.
+ * <p>
+ * Метки передаются заранее собранной строкой вида {@code name="value",other="value"} без фигурных скобок,
+ * ее строит {@link #labels(String...)} один раз при регистрации метрики. Гистограммы выгружаются
+ * в секундах с фиксированными границами корзин {@link #BUCKET_BOUNDS_SECONDS}.
+ */
+public final class PrometheusWriter {
+    /**
+     * Тип содержимого ответа с метриками.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Границы корзин гистограмм в секундах.
+     */
+    public static final double[] BUCKET_BOUNDS_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_SECONDS.length];
+    private static final String[] BUCKET_LABELS = new String[BUCKET_BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = Math.round(BUCKET_BOUNDS_SECONDS[i] * 1e9);
+            BUCKET_LABELS[i] = "le=\"" + BUCKET_BOUNDS_SECONDS[i] + "\"";
+        }
+    }
+
+    private final StringBuilder out;
+    private final long[] cumulative = new long[BUCKET_BOUNDS_SECONDS.length];
+
+    /**
+     * @param out буфер, в который дописываются метрики
+     */
+    public PrometheusWriter(StringBuilder out) {
+        this.out = out;
+    }
+
+    /**
+     * Собирает строку меток из пар имя-значение и экранирует значения.
+     *
+     * @param pairs имена и значения меток через одно
+     * @return строка меток или пустая строка, если меток нет
+     */
+    public static String labels(String... pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами имя-значение");
+        }
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> labels.append("\\\\");
+                    case '"' -> labels.append("\\\"");
+                    case '\n' -> labels.append("\\n");
+                    default -> labels.append(c);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.toString();
+    }
+
+    /**
+     * Записывает описание и тип семейства метрик. Вызывается один раз перед значениями семейства.
+     *
+     * @param name имя метрики
+     * @param help описание
+     * @param type тип: counter, gauge или histogram
+     */
+    public void family(String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public void sample(String name, String labels, long value) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+    }
+
+    public void sample(String name, String labels, double value) {
+        appendName(name, labels);
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == (long) value) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Записывает гистограмму длительностей в секундах: накопленные корзины, сумму и количество.
+     *
+     * @param name      имя метрики без суффиксов
+     * @param labels    строка меток
+     * @param histogram гистограмма в наносекундах
+     */
+    public void histogram(String name, String labels, LatencyHistogram histogram) {
+        long count = histogram.cumulativeCounts(BUCKET_BOUNDS_NANOS, cumulative);
+        for (int i = 0; i < cumulative.length; i++) {
+            appendBucket(name, labels, BUCKET_LABELS[i]);
+            out.append(cumulative[i]).append('\n');
+        }
+        appendBucket(name, labels, "le=\"+Inf\"");
+        out.append(count).append('\n');
+        out.append(name).append("_sum");
+        appendLabels(labels);
+        out.append(histogram.getTotalNanos() / 1e9).append('\n');
+        out.append(name).append("_count");
+        appendLabels(labels);
+        out.append(count).append('\n');
+    }
+
+    private void appendBucket(String name, String labels, String bucketLabel) {
+        out.append(name).append("_bucket{");
+        if (!labels.isEmpty()) {
+            out.append(labels).append(',');
+        }
+        out.append(bucketLabel).append("} ");
+    }
+
+    private void appendName(String name, String labels) {
+        out.append(name);
+        appendLabels(labels);
+    }
+
+    private void appendLabels(String labels) {
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+    }
+}
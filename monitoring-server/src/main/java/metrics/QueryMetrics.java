@@ -0,0 +1,151 @@
+package metrics;
+
+import dao.statement.SqlIds;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр статистики SQL-запросов, которые выполняются через соединения пула.
+ * <p>
+ * Таймеры ключуются идентификатором нормализованного текста запроса. Чтобы не нормализовать текст
+ * при каждом выполнении, таймер дополнительно кэшируется по исходному тексту: тексты запросов
+ * в репозиториях постоянны, и поиск сводится к одному обращению к таблице.
+ * <p>
+ * При выгрузке в Prometheus запросы различаются меткой sql_id.
+ */
+public class QueryMetrics implements Collector {
+    private static final QueryMetrics DEFAULT = new QueryMetrics();
+
+    /**
+     * Количество исходных текстов, кэшируемых для поиска таймера; запросы, собранные динамически,
+     * сверх этого количества ищутся по нормализованному тексту.
+     */
+    private static final int MAX_CACHED_TEXTS = 1024;
+
+    private final ConcurrentHashMap<String, QueryTimer> byText = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QueryTimer> byId = new ConcurrentHashMap<>();
+
+    /**
+     * @return реестр, в который пишут соединения пула
+     */
+    public static QueryMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Возвращает таймер запроса, создавая его при первом обращении.
+     *
+     * @param sql исходный текст запроса
+     * @return таймер запроса
+     */
+    public QueryTimer timer(String sql) {
+        QueryTimer timer = byText.get(sql);
+        if (timer == null) {
+            String id = SqlIds.of(sql);
+            timer = byId.computeIfAbsent(id, key -> new QueryTimer(key, SqlIds.normalize(sql)));
+            if (byText.size() < MAX_CACHED_TEXTS) {
+                byText.put(sql, timer);
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Возвращает самые тяжелые запросы.
+     *
+     * @param limit наибольшее количество запросов
+     * @param order порядок сортировки
+     * @return снимки запросов по убыванию выбранного показателя
+     */
+    public List<QuerySnapshot> top(int limit, Order order) {
+        List<QuerySnapshot> snapshots = new ArrayList<>(byId.size());
+        for (QueryTimer timer : byId.values()) {
+            snapshots.add(timer.snapshot());
+        }
+        snapshots.sort(order.comparator.reversed());
+        return snapshots.size() > limit ? new ArrayList<>(snapshots.subList(0, limit)) : snapshots;
+    }
+
+    /**
+     * Удаляет всю статистику.
+     */
+    public void reset() {
+        byText.clear();
+        byId.clear();
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        if (byId.isEmpty()) {
+            return;
+        }
+        writer.family("db_statement_execute_seconds", "Time to execute a SQL statement", "histogram");
+        for (QueryTimer timer : byId.values()) {
+            writer.histogram("db_statement_execute_seconds", timer.getLabels(), timer.getExecute());
+        }
+        writer.family("db_statement_fetch_seconds", "Time spent reading the rows of a SQL statement result",
+                "histogram");
+        for (QueryTimer timer : byId.values()) {
+            writer.histogram("db_statement_fetch_seconds", timer.getLabels(), timer.getFetch());
+        }
+        writer.family("db_statement_rows_total", "Rows read or changed by a SQL statement", "counter");
+        for (QueryTimer timer : byId.values()) {
+            writer.sample("db_statement_rows_total", timer.getLabels(), timer.getRows());
+        }
+        writer.family("db_statement_errors_total", "Executions of a SQL statement that failed", "counter");
+        for (QueryTimer timer : byId.values()) {
+            writer.sample("db_statement_errors_total", timer.getLabels(), timer.getErrors());
+        }
+        writer.family("db_statement_slow_total", "Executions slower than the slow query threshold", "counter");
+        for (QueryTimer timer : byId.values()) {
+            writer.sample("db_statement_slow_total", timer.getLabels(), timer.getSlow());
+        }
+    }
+
+    /**
+     * Порядок выборки самых тяжелых запросов.
+     */
+    public enum Order {
+        /**
+         * Суммарное время выполнения и чтения результата.
+         */
+        TOTAL(Comparator.comparingLong(QuerySnapshot::getTotalNanos)),
+        /**
+         * Среднее время выполнения.
+         */
+        MEAN(Comparator.comparingDouble(snapshot -> snapshot.getExecute().getMeanNanos())),
+        /**
+         * Наибольшее время выполнения.
+         */
+        MAX(Comparator.comparingLong(snapshot -> snapshot.getExecute().getMaxNanos())),
+        /**
+         * Количество выполнений.
+         */
+        CALLS(Comparator.comparingLong(QuerySnapshot::getCalls)),
+        /**
+         * Количество строк.
+         */
+        ROWS(Comparator.comparingLong(QuerySnapshot::getRows));
+
+        private final Comparator<QuerySnapshot> comparator;
+
+        Order(Comparator<QuerySnapshot> comparator) {
+            this.comparator = comparator;
+        }
+
+        /**
+         * Находит порядок по имени без учета регистра.
+         *
+         * @param name имя порядка
+         * @return порядок
+         * @throws IllegalArgumentException если порядка с таким именем нет
+         */
+        public static Order parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
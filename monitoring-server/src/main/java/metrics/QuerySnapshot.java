@@ -0,0 +1,92 @@
+package metrics;
+
+/**
+ * Снимок статистики SQL-запроса.
+ */
+public class QuerySnapshot {
+    private final String id;
+    private final String sql;
+    private final long rows;
+    private final long errors;
+    private final long slow;
+    private final HistogramSnapshot execute;
+    private final HistogramSnapshot fetch;
+
+    public QuerySnapshot(String id, String sql, long rows, long errors, long slow, HistogramSnapshot execute,
+                         HistogramSnapshot fetch) {
+        this.id = id;
+        this.sql = sql;
+        this.rows = rows;
+        this.errors = errors;
+        this.slow = slow;
+        this.execute = execute;
+        this.fetch = fetch;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return нормализованный текст запроса
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return количество выполнений
+     */
+    public long getCalls() {
+        return execute.getCount();
+    }
+
+    /**
+     * @return количество прочитанных или измененных строк
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return количество выполнений, завершившихся ошибкой
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return количество выполнений дольше порога журнала медленных запросов
+     */
+    public long getSlow() {
+        return slow;
+    }
+
+    /**
+     * @return суммарное время выполнения и чтения результата в наносекундах
+     */
+    public long getTotalNanos() {
+        return execute.getTotalNanos() + fetch.getTotalNanos();
+    }
+
+    /**
+     * @return распределение времени выполнения
+     */
+    public HistogramSnapshot getExecute() {
+        return execute;
+    }
+
+    /**
+     * @return распределение времени чтения строк результата; учитываются только выполнения,
+     * вернувшие результат
+     */
+    public HistogramSnapshot getFetch() {
+        return fetch;
+    }
+
+    @Override
+    public String toString() {
+        return "QuerySnapshot{id=" + id + ", calls=" + getCalls() + ", rows=" + rows + ", errors=" + errors
+                + ", slow=" + slow + ", execute=" + execute + ", fetch=" + fetch + '}';
+    }
+}
@@ -0,0 +1,131 @@
+package metrics;
+
+import dao.statement.SqlBinds;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Время выполнения и выборки результата одного SQL-запроса, количество строк и ошибок.
+ * Запросы, отличающиеся только значениями литералов или форматированием, учитываются одним таймером.
+ */
+public final class QueryTimer {
+    private final String id;
+    private final String sql;
+    private final String labels;
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram fetch = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    /**
+     * Время последней записи о медленном запросе в журнал, чтобы не выводить ее чаще раза в секунду.
+     */
+    private final AtomicLong lastSlowLogNanos = new AtomicLong(System.nanoTime() - 1_000_000_000L);
+    private final AtomicLong slowAtLastLog = new AtomicLong();
+    private volatile boolean[] sensitiveParameters;
+
+    QueryTimer(String id, String sql) {
+        this.id = id;
+        this.sql = sql;
+        this.labels = PrometheusWriter.labels("sql_id", id);
+    }
+
+    /**
+     * Записывает выполнение запроса.
+     *
+     * @param executeNanos время выполнения в наносекундах
+     * @param fetchNanos   время чтения строк результата в наносекундах
+     * @param rowCount     количество прочитанных или измененных строк
+     * @param failed       true, если выполнение завершилось ошибкой
+     */
+    public void record(long executeNanos, long fetchNanos, long rowCount, boolean failed) {
+        execute.record(executeNanos);
+        if (fetchNanos > 0) {
+            fetch.record(fetchNanos);
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Учитывает медленное выполнение и решает, выводить ли его в журнал: не чаще раза в секунду на запрос.
+     *
+     * @return количество медленных выполнений с прошлой записи в журнал, включая текущее,
+     * или 0, если выводить не нужно
+     */
+    public long recordSlow() {
+        slow.increment();
+        long now = System.nanoTime();
+        long last = lastSlowLogNanos.get();
+        if (now - last < 1_000_000_000L || !lastSlowLogNanos.compareAndSet(last, now)) {
+            return 0;
+        }
+        long total = slow.sum();
+        return total - slowAtLastLog.getAndSet(total);
+    }
+
+    /**
+     * @return идентификатор нормализованного текста запроса, см. {@link dao.statement.SqlIds}
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return нормализованный текст запроса
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Признаки параметров, значения которых нельзя выводить в журнал. Вычисляются при первом обращении.
+     *
+     * @return признаки по номерам параметров, начиная с 0
+     */
+    public boolean[] getSensitiveParameters() {
+        boolean[] sensitive = sensitiveParameters;
+        if (sensitive == null) {
+            sensitive = SqlBinds.sensitiveParameters(sql);
+            sensitiveParameters = sensitive;
+        }
+        return sensitive;
+    }
+
+    String getLabels() {
+        return labels;
+    }
+
+    LatencyHistogram getExecute() {
+        return execute;
+    }
+
+    LatencyHistogram getFetch() {
+        return fetch;
+    }
+
+    long getRows() {
+        return rows.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getSlow() {
+        return slow.sum();
+    }
+
+    /**
+     * @return снимок статистики запроса
+     */
+    public QuerySnapshot snapshot() {
+        return new QuerySnapshot(id, sql, rows.sum(), errors.sum(), slow.sum(), execute.snapshot(), fetch.snapshot());
+    }
+}
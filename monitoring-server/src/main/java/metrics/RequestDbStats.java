@@ -0,0 +1,154 @@
+package metrics;
+
+import java.util.Arrays;
+
+/**
+ * Обращения к базе данных при обработке одного HTTP-запроса: выполненные SQL-запросы, полученные из пула
+ * соединения, прочитанные строки и время в базе.
+ * <p>
+ * Пока запрос обрабатывается, счетчики привязаны к потоку фильтром метрик, а пул соединений и прокси запросов
+ * отмечают в них каждое получение соединения ({@link #onConnection()}) и каждое выполнение
+ * ({@link #onStatement(QueryTimer, long, long)}). Кроме того, считается, сколько раз выполнялся каждый
+ * запрос, чтобы найти повторы одного запроса в цикле (N+1). Вне обработки HTTP-запроса, например в фоновых
+ * задачах, счетчики не привязаны и отметка сводится к чтению ThreadLocal.
+ * Счетчики используются одним потоком, поэтому не синхронизируются.
+ */
+public final class RequestDbStats {
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Наибольшее количество различных запросов, повторы которых отслеживаются в одном HTTP-запросе.
+     */
+    private static final int MAX_TRACKED_QUERIES = 32;
+
+    private int statements;
+    private int connections;
+    private long rows;
+    private long nanos;
+
+    /**
+     * Различные выполненные запросы и количество выполнений каждого; создаются при первом выполнении.
+     */
+    private QueryTimer[] queries;
+    private int[] executions;
+    private int distinct;
+
+    /**
+     * Отмечает выполнение SQL-запроса в счетчиках текущего потока, если они привязаны.
+     *
+     * @param query       таймер запроса
+     * @param nanos       время выполнения и чтения результата в наносекундах
+     * @param fetchedRows количество прочитанных строк результата
+     */
+    public static void onStatement(QueryTimer query, long nanos, long fetchedRows) {
+        RequestDbStats current = CURRENT.get();
+        if (current != null) {
+            current.statement(query, nanos, fetchedRows);
+        }
+    }
+
+    /**
+     * Отмечает получение соединения из пула в счетчиках текущего потока, если они привязаны.
+     */
+    public static void onConnection() {
+        RequestDbStats current = CURRENT.get();
+        if (current != null) {
+            current.connections++;
+        }
+    }
+
+    /**
+     * Привязывает счетчики к текущему потоку.
+     *
+     * @return счетчики, привязанные до этого, которые нужно передать в {@link #detach(RequestDbStats)}
+     */
+    public RequestDbStats attach() {
+        RequestDbStats previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    /**
+     * Возвращает потоку счетчики, привязанные до {@link #attach()}.
+     *
+     * @param previous предыдущие счетчики или null
+     */
+    public void detach(RequestDbStats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private void statement(QueryTimer query, long elapsedNanos, long fetchedRows) {
+        statements++;
+        rows += fetchedRows;
+        nanos += elapsedNanos;
+        if (queries == null) {
+            queries = new QueryTimer[4];
+            executions = new int[4];
+        }
+        for (int i = 0; i < distinct; i++) {
+            if (queries[i] == query) {
+                executions[i]++;
+                return;
+            }
+        }
+        if (distinct == MAX_TRACKED_QUERIES) {
+            return;
+        }
+        if (distinct == queries.length) {
+            queries = Arrays.copyOf(queries, distinct * 2);
+            executions = Arrays.copyOf(executions, distinct * 2);
+        }
+        queries[distinct] = query;
+        executions[distinct++] = 1;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Возвращает запрос, выполненный больше всего раз.
+     *
+     * @return таймер запроса или null, если запросов не было
+     */
+    public QueryTimer getMostRepeated() {
+        int index = mostRepeatedIndex();
+        return index < 0 ? null : queries[index];
+    }
+
+    /**
+     * Возвращает, сколько раз выполнен запрос {@link #getMostRepeated()}.
+     *
+     * @return количество выполнений или 0, если запросов не было
+     */
+    public int getMostRepeatedCount() {
+        int index = mostRepeatedIndex();
+        return index < 0 ? 0 : executions[index];
+    }
+
+    private int mostRepeatedIndex() {
+        int best = -1;
+        for (int i = 0; i < distinct; i++) {
+            if (best < 0 || executions[i] > executions[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,136 @@
+package metrics;
+
+import dao.readings.CachingReadingsRepository;
+import dao.readings.ReadingsRepository;
+import dao.user.CachingUserRepository;
+import dao.user.UserRepository;
+import service.audit.AuditWriterStats;
+import service.session.JdbcSessionStore;
+import service.session.SessionStats;
+import service.session.SessionStore;
+import utils.DBConnectionManager;
+import utils.ServiceFactory;
+import utils.cache.CacheStats;
+import utils.pool.PoolStats;
+
+/**
+ * Метрики компонентов сервера, читаемые при выгрузке: пул соединений и кэш подготовленных запросов,
+ * кэши показаний, пользователей, токенов и сессий, хранилище сессий и асинхронная запись аудита.
+ */
+public class ServerCollector implements Collector {
+    private static final String READINGS_CACHE = PrometheusWriter.labels("cache", "readings");
+    private static final String USERS_BY_EMAIL_CACHE = PrometheusWriter.labels("cache", "users_by_email");
+    private static final String USERS_BY_ID_CACHE = PrometheusWriter.labels("cache", "users_by_id");
+    private static final String TOKENS_CACHE = PrometheusWriter.labels("cache", "tokens");
+    private static final String SESSIONS_CACHE = PrometheusWriter.labels("cache", "sessions");
+    private static final String STATEMENTS_CACHE = PrometheusWriter.labels("cache", "statements");
+    private static final String IDLE = PrometheusWriter.labels("reason", "idle");
+    private static final String ABSOLUTE = PrometheusWriter.labels("reason", "absolute");
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        collectPool(writer);
+        collectCaches(writer);
+        collectSessions(writer);
+        collectAudit(writer);
+    }
+
+    private void collectPool(PrometheusWriter writer) {
+        PoolStats pool = DBConnectionManager.getPoolStats();
+        writer.family("db_pool_connections_active", "Connections borrowed from the pool", "gauge");
+        writer.sample("db_pool_connections_active", "", pool.getActive());
+        writer.family("db_pool_connections_idle", "Idle connections in the pool", "gauge");
+        writer.sample("db_pool_connections_idle", "", pool.getIdle());
+        writer.family("db_pool_connections_max", "Maximum pool size", "gauge");
+        writer.sample("db_pool_connections_max", "", pool.getMaxSize());
+        writer.family("db_pool_waiters", "Threads waiting for a connection", "gauge");
+        writer.sample("db_pool_waiters", "", pool.getWaiters());
+        writer.family("db_pool_timeouts_total", "Borrow attempts that timed out", "counter");
+        writer.sample("db_pool_timeouts_total", "", pool.getTimeouts());
+        writer.family("db_pool_leaks_total", "Connections held longer than the leak threshold", "counter");
+        writer.sample("db_pool_leaks_total", "", pool.getLeaksDetected());
+        writer.family("db_pool_acquire_seconds", "Time to borrow a connection from the pool", "histogram");
+        writer.histogram("db_pool_acquire_seconds", "", DBConnectionManager.getPoolBorrowLatency());
+    }
+
+    private void collectCaches(PrometheusWriter writer) {
+        PoolStats pool = DBConnectionManager.getPoolStats();
+        ReadingsRepository readings = ServiceFactory.getReadingsStorage();
+        UserRepository users = ServiceFactory.getUserStorage();
+        SessionStore sessions = ServiceFactory.getSessionStore();
+        CacheStats readingsStats = readings instanceof CachingReadingsRepository caching ? caching.getStats() : null;
+        CacheStats emailStats = users instanceof CachingUserRepository caching ? caching.getEmailCacheStats() : null;
+        CacheStats idStats = users instanceof CachingUserRepository caching ? caching.getIdCacheStats() : null;
+        CacheStats tokenStats = ServiceFactory.getTokenSigner().getCacheStats();
+        CacheStats sessionStats = sessions instanceof JdbcSessionStore jdbc ? jdbc.getNearCacheStats() : null;
+
+        writer.family("cache_hits_total", "Cache hits", "counter");
+        writeCache(writer, "cache_hits_total", readingsStats, emailStats, idStats, tokenStats, sessionStats,
+                CacheStats::getHits);
+        writer.sample("cache_hits_total", STATEMENTS_CACHE, pool.getStatementCacheHits());
+        writer.family("cache_misses_total", "Cache misses", "counter");
+        writeCache(writer, "cache_misses_total", readingsStats, emailStats, idStats, tokenStats, sessionStats,
+                CacheStats::getMisses);
+        writer.sample("cache_misses_total", STATEMENTS_CACHE, pool.getStatementCacheMisses());
+        writer.family("cache_evictions_total", "Entries evicted because the cache was full", "counter");
+        writeCache(writer, "cache_evictions_total", readingsStats, emailStats, idStats, tokenStats, sessionStats,
+                CacheStats::getEvictions);
+        writer.sample("cache_evictions_total", STATEMENTS_CACHE, pool.getStatementCacheEvictions());
+        writer.family("cache_size", "Entries in the cache", "gauge");
+        writeCache(writer, "cache_size", readingsStats, emailStats, idStats, tokenStats, sessionStats,
+                CacheStats::getSize);
+    }
+
+    private static void writeCache(PrometheusWriter writer, String name, CacheStats readings, CacheStats email,
+                                   CacheStats id, CacheStats tokens, CacheStats sessions,
+                                   java.util.function.ToLongFunction<CacheStats> value) {
+        writeCache(writer, name, READINGS_CACHE, readings, value);
+        writeCache(writer, name, USERS_BY_EMAIL_CACHE, email, value);
+        writeCache(writer, name, USERS_BY_ID_CACHE, id, value);
+        writeCache(writer, name, TOKENS_CACHE, tokens, value);
+        writeCache(writer, name, SESSIONS_CACHE, sessions, value);
+    }
+
+    private static void writeCache(PrometheusWriter writer, String name, String labels, CacheStats stats,
+                                   java.util.function.ToLongFunction<CacheStats> value) {
+        if (stats != null) {
+            writer.sample(name, labels, value.applyAsLong(stats));
+        }
+    }
+
+    private void collectSessions(PrometheusWriter writer) {
+        SessionStats stats = ServiceFactory.getSessionStore().getStats();
+        writer.family("sessions_active", "Stored sessions; for the database store, as of the last expiry sweep", "gauge");
+        writer.sample("sessions_active", "", stats.getActive());
+        writer.family("sessions_created_total", "Sessions created by logins", "counter");
+        writer.sample("sessions_created_total", "", stats.getCreated());
+        writer.family("sessions_invalidated_total", "Sessions ended by logout", "counter");
+        writer.sample("sessions_invalidated_total", "", stats.getInvalidated());
+        writer.family("sessions_expired_total", "Sessions removed after a timeout", "counter");
+        writer.sample("sessions_expired_total", IDLE, stats.getExpiredIdle());
+        writer.sample("sessions_expired_total", ABSOLUTE, stats.getExpiredAbsolute());
+        writer.family("session_lookups_total", "Session lookups by the authorization filter", "counter");
+        writer.sample("session_lookups_total", "", stats.getLookups());
+        writer.family("session_lookup_misses_total", "Lookups of missing or expired sessions", "counter");
+        writer.sample("session_lookup_misses_total", "", stats.getLookupMisses());
+    }
+
+    private void collectAudit(PrometheusWriter writer) {
+        AuditWriterStats stats = ServiceFactory.getAuditWriter().getStats();
+        writer.family("audit_queue_depth", "Audit events waiting to be written", "gauge");
+        writer.sample("audit_queue_depth", "", stats.getQueueDepth());
+        writer.family("audit_events_enqueued_total", "Audit events accepted into the queue", "counter");
+        writer.sample("audit_events_enqueued_total", "", stats.getEnqueued());
+        writer.family("audit_events_written_total", "Audit events written to the database", "counter");
+        writer.sample("audit_events_written_total", "", stats.getWritten());
+        writer.family("audit_events_dropped_total", "Audit events dropped because the queue was full", "counter");
+        writer.sample("audit_events_dropped_total", "", stats.getDropped());
+        writer.family("audit_events_spilled_total", "Audit events spilled to disk", "counter");
+        writer.sample("audit_events_spilled_total", "", stats.getSpilled());
+        writer.family("audit_events_failed_total", "Audit events that could not be written", "counter");
+        writer.sample("audit_events_failed_total", "", stats.getFailed());
+        writer.family("audit_events_rejected_total", "Audit events rejected by the database because of their data",
+                "counter");
+        writer.sample("audit_events_rejected_total", "", stats.getRejected());
+    }
+}
@@ -0,0 +1,469 @@
+package service.audit;
+
+import dao.audit.AuditRepository;
+import dao.audit.AuditWriteResult;
+import jfr.AuditFlushEvent;
+import model.audit.ActionType;
+import model.audit.AuditLog;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись событий аудита.
+ * Поток запроса только кладет событие в ограниченную очередь без блокировок, фоновый поток записывает
+ * накопленные события пакетами: как только набран пакет или самое раннее событие ждет дольше flushIntervalMs.
+ * Поведение при заполненной очереди задается {@link AuditWriterSettings.OverflowPolicy}.
+ * <p>
+ * События, сохраненные в файл (при переполнении или ошибке базы данных), записываются в базу данных,
+ * когда очередь пуста, в том числе после перезапуска приложения. После {@link #shutdown(long)}
+ * оставшиеся в очереди события дописываются, а новые записываются синхронно.
+ * <p>
+ * Если база данных отклонила пакет из-за его данных ({@link AuditWriteResult#REJECTED}), пакет делится пополам,
+ * пока отклоненные события не будут найдены по одному; они переносятся в файл с суффиксом .rejected
+ * и больше не записываются, остальные события пакета записываются. После временной ошибки перенос файла
+ * в базу данных повторяется с паузой, которая удваивается до {@link AuditWriterSettings#getSpillRetryMaxMs()}.
+ */
+public class AsyncAuditWriter {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AuditRepository auditRepository;
+    private final AuditWriterSettings settings;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedQueue<AuditLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object spillLock = new Object();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean spillPending;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private volatile int lastBatchSize;
+
+    /**
+     * Количество неудачных попыток перенести файл подряд и время следующей попытки. Используются только
+     * фоновым потоком.
+     */
+    private int replayFailures;
+    private long nextReplayNanos = System.nanoTime();
+
+    public AsyncAuditWriter(AuditRepository auditRepository, AuditWriterSettings settings) {
+        this.auditRepository = auditRepository;
+        this.settings = settings;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.getFlushIntervalMs());
+        Path spillFile = settings.getSpillFile();
+        this.spillPending = spillFile != null
+                && (Files.exists(spillFile) || Files.exists(replayFile(spillFile)));
+        this.writer = new Thread(this::runWriter, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Передает событие на запись. Не обращается к базе данных, пока работает фоновый поток.
+     *
+     * @param auditLog событие аудита
+     */
+    public void submit(AuditLog auditLog) {
+        if (!running) {
+            write(List.of(auditLog));
+            return;
+        }
+        if (tryEnqueue(auditLog)) {
+            return;
+        }
+        switch (settings.getOverflowPolicy()) {
+            case BLOCK -> {
+                LockSupport.unpark(writer);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getBlockTimeoutMs());
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    if (tryEnqueue(auditLog)) {
+                        return;
+                    }
+                }
+                dropped.increment();
+            }
+            case DROP -> dropped.increment();
+            case SPILL -> spill(List.of(auditLog));
+        }
+    }
+
+    /**
+     * Останавливает прием событий в очередь и ждет, пока фоновый поток запишет оставшиеся события.
+     *
+     * @param timeoutMs наибольшее время ожидания в миллисекундах
+     * @return true, если очередь записана полностью
+     */
+    public boolean shutdown(long timeoutMs) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Запись аудита не завершена за " + timeoutMs + " мс, в очереди осталось " + size.get()
+                    + " событий");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return снимок состояния записи аудита
+     */
+    public AuditWriterStats getStats() {
+        long flushCount = flushes.sum();
+        return new AuditWriterStats(size.get(), settings.getQueueCapacity(), enqueued.sum(), written.sum(),
+                dropped.sum(), spilled.sum(), failed.sum(), rejected.sum(), flushCount, lastBatchSize,
+                maxBatchSize.get(), flushCount == 0 ? 0 : flushNanos.sum() / flushCount, maxFlushNanos.get());
+    }
+
+    private boolean tryEnqueue(AuditLog auditLog) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= settings.getQueueCapacity()) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(auditLog);
+        enqueued.increment();
+        if (current + 1 == settings.getBatchSize()) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(settings.getBatchSize());
+        long lastFlush = System.nanoTime();
+        while (running || size.get() > 0) {
+            int pending = size.get();
+            long waited = System.nanoTime() - lastFlush;
+            if (pending >= settings.getBatchSize() || (pending > 0 && (waited >= flushIntervalNanos || !running))) {
+                drainTo(batch);
+                write(batch);
+                batch.clear();
+                lastFlush = System.nanoTime();
+                continue;
+            }
+            if (pending == 0) {
+                if (spillPending && System.nanoTime() - nextReplayNanos >= 0) {
+                    replaySpill();
+                }
+                lastFlush = System.nanoTime();
+                waited = 0;
+            }
+            if (running) {
+                LockSupport.parkNanos(this, flushIntervalNanos - waited);
+            }
+        }
+    }
+
+    private void drainTo(List<AuditLog> batch) {
+        while (batch.size() < settings.getBatchSize()) {
+            AuditLog auditLog = queue.poll();
+            if (auditLog == null) {
+                return;
+            }
+            size.decrementAndGet();
+            batch.add(auditLog);
+        }
+    }
+
+    /**
+     * Записывает пакет в базу данных. События, не записанные из-за временной ошибки, сохраняются в файл,
+     * если он задан.
+     */
+    private void write(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        lastBatchSize = batch.size();
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+
+        List<AuditLog> unwritten = new ArrayList<>();
+        store(batch, false, unwritten);
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        if (settings.getSpillFile() != null) {
+            spill(unwritten);
+        } else {
+            failed.add(unwritten.size());
+        }
+    }
+
+    /**
+     * Записывает события в базу данных. Если база данных отклонила пакет из-за данных, записывает
+     * его половины по отдельности, пока отклоненные события не будут найдены по одному.
+     *
+     * @param batch     события
+     * @param replay    true, если события перечитаны из файла
+     * @param unwritten список, в который добавляются события, не записанные из-за временной ошибки
+     * @return false, если запись прервана временной ошибкой
+     */
+    private boolean store(List<AuditLog> batch, boolean replay, List<AuditLog> unwritten) {
+        AuditWriteResult result = flush(batch, replay);
+        if (result == AuditWriteResult.WRITTEN) {
+            written.add(batch.size());
+            return true;
+        }
+        if (result == AuditWriteResult.FAILED) {
+            unwritten.addAll(batch);
+            return false;
+        }
+        if (batch.size() == 1) {
+            reject(batch.get(0));
+            return true;
+        }
+        int middle = batch.size() / 2;
+        if (!store(batch.subList(0, middle), replay, unwritten)) {
+            unwritten.addAll(batch.subList(middle, batch.size()));
+            return false;
+        }
+        return store(batch.subList(middle, batch.size()), replay, unwritten);
+    }
+
+    private AuditWriteResult flush(List<AuditLog> batch, boolean replay) {
+        AuditFlushEvent event = new AuditFlushEvent();
+        event.begin();
+        long start = System.nanoTime();
+        AuditWriteResult result = auditRepository.recordActions(batch);
+        long elapsed = System.nanoTime() - start;
+        commit(event, batch.size(), result == AuditWriteResult.WRITTEN, replay);
+
+        flushes.increment();
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        return result;
+    }
+
+    /**
+     * Переносит отклоненное базой данных событие в файл отклоненных событий, если файл сохранения задан.
+     */
+    private void reject(AuditLog auditLog) {
+        rejected.increment();
+        logger.error("Событие аудита отклонено базой данных и не будет записано: " + encode(auditLog));
+        Path spillFile = settings.getSpillFile();
+        if (spillFile == null) {
+            return;
+        }
+        synchronized (spillLock) {
+            try (BufferedWriter rejectedWriter = Files.newBufferedWriter(rejectedFile(spillFile),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                rejectedWriter.write(encode(auditLog));
+                rejectedWriter.newLine();
+            } catch (IOException e) {
+                logger.error("Ошибка при сохранении отклоненного события аудита в файл: " + e.getMessage());
+            }
+        }
+    }
+
+    private void spill(List<AuditLog> auditLogs) {
+        if (appendToSpillFile(auditLogs)) {
+            spilled.add(auditLogs.size());
+        }
+    }
+
+    private boolean appendToSpillFile(List<AuditLog> auditLogs) {
+        synchronized (spillLock) {
+            try (BufferedWriter spillWriter = Files.newBufferedWriter(settings.getSpillFile(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditLog auditLog : auditLogs) {
+                    spillWriter.write(encode(auditLog));
+                    spillWriter.newLine();
+                }
+                spillPending = true;
+                return true;
+            } catch (IOException e) {
+                failed.add(auditLogs.size());
+                logger.error("Ошибка при сохранении событий аудита в файл: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Переносит сохраненные в файл события в базу данных. Файл переименовывается перед чтением,
+     * чтобы новые события, сохраняемые в это время, не смешивались с перечитываемыми.
+     * При временной ошибке базы данных непрочитанная часть возвращается в файл и повторяется после паузы.
+     */
+    private void replaySpill() {
+        Path spillFile = settings.getSpillFile();
+        Path replayFile = replayFile(spillFile);
+        synchronized (spillLock) {
+            spillPending = false;
+            try {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                logger.error("Ошибка при чтении файла событий аудита: " + e.getMessage());
+                return;
+            }
+        }
+
+        List<AuditLog> batch = new ArrayList<>(settings.getBatchSize());
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            boolean success = true;
+            String line;
+            while (success && (line = reader.readLine()) != null) {
+                readLine(line, batch);
+                if (batch.size() == settings.getBatchSize()) {
+                    success = replayBatch(batch, reader);
+                }
+            }
+            if (success && !batch.isEmpty()) {
+                success = replayBatch(batch, reader);
+            }
+            if (success) {
+                replayFailures = 0;
+            } else {
+                replayFailures++;
+                long delayMs = Math.min(settings.getSpillRetryMaxMs(),
+                        Math.max(1, settings.getFlushIntervalMs()) << Math.min(replayFailures - 1, 20));
+                nextReplayNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            }
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении файла событий аудита: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(replayFile);
+        } catch (IOException e) {
+            logger.error("Ошибка при удалении файла событий аудита: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Записывает пакет перечитанных событий. При временной ошибке возвращает незаписанные события
+     * и остаток файла в файл сохранения.
+     *
+     * @return true, если пакет записан и чтение можно продолжать
+     */
+    private boolean replayBatch(List<AuditLog> batch, BufferedReader reader) throws IOException {
+        List<AuditLog> unwritten = new ArrayList<>();
+        boolean success = store(batch, true, unwritten);
+        batch.clear();
+        if (success) {
+            return true;
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            readLine(line, unwritten);
+        }
+        appendToSpillFile(unwritten);
+        return false;
+    }
+
+    private void commit(AuditFlushEvent event, int batchSize, boolean success, boolean replay) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setBatchSize(batchSize);
+            event.setSuccess(success);
+            event.setReplay(replay);
+            event.setQueueDepth(size.get());
+            event.commit();
+        }
+    }
+
+    /**
+     * Добавляет в пакет событие из строки файла. Поврежденная строка пропускается и считается потерянной.
+     */
+    private void readLine(String line, List<AuditLog> batch) {
+        if (line.isEmpty()) {
+            return;
+        }
+        try {
+            batch.add(decode(line));
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.error("Пропущена поврежденная строка файла событий аудита: " + line);
+        }
+    }
+
+    private static Path replayFile(Path spillFile) {
+        return spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+    }
+
+    private static Path rejectedFile(Path spillFile) {
+        return spillFile.resolveSibling(spillFile.getFileName() + ".rejected");
+    }
+
+    /**
+     * Кодирует событие в одну строку: поля разделены табуляцией, описание экранировано,
+     * отсутствующее описание обозначается знаком "-", присутствующее предваряется знаком "+".
+     */
+    static String encode(AuditLog auditLog) {
+        String description = auditLog.getActionDescription();
+        return auditLog.getUserId() + "\t" + auditLog.getActionType().name() + "\t" + auditLog.getActionTime() + "\t"
+                + (description == null ? "-" : "+" + escape(description));
+    }
+
+    static AuditLog decode(String line) {
+        String[] fields = line.split("\t", 4);
+        String description = fields[3].startsWith("+") ? unescape(fields[3].substring(1)) : null;
+        return new AuditLog(Integer.parseInt(fields[0]), ActionType.valueOf(fields[1]),
+                LocalDateTime.parse(fields[2]), description);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
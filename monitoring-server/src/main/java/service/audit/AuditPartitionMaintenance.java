@@ -0,0 +1,131 @@
+package service.audit;
+
+import config.ServerConfig;
+import dao.audit.AuditRepository;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обслуживание месячных секций журнала аудита.
+ * Заранее создает секции на aheadMonths месяцев вперед, чтобы вставка никогда не ждала DDL,
+ * и отсоединяет (или удаляет) секции старше retentionMonths месяцев. Удаление целой секции
+ * не оставляет в таблице мертвых строк, в отличие от DELETE по времени.
+ * <p>
+ * Строки за месяцы без секции попадают в секцию по умолчанию audit_logs_default. Если в ней есть строки,
+ * обслуживание выводит предупреждение и создает секции за эти месяцы, перенося в них строки.
+ */
+public class AuditPartitionMaintenance {
+    private static final Logger logger = LoggerConfig.getLogger();
+
+    private final AuditRepository auditRepository;
+    private final Clock clock;
+    private final int aheadMonths;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private final long intervalHours;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Создает обслуживание секций.
+     *
+     * @param auditRepository репозиторий аудита
+     * @param clock           часы для определения текущего месяца
+     * @param aheadMonths     количество месяцев вперед, для которых создаются секции
+     * @param retentionMonths количество хранимых месяцев, включая текущий, 0 отключает удаление
+     * @param dropExpired     удалять устаревшие секции, а не только отсоединять
+     * @param intervalHours   период запуска обслуживания в часах
+     */
+    public AuditPartitionMaintenance(AuditRepository auditRepository, Clock clock, int aheadMonths,
+                                     int retentionMonths, boolean dropExpired, long intervalHours) {
+        this.auditRepository = auditRepository;
+        this.clock = clock;
+        this.aheadMonths = aheadMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+        this.intervalHours = intervalHours;
+    }
+
+    /**
+     * Создает обслуживание секций по настройкам из файла свойств сервера.
+     *
+     * @param auditRepository репозиторий аудита
+     * @return обслуживание секций
+     */
+    public static AuditPartitionMaintenance fromConfig(AuditRepository auditRepository) {
+        return new AuditPartitionMaintenance(auditRepository, Clock.systemDefaultZone(),
+                ServerConfig.getInt("audit.partitions.ahead.months", 3),
+                ServerConfig.getInt("audit.retention.months", 24),
+                "DROP".equalsIgnoreCase(ServerConfig.getString("audit.retention.mode", "DETACH")),
+                ServerConfig.getLong("audit.maintenance.interval.hours", 24));
+    }
+
+    /**
+     * Выполняет обслуживание сразу и затем периодически в фоновом потоке.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        runOnce();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    /**
+     * Останавливает периодическое обслуживание.
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Создает секции за месяцы, строки которых попали в секцию по умолчанию, недостающие секции
+     * от текущего месяца до aheadMonths вперед и убирает устаревшие.
+     */
+    public void runOnce() {
+        YearMonth current = YearMonth.now(clock);
+        List<YearMonth> existing = auditRepository.getPartitionMonths();
+
+        List<YearMonth> defaultMonths = auditRepository.getDefaultPartitionMonths();
+        if (!defaultMonths.isEmpty()) {
+            logger.warn("В секции журнала аудита по умолчанию есть строки за " + defaultMonths
+                    + ": секции за эти месяцы не были созданы заранее, строки переносятся в новые секции");
+            for (YearMonth month : defaultMonths) {
+                if (!existing.contains(month) && auditRepository.createPartition(month)) {
+                    logger.info("Создана секция журнала аудита за " + month);
+                }
+            }
+        }
+
+        for (int i = 0; i <= aheadMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month) && auditRepository.createPartition(month)) {
+                logger.info("Создана секция журнала аудита за " + month);
+            }
+        }
+
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestRetained = current.minusMonths(retentionMonths - 1L);
+        for (YearMonth month : existing) {
+            if (month.isBefore(oldestRetained) && auditRepository.removePartition(month, dropExpired)) {
+                logger.info((dropExpired ? "Удалена" : "Отсоединена") + " секция журнала аудита за " + month);
+            }
+        }
+    }
+}
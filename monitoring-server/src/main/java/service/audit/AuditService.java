@@ -4,10 +4,11 @@ import annotations.Loggable;
 import model.audit.ActionType;
 import model.audit.AuditLog;
 
+import java.time.LocalDateTime;
 import java.util.List;
 @Loggable
 public interface AuditService {
     void recordAction(int userId, ActionType actionType, String actionDescription);
 
-    List<AuditLog> getUserActions(int userId);
+    List<AuditLog> getUserActions(int userId, LocalDateTime before, int limit);
 }
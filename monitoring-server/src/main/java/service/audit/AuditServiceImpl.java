@@ -5,6 +5,7 @@ import dao.audit.AuditRepository;
 import model.audit.ActionType;
 import model.audit.AuditLog;
 import utils.ServiceFactory;
+import utils.UnitOfWork;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,10 +18,17 @@ import java.util.List;
  */
 @Loggable
 public class AuditServiceImpl implements AuditService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AuditRepository auditRepository = ServiceFactory.getAuditStorage();
+    private final AsyncAuditWriter auditWriter = ServiceFactory.getAuditWriter();
 
     /**
      * Записывает действие пользователя.
+     * Действие передается фоновой записи аудита и сохраняется в базе данных в составе пакета,
+     * поток запроса не ждет обращения к базе данных.
+     * Если открыта единица работы, действие передается только после фиксации ее транзакции: событие
+     * не ссылается на еще не сохраненного пользователя и не записывается для отмененных изменений.
      *
      * @param userId Идентификатор пользователя.
      * @param actionType Тип действия.
@@ -29,17 +37,30 @@ public class AuditServiceImpl implements AuditService {
     @Override
     public void recordAction(int userId, ActionType actionType, String actionDescription) {
         AuditLog auditLog = new AuditLog(userId, actionType, LocalDateTime.now(), actionDescription);
-        auditRepository.recordAction(auditLog);
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            auditWriter.submit(auditLog);
+            return;
+        }
+        unitOfWork.afterCompletion(committed -> {
+            if (committed) {
+                auditWriter.submit(auditLog);
+            }
+        });
     }
 
     /**
-     * Получает действия пользователя.
+     * Получает страницу действий пользователя, начиная с последнего.
+     * Следующая страница запрашивается со временем последнего действия предыдущей страницы в качестве before.
+     * Размер страницы ограничен {@value #MAX_PAGE_SIZE} действиями.
      *
      * @param userId Идентификатор пользователя.
+     * @param before Время действия, раньше которого выбираются действия, или null для первой страницы.
+     * @param limit Размер страницы.
      * @return List<AuditLog> Список действий пользователя.
      */
     @Override
-    public List<AuditLog> getUserActions(int userId) {
-        return auditRepository.getUserActions(userId);
+    public List<AuditLog> getUserActions(int userId, LocalDateTime before, int limit) {
+        return auditRepository.getUserActionsBefore(userId, before, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 }
\ No newline at end of file
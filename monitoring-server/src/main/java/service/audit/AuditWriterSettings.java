@@ -0,0 +1,137 @@
+package service.audit;
+
+import config.ServerConfig;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Настройки асинхронной записи аудита.
+ */
+public class AuditWriterSettings {
+
+    /**
+     * Поведение при заполненной очереди событий аудита.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Поток запроса ждет освобождения места не дольше blockTimeoutMs, затем событие отбрасывается.
+         */
+        BLOCK,
+        /**
+         * Событие отбрасывается сразу, отброшенные события подсчитываются.
+         */
+        DROP,
+        /**
+         * Событие дописывается в файл на диске и записывается в базу данных позже.
+         */
+        SPILL
+    }
+
+    /**
+     * Максимальное количество событий в очереди.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Максимальное количество событий, записываемых одним пакетом.
+     */
+    private final int batchSize;
+
+    /**
+     * Наибольшее время в миллисекундах, которое событие ждет в очереди, если пакет не набран.
+     */
+    private final long flushIntervalMs;
+
+    /**
+     * Поведение при заполненной очереди.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Время ожидания места в очереди в миллисекундах для политики BLOCK.
+     */
+    private final long blockTimeoutMs;
+
+    /**
+     * Файл для событий, не поместившихся в очередь или не записанных из-за ошибки базы данных.
+     * Значение null отключает сохранение на диск. События, отклоненные базой данных из-за их данных,
+     * переносятся в соседний файл с суффиксом .rejected и больше не записываются.
+     */
+    private final Path spillFile;
+
+    /**
+     * Наибольшая пауза в миллисекундах между попытками перенести файл в базу данных после ошибки.
+     * Пауза начинается с flushIntervalMs и удваивается после каждой неудачной попытки.
+     */
+    private final long spillRetryMaxMs;
+
+    public AuditWriterSettings(int queueCapacity, int batchSize, long flushIntervalMs, OverflowPolicy overflowPolicy,
+                               long blockTimeoutMs, Path spillFile) {
+        this(queueCapacity, batchSize, flushIntervalMs, overflowPolicy, blockTimeoutMs, spillFile, 60000);
+    }
+
+    public AuditWriterSettings(int queueCapacity, int batchSize, long flushIntervalMs, OverflowPolicy overflowPolicy,
+                               long blockTimeoutMs, Path spillFile, long spillRetryMaxMs) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Размер очереди и пакета аудита должны быть положительными: "
+                    + queueCapacity + ", " + batchSize);
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && spillFile == null) {
+            throw new IllegalArgumentException("Для политики SPILL должен быть задан файл");
+        }
+        this.queueCapacity = queueCapacity;
+        this.batchSize = Math.min(batchSize, queueCapacity);
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.spillFile = spillFile;
+        this.spillRetryMaxMs = spillRetryMaxMs;
+    }
+
+    /**
+     * Создает настройки записи аудита из файла свойств сервера.
+     *
+     * @return настройки записи аудита
+     */
+    public static AuditWriterSettings fromConfig() {
+        String spillFile = ServerConfig.getString("audit.spill.file",
+                Paths.get(System.getProperty("java.io.tmpdir"), "monitoring-audit-spill.log").toString());
+        return new AuditWriterSettings(
+                ServerConfig.getInt("audit.queue.capacity", 10000),
+                ServerConfig.getInt("audit.batch.size", 200),
+                ServerConfig.getLong("audit.flush.interval.ms", 200),
+                OverflowPolicy.valueOf(ServerConfig.getString("audit.overflow.policy", "SPILL").toUpperCase()),
+                ServerConfig.getLong("audit.block.timeout.ms", 1000),
+                spillFile.isBlank() ? null : Paths.get(spillFile),
+                ServerConfig.getLong("audit.spill.retry.max.ms", 60000));
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getBlockTimeoutMs() {
+        return blockTimeoutMs;
+    }
+
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    public long getSpillRetryMaxMs() {
+        return spillRetryMaxMs;
+    }
+}
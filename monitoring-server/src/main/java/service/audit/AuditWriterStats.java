@@ -0,0 +1,126 @@
+package service.audit;
+
+/**
+ * Снимок состояния асинхронной записи аудита на момент запроса.
+ */
+public class AuditWriterStats {
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long enqueued;
+    private final long written;
+    private final long dropped;
+    private final long spilled;
+    private final long failed;
+    private final long rejected;
+    private final long flushes;
+    private final int lastBatchSize;
+    private final int maxBatchSize;
+    private final long meanFlushNanos;
+    private final long maxFlushNanos;
+
+    public AuditWriterStats(int queueDepth, int queueCapacity, long enqueued, long written, long dropped,
+                            long spilled, long failed, long rejected, long flushes, int lastBatchSize,
+                            int maxBatchSize, long meanFlushNanos, long maxFlushNanos) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.enqueued = enqueued;
+        this.written = written;
+        this.dropped = dropped;
+        this.spilled = spilled;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.flushes = flushes;
+        this.lastBatchSize = lastBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.meanFlushNanos = meanFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+    }
+
+    /**
+     * @return количество событий, ожидающих записи
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return количество событий, принятых в очередь
+     */
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    /**
+     * @return количество событий, записанных в базу данных
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return количество событий, отброшенных при заполненной очереди
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return количество событий, сохраненных в файл на диске
+     */
+    public long getSpilled() {
+        return spilled;
+    }
+
+    /**
+     * @return количество событий, потерянных из-за ошибки записи
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return количество событий, отклоненных базой данных из-за их данных
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return количество записанных пакетов
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return среднее время записи пакета в наносекундах
+     */
+    public long getMeanFlushNanos() {
+        return meanFlushNanos;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditWriterStats{queueDepth=" + queueDepth + ", queueCapacity=" + queueCapacity
+                + ", enqueued=" + enqueued + ", written=" + written + ", dropped=" + dropped
+                + ", spilled=" + spilled + ", failed=" + failed + ", rejected=" + rejected + ", flushes=" + flushes
+                + ", lastBatchSize=" + lastBatchSize + ", maxBatchSize=" + maxBatchSize
+                + ", meanFlushNanos=" + meanFlushNanos + ", maxFlushNanos=" + maxFlushNanos + "}";
+    }
+}
@@ -1,17 +1,23 @@
 package service.reading;
 
 import annotations.Loggable;
+import dao.readings.ReadingsExportFormat;
+import dao.readings.ReadingsImportResult;
 import model.readings.MeterReadings;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.time.Month;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiConsumer;
 @Loggable
 public interface MeterService {
 
     MeterReadings getCurrentReadings(Integer userId);
 
-    String postCurrentReadings(Integer userId, MeterReadings readings);
+    SubmitReadingsResult postCurrentReadings(Integer userId, MeterReadings readings);
 
     MeterReadings getReadingsForMonth(Integer userId, Month month);
 
@@ -19,5 +25,14 @@ public interface MeterService {
 
     Map<String, MeterReadings> getAllCurrentReadings();
 
+    Map<String, MeterReadings> getCurrentReadingsPage(String afterUsername, int limit);
+
+    boolean streamAllCurrentReadings(BiConsumer<String, MeterReadings> consumer);
+
+    ReadingsImportResult importReadings(Reader csv);
+
+    boolean exportReadings(Month fromMonth, Month toMonth, String meterType, ReadingsExportFormat format,
+                           OutputStream out) throws IOException;
+
     boolean validateReadings(MeterReadings r);
 }
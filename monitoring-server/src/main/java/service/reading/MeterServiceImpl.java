@@ -1,17 +1,25 @@
 package service.reading;
 
 import annotations.Loggable;
+import dao.readings.MeterTypeDictionary;
+import dao.readings.ReadingsExportFormat;
+import dao.readings.ReadingsImportResult;
+import dao.readings.ReadingsInsertResult;
 import dao.readings.ReadingsRepository;
 import model.audit.ActionType;
 import model.readings.MeterReadings;
 import service.audit.AuditService;
 import utils.ServiceFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.time.Month;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 /**
  * Реализация сервиса показаний счетчиков.
@@ -23,6 +31,7 @@ import java.util.Optional;
 public class MeterServiceImpl implements MeterService {
     private final ReadingsRepository readingsRepository = ServiceFactory.getReadingsStorage();
     private final AuditService auditService = ServiceFactory.getAuditService();
+    private final MeterTypeDictionary meterTypeDictionary = ServiceFactory.getMeterTypeDictionary();
 
     /**
      * Получает текущие показания счетчиков пользователя.
@@ -40,19 +49,25 @@ public class MeterServiceImpl implements MeterService {
      *
      * @param userId Идентификатор пользователя.
      * @param readings Объект MeterReadings, содержащий текущие показания счетчиков.
-     * @return String Сообщение о результате операции.
+     * @return SubmitReadingsResult Результат операции.
      */
     @Override
-    public String postCurrentReadings(Integer userId, MeterReadings readings) {
-        Optional<MeterReadings> existingReadings = readingsRepository.getReadingsForMonth(userId, readings.getMonth());
-        if (existingReadings.isPresent()) {
-            return "The readings for this month have already been submitted";
-        }
+    public SubmitReadingsResult postCurrentReadings(Integer userId, MeterReadings readings) {
         if (!validateReadings(readings)) {
-            return "Incorrect readings";
+            return SubmitReadingsResult.INCORRECT_READINGS;
+        }
+        ReadingsInsertResult result = readingsRepository.addNewReadings(userId, readings);
+        if (result.isAlreadySubmitted()) {
+            return SubmitReadingsResult.ALREADY_SUBMITTED;
+        }
+        if (result.hasUnknownMeterType()) {
+            return SubmitReadingsResult.INCORRECT_READINGS;
+        }
+        if (!result.isSuccess()) {
+            return SubmitReadingsResult.FAILED;
         }
         auditService.recordAction(userId, ActionType.SUBMIT_READING, "User submitted readings");
-        return readingsRepository.addNewReadings(userId, readings)? "Readings added" : "Something was wrong";
+        return SubmitReadingsResult.ADDED;
     }
 
     /**
@@ -90,18 +105,79 @@ public class MeterServiceImpl implements MeterService {
         return readingsRepository.getAllCurrentReadings();
     }
 
+    /**
+     * Получает страницу текущих показаний пользователей, упорядоченную по имени пользователя.
+     *
+     * @param afterUsername Имя пользователя, после которого начинается страница, или null для первой страницы.
+     * @param limit Максимальное количество пользователей на странице.
+     * @return Map<String, MeterReadings> Карта, упорядоченная по имени пользователя.
+     */
+    @Override
+    public Map<String, MeterReadings> getCurrentReadingsPage(String afterUsername, int limit) {
+        return readingsRepository.getCurrentReadingsPage(afterUsername, limit);
+    }
+
+    /**
+     * Передает текущие показания всех пользователей потребителю по мере чтения из базы данных.
+     *
+     * @param consumer Потребитель пар имя пользователя - текущие показания.
+     * @return boolean Возвращает true, если все показания прочитаны, иначе false.
+     */
+    @Override
+    public boolean streamAllCurrentReadings(BiConsumer<String, MeterReadings> consumer) {
+        return readingsRepository.streamAllCurrentReadings(consumer);
+    }
+
+    /**
+     * Загружает показания счетчиков из CSV-файла.
+     *
+     * @param csv Содержимое CSV-файла с колонками email, meter_type, month, reading.
+     * @return ReadingsImportResult Результат загрузки с отчетом об отклоненных строках.
+     */
+    @Override
+    public ReadingsImportResult importReadings(Reader csv) {
+        return readingsRepository.importReadings(csv);
+    }
+
+    /**
+     * Выгружает показания счетчиков всех пользователей за диапазон месяцев в поток вывода.
+     * Название типа счетчика заменяется идентификатором из справочника в памяти.
+     *
+     * @param fromMonth Первый месяц диапазона.
+     * @param toMonth Последний месяц диапазона включительно.
+     * @param meterType Название типа счетчика или null для всех типов.
+     * @param format Формат выгрузки.
+     * @param out Поток вывода.
+     * @return boolean Возвращает true, если выгрузка завершена, иначе false.
+     * @throws IOException В случае ошибки записи в поток вывода.
+     * @throws IllegalArgumentException Если тип счетчика неизвестен.
+     */
+    @Override
+    public boolean exportReadings(Month fromMonth, Month toMonth, String meterType, ReadingsExportFormat format,
+                                  OutputStream out) throws IOException {
+        Integer meterTypeId = null;
+        if (meterType != null) {
+            meterTypeId = meterTypeDictionary.getId(meterType);
+            if (meterTypeId == null) {
+                throw new IllegalArgumentException("Неизвестный тип счетчика: " + meterType);
+            }
+        }
+        return readingsRepository.exportReadings(fromMonth.getValue(), toMonth.getValue(), meterTypeId, format, out);
+    }
+
     /**
      * Проверяет, являются ли показания счетчиков действительными.
+     * Перечень типов счетчиков берется из справочника в памяти без обращения к базе данных.
      *
      * @param r Объект MeterReadings, содержащий показания счетчиков.
      * @return boolean Возвращает true, если показания действительны, иначе false.
      */
     @Override
     public boolean validateReadings(MeterReadings r) {
-        if (r == null || r.getMonth() == null) {
+        if (r == null || r.getMonth() == null || r.getReadings() == null) {
             return false;
         }
-        List<String> allMeterTypes = readingsRepository.getAllMeterTypes();
+        List<String> allMeterTypes = meterTypeDictionary.getNames();
         for (String meterType : allMeterTypes) {
             Integer reading = r.getReadings().get(meterType);
             if (reading == null || reading <= 0) {
@@ -0,0 +1,37 @@
+package service.reading;
+
+/**
+ * Результат подачи текущих показаний счетчиков.
+ */
+public enum SubmitReadingsResult {
+    /**
+     * Показания сохранены.
+     */
+    ADDED("Readings added"),
+    /**
+     * Показания не прошли проверку: не указан месяц, показание одного из счетчиков отсутствует
+     * или указан тип счетчика, которого нет в справочнике.
+     */
+    INCORRECT_READINGS("Incorrect readings"),
+    /**
+     * Показания за этот месяц уже поданы.
+     */
+    ALREADY_SUBMITTED("The readings for this month have already been submitted"),
+    /**
+     * Показания не сохранены из-за ошибки базы данных; подачу можно повторить.
+     */
+    FAILED("Something was wrong");
+
+    private final String message;
+
+    SubmitReadingsResult(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return сообщение о результате подачи для ответа клиенту
+     */
+    public String getMessage() {
+        return message;
+    }
+}
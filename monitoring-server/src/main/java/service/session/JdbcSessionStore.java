@@ -0,0 +1,432 @@
+package service.session;
+
+import dao.statement.SqlParameter;
+import dao.statement.Statements;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+import utils.UnitOfWork;
+import utils.cache.BoundedCache;
+import utils.cache.CacheStats;
+import utils.pool.ConnectionFactory;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Хранилище сессий в таблице user_sessions, общее для всех экземпляров сервера.
+ * <p>
+ * Таблица нежурналируемая: после сбоя базы данных она очищается, и пользователям нужно войти заново.
+ * Перед таблицей стоит локальный кэш с коротким временем хранения, поэтому фильтр авторизации обращается
+ * к базе данных не чаще раза за время хранения на сессию. Время последнего обращения записывается в базу
+ * не чаще интервала записи, поэтому тайм-аут бездействия соблюдается с точностью до этого интервала.
+ * <p>
+ * Завершение сессии удаляет строку и рассылает уведомление NOTIFY. Каждый экземпляр слушает уведомления
+ * на отдельном соединении и удаляет сессию из своего кэша. Если соединение прослушивания потеряно,
+ * кэш очищается целиком, а до восстановления соединения завершенная на другом экземпляре сессия
+ * действует здесь не дольше времени хранения в кэше.
+ */
+public class JdbcSessionStore implements SessionStore {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final String CHANNEL = "user_sessions_invalidated";
+
+    private final ConnectionFactory connections;
+    private final ConnectionFactory listenerConnections;
+    private final SessionSettings settings;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final BoundedCache<String, Session> nearCache;
+    private final Function<String, Session> loader = this::load;
+
+    private ScheduledExecutorService sweeper;
+    private ExecutorService listener;
+    private volatile boolean listening;
+    private volatile Connection listenerConnection;
+    private volatile boolean subscribed;
+    private volatile int activeSessions;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder expiredIdle = new LongAdder();
+    private final LongAdder expiredAbsolute = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAccumulator maxLookupNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder notifications = new LongAdder();
+
+    /**
+     * @param connections         источник соединений для запросов к таблице сессий; соединения должны
+     *                            работать в режиме автоматической фиксации и не зависеть от единицы работы запроса.
+     *                            Создание сессии внутри единицы работы с записью использует ее соединение
+     * @param listenerConnections источник отдельного соединения для прослушивания уведомлений
+     * @param settings            настройки хранилища
+     * @param clock               часы
+     */
+    public JdbcSessionStore(ConnectionFactory connections, ConnectionFactory listenerConnections,
+                            SessionSettings settings, Clock clock) {
+        this.connections = connections;
+        this.listenerConnections = listenerConnections;
+        this.settings = settings;
+        this.clock = clock;
+        this.nearCache = new BoundedCache<>(settings.getNearCacheSize(), settings.getNearCacheTtlMs());
+    }
+
+    /**
+     * Сохраняет новую сессию. Если запрос выполняется в единице работы с записью, строка сессии
+     * добавляется на ее соединении и фиксируется вместе со входом: запрос не занимает второе соединение
+     * пула, пока держит первое. Если транзакция откатывается, сессия удаляется из локального кэша.
+     */
+    @Override
+    public Session create(int userId, String username) {
+        String sql = """
+        INSERT INTO user_sessions (session_id, user_id, username, created_at_ms, last_access_ms, expires_at_ms)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+        long now = clock.millis();
+        Session session = new Session(Session.newId(random), userId, username, now,
+                now + settings.getAbsoluteTimeoutMs());
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        boolean inUnitOfWork = unitOfWork != null && !unitOfWork.isReadOnly();
+        try (Connection connection = inUnitOfWork ? unitOfWork.getConnection() : connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(session.getId()), SqlParameter.of(userId), SqlParameter.of(username),
+                     SqlParameter.of(now), SqlParameter.of(now), SqlParameter.of(session.getExpiresAtMillis()))) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Ошибка при сохранении сессии: " + e.getMessage());
+            throw new IllegalStateException("Не удалось сохранить сессию", e);
+        }
+        nearCache.put(session.getId(), session);
+        if (inUnitOfWork) {
+            unitOfWork.afterCompletion(committed -> {
+                if (!committed) {
+                    nearCache.invalidate(session.getId());
+                }
+            });
+        }
+        created.increment();
+        return session;
+    }
+
+    @Override
+    public Session touch(String sessionId) {
+        long start = System.nanoTime();
+        Session session = sessionId == null ? null : nearCache.get(sessionId, loader);
+        if (session != null) {
+            long now = clock.millis();
+            if (isExpired(session, now)) {
+                nearCache.invalidate(sessionId);
+                // Строка не удалена, если другой экземпляр успел отметить обращение: перечитываем ее
+                session = expire(sessionId, now) ? null : nearCache.get(sessionId, loader);
+                if (session != null && isExpired(session, now)) {
+                    session = null;
+                }
+            }
+            if (session != null && now - session.getLastAccessMillis() >= settings.getTouchWriteIntervalMs()) {
+                session.setLastAccessMillis(now);
+                writeLastAccess(sessionId, now);
+            }
+        }
+        if (session == null) {
+            lookupMisses.increment();
+        }
+        long elapsed = System.nanoTime() - start;
+        lookups.increment();
+        lookupNanos.add(elapsed);
+        maxLookupNanos.accumulate(elapsed);
+        return session;
+    }
+
+    /**
+     * Удаляет сессию и в том же запросе рассылает уведомление остальным экземплярам сервера.
+     */
+    @Override
+    public boolean invalidate(String sessionId) {
+        if (sessionId == null) {
+            return false;
+        }
+        String sql = """
+        WITH deleted AS (DELETE FROM user_sessions WHERE session_id = ? RETURNING session_id)
+        SELECT pg_notify('user_sessions_invalidated', session_id) FROM deleted
+        """;
+
+        nearCache.invalidate(sessionId);
+        try (Connection connection = connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(sessionId));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                invalidated.increment();
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка при завершении сессии: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public int sweep() {
+        String sql = """
+        WITH deleted AS (
+            DELETE FROM user_sessions
+            WHERE expires_at_ms <= ? OR last_access_ms <= ?
+            RETURNING expires_at_ms
+        )
+        SELECT count(*) FILTER (WHERE expires_at_ms <= ?) AS absolute, count(*) AS total,
+               (SELECT count(*) FROM user_sessions) - count(*) AS remaining
+        FROM deleted
+        """;
+
+        long now = clock.millis();
+        long idleBefore = now - settings.getIdleTimeoutMs();
+        try (Connection connection = connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(now), SqlParameter.of(idleBefore), SqlParameter.of(now));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            int absolute = resultSet.getInt("absolute");
+            int total = resultSet.getInt("total");
+            expiredAbsolute.add(absolute);
+            expiredIdle.add(total - absolute);
+            activeSessions = resultSet.getInt("remaining");
+            return total;
+        } catch (SQLException e) {
+            logger.error("Ошибка при удалении истекших сессий: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Запускает периодическое удаление истекших сессий и прослушивание уведомлений о завершении сессий.
+     */
+    @Override
+    public synchronized void start() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // первое удаление сразу при запуске, чтобы метрика количества сессий не ждала интервала
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, 0, settings.getSweepIntervalMs(),
+                TimeUnit.MILLISECONDS);
+
+        listening = true;
+        listener = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-invalidation-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        listener.execute(this::listen);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (sweeper == null) {
+            return;
+        }
+        listening = false;
+        sweeper.shutdownNow();
+        listener.shutdownNow();
+        closeQuietly(listenerConnection);
+        try {
+            listener.awaitTermination(settings.getListenTimeoutMs() * 2L, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sweeper = null;
+        listener = null;
+    }
+
+    @Override
+    public int getActiveSessions() {
+        try (Connection connection = connections.create();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM user_sessions")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        } catch (SQLException e) {
+            logger.error("Ошибка при подсчете сессий: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Счетчики создания, завершения, поиска и удаления по сроку учитывают только операции этого экземпляра.
+     * Количество сессий не считается в базе данных при каждом вызове: это значение, полученное при последнем
+     * удалении истекших сессий, поэтому снимок статистики не обращается к пулу соединений.
+     */
+    @Override
+    public SessionStats getStats() {
+        return new SessionStats(activeSessions, created.sum(), invalidated.sum(), expiredIdle.sum(),
+                expiredAbsolute.sum(), lookups.sum(), lookupMisses.sum(), lookupNanos.sum(), maxLookupNanos.get());
+    }
+
+    /**
+     * @return статистика локального кэша сессий
+     */
+    public CacheStats getNearCacheStats() {
+        return nearCache.getStats();
+    }
+
+    /**
+     * @return количество полученных уведомлений о завершении сессий
+     */
+    public long getNotificationsReceived() {
+        return notifications.sum();
+    }
+
+    /**
+     * @return true, если экземпляр подписан на уведомления о завершении сессий
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now >= session.getExpiresAtMillis()
+                || now - session.getLastAccessMillis() >= settings.getIdleTimeoutMs();
+    }
+
+    private Session load(String sessionId) {
+        String sql = """
+        SELECT user_id, username, created_at_ms, last_access_ms, expires_at_ms
+        FROM user_sessions
+        WHERE session_id = ?
+        """;
+
+        try (Connection connection = connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(sessionId));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            Session session = new Session(sessionId, resultSet.getInt("user_id"), resultSet.getString("username"),
+                    resultSet.getLong("created_at_ms"), resultSet.getLong("expires_at_ms"));
+            session.setLastAccessMillis(resultSet.getLong("last_access_ms"));
+            return session;
+        } catch (SQLException e) {
+            logger.error("Ошибка при поиске сессии: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Удаляет сессию, если она истекла и по данным базы данных.
+     *
+     * @return true, если строка удалена этим вызовом
+     */
+    private boolean expire(String sessionId, long now) {
+        String sql = """
+        DELETE FROM user_sessions
+        WHERE session_id = ? AND (expires_at_ms <= ? OR last_access_ms <= ?)
+        RETURNING expires_at_ms <= ? AS absolute
+        """;
+
+        try (Connection connection = connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql, SqlParameter.of(sessionId),
+                     SqlParameter.of(now), SqlParameter.of(now - settings.getIdleTimeoutMs()), SqlParameter.of(now));
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (!resultSet.next()) {
+                return false;
+            }
+            (resultSet.getBoolean("absolute") ? expiredAbsolute : expiredIdle).increment();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Ошибка при удалении истекшей сессии: " + e.getMessage());
+            return true;
+        }
+    }
+
+    private void writeLastAccess(String sessionId, long now) {
+        String sql = """
+        UPDATE user_sessions
+        SET last_access_ms = ?
+        WHERE session_id = ? AND last_access_ms < ?
+        """;
+
+        try (Connection connection = connections.create();
+             PreparedStatement preparedStatement = Statements.prepare(connection, sql,
+                     SqlParameter.of(now), SqlParameter.of(sessionId), SqlParameter.of(now))) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Ошибка при записи обращения к сессии: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Слушает уведомления о завершении сессий, пока хранилище не остановлено.
+     * После потери соединения очищает локальный кэш и переподключается.
+     */
+    private void listen() {
+        while (listening) {
+            try (Connection connection = listenerConnections.create()) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                subscribed = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (listening) {
+                    PGNotification[] received = pgConnection.getNotifications(settings.getListenTimeoutMs());
+                    if (received == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        nearCache.invalidate(notification.getParameter());
+                        notifications.increment();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!listening) {
+                    return;
+                }
+                logger.error("Потеряно соединение прослушивания завершения сессий: " + e.getMessage());
+                nearCache.invalidateAll();
+                try {
+                    Thread.sleep(settings.getListenTimeoutMs());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                subscribed = false;
+                listenerConnection = null;
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        int removed = sweep();
+        if (removed > 0) {
+            logger.info("Удалено истекших сессий: " + removed);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Ошибка при закрытии соединения прослушивания: " + e.getMessage());
+        }
+    }
+}
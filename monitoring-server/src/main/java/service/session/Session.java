@@ -0,0 +1,71 @@
+package service.session;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Сессия пользователя.
+ * Сессия действует, пока к ней обращаются не реже тайм-аута бездействия, и не дольше абсолютного срока.
+ */
+public final class Session {
+    private static final int ID_BYTES = 16;
+
+    private final String id;
+    private final int userId;
+    private final String username;
+    private final long createdAtMillis;
+    private final long expiresAtMillis;
+    private volatile long lastAccessMillis;
+
+    public Session(String id, int userId, String username, long createdAtMillis, long expiresAtMillis) {
+        this.id = id;
+        this.userId = userId;
+        this.username = username;
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.lastAccessMillis = createdAtMillis;
+    }
+
+    /**
+     * Создает случайный идентификатор сессии: 16 байт в base64url без дополнения.
+     *
+     * @param random источник случайных чисел
+     * @return идентификатор сессии
+     */
+    static String newId(SecureRandom random) {
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return момент окончания абсолютного срока действия сессии
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void setLastAccessMillis(long lastAccessMillis) {
+        this.lastAccessMillis = lastAccessMillis;
+    }
+}
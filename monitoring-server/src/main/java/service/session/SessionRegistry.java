@@ -0,0 +1,183 @@
+package service.session;
+
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Хранилище сессий пользователей в памяти одного экземпляра сервера.
+ * У пользователя может быть несколько сессий, например на разных устройствах; выход завершает только
+ * текущую сессию. Поиск сессии выполняется без блокировок. Время последнего обращения обновляется
+ * не чаще раза в секунду, чтобы частые запросы одной сессии не записывали в общую память на каждом вызове.
+ * <p>
+ * Сессия удаляется при обращении к ней после истечения тайм-аута бездействия или абсолютного срока,
+ * а сессии, к которым больше не обращаются, удаляет фоновый поток с заданным интервалом.
+ */
+public class SessionRegistry implements SessionStore {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final long TOUCH_RESOLUTION_MS = 1000;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutMs;
+    private final long absoluteTimeoutMs;
+    private final long sweepIntervalMs;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private ScheduledExecutorService sweeper;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder expiredIdle = new LongAdder();
+    private final LongAdder expiredAbsolute = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAccumulator maxLookupNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * @param idleTimeoutMs     тайм-аут бездействия сессии в миллисекундах
+     * @param absoluteTimeoutMs абсолютный срок действия сессии в миллисекундах
+     * @param sweepIntervalMs   интервал удаления истекших сессий в миллисекундах
+     * @param clock             часы
+     */
+    public SessionRegistry(long idleTimeoutMs, long absoluteTimeoutMs, long sweepIntervalMs, Clock clock) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.absoluteTimeoutMs = absoluteTimeoutMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Создает реестр из файла свойств сервера.
+     *
+     * @return реестр сессий
+     */
+    public static SessionRegistry fromConfig() {
+        SessionSettings settings = SessionSettings.fromConfig();
+        return new SessionRegistry(settings.getIdleTimeoutMs(), settings.getAbsoluteTimeoutMs(),
+                settings.getSweepIntervalMs(), Clock.systemUTC());
+    }
+
+    @Override
+    public Session create(int userId, String username) {
+        String id = Session.newId(random);
+        long now = clock.millis();
+        Session session = new Session(id, userId, username, now, now + absoluteTimeoutMs);
+        sessions.put(id, session);
+        created.increment();
+        return session;
+    }
+
+    @Override
+    public Session touch(String sessionId) {
+        long start = System.nanoTime();
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        if (session != null) {
+            long now = clock.millis();
+            if (expire(session, now)) {
+                session = null;
+            } else if (now - session.getLastAccessMillis() >= TOUCH_RESOLUTION_MS) {
+                session.setLastAccessMillis(now);
+            }
+        }
+        if (session == null) {
+            lookupMisses.increment();
+        }
+        long elapsed = System.nanoTime() - start;
+        lookups.increment();
+        lookupNanos.add(elapsed);
+        maxLookupNanos.accumulate(elapsed);
+        return session;
+    }
+
+    @Override
+    public boolean invalidate(String sessionId) {
+        if (sessionId == null || sessions.remove(sessionId) == null) {
+            return false;
+        }
+        invalidated.increment();
+        return true;
+    }
+
+    @Override
+    public int sweep() {
+        long now = clock.millis();
+        int removed = 0;
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (expire(iterator.next(), now)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    @Override
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    @Override
+    public SessionStats getStats() {
+        return new SessionStats(sessions.size(), created.sum(), invalidated.sum(), expiredIdle.sum(),
+                expiredAbsolute.sum(), lookups.sum(), lookupMisses.sum(), lookupNanos.sum(), maxLookupNanos.get());
+    }
+
+    /**
+     * Удаляет сессию, если она истекла. Удаление условное: сессия, уже удаленная другим потоком, не учитывается
+     * повторно.
+     *
+     * @return true, если сессия истекла
+     */
+    private boolean expire(Session session, long now) {
+        boolean absolute = now >= session.getExpiresAtMillis();
+        if (!absolute && now - session.getLastAccessMillis() < idleTimeoutMs) {
+            return false;
+        }
+        if (sessions.remove(session.getId(), session)) {
+            (absolute ? expiredAbsolute : expiredIdle).increment();
+        }
+        return true;
+    }
+
+    private void sweepQuietly() {
+        try {
+            int removed = sweep();
+            if (removed > 0) {
+                logger.info("Удалено истекших сессий: " + removed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Ошибка при удалении истекших сессий: " + e.getMessage());
+        }
+    }
+}
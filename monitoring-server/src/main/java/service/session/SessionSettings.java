@@ -0,0 +1,125 @@
+package service.session;
+
+import config.ServerConfig;
+
+/**
+ * Настройки хранилища сессий.
+ */
+public class SessionSettings {
+
+    /**
+     * Реализация хранилища сессий.
+     */
+    public enum StoreType {
+        /**
+         * Сессии хранятся в памяти одного экземпляра сервера.
+         */
+        MEMORY,
+        /**
+         * Сессии хранятся в базе данных и доступны всем экземплярам сервера.
+         */
+        JDBC
+    }
+
+    private final StoreType storeType;
+
+    /**
+     * Тайм-аут бездействия сессии в миллисекундах.
+     */
+    private final long idleTimeoutMs;
+
+    /**
+     * Абсолютный срок действия сессии в миллисекундах.
+     */
+    private final long absoluteTimeoutMs;
+
+    /**
+     * Интервал удаления истекших сессий в миллисекундах.
+     */
+    private final long sweepIntervalMs;
+
+    /**
+     * Наименьший интервал в миллисекундах между записями времени обращения к сессии в базу данных.
+     */
+    private final long touchWriteIntervalMs;
+
+    /**
+     * Максимальное количество сессий в локальном кэше.
+     */
+    private final int nearCacheSize;
+
+    /**
+     * Время хранения сессии в локальном кэше в миллисекундах.
+     */
+    private final long nearCacheTtlMs;
+
+    /**
+     * Время ожидания уведомлений о завершении сессий за один опрос в миллисекундах.
+     */
+    private final int listenTimeoutMs;
+
+    public SessionSettings(StoreType storeType, long idleTimeoutMs, long absoluteTimeoutMs, long sweepIntervalMs,
+                           long touchWriteIntervalMs, int nearCacheSize, long nearCacheTtlMs, int listenTimeoutMs) {
+        if (touchWriteIntervalMs >= idleTimeoutMs) {
+            throw new IllegalArgumentException("Интервал записи обращения к сессии должен быть меньше "
+                    + "тайм-аута бездействия: " + touchWriteIntervalMs + ", " + idleTimeoutMs);
+        }
+        this.storeType = storeType;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.absoluteTimeoutMs = absoluteTimeoutMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.touchWriteIntervalMs = touchWriteIntervalMs;
+        this.nearCacheSize = nearCacheSize;
+        this.nearCacheTtlMs = nearCacheTtlMs;
+        this.listenTimeoutMs = listenTimeoutMs;
+    }
+
+    /**
+     * Создает настройки хранилища сессий из файла свойств сервера.
+     *
+     * @return настройки хранилища сессий
+     */
+    public static SessionSettings fromConfig() {
+        return new SessionSettings(
+                StoreType.valueOf(ServerConfig.getString("session.store", "MEMORY").toUpperCase()),
+                ServerConfig.getLong("session.idle.timeout.ms", 1800000),
+                ServerConfig.getLong("session.absolute.timeout.ms", 86400000),
+                ServerConfig.getLong("session.sweep.interval.ms", 60000),
+                ServerConfig.getLong("session.touch.write.interval.ms", 60000),
+                ServerConfig.getInt("session.near.cache.size", 10000),
+                ServerConfig.getLong("session.near.cache.ttl.ms", 5000),
+                ServerConfig.getInt("session.listen.timeout.ms", 1000));
+    }
+
+    public StoreType getStoreType() {
+        return storeType;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public long getAbsoluteTimeoutMs() {
+        return absoluteTimeoutMs;
+    }
+
+    public long getSweepIntervalMs() {
+        return sweepIntervalMs;
+    }
+
+    public long getTouchWriteIntervalMs() {
+        return touchWriteIntervalMs;
+    }
+
+    public int getNearCacheSize() {
+        return nearCacheSize;
+    }
+
+    public long getNearCacheTtlMs() {
+        return nearCacheTtlMs;
+    }
+
+    public int getListenTimeoutMs() {
+        return listenTimeoutMs;
+    }
+}
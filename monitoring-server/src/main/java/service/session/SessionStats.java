@@ -0,0 +1,95 @@
+package service.session;
+
+/**
+ * Снимок статистики реестра сессий.
+ */
+public class SessionStats {
+    private final int active;
+    private final long created;
+    private final long invalidated;
+    private final long expiredIdle;
+    private final long expiredAbsolute;
+    private final long lookups;
+    private final long lookupMisses;
+    private final long totalLookupNanos;
+    private final long maxLookupNanos;
+
+    public SessionStats(int active, long created, long invalidated, long expiredIdle, long expiredAbsolute,
+                        long lookups, long lookupMisses, long totalLookupNanos, long maxLookupNanos) {
+        this.active = active;
+        this.created = created;
+        this.invalidated = invalidated;
+        this.expiredIdle = expiredIdle;
+        this.expiredAbsolute = expiredAbsolute;
+        this.lookups = lookups;
+        this.lookupMisses = lookupMisses;
+        this.totalLookupNanos = totalLookupNanos;
+        this.maxLookupNanos = maxLookupNanos;
+    }
+
+    /**
+     * @return количество хранимых сессий, включая истекшие, которые еще не удалены
+     */
+    public int getActive() {
+        return active;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return количество сессий, завершенных выходом пользователя
+     */
+    public long getInvalidated() {
+        return invalidated;
+    }
+
+    /**
+     * @return количество сессий, удаленных по тайм-ауту бездействия
+     */
+    public long getExpiredIdle() {
+        return expiredIdle;
+    }
+
+    /**
+     * @return количество сессий, удаленных по истечении абсолютного срока
+     */
+    public long getExpiredAbsolute() {
+        return expiredAbsolute;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return количество обращений к отсутствующим или истекшим сессиям
+     */
+    public long getLookupMisses() {
+        return lookupMisses;
+    }
+
+    public long getTotalLookupNanos() {
+        return totalLookupNanos;
+    }
+
+    /**
+     * @return среднее время поиска сессии в наносекундах или 0, если поиска не было
+     */
+    public double getAverageLookupNanos() {
+        return lookups == 0 ? 0 : (double) totalLookupNanos / lookups;
+    }
+
+    public long getMaxLookupNanos() {
+        return maxLookupNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionStats{active=" + active + ", created=" + created + ", invalidated=" + invalidated
+                + ", expiredIdle=" + expiredIdle + ", expiredAbsolute=" + expiredAbsolute
+                + ", lookups=" + lookups + ", lookupMisses=" + lookupMisses
+                + ", averageLookupNanos=" + getAverageLookupNanos() + ", maxLookupNanos=" + maxLookupNanos + '}';
+    }
+}
@@ -0,0 +1,61 @@
+package service.session;
+
+/**
+ * Хранилище сессий пользователей.
+ * Реализация в памяти подходит для одного экземпляра сервера, реализация в базе данных позволяет
+ * нескольким экземплярам за балансировщиком нагрузки видеть одни и те же сессии.
+ */
+public interface SessionStore {
+
+    /**
+     * Создает сессию пользователя.
+     *
+     * @param userId   идентификатор пользователя
+     * @param username имя пользователя
+     * @return новая сессия со случайным идентификатором
+     */
+    Session create(int userId, String username);
+
+    /**
+     * Находит действующую сессию и отмечает обращение к ней.
+     *
+     * @param sessionId идентификатор сессии
+     * @return сессия или null, если сессия не найдена или истекла
+     */
+    Session touch(String sessionId);
+
+    /**
+     * Завершает сессию.
+     *
+     * @param sessionId идентификатор сессии
+     * @return true, если сессия была действующей
+     */
+    boolean invalidate(String sessionId);
+
+    /**
+     * Удаляет истекшие сессии.
+     *
+     * @return количество удаленных сессий
+     */
+    int sweep();
+
+    /**
+     * Запускает фоновые потоки хранилища.
+     */
+    void start();
+
+    /**
+     * Останавливает фоновые потоки хранилища.
+     */
+    void shutdown();
+
+    /**
+     * @return количество хранимых сессий
+     */
+    int getActiveSessions();
+
+    /**
+     * @return снимок статистики хранилища
+     */
+    SessionStats getStats();
+}
@@ -0,0 +1,102 @@
+package service.user;
+
+/**
+ * Результат входа пользователя.
+ * При успешном входе содержит данные пользователя, необходимые для выдачи токена,
+ * поэтому после входа не требуется повторно обращаться к базе данных.
+ */
+public class LoginResult {
+
+    /**
+     * Итог входа.
+     */
+    public enum Status {
+        /**
+         * Пользователь вошел в систему.
+         */
+        SUCCESS("You are logged in"),
+        /**
+         * Пользователь не найден или пароль неверен.
+         */
+        INVALID_CREDENTIALS("Invalid username or password");
+
+        private final String message;
+
+        Status(String message) {
+            this.message = message;
+        }
+    }
+
+    private final Status status;
+    private final Integer userId;
+    private final String username;
+    private final String email;
+    private final boolean admin;
+    private final String sessionId;
+
+    private LoginResult(Status status, Integer userId, String username, String email, boolean admin,
+                        String sessionId) {
+        this.status = status;
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.admin = admin;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @param userId    идентификатор пользователя
+     * @param username  имя пользователя
+     * @param email     электронная почта пользователя
+     * @param admin     является ли пользователь администратором
+     * @param sessionId идентификатор созданной сессии
+     * @return результат успешного входа
+     */
+    public static LoginResult success(Integer userId, String username, String email, boolean admin,
+                                      String sessionId) {
+        return new LoginResult(Status.SUCCESS, userId, username, email, admin, sessionId);
+    }
+
+    /**
+     * @param status итог неуспешного входа
+     * @return результат без данных пользователя
+     */
+    public static LoginResult failure(Status status) {
+        return new LoginResult(status, null, null, null, false, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    /**
+     * @return сообщение о результате входа для ответа клиенту
+     */
+    public String getMessage() {
+        return status.message;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+}
@@ -7,15 +7,7 @@ import model.user.dto.UserDto;
 public interface UserService {
     String register(UserDto userDto);
 
-    String login(UserDto userDto);
+    LoginResult login(UserDto userDto);
 
-    String getSalt(UserDto userDto);
-
-    String logout(String username);
-
-    boolean isLogin(String username);
-
-    boolean isAdmin(String email);
-
-    Integer getId(String email);
+    String logout(String sessionId, Integer userId);
 }
@@ -6,21 +6,22 @@ import model.audit.ActionType;
 import model.user.User;
 import model.user.dto.UserDto;
 import service.audit.AuditService;
+import service.session.Session;
+import service.session.SessionStore;
+import utils.PasswordUtils;
 import utils.ServiceFactory;
 
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * Реализация сервиса пользователей.
- * Этот класс реализует интерфейс UserService и предоставляет методы для регистрации, входа, получения соли, выхода, проверки входа, проверки администратора и получения идентификатора пользователя.
+ * Этот класс реализует интерфейс UserService и предоставляет методы для регистрации, входа и выхода пользователя.
  *
  * @Loggable Аннотация, указывающая, что вызовы методов этого класса должны быть залогированы.
  */
 @Loggable
 public class UserServiceImpl implements UserService {
-    private final Set<String> onlineUsers = new HashSet<>();
+    private final SessionStore sessionStore = ServiceFactory.getSessionStore();
     private final UserRepository userRepository = ServiceFactory.getUserStorage();
     private final AuditService auditService = ServiceFactory.getAuditService();
 
@@ -32,96 +33,55 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public String register(UserDto userDto) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDto.getEmail());
-        if (optionalUser.isPresent()) {
+        Optional<Integer> userId = userRepository.addNewUser(userDto.getUsername(), userDto.getEmail(),
+                userDto.getPassword(), userDto.getSalt());
+        if (userId.isEmpty()) {
             return "A user with that name already exists";
         }
 
-        userRepository.addNewUser(userDto.getUsername(), userDto.getEmail(), userDto.getPassword(), userDto.getSalt());
-        optionalUser = userRepository.findByEmail(userDto.getEmail());
-        optionalUser.ifPresent(user -> auditService.recordAction(user.getId(), ActionType.REGISTER, "User registered"));
+        auditService.recordAction(userId.get(), ActionType.REGISTER, "User registered");
         return "Registration was successful";
     }
 
     /**
      * Вход пользователя.
+     * Соль, хеш пароля, идентификатор и признак администратора читаются одним запросом,
+     * пароль хешируется с солью пользователя и сравнивается с сохраненным хешем.
+     * Каждый вход создает новую сессию, прежние сессии пользователя продолжают действовать.
      *
-     * @param userDto Объект UserDto, содержащий данные пользователя.
-     * @return String Сообщение о результате операции.
+     * @param userDto Объект UserDto, содержащий электронную почту и пароль пользователя.
+     * @return LoginResult Результат входа с данными пользователя для выдачи токена.
      */
     @Override
-    public String login(UserDto userDto) {
+    public LoginResult login(UserDto userDto) {
         Optional<User> optionalUser = userRepository.findByEmail(userDto.getEmail());
-        if (optionalUser.isEmpty() || !optionalUser.get().getPassword().equals(userDto.getPassword())) {
-            return "Invalid username or password";
+        if (optionalUser.isEmpty()) {
+            return LoginResult.failure(LoginResult.Status.INVALID_CREDENTIALS);
         }
 
-        if (isLogin(optionalUser.get().getUsername())) {
-            return "You are already logged in";
+        User user = optionalUser.get();
+        String hashedPassword = PasswordUtils.hashPassword(userDto.getPassword(), user.getSalt());
+        if (!user.getPassword().equals(hashedPassword)) {
+            return LoginResult.failure(LoginResult.Status.INVALID_CREDENTIALS);
         }
 
-        onlineUsers.add(optionalUser.get().getUsername());
-        auditService.recordAction(optionalUser.get().getId(), ActionType.LOGIN, "User logged in");
-        return "You are logged in";
-    }
-
-    /**
-     * Получает соль пользователя.
-     *
-     * @param userDto Объект UserDto, содержащий данные пользователя.
-     * @return String Соль пользователя.
-     */
-    @Override
-    public String getSalt(UserDto userDto){
-        Optional<User> optionalUser = userRepository.findByEmail(userDto.getEmail());
-        return optionalUser.map(User::getSalt).orElse(null);
+        Session session = sessionStore.create(user.getId(), user.getUsername());
+        auditService.recordAction(user.getId(), ActionType.LOGIN, "User logged in");
+        return LoginResult.success(user.getId(), user.getUsername(), user.getEmail(), user.isAdmin(),
+                session.getId());
     }
 
     /**
-     * Выход пользователя.
+     * Выход пользователя. Завершает только указанную сессию.
      *
-     * @param username Имя пользователя.
+     * @param sessionId Идентификатор сессии.
+     * @param userId Идентификатор пользователя.
      * @return String Сообщение о результате операции.
      */
     @Override
-    public String logout(String username) {
-        onlineUsers.remove(username);
-        auditService.recordAction(userRepository.getUserIdFromName(username),
-                ActionType.LOGOUT, "User logged out");
+    public String logout(String sessionId, Integer userId) {
+        sessionStore.invalidate(sessionId);
+        auditService.recordAction(userId, ActionType.LOGOUT, "User logged out");
         return "You are logged out";
     }
-
-    /**
-     * Проверяет, вошел ли пользователь.
-     *
-     * @param username Имя пользователя.
-     * @return boolean Возвращает true, если пользователь вошел, иначе false.
-     */
-    @Override
-    public boolean isLogin(String username) {
-        return onlineUsers.contains(username);
-    }
-
-    /**
-     * Проверяет, является ли пользователь администратором.
-     *
-     * @param email Электронная почта пользователя.
-     * @return boolean Возвращает true, если пользователь является администратором, иначе false.
-     */
-    @Override
-    public boolean isAdmin(String email) {
-        Optional<User> optionalUser = userRepository.findByEmail(email);
-        return optionalUser.map(User::isAdmin).orElse(false);
-    }
-
-    /**
-     * Получает идентификатор пользователя.
-     *
-     * @param email Электронная почта пользователя.
-     * @return Integer Идентификатор пользователя.
-     */
-    @Override
-    public Integer getId(String email) {
-        return userRepository.findByEmail(email).map(User::getId).orElse(null);
-    }
 }
\ No newline at end of file
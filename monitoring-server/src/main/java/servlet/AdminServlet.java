@@ -0,0 +1,31 @@
+package servlet;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import utils.TokenClaims;
+
+import java.io.IOException;
+
+/**
+ * Базовый сервлет для административных операций, доступных только администратору.
+ */
+public abstract class AdminServlet extends HttpServlet {
+
+    /**
+     * Проверяет, что запрос выполняет администратор. Иначе записывает в ответ ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @return true, если пользователь является администратором и обработку запроса можно продолжить
+     * @throws IOException если произошла ошибка ввода/вывода
+     */
+    protected static boolean isAdmin(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (TokenClaims.from(request).isAdmin()) {
+            return true;
+        }
+        response.getWriter().write("Плохой запрос. У вас нет прав доступа");
+        response.setStatus(401);
+        return false;
+    }
+}
@@ -2,16 +2,19 @@ package servlet;
 
 import annotations.Loggable;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import config.ServerConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import model.readings.MeterReadings;
 import service.reading.MeterService;
 import utils.ServiceFactory;
-import utils.Token;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
 
 /**
  * Сервлет, который обрабатывает все показания счетчиков.
@@ -19,7 +22,12 @@ import java.io.IOException;
  */
 @Loggable
 @WebServlet("/meter/readings/all")
-public class AllReadingsServlet extends HttpServlet {
+public class AllReadingsServlet extends AdminServlet {
+    /**
+     * Заголовок ответа с курсором следующей страницы.
+     */
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+
     /**
      * Сервис для взаимодействия со счетчиками.
      */
@@ -30,19 +38,36 @@ public class AllReadingsServlet extends HttpServlet {
      */
     private Gson gson;
 
+    /**
+     * Размер страницы, если параметр limit не указан.
+     */
+    private int defaultPageLimit;
+
+    /**
+     * Наибольший допустимый размер страницы.
+     */
+    private int maxPageLimit;
+
     /**
      * Инициализирует сервлет.
-     * Устанавливает объекты meterService и gson.
+     * Устанавливает объекты meterService и gson и размеры страниц.
      */
     public void init() {
         this.meterService = ServiceFactory.getMeterService();
         this.gson = ServiceFactory.getGson();
+        this.defaultPageLimit = ServerConfig.getInt("readings.page.default.limit", 100);
+        this.maxPageLimit = ServerConfig.getInt("readings.page.max.limit", 1000);
     }
 
     /**
      * Обрабатывает GET-запросы.
-     * Если пользователь является администратором, он возвращает все текущие показания счетчиков.
+     * Если пользователь является администратором, он возвращает текущие показания счетчиков всех пользователей.
      * Если пользователь не является администратором, он возвращает ошибку 401.
+     * <p>
+     * С параметрами after и (или) limit возвращается одна страница, упорядоченная по имени пользователя;
+     * если за ней есть следующая, имя последнего пользователя страницы передается в заголовке X-Next-After
+     * и подставляется в after следующего запроса. Без параметров показания всех пользователей
+     * записываются в ответ по мере чтения из базы данных, не собираясь в памяти целиком.
      *
      * @param request  HttpServletRequest
      * @param response HttpServletResponse
@@ -50,15 +75,82 @@ public class AllReadingsServlet extends HttpServlet {
      * @throws IOException      если произошла ошибка ввода/вывода
      */
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        String token = request.getHeader("Authorization").replaceFirst("Bearer ", "");
-        boolean isAdmin = Token.getIsAdminFromToken(token);
-        if (!isAdmin) {
-            response.getWriter().write("Плохой запрос. У вас нет прав доступа");
-            response.setStatus(401);
-        } else {
-            String readings = gson.toJson(meterService.getAllCurrentReadings());
-            response.getWriter().write(readings);
-            response.setStatus(200);
+        if (!isAdmin(request, response)) {
+            return;
+        }
+
+        String after = request.getParameter("after");
+        String limitParameter = request.getParameter("limit");
+        if (after == null && limitParameter == null) {
+            writeAllReadings(response);
+            return;
+        }
+
+        Integer limit = parseLimit(limitParameter);
+        if (limit == null) {
+            response.getWriter().write("Плохой запрос. Параметр limit должен быть числом от 1 до " + maxPageLimit);
+            response.setStatus(400);
+            return;
+        }
+
+        Map<String, MeterReadings> page = meterService.getCurrentReadingsPage(after, limit);
+        if (page.size() == limit) {
+            String lastUsername = null;
+            for (String username : page.keySet()) {
+                lastUsername = username;
+            }
+            response.setHeader(NEXT_AFTER_HEADER, lastUsername);
+        }
+        response.getWriter().write(gson.toJson(page));
+        response.setStatus(200);
+    }
+
+    /**
+     * Записывает показания всех пользователей одним JSON-объектом, добавляя каждого пользователя
+     * сразу после чтения его строк. Если чтение прервалось ошибкой базы данных, объект остается
+     * незакрытым, чтобы клиент не принял неполный ответ за полный.
+     *
+     * @param response HttpServletResponse
+     * @throws IOException если произошла ошибка ввода/вывода
+     */
+    private void writeAllReadings(HttpServletResponse response) throws IOException {
+        response.setStatus(200);
+        JsonWriter jsonWriter = new JsonWriter(response.getWriter());
+        jsonWriter.beginObject();
+        boolean completed;
+        try {
+            completed = meterService.streamAllCurrentReadings((username, readings) -> {
+                try {
+                    jsonWriter.name(username);
+                    gson.toJson(readings, MeterReadings.class, jsonWriter);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (completed) {
+            jsonWriter.endObject();
+        }
+        jsonWriter.flush();
+    }
+
+    /**
+     * Разбирает размер страницы.
+     *
+     * @param limitParameter значение параметра limit или null
+     * @return размер страницы или null, если значение недопустимо
+     */
+    private Integer parseLimit(String limitParameter) {
+        if (limitParameter == null) {
+            return defaultPageLimit;
+        }
+        try {
+            int limit = Integer.parseInt(limitParameter);
+            return limit >= 1 && limit <= maxPageLimit ? limit : null;
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -9,10 +9,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import model.readings.MeterReadings;
 import service.reading.MeterService;
+import service.reading.SubmitReadingsResult;
+import utils.IdempotencyStore;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenClaims;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Сервлет, который обрабатывает текущие показания счетчиков.
@@ -21,6 +24,18 @@ import java.io.IOException;
 @Loggable
 @WebServlet("/meter/readings")
 public class CurrentReadingsServlet extends HttpServlet {
+    /**
+     * Заголовок с ключом идемпотентности, который клиент повторяет при повторной отправке того же запроса.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Заголовок ответа, отмечающий результат, возвращенный по ключу идемпотентности без повторной подачи.
+     */
+    public static final String IDEMPOTENT_REPLAY_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     /**
      * Сервис для взаимодействия со счетчиками.
      */
@@ -31,13 +46,19 @@ public class CurrentReadingsServlet extends HttpServlet {
      */
     private Gson gson;
 
+    /**
+     * Хранилище результатов подачи показаний по ключам идемпотентности.
+     */
+    private IdempotencyStore idempotencyStore;
+
     /**
      * Инициализирует сервлет.
-     * Устанавливает объекты meterService и gson.
+     * Устанавливает объекты meterService, gson и idempotencyStore.
      */
     public void init() {
         this.meterService = ServiceFactory.getMeterService();
         this.gson = ServiceFactory.getGson();
+        this.idempotencyStore = ServiceFactory.getIdempotencyStore();
     }
 
     /**
@@ -50,8 +71,7 @@ public class CurrentReadingsServlet extends HttpServlet {
      * @throws IOException      если произошла ошибка ввода/вывода
      */
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        String token = request.getHeader("Authorization").replaceFirst("Bearer ", "");
-        int userId = Token.getUserIdFromToken(token);
+        int userId = TokenClaims.from(request).getUserId();
         String readings = gson.toJson(meterService.getCurrentReadings(userId));
         response.getWriter().write(readings);
         response.setStatus(200);
@@ -60,6 +80,10 @@ public class CurrentReadingsServlet extends HttpServlet {
     /**
      * Обрабатывает POST-запросы.
      * Регистрирует текущие показания счетчика для пользователя.
+     * Если передан заголовок Idempotency-Key, повторный запрос пользователя с тем же ключом получает результат
+     * первого запроса без обращения к базе данных. Повтор с тем же ключом и другими показаниями отклоняется
+     * с кодом 422, повтор во время выполнения первого запроса после ожидания получает код 409.
+     * Ошибка базы данных возвращается с кодом 500, транзакция запроса при этом откатывается.
      *
      * @param req  HttpServletRequest
      * @param resp HttpServletResponse
@@ -68,12 +92,52 @@ public class CurrentReadingsServlet extends HttpServlet {
      */
     @Override
     public void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        String token = req.getHeader("Authorization").replaceFirst("Bearer ", "");
-        int userId = Token.getUserIdFromToken(token);
+        int userId = TokenClaims.from(req).getUserId();
+        String idempotencyKey = req.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey != null
+                && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            resp.getWriter().write("Invalid Idempotency-Key header");
+            resp.setStatus(400);
+            return;
+        }
         MeterReadings meterReadings = gson.fromJson(req.getReader(), MeterReadings.class);
-        String registerResult = meterService.postCurrentReadings(userId, meterReadings);
-        int responseCode = registerResult.equals("Показания добавлены") ? 200 : 400;
-        resp.getWriter().write(registerResult);
+        if (meterReadings == null || meterReadings.getReadings() == null) {
+            // пустое тело отклоняется до построения отпечатка для ключа идемпотентности
+            resp.getWriter().write(SubmitReadingsResult.INCORRECT_READINGS.getMessage());
+            resp.setStatus(400);
+            return;
+        }
+
+        SubmitReadingsResult registerResult;
+        if (idempotencyKey == null) {
+            registerResult = meterService.postCurrentReadings(userId, meterReadings);
+        } else {
+            String key = userId + ":" + idempotencyKey;
+            IdempotencyStore.Outcome<SubmitReadingsResult> outcome = idempotencyStore.execute(key,
+                    Arrays.asList(meterReadings.getMonth(), meterReadings.getReadings()),
+                    () -> meterService.postCurrentReadings(userId, meterReadings),
+                    result -> result != SubmitReadingsResult.FAILED);
+            switch (outcome.getStatus()) {
+                case KEY_REUSED -> {
+                    resp.getWriter().write("Idempotency-Key was already used for different readings");
+                    resp.setStatus(422);
+                    return;
+                }
+                case IN_PROGRESS -> {
+                    resp.getWriter().write("A request with this Idempotency-Key is still being processed");
+                    resp.setStatus(409);
+                    return;
+                }
+                case REPLAYED -> resp.setHeader(IDEMPOTENT_REPLAY_HEADER, "true");
+            }
+            registerResult = outcome.getResult();
+        }
+        int responseCode = switch (registerResult) {
+            case ADDED -> 200;
+            case INCORRECT_READINGS, ALREADY_SUBMITTED -> 400;
+            case FAILED -> 500;
+        };
+        resp.getWriter().write(registerResult.getMessage());
         resp.setStatus(responseCode);
     }
 }
\ No newline at end of file
@@ -9,7 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import service.reading.MeterService;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenClaims;
 
 import java.io.IOException;
 
@@ -49,8 +49,7 @@ public class HistoryReadingsServlet extends HttpServlet {
      * @throws IOException      если произошла ошибка ввода/вывода
      */
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        String token = request.getHeader("Authorization").replaceFirst("Bearer ", "");
-        int userId = Token.getUserIdFromToken(token);
+        int userId = TokenClaims.from(request).getUserId();
         String readings = gson.toJson(meterService.getReadingHistory(userId));
         response.getWriter().write(readings);
         response.setStatus(200);
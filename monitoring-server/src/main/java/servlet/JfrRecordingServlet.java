@@ -0,0 +1,138 @@
+package servlet;
+
+import annotations.Loggable;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jfr.JfrRecorder;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Сервлет, который управляет записью JFR и выгружает ее файл.
+ * Он аннотирован @Loggable и @WebServlet("/meter/admin/jfr").
+ */
+@Loggable
+@WebServlet("/meter/admin/jfr")
+public class JfrRecordingServlet extends AdminServlet {
+    /**
+     * Объект записи JFR.
+     */
+    private JfrRecorder recorder;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает объект recorder.
+     */
+    public void init() {
+        this.recorder = ServiceFactory.getJfrRecorder();
+    }
+
+    /**
+     * Обрабатывает POST-запросы.
+     * Если пользователь является администратором, начинает запись JFR с настройками settings
+     * (default или profile, по умолчанию default) длительностью duration секунд (по умолчанию и не больше
+     * jfr.max.duration.s). Если запись уже ведется, возвращает ошибку 409.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        String settings = request.getParameter("settings");
+        Duration duration;
+        try {
+            String seconds = request.getParameter("duration");
+            duration = seconds == null || seconds.isBlank() ? null : Duration.ofSeconds(Long.parseLong(seconds.trim()));
+        } catch (NumberFormatException e) {
+            duration = Duration.ZERO;
+        }
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            response.getWriter().write("Плохой запрос. Проверьте параметр duration");
+            response.setStatus(400);
+            return;
+        }
+        try {
+            Duration started = recorder.start(settings == null || settings.isBlank() ? "default" : settings.trim(),
+                    duration);
+            response.getWriter().write("Запись JFR начата на " + started.toSeconds() + " с");
+            response.setStatus(200);
+        } catch (IllegalStateException e) {
+            response.getWriter().write(e.getMessage());
+            response.setStatus(409);
+        } catch (IllegalArgumentException e) {
+            response.getWriter().write("Плохой запрос. " + e.getMessage());
+            response.setStatus(400);
+        }
+    }
+
+    /**
+     * Обрабатывает GET-запросы.
+     * Если пользователь является администратором, выгружает файл .jfr с данными текущей или последней записи.
+     * С параметром stop=true запись перед выгрузкой останавливается, иначе продолжается.
+     * Если записи нет, возвращает ошибку 404.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        if (Boolean.parseBoolean(request.getParameter("stop"))) {
+            recorder.stop();
+        }
+        Path file = recorder.dump();
+        if (file == null) {
+            response.getWriter().write("Запись JFR не найдена");
+            response.setStatus(404);
+            return;
+        }
+        try {
+            response.setStatus(200);
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename=\"monitoring-server.jfr\"");
+            response.setContentLengthLong(Files.size(file));
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Обрабатывает DELETE-запросы.
+     * Если пользователь является администратором, останавливает и удаляет запись вместе с данными.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        if (recorder.discard()) {
+            response.getWriter().write("Запись JFR удалена");
+            response.setStatus(200);
+        } else {
+            response.getWriter().write("Запись JFR не найдена");
+            response.setStatus(404);
+        }
+    }
+}
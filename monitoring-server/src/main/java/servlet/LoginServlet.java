@@ -8,10 +8,10 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import model.user.dto.UserDto;
+import service.user.LoginResult;
 import service.user.UserService;
-import utils.PasswordUtils;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenSigner;
 
 import java.io.IOException;
 import java.util.regex.Matcher;
@@ -34,18 +34,25 @@ public class LoginServlet extends HttpServlet {
      */
     private Gson gson;
 
+    /**
+     * Выпуск подписанных токенов авторизации.
+     */
+    private TokenSigner tokenSigner;
+
     /**
      * Инициализирует сервлет.
-     * Устанавливает объекты userService и gson.
+     * Устанавливает объекты userService, gson и tokenSigner.
      */
     public void init() {
         this.userService = ServiceFactory.getUserService();
         this.gson = ServiceFactory.getGson();
+        this.tokenSigner = ServiceFactory.getTokenSigner();
     }
 
     /**
      * Обрабатывает POST-запросы.
      * Проверяет валидность данных пользователя и выполняет вход в систему.
+     * Данные для токена берутся из результата входа без дополнительных обращений к сервису.
      *
      * @param request  HttpServletRequest
      * @param response HttpServletResponse
@@ -62,21 +69,15 @@ public class LoginServlet extends HttpServlet {
             return;
         }
 
-        String salt = userService.getSalt(userDto);
-        String hashedPassword = PasswordUtils.hashPassword(userDto.getPassword(), salt);
-
-        UserDto userDtoWithHashedPassword = new UserDto(userDto.getUsername(), userDto.getEmail(), hashedPassword);
-
-        String loginResult = userService.login(userDtoWithHashedPassword);
-        int responseCode = loginResult.equals("Вы вошли в систему") ? 200 : 401;
+        LoginResult loginResult = userService.login(userDto);
+        int responseCode = loginResult.isSuccess() ? 200 : 401;
 
-        if (responseCode == 200) {
-            String token = Token.generateToken(userService.getId(userDto.getEmail()), userDto.getEmail(),
-                    userDto.getUsername(), userService.isAdmin(userDto.getEmail()));
+        if (loginResult.isSuccess()) {
+            String token = tokenSigner.issue(loginResult.getUserId(), loginResult.getSessionId(),
+                    loginResult.getEmail(), loginResult.getUsername(), loginResult.isAdmin());
             response.setHeader("Authorization", "Bearer " + token);
-            loginResult = "Вы вошли в систему";
         }
-        response.getWriter().write(loginResult);
+        response.getWriter().write(loginResult.getMessage());
         response.setStatus(responseCode);
     }
 
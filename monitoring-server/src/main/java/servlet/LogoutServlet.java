@@ -8,7 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import service.user.UserService;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenClaims;
 
 import java.io.IOException;
 
@@ -43,8 +43,8 @@ public class LogoutServlet extends HttpServlet {
      */
     @Override
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        String username = Token.getUsernameFromToken(request.getHeader("Authorization").replaceFirst("Bearer ", ""));
-        String logoutResult = userService.logout(username);
+        TokenClaims claims = TokenClaims.from(request);
+        String logoutResult = userService.logout(claims.getSessionId(), claims.getUserId());
         response.getWriter().write(logoutResult);
         response.setStatus(200);
     }
@@ -0,0 +1,73 @@
+package servlet;
+
+import annotations.Loggable;
+import config.ServerConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import metrics.MetricsRegistry;
+import metrics.PrometheusWriter;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Сервлет, который отдает метрики сервера в текстовом формате Prometheus.
+ * Он аннотирован @Loggable и @WebServlet("/metrics").
+ * Адрес не проходит через фильтр авторизации; если задана настройка metrics.token,
+ * запрос должен передать ее в заголовке Authorization: Bearer.
+ */
+@Loggable
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+    /**
+     * Реестр метрик.
+     */
+    private MetricsRegistry registry;
+    /**
+     * Ожидаемое значение заголовка Authorization или null, если доступ открыт.
+     */
+    private byte[] expectedAuthorization;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает реестр метрик и токен доступа.
+     */
+    public void init() {
+        this.registry = ServiceFactory.getMetricsRegistry();
+        String token = ServerConfig.getString("metrics.token", "");
+        this.expectedAuthorization = token.isEmpty() ? null
+                : ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Обрабатывает GET-запросы.
+     * Возвращает все зарегистрированные метрики или ошибку 401, если токен доступа не совпал.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (expectedAuthorization != null) {
+            String header = request.getHeader("Authorization");
+            if (header == null || !MessageDigest.isEqual(expectedAuthorization,
+                    header.getBytes(StandardCharsets.UTF_8))) {
+                response.setStatus(401);
+                response.getWriter().write("Плохой запрос. У вас нет прав доступа");
+                return;
+            }
+        }
+        String body = registry.scrape();
+        response.setStatus(200);
+        response.setContentType(PrometheusWriter.CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(body);
+    }
+}
@@ -9,7 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import service.reading.MeterService;
 import utils.ServiceFactory;
-import utils.Token;
+import utils.TokenClaims;
 
 import java.io.IOException;
 import java.time.Month;
@@ -50,8 +50,7 @@ public class MonthReadingsServlet extends HttpServlet {
      * @throws IOException      если произошла ошибка ввода/вывода
      */
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        String token = request.getHeader("Authorization").replaceFirst("Bearer ", "");
-        int userId = Token.getUserIdFromToken(token);
+        int userId = TokenClaims.from(request).getUserId();
         String monthString = request.getParameter("month");
         Month month = Month.valueOf(monthString.toUpperCase());
         String readings = gson.toJson(meterService.getReadingsForMonth(userId, month));
@@ -0,0 +1,145 @@
+package servlet;
+
+import annotations.Loggable;
+import com.google.gson.Gson;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import metrics.HistogramSnapshot;
+import metrics.QueryMetrics;
+import metrics.QuerySnapshot;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервлет, который возвращает самые тяжелые SQL-запросы по статистике соединений пула.
+ * Он аннотирован @Loggable и @WebServlet("/meter/admin/queries").
+ */
+@Loggable
+@WebServlet("/meter/admin/queries")
+public class QueryStatsServlet extends AdminServlet {
+    private static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Реестр статистики запросов, в который пишет пул соединений.
+     */
+    private QueryMetrics queryMetrics;
+
+    /**
+     * Объект Gson для преобразования объектов Java в JSON.
+     */
+    private Gson gson;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает реестр статистики запросов и объект gson.
+     */
+    public void init() {
+        this.queryMetrics = QueryMetrics.getDefault();
+        this.gson = ServiceFactory.getGson();
+    }
+
+    /**
+     * Обрабатывает GET-запросы.
+     * Если пользователь является администратором, возвращает limit самых тяжелых запросов (по умолчанию 20),
+     * упорядоченных по параметру sort: total (суммарное время, по умолчанию), mean, max, calls или rows.
+     * Время указывается в миллисекундах. Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        Integer limit = parsePositive(request.getParameter("limit"));
+        if (limit == null) {
+            response.getWriter().write("Плохой запрос. Проверьте параметр limit");
+            response.setStatus(400);
+            return;
+        }
+        QueryMetrics.Order order;
+        try {
+            String sort = request.getParameter("sort");
+            order = sort == null || sort.isBlank() ? QueryMetrics.Order.TOTAL : QueryMetrics.Order.parse(sort);
+        } catch (IllegalArgumentException e) {
+            response.getWriter().write("Плохой запрос. Проверьте параметр sort");
+            response.setStatus(400);
+            return;
+        }
+
+        List<Map<String, Object>> queries = new ArrayList<>();
+        for (QuerySnapshot snapshot : queryMetrics.top(limit, order)) {
+            queries.add(toJson(snapshot));
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(queries));
+        response.setStatus(200);
+    }
+
+    /**
+     * Обрабатывает DELETE-запросы.
+     * Если пользователь является администратором, удаляет всю статистику запросов.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        queryMetrics.reset();
+        response.getWriter().write("Статистика запросов удалена");
+        response.setStatus(200);
+    }
+
+    private static Map<String, Object> toJson(QuerySnapshot snapshot) {
+        HistogramSnapshot execute = snapshot.getExecute();
+        HistogramSnapshot fetch = snapshot.getFetch();
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("id", snapshot.getId());
+        query.put("sql", snapshot.getSql());
+        query.put("calls", snapshot.getCalls());
+        query.put("rows", snapshot.getRows());
+        query.put("errors", snapshot.getErrors());
+        query.put("slow", snapshot.getSlow());
+        query.put("totalMs", millis(snapshot.getTotalNanos()));
+        query.put("meanMs", millis((long) execute.getMeanNanos()));
+        query.put("p50Ms", millis(execute.getValueAtPercentile(50)));
+        query.put("p95Ms", millis(execute.getValueAtPercentile(95)));
+        query.put("p99Ms", millis(execute.getValueAtPercentile(99)));
+        query.put("maxMs", millis(execute.getMaxNanos()));
+        query.put("fetchTotalMs", millis(fetch.getTotalNanos()));
+        query.put("fetchMaxMs", millis(fetch.getMaxNanos()));
+        return query;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static Integer parsePositive(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package servlet;
+
+import annotations.Loggable;
+import dao.readings.ReadingsExportFormat;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import service.reading.MeterService;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Month;
+
+/**
+ * Сервлет, который обрабатывает выгрузку показаний счетчиков всех пользователей.
+ * Он аннотирован @Loggable и @WebServlet("/meter/readings/export").
+ */
+@Loggable
+@WebServlet("/meter/readings/export")
+public class ReadingsExportServlet extends AdminServlet {
+    /**
+     * Сервис для взаимодействия со счетчиками.
+     */
+    private MeterService meterService;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает объект meterService.
+     */
+    public void init() {
+        this.meterService = ServiceFactory.getMeterService();
+    }
+
+    /**
+     * Обрабатывает GET-запросы.
+     * Если пользователь является администратором, выгружает показания за месяцы from..to (номер или название,
+     * по умолчанию весь год), при необходимости только для типа счетчика meterType, в формате format
+     * (csv или ndjson, по умолчанию csv). Данные передаются из базы данных в ответ потоком.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+
+        Month fromMonth = parseMonth(request.getParameter("from"), Month.JANUARY);
+        Month toMonth = parseMonth(request.getParameter("to"), Month.DECEMBER);
+        ReadingsExportFormat format = parseFormat(request.getParameter("format"));
+        if (fromMonth == null || toMonth == null || fromMonth.compareTo(toMonth) > 0 || format == null) {
+            response.getWriter().write("Плохой запрос. Проверьте параметры from, to и format");
+            response.setStatus(400);
+            return;
+        }
+
+        response.setStatus(200);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment; filename=\"readings-" + fromMonth.getValue()
+                + "-" + toMonth.getValue() + "." + format.getFileExtension() + "\"");
+
+        ServletOutputStream out = response.getOutputStream();
+        boolean completed;
+        try {
+            completed = meterService.exportReadings(fromMonth, toMonth, request.getParameter("meterType"), format, out);
+        } catch (IllegalArgumentException e) {
+            response.reset();
+            response.getWriter().write("Плохой запрос. " + e.getMessage());
+            response.setStatus(400);
+            return;
+        }
+        if (!completed && !response.isCommitted()) {
+            response.reset();
+            response.getWriter().write("Не удалось выгрузить показания");
+            response.setStatus(500);
+            return;
+        }
+        out.flush();
+    }
+
+    /**
+     * Разбирает месяц, заданный номером или названием.
+     *
+     * @param value        значение параметра или null
+     * @param defaultMonth месяц по умолчанию
+     * @return месяц или null, если значение недопустимо
+     */
+    private Month parseMonth(String value, Month defaultMonth) {
+        if (value == null) {
+            return defaultMonth;
+        }
+        try {
+            return value.chars().allMatch(Character::isDigit) ? Month.of(Integer.parseInt(value))
+                    : Month.valueOf(value.toUpperCase());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Разбирает формат выгрузки.
+     *
+     * @param value значение параметра или null
+     * @return формат или null, если значение недопустимо
+     */
+    private ReadingsExportFormat parseFormat(String value) {
+        if (value == null) {
+            return ReadingsExportFormat.CSV;
+        }
+        try {
+            return ReadingsExportFormat.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package servlet;
+
+import annotations.Loggable;
+import com.google.gson.Gson;
+import dao.readings.ReadingsImportResult;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import service.reading.MeterService;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Сервлет, который обрабатывает пакетную загрузку показаний счетчиков из CSV.
+ * Он аннотирован @Loggable и @WebServlet("/meter/readings/import").
+ */
+@Loggable
+@WebServlet("/meter/readings/import")
+public class ReadingsImportServlet extends AdminServlet {
+    /**
+     * Сервис для взаимодействия со счетчиками.
+     */
+    private MeterService meterService;
+
+    /**
+     * Объект Gson для преобразования объектов Java в JSON.
+     */
+    private Gson gson;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает объекты meterService и gson.
+     */
+    public void init() {
+        this.meterService = ServiceFactory.getMeterService();
+        this.gson = ServiceFactory.getGson();
+    }
+
+    /**
+     * Обрабатывает POST-запросы.
+     * Если пользователь является администратором, загружает показания из тела запроса в формате CSV
+     * с заголовком и колонками email, meter_type, month, reading и возвращает отчет о загрузке.
+     * Тело запроса передается в базу данных потоком, не собираясь в памяти.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        ReadingsImportResult result = meterService.importReadings(request.getReader());
+        response.getWriter().write(gson.toJson(result));
+        response.setStatus(result.isSuccess() ? 200 : 400);
+    }
+}
@@ -67,7 +67,7 @@ public class RegisterServlet extends HttpServlet {
         UserDto userDtoWithHashedPassword = new UserDto(userDto.getUsername(), userDto.getEmail(), hashedPassword, salt);
 
         String registerResult = userService.register(userDtoWithHashedPassword);
-        int responseCode = registerResult.equals("Регистрация прошла успешно") ? 200 : 400;
+        int responseCode = registerResult.equals("Registration was successful") ? 200 : 400;
         response.getWriter().write(registerResult);
         response.setStatus(responseCode);
     }
@@ -0,0 +1,152 @@
+package servlet;
+
+import annotations.Loggable;
+import com.google.gson.Gson;
+import config.ServerConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tracing.MethodTracer;
+import tracing.TraceSession;
+import utils.ServiceFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сервлет, который управляет трассировкой вызовов методов @Loggable.
+ * Он аннотирован @Loggable и @WebServlet("/meter/admin/trace").
+ */
+@Loggable
+@WebServlet("/meter/admin/trace")
+public class TraceServlet extends AdminServlet {
+    /**
+     * Трассировщик, которым пользуется аспект.
+     */
+    private MethodTracer tracer;
+
+    /**
+     * Объект Gson для преобразования объектов Java в JSON.
+     */
+    private Gson gson;
+
+    /**
+     * Частота выборки, если параметр sample не указан.
+     */
+    private int defaultSampleRate;
+
+    /**
+     * Инициализирует сервлет.
+     * Устанавливает трассировщик, объект gson и частоту выборки по умолчанию.
+     */
+    public void init() {
+        this.tracer = MethodTracer.getDefault();
+        this.gson = ServiceFactory.getGson();
+        this.defaultSampleRate = ServerConfig.getInt("trace.default.sample.rate", 100);
+    }
+
+    /**
+     * Обрабатывает GET-запросы.
+     * Если пользователь является администратором, возвращает состояние трассировки и последние limit записей
+     * (по умолчанию весь буфер). Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        Integer limit = parsePositive(request.getParameter("limit"), tracer.getBufferCapacity());
+        if (limit == null) {
+            response.getWriter().write("Плохой запрос. Проверьте параметр limit");
+            response.setStatus(400);
+            return;
+        }
+
+        TraceSession session = tracer.session();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", session != null);
+        if (session != null) {
+            body.put("patterns", session.getPatterns());
+            body.put("sampleRate", session.getSampleRate());
+            body.put("enabledAtMillis", session.getEnabledAtMillis());
+        }
+        body.put("bufferCapacity", tracer.getBufferCapacity());
+        body.put("recorded", tracer.getRecorded());
+        body.put("records", tracer.dump(limit));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(body));
+        response.setStatus(200);
+    }
+
+    /**
+     * Обрабатывает POST-запросы.
+     * Если пользователь является администратором, включает трассировку методов, подходящих под шаблоны
+     * из параметра pattern (полное имя класса и метода, * заменяет любые символы, шаблоны через запятую),
+     * с записью одного из sample вызовов. Предыдущие записи удаляются.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        Integer sampleRate = parsePositive(request.getParameter("sample"), defaultSampleRate);
+        if (sampleRate == null) {
+            response.getWriter().write("Плохой запрос. Проверьте параметр sample");
+            response.setStatus(400);
+            return;
+        }
+        try {
+            TraceSession session = tracer.enable(request.getParameter("pattern"), sampleRate);
+            response.getWriter().write("Трассировка включена: " + String.join(", ", session.getPatterns())
+                    + ", 1 из " + session.getSampleRate());
+            response.setStatus(200);
+        } catch (IllegalArgumentException e) {
+            response.getWriter().write("Плохой запрос. " + e.getMessage());
+            response.setStatus(400);
+        }
+    }
+
+    /**
+     * Обрабатывает DELETE-запросы.
+     * Если пользователь является администратором, выключает трассировку; записи остаются доступны.
+     * Если пользователь не является администратором, он возвращает ошибку 401.
+     *
+     * @param request  HttpServletRequest
+     * @param response HttpServletResponse
+     * @throws ServletException если произошла ошибка, специфичная для сервлета
+     * @throws IOException      если произошла ошибка ввода/вывода
+     */
+    public void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!isAdmin(request, response)) {
+            return;
+        }
+        tracer.disable();
+        response.getWriter().write("Трассировка выключена");
+        response.setStatus(200);
+    }
+
+    private static Integer parsePositive(String value, int defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tracing;
+
+import config.ServerConfig;
+
+import java.util.List;
+
+/**
+ * Трассировка вызовов методов @Loggable, включаемая во время работы сервера.
+ * <p>
+ * Состояние хранится в одном volatile-поле: null, пока трассировка выключена, иначе текущая
+ * {@link TraceSession}. Аспект читает его один раз на вызов, поэтому выключенная трассировка стоит
+ * одного чтения volatile-поля. Включение и выключение заменяют сессию целиком; записи остаются
+ * в буфере после выключения, пока трассировку не включат снова.
+ */
+public class MethodTracer {
+    private static final MethodTracer DEFAULT = new MethodTracer(ServerConfig.getInt("trace.buffer.size", 4096));
+
+    private final TraceBuffer buffer;
+    private volatile TraceSession session;
+
+    public MethodTracer(int bufferSize) {
+        this.buffer = new TraceBuffer(bufferSize);
+    }
+
+    /**
+     * @return трассировщик, которым пользуется аспект
+     */
+    public static MethodTracer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return текущая сессия трассировки или null, если трассировка выключена
+     */
+    public TraceSession session() {
+        return session;
+    }
+
+    /**
+     * Включает трассировку методов, подходящих под шаблоны, и очищает буфер.
+     *
+     * @param patterns   шаблоны методов через запятую
+     * @param sampleRate записывается один из sampleRate вызовов
+     * @return новая сессия трассировки
+     * @throws IllegalArgumentException если шаблоны не заданы или частота выборки меньше 1
+     */
+    public synchronized TraceSession enable(String patterns, int sampleRate) {
+        TraceSession enabled = new TraceSession(patterns, sampleRate, System.currentTimeMillis(), buffer);
+        session = null;
+        buffer.clear();
+        session = enabled;
+        return enabled;
+    }
+
+    /**
+     * Выключает трассировку. Записанные вызовы остаются в буфере.
+     */
+    public synchronized void disable() {
+        session = null;
+    }
+
+    /**
+     * Возвращает последние записи трассировки от старых к новым.
+     *
+     * @param limit наибольшее количество записей
+     * @return записи
+     */
+    public List<TraceRecord> dump(int limit) {
+        return buffer.dump(limit);
+    }
+
+    /**
+     * @return количество записей, добавленных за время работы сервера, включая вытесненные
+     */
+    public long getRecorded() {
+        return buffer.getRecorded();
+    }
+
+    public int getBufferCapacity() {
+        return buffer.getCapacity();
+    }
+}
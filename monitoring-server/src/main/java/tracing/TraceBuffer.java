@@ -0,0 +1,88 @@
+package tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер записей трассировки фиксированного размера.
+ * <p>
+ * Запись занимает слот по номеру из общего счетчика и вытесняет самую старую запись, без блокировок.
+ * Выгрузка читает последние записи по номерам; слот, который успели перезаписать более новой записью,
+ * пропускается, поэтому выгрузка во время записи может вернуть чуть меньше записей, чем емкость буфера.
+ */
+public class TraceBuffer {
+    private final AtomicReferenceArray<TraceRecord> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param capacity емкость буфера, округляется вверх до степени двойки
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость буфера трассировки должна быть положительной");
+        }
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Добавляет запись, вытесняя самую старую, если буфер заполнен.
+     *
+     * @param startedAtMillis время начала вызова
+     * @param thread          имя потока
+     * @param method          имя метода
+     * @param durationNanos   длительность вызова
+     * @param error           класс исключения или null
+     */
+    public void add(long startedAtMillis, String thread, String method, long durationNanos, String error) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask),
+                new TraceRecord(sequence, startedAtMillis, thread, method, durationNanos, error));
+    }
+
+    /**
+     * Возвращает последние записи от старых к новым.
+     *
+     * @param limit наибольшее количество записей
+     * @return записи
+     */
+    public List<TraceRecord> dump(int limit) {
+        long end = nextSequence.get();
+        long start = Math.max(Math.max(0, end - slots.length()), end - Math.max(limit, 0));
+        List<TraceRecord> records = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            TraceRecord record = slots.get((int) (sequence & mask));
+            if (record != null && record.getSequence() == sequence) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Удаляет все записи.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    /**
+     * @return количество записей, добавленных за все время
+     */
+    public long getRecorded() {
+        return nextSequence.get();
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,59 @@
+package tracing;
+
+/**
+ * Запись о выполнении одного метода, попавшем в выборку трассировки.
+ */
+public class TraceRecord {
+    private final long sequence;
+    private final long startedAtMillis;
+    private final String thread;
+    private final String method;
+    private final long durationNanos;
+    private final String error;
+
+    public TraceRecord(long sequence, long startedAtMillis, String thread, String method, long durationNanos,
+                       String error) {
+        this.sequence = sequence;
+        this.startedAtMillis = startedAtMillis;
+        this.thread = thread;
+        this.method = method;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    /**
+     * @return порядковый номер записи в буфере трассировки
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return время начала вызова в миллисекундах от начала эпохи
+     */
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * @return имя метода в виде Класс.метод(Типы параметров)
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return класс исключения, которым завершился метод, или null
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,100 @@
+package tracing;
+
+import metrics.MethodTimer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Включенная трассировка: шаблоны методов, частота выборки и буфер для записей.
+ * <p>
+ * Шаблон сравнивается с полным именем класса и именем метода, например
+ * {@code dao.user.UserRepositoryImpl.findByEmail}; {@code *} заменяет любую последовательность символов,
+ * несколько шаблонов перечисляются через запятую. Результат сравнения запоминается в таймере метода
+ * меткой сессии, так что шаблоны проверяются один раз за время жизни сессии, а проверка на каждом вызове
+ * сводится к сравнению ссылок. Короткий путь нужен, чтобы совет аспекта по-прежнему встраивался
+ * в вызывающий код и точка соединения не выделялась в куче.
+ */
+public class TraceSession {
+    private final List<String> patterns;
+    private final Pattern matcher;
+    private final int sampleRate;
+    private final long enabledAtMillis;
+    private final TraceBuffer buffer;
+    private final Object matched = new Object();
+    private final Object unmatched = new Object();
+
+    TraceSession(String patterns, int sampleRate, long enabledAtMillis, TraceBuffer buffer) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Частота выборки должна быть не меньше 1");
+        }
+        List<String> parsed = new ArrayList<>();
+        StringBuilder regex = new StringBuilder();
+        for (String pattern : patterns == null ? new String[0] : patterns.split(",")) {
+            String trimmed = pattern.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!parsed.isEmpty()) {
+                regex.append('|');
+            }
+            parsed.add(trimmed);
+            for (String part : trimmed.split("\\*", -1)) {
+                regex.append(Pattern.quote(part)).append(".*");
+            }
+            regex.setLength(regex.length() - 2);
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("Не задан шаблон методов");
+        }
+        this.patterns = Collections.unmodifiableList(parsed);
+        this.matcher = Pattern.compile(regex.toString());
+        this.sampleRate = sampleRate;
+        this.enabledAtMillis = enabledAtMillis;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Учитывает завершившийся вызов: если метод подходит под шаблон и вызов попал в выборку,
+     * добавляет запись в буфер.
+     *
+     * @param timer         таймер метода
+     * @param durationNanos длительность вызова
+     * @param error         исключение, которым завершился метод, или null
+     */
+    public void onCall(MethodTimer timer, long durationNanos, Throwable error) {
+        Object match = timer.getTraceMatch();
+        if (match != matched && (match == unmatched || !match(timer))) {
+            return;
+        }
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        buffer.add(System.currentTimeMillis() - durationNanos / 1_000_000, Thread.currentThread().getName(),
+                timer.getName(), durationNanos, error == null ? null : error.getClass().getName());
+    }
+
+    private boolean match(MethodTimer timer) {
+        boolean result = matcher.matcher(timer.getQualifiedName()).matches();
+        timer.setTraceMatch(result ? matched : unmatched);
+        return result;
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return N в выборке 1 из N вызовов
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getEnabledAtMillis() {
+        return enabledAtMillis;
+    }
+}
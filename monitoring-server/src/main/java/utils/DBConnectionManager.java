@@ -1,7 +1,11 @@
 package utils;
 
 import annotations.Loggable;
+import metrics.LatencyHistogram;
 import org.slf4j.Logger;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+import utils.pool.PoolStats;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -13,6 +17,7 @@ import java.util.Properties;
 
 /**
  * Менеджер соединения с базой данных.
+ * Выдает соединения из пула вместо открытия нового соединения на каждый запрос.
  * Он аннотирован @Loggable.
  */
 @Loggable
@@ -55,43 +60,132 @@ public class DBConnectionManager {
         }
     }
 
+    /**
+     * Пул соединений. Создается при первом обращении или при вызове {@link #initialize()}.
+     */
+    private static volatile ConnectionPool pool;
+
     /**
      * Устанавливает детали соединения.
+     * Ранее созданный пул закрывается, следующий запрос соединения создаст пул с новыми параметрами.
      *
      * @param url      URL базы данных
      * @param username имя пользователя базы данных
      * @param password пароль базы данных
      */
     public static void setConnectionDetails(String url, String username, String password) {
-        URL = url;
-        USERNAME = username;
-        PASSWORD = password;
+        synchronized (DBConnectionManager.class) {
+            URL = url;
+            USERNAME = username;
+            PASSWORD = password;
+            shutdown();
+        }
+    }
+
+    /**
+     * Создает пул соединений и заранее открывает соединения.
+     * Вызывается при старте приложения.
+     */
+    public static void initialize() {
+        getPool().prefill();
     }
 
     /**
-     * Получает соединение с базой данных.
+     * Получает соединение с базой данных из пула.
+     * Закрытие полученного соединения возвращает его в пул.
+     * Если в потоке открыта единица работы, возвращается ее соединение: все репозитории в рамках
+     * запроса работают в одной транзакции, а закрытие соединения ничего не делает.
      *
      * @return соединение с базой данных
      * @throws SQLException если произошла ошибка при подключении к базе данных
      */
     public static Connection getConnection() throws SQLException {
-        Connection connection = null;
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            return unitOfWork.getConnection();
+        }
+        return borrowFromPool();
+    }
+
+    /**
+     * Получает соединение из пула без учета единицы работы.
+     *
+     * @return соединение с базой данных
+     * @throws SQLException если произошла ошибка при подключении к базе данных
+     */
+    static Connection borrowFromPool() throws SQLException {
         try {
-            Class.forName("org.postgresql.Driver"); // Загрузка драйвера
-            connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+            return getPool().borrow();
         } catch (SQLException e) {
             logger.error("Ошибка при подключении к базе данных: " + e.getMessage());
             throw e; // Перебрасываем исключение
+        }
+    }
+
+    /**
+     * Возвращает статистику пула соединений.
+     *
+     * @return снимок состояния пула
+     */
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    /**
+     * Возвращает распределение времени получения соединения из пула.
+     *
+     * @return гистограмма времени получения соединения
+     */
+    public static LatencyHistogram getPoolBorrowLatency() {
+        return getPool().getBorrowLatency();
+    }
+
+    /**
+     * Закрывает пул соединений. Вызывается при остановке приложения.
+     */
+    public static void shutdown() {
+        synchronized (DBConnectionManager.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnectionManager.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(DBConnectionManager::openConnection, PoolSettings.fromConfig());
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Открывает новое физическое соединение с базой данных.
+     * Используется пулом, а также для соединений, которые держатся открытыми все время работы сервера.
+     *
+     * @return соединение с базой данных
+     * @throws SQLException если произошла ошибка при подключении к базе данных
+     */
+    static Connection openConnection() throws SQLException {
+        try {
+            Class.forName("org.postgresql.Driver"); // Загрузка драйвера
         } catch (ClassNotFoundException e) {
             logger.error("Ошибка при загрузке драйвера: " + e.getMessage());
             throw new SQLException(e);
         }
 
+        Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
         if (connection == null) {
             logger.error("Соединение не было установлено. Проверьте URL, имя пользователя и пароль.");
             throw new SQLException("Соединение не было установлено");
         }
-
         return connection;
     }
-}
\ No newline at end of file
+}
@@ -20,13 +20,13 @@ public class DBInitializer {
 
     /**
      * Инициализирует базу данных.
-     * Создает соединение с базой данных, находит подходящую реализацию базы данных и выполняет обновление Liquibase.
+     * Получает соединение с базой данных, находит подходящую реализацию базы данных и выполняет обновление Liquibase.
      * В случае успешного завершения миграции выводит сообщение "Migration is completed successfully".
      * В случае возникновения исключений выводит сообщение об ошибке и, при необходимости, выбрасывает исключение.
+     * По завершении миграции соединение возвращается в пул.
      */
     public static void initialize() {
-        try {
-            Connection connection = DBConnectionManager.getConnection();
+        try (Connection connection = DBConnectionManager.getConnection()) {
             Database database =
                     DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
             Liquibase liquibase =
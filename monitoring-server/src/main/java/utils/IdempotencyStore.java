@@ -0,0 +1,237 @@
+package utils;
+
+import config.ServerConfig;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище результатов запросов с ключом идемпотентности.
+ * Первый запрос с ключом выполняет действие, повторные запросы с тем же ключом получают сохраненный результат
+ * без повторного выполнения. Если повтор приходит, пока первый запрос еще выполняется, он ждет его результата.
+ * Если действие выполняется в единице работы, результат становится доступен повторам только после фиксации
+ * ее транзакции; при откате ключ освобождается и повтор выполняет действие заново.
+ * Ключи хранятся не дольше ttlMs, при превышении maxKeys вытесняются самые старые.
+ */
+public class IdempotencyStore {
+
+    /**
+     * Итог обработки запроса с ключом идемпотентности.
+     */
+    public enum Status {
+        /**
+         * Действие выполнено этим запросом.
+         */
+        EXECUTED,
+        /**
+         * Возвращен результат ранее выполненного запроса с тем же ключом.
+         */
+        REPLAYED,
+        /**
+         * Запрос с тем же ключом еще выполняется и не завершился за время ожидания.
+         */
+        IN_PROGRESS,
+        /**
+         * Ключ уже использован для запроса с другим содержимым.
+         */
+        KEY_REUSED
+    }
+
+    /**
+     * Результат обработки запроса.
+     *
+     * @param <T> тип результата действия
+     */
+    public static final class Outcome<T> {
+        private final Status status;
+        private final T result;
+
+        private Outcome(Status status, T result) {
+            this.status = status;
+            this.result = result;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return результат действия или null для IN_PROGRESS и KEY_REUSED
+         */
+        public T getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Значение, которым завершается ожидание несохраненного результата: ожидающий повтор выполняет действие сам.
+     */
+    private static final Object NOT_RETAINED = new Object();
+
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final long waitTimeoutMs;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(long ttlMs, int maxKeys, long waitTimeoutMs) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Количество ключей идемпотентности должно быть положительным: "
+                    + maxKeys);
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxKeys = maxKeys;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Создает хранилище из файла свойств сервера.
+     *
+     * @return хранилище ключей идемпотентности
+     */
+    public static IdempotencyStore fromConfig() {
+        return new IdempotencyStore(
+                ServerConfig.getLong("idempotency.key.ttl.ms", 86400000),
+                ServerConfig.getInt("idempotency.max.keys", 100000),
+                ServerConfig.getLong("idempotency.wait.timeout.ms", 5000));
+    }
+
+    /**
+     * Выполняет действие один раз для ключа.
+     *
+     * @param key         ключ идемпотентности, включающий владельца ключа
+     * @param fingerprint содержимое запроса; повтор с тем же ключом и другим содержимым отклоняется
+     * @param action      действие
+     * @param retain      условие сохранения результата; несохраненный результат (например, временная ошибка)
+     *                    позволяет повторить действие с тем же ключом
+     * @param <T>         тип результата действия
+     * @return итог обработки запроса
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, Object fingerprint, Supplier<T> action, Predicate<T> retain) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            removeExpired(now);
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(fingerprint, now);
+                entries.put(key, entry);
+                owner = true;
+                if (entries.size() > maxKeys) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+
+        if (!owner) {
+            if (!Objects.equals(entry.fingerprint, fingerprint)) {
+                return new Outcome<>(Status.KEY_REUSED, null);
+            }
+            Object result;
+            try {
+                result = entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return new Outcome<>(Status.IN_PROGRESS, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Outcome<>(Status.IN_PROGRESS, null);
+            } catch (ExecutionException e) {
+                // первый запрос завершился ошибкой и его ключ освобожден, действие выполняется заново
+                return execute(key, fingerprint, action, retain);
+            }
+            if (result == NOT_RETAINED) {
+                return execute(key, fingerprint, action, retain);
+            }
+            return new Outcome<>(Status.REPLAYED, (T) result);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            forget(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        completeAfterCommit(key, entry, result, retain.test(result));
+        return new Outcome<>(Status.EXECUTED, result);
+    }
+
+    /**
+     * @return количество хранимых ключей
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Передает результат ожидающим повторам сразу или, если открыта единица работы, после ее завершения;
+     * результат незафиксированной транзакции не сохраняется.
+     */
+    private void completeAfterCommit(String key, Entry entry, Object result, boolean retained) {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            complete(key, entry, result, retained);
+        } else {
+            unitOfWork.afterCompletion(committed -> complete(key, entry, result, retained && committed));
+        }
+    }
+
+    /**
+     * Передает результат ожидающим повторам. Несохраненный результат удаляется вместе с ключом,
+     * а ожидающие повторы получают {@link #NOT_RETAINED}.
+     */
+    private void complete(String key, Entry entry, Object result, boolean retained) {
+        if (retained) {
+            entry.result.complete(result);
+            return;
+        }
+        forget(key, entry);
+        entry.result.complete(NOT_RETAINED);
+    }
+
+    private void forget(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Удаляет ключи с истекшим сроком хранения. Ключи упорядочены по времени создания,
+     * поэтому просмотр останавливается на первом действующем ключе.
+     */
+    private void removeExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (now - entry.createdNanos < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final Object fingerprint;
+        private final long createdNanos;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(Object fingerprint, long createdNanos) {
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
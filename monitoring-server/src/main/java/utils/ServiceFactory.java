@@ -2,19 +2,38 @@ package utils;
 
 import annotations.Loggable;
 import com.google.gson.Gson;
+import config.ServerConfig;
 import dao.audit.AuditRepository;
 import dao.audit.AuditRepositoryImpl;
+import dao.readings.CachingReadingsRepository;
+import dao.readings.MeterTypeDictionary;
 import dao.readings.ReadingsRepository;
 import dao.readings.ReadingsRepositoryImpl;
+import dao.user.CachingUserRepository;
 import dao.user.UserRepository;
 import dao.user.UserRepositoryImpl;
+import jfr.JfrRecorder;
+import metrics.JvmCollector;
+import metrics.MethodMetrics;
+import metrics.MetricsRegistry;
+import metrics.QueryMetrics;
+import metrics.ServerCollector;
+import service.audit.AsyncAuditWriter;
+import service.audit.AuditPartitionMaintenance;
 import service.audit.AuditService;
 import service.audit.AuditServiceImpl;
+import service.audit.AuditWriterSettings;
 import service.reading.MeterService;
 import service.reading.MeterServiceImpl;
+import service.session.JdbcSessionStore;
+import service.session.SessionRegistry;
+import service.session.SessionSettings;
+import service.session.SessionStore;
 import service.user.UserService;
 import service.user.UserServiceImpl;
 
+import java.time.Clock;
+
 @Loggable
 public class ServiceFactory {
 
@@ -24,6 +43,14 @@ public class ServiceFactory {
     private static ReadingsRepository readingsRepository;
     private static UserRepository userRepository;
     private static AuditRepository auditRepository;
+    private static MeterTypeDictionary meterTypeDictionary;
+    private static AsyncAuditWriter auditWriter;
+    private static AuditPartitionMaintenance auditPartitionMaintenance;
+    private static IdempotencyStore idempotencyStore;
+    private static TokenSigner tokenSigner;
+    private static SessionStore sessionStore;
+    private static MetricsRegistry metricsRegistry;
+    private static JfrRecorder jfrRecorder;
     private static Gson gson;
 
     private ServiceFactory() {
@@ -45,18 +72,31 @@ public class ServiceFactory {
 
     public static UserRepository getUserStorage() {
         if (userRepository == null) {
-            userRepository = new UserRepositoryImpl();
+            UserRepository repository = new UserRepositoryImpl();
+            userRepository = ServerConfig.getBoolean("users.cache.enabled", true)
+                    ? CachingUserRepository.fromConfig(repository) : repository;
         }
         return userRepository;
     }
 
     public static ReadingsRepository getReadingsStorage() {
         if (readingsRepository == null) {
-            readingsRepository = new ReadingsRepositoryImpl();
+            ReadingsRepository repository = new ReadingsRepositoryImpl();
+            readingsRepository = ServerConfig.getBoolean("readings.cache.enabled", true)
+                    ? CachingReadingsRepository.fromConfig(repository) : repository;
         }
         return readingsRepository;
     }
 
+    public static MeterTypeDictionary getMeterTypeDictionary() {
+        if (meterTypeDictionary == null) {
+            meterTypeDictionary = new MeterTypeDictionary(MeterTypeDictionary::loadFromDatabase,
+                    ServerConfig.getLong("meter.types.ttl.ms", 3600000),
+                    ServerConfig.getLong("meter.types.miss.refresh.interval.ms", 60000));
+        }
+        return meterTypeDictionary;
+    }
+
     public static Gson getGson() {
         if (gson == null) {
             gson = new Gson();
@@ -71,6 +111,65 @@ public class ServiceFactory {
         return auditRepository;
     }
 
+    public static AsyncAuditWriter getAuditWriter() {
+        if (auditWriter == null) {
+            auditWriter = new AsyncAuditWriter(getAuditStorage(), AuditWriterSettings.fromConfig());
+        }
+        return auditWriter;
+    }
+
+    public static AuditPartitionMaintenance getAuditPartitionMaintenance() {
+        if (auditPartitionMaintenance == null) {
+            auditPartitionMaintenance = AuditPartitionMaintenance.fromConfig(getAuditStorage());
+        }
+        return auditPartitionMaintenance;
+    }
+
+    public static IdempotencyStore getIdempotencyStore() {
+        if (idempotencyStore == null) {
+            idempotencyStore = IdempotencyStore.fromConfig();
+        }
+        return idempotencyStore;
+    }
+
+    public static TokenSigner getTokenSigner() {
+        if (tokenSigner == null) {
+            tokenSigner = TokenSigner.fromConfig();
+        }
+        return tokenSigner;
+    }
+
+    public static SessionStore getSessionStore() {
+        if (sessionStore == null) {
+            SessionSettings settings = SessionSettings.fromConfig();
+            if (settings.getStoreType() == SessionSettings.StoreType.JDBC) {
+                sessionStore = new JdbcSessionStore(DBConnectionManager::borrowFromPool,
+                        DBConnectionManager::openConnection, settings, Clock.systemUTC());
+            } else {
+                sessionStore = SessionRegistry.fromConfig();
+            }
+        }
+        return sessionStore;
+    }
+
+    public static MetricsRegistry getMetricsRegistry() {
+        if (metricsRegistry == null) {
+            metricsRegistry = new MetricsRegistry();
+            metricsRegistry.register(new JvmCollector());
+            metricsRegistry.register(MethodMetrics.getDefault());
+            metricsRegistry.register(QueryMetrics.getDefault());
+            metricsRegistry.register(new ServerCollector());
+        }
+        return metricsRegistry;
+    }
+
+    public static JfrRecorder getJfrRecorder() {
+        if (jfrRecorder == null) {
+            jfrRecorder = JfrRecorder.fromConfig();
+        }
+        return jfrRecorder;
+    }
+
     public static AuditService getAuditService() {
         if (auditService == null) {
             auditService = new AuditServiceImpl();
@@ -101,6 +200,34 @@ public class ServiceFactory {
         ServiceFactory.auditRepository = auditRepository;
     }
 
+    public static void setMeterTypeDictionary(MeterTypeDictionary meterTypeDictionary) {
+        ServiceFactory.meterTypeDictionary = meterTypeDictionary;
+    }
+
+    public static void setAuditWriter(AsyncAuditWriter auditWriter) {
+        ServiceFactory.auditWriter = auditWriter;
+    }
+
+    public static void setIdempotencyStore(IdempotencyStore idempotencyStore) {
+        ServiceFactory.idempotencyStore = idempotencyStore;
+    }
+
+    public static void setTokenSigner(TokenSigner tokenSigner) {
+        ServiceFactory.tokenSigner = tokenSigner;
+    }
+
+    public static void setSessionStore(SessionStore sessionStore) {
+        ServiceFactory.sessionStore = sessionStore;
+    }
+
+    public static void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        ServiceFactory.metricsRegistry = metricsRegistry;
+    }
+
+    public static void setJfrRecorder(JfrRecorder jfrRecorder) {
+        ServiceFactory.jfrRecorder = jfrRecorder;
+    }
+
     public static void setGson(Gson gson) {
         ServiceFactory.gson = gson;
     }
@@ -0,0 +1,107 @@
+package utils;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Данные пользователя из проверенного токена.
+ * Фильтр авторизации проверяет токен один раз и сохраняет данные в атрибуте запроса,
+ * сервлеты читают их из атрибута без повторного разбора токена. На время обработки запроса данные также
+ * привязаны к потоку ({@link #current()}) для кода, у которого нет доступа к запросу.
+ */
+public final class TokenClaims {
+    /**
+     * Имя атрибута запроса с данными токена.
+     */
+    public static final String REQUEST_ATTRIBUTE = "tokenClaims";
+
+    private static final ThreadLocal<TokenClaims> CURRENT = new ThreadLocal<>();
+
+    private final int userId;
+    private final String sessionId;
+    private final String email;
+    private final String username;
+    private final boolean admin;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+
+    public TokenClaims(int userId, String sessionId, String email, String username, boolean admin,
+                       long issuedAtMillis, long expiresAtMillis) {
+        this.userId = userId;
+        this.sessionId = sessionId;
+        this.email = email;
+        this.username = username;
+        this.admin = admin;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * Возвращает данные токена, сохраненные фильтром авторизации.
+     *
+     * @param request запрос
+     * @return данные токена или null, если запрос не прошел авторизацию
+     */
+    public static TokenClaims from(ServletRequest request) {
+        return (TokenClaims) request.getAttribute(REQUEST_ATTRIBUTE);
+    }
+
+    /**
+     * @return данные токена запроса, который обрабатывает текущий поток, или null
+     */
+    public static TokenClaims current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Привязывает данные токена к текущему потоку. Вызывается фильтром авторизации,
+     * после обработки запроса привязку нужно снять вызовом {@link #unbind()}.
+     *
+     * @param claims данные токена
+     */
+    public static void bind(TokenClaims claims) {
+        CURRENT.set(claims);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return идентификатор сессии, в которой выпущен токен
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @param nowMillis текущее время в миллисекундах
+     * @return true, если срок действия токена истек
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
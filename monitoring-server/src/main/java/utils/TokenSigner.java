@@ -0,0 +1,318 @@
+package utils;
+
+import config.ServerConfig;
+import org.slf4j.Logger;
+import utils.cache.CacheStats;
+import utils.cache.ConcurrentExpiringCache;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Выпуск и проверка токенов авторизации, подписанных HMAC-SHA256.
+ * <p>
+ * Токен имеет вид {@code данные.подпись}, обе части закодированы в base64url без дополнения.
+ * Данные содержат идентификатор пользователя, время выпуска и окончания действия, признак администратора,
+ * идентификатор сессии, длину электронной почты в байтах, электронную почту и имя пользователя,
+ * разделенные двоеточием.
+ * Подписываются закодированные данные, поэтому подпись проверяется до их декодирования.
+ * <p>
+ * Проверка выполняется во временных буферах потока: подпись и данные декодируются без создания строк
+ * и массивов, новыми объектами становятся только электронная почта, имя пользователя и сам результат.
+ * Проверенные токены кэшируются до окончания их действия. Токен проверяется на каждом запросе,
+ * поэтому попадание в кэш не берет блокировок (см. {@link ConcurrentExpiringCache}).
+ */
+public class TokenSigner {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final byte[] DECODE_TABLE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlMs;
+    private final ConcurrentExpiringCache<String, TokenClaims> verified;
+    private final Function<String, TokenClaims> decoder = this::decode;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * @param secret      ключ подписи
+     * @param ttlMs       срок действия выпускаемых токенов в миллисекундах
+     * @param cacheSize   максимальное количество проверенных токенов в кэше
+     * @param cacheTtlMs  максимальное время хранения проверенного токена в кэше в миллисекундах
+     */
+    public TokenSigner(byte[] secret, long ttlMs, int cacheSize, long cacheTtlMs) {
+        if (secret.length < SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("Ключ подписи токенов должен быть не короче "
+                    + SIGNATURE_LENGTH + " байт");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.ttlMs = ttlMs;
+        this.verified = new ConcurrentExpiringCache<>(cacheSize,
+                claims -> Math.min(cacheTtlMs, claims.getExpiresAtMillis() - System.currentTimeMillis()));
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    /**
+     * Создает подписчика из файла свойств сервера. Если ключ token.secret не задан, создается случайный ключ:
+     * токены перестают действовать после перезапуска сервера и не принимаются другими экземплярами.
+     *
+     * @return подписчик токенов
+     */
+    public static TokenSigner fromConfig() {
+        String encodedSecret = ServerConfig.getString("token.secret", null);
+        byte[] secret;
+        if (encodedSecret == null) {
+            logger.warn("Ключ подписи токенов не задан, используется случайный ключ");
+            secret = new byte[SIGNATURE_LENGTH];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = Base64.getDecoder().decode(encodedSecret);
+        }
+        return new TokenSigner(secret,
+                ServerConfig.getLong("token.ttl.ms", 86400000),
+                ServerConfig.getInt("token.cache.size", 10000),
+                ServerConfig.getLong("token.cache.ttl.ms", 300000));
+    }
+
+    /**
+     * Выпускает токен для пользователя.
+     *
+     * @param userId    идентификатор пользователя
+     * @param sessionId идентификатор сессии; не должен содержать двоеточие
+     * @param email     электронная почта пользователя
+     * @param username  имя пользователя
+     * @param admin     является ли пользователь администратором
+     * @return подписанный токен
+     */
+    public String issue(int userId, String sessionId, String email, String username, boolean admin) {
+        if (sessionId.indexOf(':') >= 0) {
+            throw new IllegalArgumentException("Идентификатор сессии не должен содержать двоеточие");
+        }
+        long issuedAt = System.currentTimeMillis();
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        String payload = userId + ":" + issuedAt + ":" + (issuedAt + ttlMs) + ":" + (admin ? 1 : 0) + ":"
+                + sessionId + ":" + emailBytes.length + ":" + email + ":" + username;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encodedPayload = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        Mac mac = scratch.get().mac;
+        byte[] signature = mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        return encodedPayload + "." + encoder.encodeToString(signature);
+    }
+
+    /**
+     * Проверяет токен. Кэш проверенных токенов ключуется исходной строкой,
+     * поэтому значение заголовка Authorization передается как есть, без выделения подстроки.
+     *
+     * @param token токен или значение заголовка Authorization с префиксом "Bearer "
+     * @return данные токена или null, если токен отсутствует, подделан или его срок действия истек
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        TokenClaims claims = verified.get(token, decoder);
+        if (claims == null || claims.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * @return статистика кэша проверенных токенов
+     */
+    public CacheStats getCacheStats() {
+        return verified.getStats();
+    }
+
+    private TokenClaims decode(String token) {
+        int start = token.startsWith(BEARER_PREFIX) ? BEARER_PREFIX.length() : 0;
+        int dot = token.indexOf('.', start);
+        if (dot <= start || token.length() - dot - 1 != ENCODED_SIGNATURE_LENGTH) {
+            return null;
+        }
+        Scratch buffers = scratch.get();
+        Mac mac = buffers.mac;
+        for (int i = start; i < dot; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                mac.reset();
+                return null;
+            }
+            mac.update((byte) c);
+        }
+        try {
+            mac.doFinal(buffers.expected, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        if (decodeBase64(token, dot + 1, token.length(), buffers.actual) != SIGNATURE_LENGTH
+                || !MessageDigest.isEqual(buffers.expected, buffers.actual)) {
+            return null;
+        }
+
+        int payloadLength = decodeBase64(token, start, dot, buffers.payload(dot - start));
+        if (payloadLength < 0) {
+            return null;
+        }
+        TokenClaims claims = parse(buffers, payloadLength);
+        if (claims == null) {
+            logger.warn("Подписанный токен имеет неверный формат");
+        }
+        return claims;
+    }
+
+    /**
+     * Разбирает данные токена: userId:issuedAt:expiresAt:admin:sessionId:emailLength:email:username.
+     */
+    private static TokenClaims parse(Scratch buffers, int length) {
+        buffers.position = 0;
+        long userId = buffers.readNumber(length);
+        long issuedAt = buffers.readNumber(length);
+        long expiresAt = buffers.readNumber(length);
+        long admin = buffers.readNumber(length);
+        String sessionId = buffers.readText(length);
+        long emailLength = buffers.readNumber(length);
+        int position = buffers.position;
+        byte[] payload = buffers.payload;
+        if (userId < 0 || userId > Integer.MAX_VALUE || issuedAt < 0 || expiresAt < 0 || admin < 0 || admin > 1
+                || sessionId == null || emailLength < 0 || position + emailLength >= length
+                || payload[position + (int) emailLength] != ':') {
+            return null;
+        }
+        String email = new String(payload, position, (int) emailLength, StandardCharsets.UTF_8);
+        position += (int) emailLength + 1;
+        String username = new String(payload, position, length - position, StandardCharsets.UTF_8);
+        return new TokenClaims((int) userId, sessionId, email, username, admin == 1, issuedAt, expiresAt);
+    }
+
+    /**
+     * Декодирует base64url без дополнения в буфер.
+     *
+     * @return количество байт или -1, если строка не является корректным base64url
+     */
+    private static int decodeBase64(String source, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1 || length / 4 * 3 + Math.max(0, length % 4 - 1) > out.length) {
+            return -1;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[written++] = (byte) (bits >> bitCount);
+            }
+        }
+        return written;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Алгоритм подписи токенов недоступен", e);
+        }
+    }
+
+    /**
+     * Буферы проверки токена, принадлежащие одному потоку.
+     */
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] actual = new byte[SIGNATURE_LENGTH];
+        private byte[] payload = new byte[256];
+        private int position;
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * Читает десятичное число до двоеточия, начиная с текущей позиции, и переходит за двоеточие.
+         *
+         * @return число или -1, если поле пустое, содержит не только цифры или не завершено двоеточием
+         */
+        private long readNumber(int length) {
+            if (position < 0) {
+                return -1;
+            }
+            long value = 0;
+            int start = position;
+            while (position < length && payload[position] != ':') {
+                int digit = payload[position] - '0';
+                if (digit < 0 || digit > 9 || position - start >= 18) {
+                    position = -1;
+                    return -1;
+                }
+                value = value * 10 + digit;
+                position++;
+            }
+            if (position == start || position == length) {
+                position = -1;
+                return -1;
+            }
+            position++;
+            return value;
+        }
+
+        /**
+         * Читает непустую строку до двоеточия, начиная с текущей позиции, и переходит за двоеточие.
+         *
+         * @return строка или null, если поле пустое или не завершено двоеточием
+         */
+        private String readText(int length) {
+            if (position < 0) {
+                return null;
+            }
+            int start = position;
+            while (position < length && payload[position] != ':') {
+                position++;
+            }
+            if (position == start || position == length) {
+                position = -1;
+                return null;
+            }
+            position++;
+            return new String(payload, start, position - start - 1, StandardCharsets.UTF_8);
+        }
+
+        private byte[] payload(int encodedLength) {
+            int required = encodedLength / 4 * 3 + 2;
+            if (payload.length < required) {
+                payload = new byte[required];
+            }
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package utils;
+
+import org.slf4j.Logger;
+import utils.pool.ConnectionFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Единица работы, привязанная к потоку обработки HTTP-запроса.
+ * Пока единица работы открыта, DBConnectionManager.getConnection() выдает всем репозиториям одно и то же
+ * соединение в одной транзакции. Соединение берется из пула при первом обращении, поэтому запрос,
+ * не обращающийся к базе данных, соединение не занимает. Транзакция фиксируется или откатывается один раз
+ * при закрытии единицы работы.
+ *
+ * <p>Выданное репозиторию соединение игнорирует close(), setAutoCommit(), setReadOnly() и commit():
+ * их выполняет сама единица работы. Вызов rollback() откатывает транзакцию сразу и помечает единицу работы
+ * только для отката, поэтому при закрытии она откатывается и все последующие изменения запроса.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final Logger logger = LoggerConfig.getLogger();
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final ConnectionFactory source;
+    private final boolean readOnly;
+    private final List<Consumer<Boolean>> afterCompletion = new ArrayList<>();
+
+    /**
+     * Соединение из пула или null, если к базе данных еще не обращались.
+     */
+    private Connection connection;
+
+    /**
+     * Соединение для репозиториев, закрытие которого не возвращает соединение в пул.
+     */
+    private Connection handle;
+
+    private boolean rollbackOnly;
+    private boolean closed;
+
+    private UnitOfWork(ConnectionFactory source, boolean readOnly) {
+        this.source = source;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Открывает единицу работы для текущего потока, соединения берутся из пула DBConnectionManager.
+     *
+     * @param readOnly true для транзакции только для чтения
+     * @return открытая единица работы
+     * @throws IllegalStateException если в потоке уже открыта единица работы
+     */
+    public static UnitOfWork begin(boolean readOnly) {
+        return begin(readOnly, DBConnectionManager::borrowFromPool);
+    }
+
+    /**
+     * Открывает единицу работы для текущего потока.
+     *
+     * @param readOnly true для транзакции только для чтения
+     * @param source   источник соединения
+     * @return открытая единица работы
+     * @throws IllegalStateException если в потоке уже открыта единица работы
+     */
+    public static UnitOfWork begin(boolean readOnly, ConnectionFactory source) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Единица работы уже открыта в этом потоке");
+        }
+        UnitOfWork unit = new UnitOfWork(source, readOnly);
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * @return единица работы текущего потока или null
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Выдает соединение единицы работы. При первом вызове соединение берется из источника,
+     * отключается автоматическая фиксация и при необходимости включается режим только для чтения.
+     *
+     * @return соединение, общее для всех вызовов в рамках единицы работы
+     * @throws SQLException если соединение не удалось получить
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Единица работы уже завершена");
+        }
+        if (connection == null) {
+            Connection borrowed = source.create();
+            try {
+                borrowed.setAutoCommit(false);
+                if (readOnly) {
+                    borrowed.setReadOnly(true);
+                }
+            } catch (SQLException e) {
+                borrowed.close();
+                throw e;
+            }
+            connection = borrowed;
+            handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle());
+        }
+        return handle;
+    }
+
+    /**
+     * Регистрирует действие, выполняемое после завершения транзакции.
+     * Действие получает true, если транзакция зафиксирована.
+     *
+     * @param action действие после завершения
+     */
+    public void afterCompletion(Consumer<Boolean> action) {
+        afterCompletion.add(action);
+    }
+
+    /**
+     * Помечает единицу работы только для отката.
+     */
+    public void setRollbackOnly() {
+        this.rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Завершает единицу работы: фиксирует транзакцию, если единица работы не помечена только для отката,
+     * возвращает соединение в пул и выполняет действия после завершения.
+     *
+     * @throws SQLException если транзакцию не удалось зафиксировать; транзакция в этом случае откатывается
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CURRENT.remove();
+
+        boolean committed = false;
+        SQLException failure = null;
+        if (connection != null) {
+            try {
+                if (rollbackOnly) {
+                    connection.rollback();
+                } else {
+                    connection.commit();
+                    committed = true;
+                }
+            } catch (SQLException e) {
+                failure = e;
+                rollbackQuietly();
+            } finally {
+                connection.close();
+            }
+        } else {
+            committed = !rollbackOnly;
+        }
+
+        for (Consumer<Boolean> action : afterCompletion) {
+            try {
+                action.accept(committed);
+            } catch (RuntimeException e) {
+                logger.error("Ошибка в действии после завершения транзакции: " + e.getMessage());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("Ошибка при откате транзакции: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Обработчик вызовов соединения, выданного репозиториям.
+     */
+    private class Handle implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "commit":
+                    return null;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        rollbackOnly = true;
+                    }
+                    break;
+                case "isClosed":
+                    return closed || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + connection + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Единица работы уже завершена");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package utils.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш с ограниченным количеством записей и временем жизни записи.
+ * При превышении размера вытесняются записи, к которым дольше всего не обращались (LRU).
+ * <p>
+ * Одновременные промахи по одному ключу объединяются: источник данных вызывает только первый поток,
+ * остальные ждут его результата. Явное удаление записи отменяет и начатую загрузку по этому ключу:
+ * загруженное до удаления значение возвращается вызвавшим потокам, но в кэш не попадает,
+ * поэтому следующее обращение прочитает данные заново.
+ * <p>
+ * Значение null не кэшируется.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final ToLongFunction<? super V> ttlMs;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize максимальное количество записей
+     * @param ttlMs   время жизни записи в миллисекундах
+     */
+    public BoundedCache(int maxSize, long ttlMs) {
+        this(maxSize, value -> ttlMs);
+    }
+
+    /**
+     * @param maxSize максимальное количество записей
+     * @param ttlMs   время жизни записи в миллисекундах в зависимости от значения,
+     *                например более короткое для отрицательных результатов
+     */
+    public BoundedCache(int maxSize, ToLongFunction<? super V> ttlMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Возвращает значение из кэша или загружает его из источника.
+     *
+     * @param key    ключ
+     * @param loader источник данных; исключение источника передается вызвавшим потокам и не кэшируется
+     * @return значение
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future;
+        boolean owner = false;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            future = loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            coalescedLoads.increment();
+            return await(future);
+        }
+
+        V value;
+        loads.increment();
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            synchronized (this) {
+                loading.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            if (loading.remove(key, future) && value != null) {
+                store(key, value);
+            }
+        }
+        future.complete(value);
+        return value;
+    }
+
+    /**
+     * Возвращает значение, только если оно уже есть в кэше.
+     *
+     * @param key ключ
+     * @return значение или null
+     */
+    public synchronized V getIfPresent(K key) {
+        return lookup(key);
+    }
+
+    /**
+     * Помещает значение в кэш, заменяя прежнее. Начатая загрузка по этому ключу прежнее значение не вернет в кэш.
+     *
+     * @param key   ключ
+     * @param value значение
+     */
+    public synchronized void put(K key, V value) {
+        loading.remove(key);
+        if (value == null) {
+            entries.remove(key);
+        } else {
+            store(key, value);
+        }
+    }
+
+    /**
+     * Удаляет запись и отменяет сохранение результата начатой по этому ключу загрузки.
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        loading.remove(key);
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Удаляет записи по набору ключей под одной блокировкой: обращающиеся к кэшу потоки
+     * не увидят часть записей удаленной, а часть прежней.
+     *
+     * @param keys ключи
+     */
+    public synchronized void invalidateAll(Iterable<? extends K> keys) {
+        for (K key : keys) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Удаляет все записи и отменяет сохранение результатов всех начатых загрузок.
+     */
+    public synchronized void invalidateAll() {
+        loading.clear();
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return снимок статистики кэша
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), coalescedLoads.sum(), loadFailures.sum(),
+                evictions.sum(), expirations.sum(), invalidations.sum(), size());
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAtNanos < 0) {
+                hits.increment();
+                return entry.value;
+            }
+            entries.remove(key);
+            expirations.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void store(K key, V value) {
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs.applyAsLong(value));
+        if (ttlNanos <= 0) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
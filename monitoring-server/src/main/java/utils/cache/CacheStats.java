@@ -0,0 +1,102 @@
+package utils.cache;
+
+/**
+ * Снимок статистики кэша.
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long coalescedLoads;
+    private final long loadFailures;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+
+    public CacheStats(long hits, long misses, long loads, long coalescedLoads, long loadFailures, long evictions,
+                      long expirations, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.coalescedLoads = coalescedLoads;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    /**
+     * @return количество обращений, обслуженных из кэша
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return количество обращений, не найденных в кэше
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return количество обращений к источнику данных
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * @return количество промахов, дождавшихся загрузки, начатой другим потоком
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    /**
+     * @return количество записей, вытесненных при превышении размера кэша
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return количество записей, удаленных по истечении времени жизни
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * @return количество записей, удаленных явно
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return доля обращений, обслуженных из кэша, или 0, если обращений не было
+     */
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hits + ", misses=" + misses + ", loads=" + loads
+                + ", coalescedLoads=" + coalescedLoads + ", loadFailures=" + loadFailures
+                + ", evictions=" + evictions + ", expirations=" + expirations
+                + ", invalidations=" + invalidations + ", size=" + size + '}';
+    }
+}
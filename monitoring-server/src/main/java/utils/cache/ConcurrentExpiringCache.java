@@ -0,0 +1,143 @@
+package utils.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш с временем жизни записи, обращения к которому не берут блокировок.
+ * <p>
+ * В отличие от {@link BoundedCache}, попадание в кэш сводится к чтению из {@link ConcurrentHashMap}
+ * и проверке срока жизни, поэтому кэш подходит для значений, которые читаются на каждом запросе
+ * из многих потоков. Платой за это служат два упрощения:
+ * <ul>
+ *     <li>одновременные промахи по одному ключу не объединяются, источник данных может быть вызван
+ *     несколькими потоками; источник должен быть дешевым и не иметь побочных эффектов;</li>
+ *     <li>размер ограничен приблизительно: когда записей становится больше maxSize, один из потоков
+ *     удаляет истекшие записи, а если их недостаточно, то произвольные записи, пока их не станет меньше
+ *     maxSize на десятую часть. Остальные потоки в это время не ждут.</li>
+ * </ul>
+ * Значение null не кэшируется.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class ConcurrentExpiringCache<K, V> {
+    private final int maxSize;
+    private final int evictionTarget;
+    private final ToLongFunction<? super V> ttlMs;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxSize максимальное количество записей
+     * @param ttlMs   время жизни записи в миллисекундах в зависимости от значения
+     */
+    public ConcurrentExpiringCache(int maxSize, ToLongFunction<? super V> ttlMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.evictionTarget = maxSize - maxSize / 10;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Возвращает значение из кэша или загружает его из источника.
+     *
+     * @param key    ключ
+     * @param loader источник данных; исключение источника передается вызвавшему потоку и не кэшируется
+     * @return значение
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAtNanos < 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+        misses.increment();
+
+        V value;
+        loads.increment();
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            throw e;
+        }
+        if (value != null) {
+            store(key, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return снимок статистики кэша
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), 0, loadFailures.sum(),
+                evictions.sum(), expirations.sum(), 0, size());
+    }
+
+    private void store(K key, V value) {
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs.applyAsLong(value));
+        if (ttlNanos <= 0) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().expiresAtNanos >= 0) {
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+        iterator = entries.values().iterator();
+        while (entries.size() > evictionTarget && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
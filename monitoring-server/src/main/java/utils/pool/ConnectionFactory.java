@@ -0,0 +1,19 @@
+package utils.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Фабрика физических соединений с базой данных, которыми управляет пул.
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+    /**
+     * Открывает новое физическое соединение.
+     *
+     * @return новое соединение с базой данных
+     * @throws SQLException если соединение не удалось установить
+     */
+    Connection create() throws SQLException;
+}
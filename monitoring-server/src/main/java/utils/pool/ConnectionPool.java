@@ -0,0 +1,327 @@
+package utils.pool;
+
+import jfr.ConnectionAcquireEvent;
+import metrics.LatencyHistogram;
+import metrics.QueryMetrics;
+import metrics.RequestDbStats;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул соединений с базой данных.
+ * Ограничивает количество одновременно выданных соединений, повторно использует физические соединения,
+ * проверяет простаивавшие соединения перед выдачей, ограничивает время ожидания свободного соединения
+ * и сообщает о соединениях, которые удерживаются дольше допустимого.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerConfig.getLogger();
+
+    private final ConnectionFactory factory;
+    private final PoolSettings settings;
+
+    /**
+     * Реестр статистики запросов, выполняемых через соединения пула.
+     */
+    private final QueryMetrics queryMetrics;
+
+    /**
+     * Разрешения на выдачу соединений. Количество разрешений равно максимальному размеру пула.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Свободные соединения. Последнее возвращенное соединение выдается первым.
+     */
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * Выданные соединения.
+     */
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LatencyHistogram borrowLatency = new LatencyHistogram();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Создает пул соединений, который пишет статистику запросов в {@link QueryMetrics#getDefault()}.
+     *
+     * @param factory  фабрика физических соединений
+     * @param settings настройки пула
+     */
+    public ConnectionPool(ConnectionFactory factory, PoolSettings settings) {
+        this(factory, settings, QueryMetrics.getDefault());
+    }
+
+    /**
+     * Создает пул соединений.
+     *
+     * @param factory      фабрика физических соединений
+     * @param settings     настройки пула
+     * @param queryMetrics реестр статистики запросов
+     */
+    public ConnectionPool(ConnectionFactory factory, PoolSettings settings, QueryMetrics queryMetrics) {
+        this.factory = factory;
+        this.settings = settings;
+        this.queryMetrics = queryMetrics;
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+
+        if (settings.getLeakThresholdMs() > 0) {
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1000, settings.getLeakThresholdMs() / 2);
+            housekeeper.scheduleWithFixedDelay(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.housekeeper = null;
+        }
+    }
+
+    /**
+     * Заранее открывает соединения в количестве, указанном в настройках.
+     * Ошибка открытия соединения не прерывает запуск: недостающие соединения будут открыты по требованию.
+     */
+    public void prefill() {
+        int missing = settings.getPrefill() - idleCount.get() - active.size();
+        for (int i = 0; i < missing; i++) {
+            try {
+                idle.offerLast(new PooledConnection(this, openPhysical(), settings));
+                idleCount.incrementAndGet();
+            } catch (SQLException e) {
+                logger.error("Ошибка при предварительном открытии соединения: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Выдает соединение из пула. Соединение необходимо закрыть после использования,
+     * закрытие возвращает его в пул.
+     *
+     * @return соединение с базой данных
+     * @throws SQLException        если соединение не удалось открыть или пул закрыт
+     * @throws SQLTimeoutException если свободное соединение не появилось за время ожидания
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        if (closed) {
+            throw new SQLException("Пул соединений закрыт");
+        }
+
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Ожидание соединения прервано", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.increment();
+            if (event.shouldCommit()) {
+                event.setTimedOut(true);
+                event.setActive(active.size());
+                event.setWaiters(waiters.get());
+                event.commit();
+            }
+            throw new SQLTimeoutException("Не удалось получить соединение за " + settings.getBorrowTimeoutMs() +
+                    " мс: все " + settings.getMaxSize() + " соединений заняты");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            boolean opened = pooled.getBorrowedAtNanos() == 0;
+            Throwable borrowSite = settings.getLeakThresholdMs() > 0
+                    ? new Exception("Соединение получено здесь")
+                    : null;
+            Connection connection = pooled.borrow(borrowSite);
+            active.add(pooled);
+            recordBorrow(System.nanoTime() - start);
+            RequestDbStats.onConnection();
+            if (event.shouldCommit()) {
+                event.setOpened(opened);
+                event.setActive(active.size());
+                event.setWaiters(waiters.get());
+                event.commit();
+            }
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает соединение в пул. Вызывается прокси соединения при его закрытии.
+     *
+     * @param pooled возвращаемое соединение
+     */
+    void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+        if (!closed && pooled.reset()) {
+            idle.offerFirst(pooled);
+            idleCount.incrementAndGet();
+        } else {
+            destroy(pooled);
+        }
+        permits.release();
+
+        if (closed) {
+            drainIdle();
+        }
+    }
+
+    /**
+     * Возвращает снимок текущего состояния пула.
+     *
+     * @return статистика пула
+     */
+    public PoolStats getStats() {
+        long count = borrows.sum();
+        return new PoolStats(active.size(), idleCount.get(), waiters.get(), settings.getMaxSize(), created.sum(),
+                destroyed.sum(), count, timeouts.sum(), leaks.sum(), count == 0 ? 0 : borrowNanos.sum() / count,
+                maxBorrowNanos.get(), statementCacheHits.sum(), statementCacheMisses.sum(),
+                statementCacheEvictions.sum());
+    }
+
+    /**
+     * @return распределение времени получения соединения, включая ожидание свободного соединения
+     */
+    public LatencyHistogram getBorrowLatency() {
+        return borrowLatency;
+    }
+
+    /**
+     * Закрывает пул. Свободные соединения закрываются сразу, выданные соединения закрываются при возврате.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        drainIdle();
+        if (!active.isEmpty()) {
+            logger.warn("Пул закрыт, но " + active.size() + " соединений еще не возвращено");
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.getValidationIntervalMs());
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (pooled.validateIfIdle(intervalNanos, settings.getValidationTimeoutSeconds())) {
+                return pooled;
+            }
+            logger.warn("Соединение не прошло проверку и будет закрыто");
+            destroy(pooled);
+        }
+        return new PooledConnection(this, openPhysical(), settings);
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = factory.create();
+        if (connection == null) {
+            throw new SQLException("Соединение не было установлено");
+        }
+        created.increment();
+        return connection;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.closePhysical();
+        destroyed.increment();
+    }
+
+    private void drainIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            destroy(pooled);
+        }
+    }
+
+    QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    void recordStatementCacheEviction() {
+        statementCacheEvictions.increment();
+    }
+
+    private void recordBorrow(long nanos) {
+        borrows.increment();
+        borrowNanos.add(nanos);
+        borrowLatency.record(nanos);
+        long max;
+        while (nanos > (max = maxBorrowNanos.get())) {
+            if (maxBorrowNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Сообщает о соединениях, удерживаемых дольше порога обнаружения утечек.
+     * О каждой выдаче соединения сообщается не более одного раза.
+     */
+    void detectLeaks() {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getLeakThresholdMs());
+        long now = System.nanoTime();
+        for (PooledConnection pooled : active) {
+            if (!pooled.isLeakReported() && now - pooled.getBorrowedAtNanos() > thresholdNanos) {
+                pooled.markLeakReported();
+                leaks.increment();
+                logger.warn("Возможная утечка соединения: удерживается дольше " + settings.getLeakThresholdMs() +
+                        " мс", pooled.getBorrowSite());
+            }
+        }
+    }
+}
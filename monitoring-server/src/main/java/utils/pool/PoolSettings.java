@@ -0,0 +1,140 @@
+package utils.pool;
+
+import config.ServerConfig;
+
+/**
+ * Настройки пула соединений.
+ */
+public class PoolSettings {
+    /**
+     * Количество соединений, открываемых при старте приложения.
+     */
+    private final int prefill;
+
+    /**
+     * Максимальное количество соединений в пуле.
+     */
+    private final int maxSize;
+
+    /**
+     * Время ожидания свободного соединения в миллисекундах.
+     */
+    private final long borrowTimeoutMs;
+
+    /**
+     * Время простоя в миллисекундах, после которого соединение проверяется перед выдачей.
+     */
+    private final long validationIntervalMs;
+
+    /**
+     * Время ожидания ответа при проверке соединения в секундах.
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Время удержания соединения в миллисекундах, после которого сообщается о возможной утечке.
+     * Значение 0 отключает обнаружение утечек.
+     */
+    private final long leakThresholdMs;
+
+    /**
+     * Количество подготовленных запросов, кэшируемых для каждого соединения.
+     * Значение 0 отключает кэш.
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Количество выполнений подготовленного запроса, после которого драйвер переходит
+     * на подготовленный запрос на стороне сервера. Значение 0 оставляет настройку драйвера.
+     */
+    private final int prepareThreshold;
+
+    /**
+     * Время выполнения запроса вместе с чтением результата в миллисекундах, после которого запрос
+     * выводится в журнал медленных запросов. Значение 0 отключает журнал.
+     */
+    private final long slowQueryThresholdMs;
+
+    public PoolSettings(int prefill, int maxSize, long borrowTimeoutMs, long validationIntervalMs,
+                        int validationTimeoutSeconds, long leakThresholdMs) {
+        this(prefill, maxSize, borrowTimeoutMs, validationIntervalMs, validationTimeoutSeconds, leakThresholdMs, 0, 0);
+    }
+
+    public PoolSettings(int prefill, int maxSize, long borrowTimeoutMs, long validationIntervalMs,
+                        int validationTimeoutSeconds, long leakThresholdMs, int statementCacheSize,
+                        int prepareThreshold) {
+        this(prefill, maxSize, borrowTimeoutMs, validationIntervalMs, validationTimeoutSeconds, leakThresholdMs,
+                statementCacheSize, prepareThreshold, 0);
+    }
+
+    public PoolSettings(int prefill, int maxSize, long borrowTimeoutMs, long validationIntervalMs,
+                        int validationTimeoutSeconds, long leakThresholdMs, int statementCacheSize,
+                        int prepareThreshold, long slowQueryThresholdMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Максимальный размер пула должен быть положительным: " + maxSize);
+        }
+        this.prefill = Math.max(0, Math.min(prefill, maxSize));
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakThresholdMs = leakThresholdMs;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.prepareThreshold = Math.max(0, prepareThreshold);
+        this.slowQueryThresholdMs = Math.max(0, slowQueryThresholdMs);
+    }
+
+    /**
+     * Создает настройки пула из файла свойств сервера.
+     *
+     * @return настройки пула
+     */
+    public static PoolSettings fromConfig() {
+        return new PoolSettings(
+                ServerConfig.getInt("db.pool.prefill", 4),
+                ServerConfig.getInt("db.pool.max.size", 16),
+                ServerConfig.getLong("db.pool.borrow.timeout.ms", 5000),
+                ServerConfig.getLong("db.pool.validation.interval.ms", 30000),
+                ServerConfig.getInt("db.pool.validation.timeout.s", 2),
+                ServerConfig.getLong("db.pool.leak.threshold.ms", 60000),
+                ServerConfig.getInt("db.pool.statement.cache.size", 64),
+                ServerConfig.getInt("db.pool.statement.prepare.threshold", 3),
+                ServerConfig.getLong("db.slow.query.threshold.ms", 500));
+    }
+
+    public int getPrefill() {
+        return prefill;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+
+    public long getValidationIntervalMs() {
+        return validationIntervalMs;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public long getLeakThresholdMs() {
+        return leakThresholdMs;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdMs;
+    }
+}
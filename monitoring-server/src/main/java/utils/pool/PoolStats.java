@@ -0,0 +1,153 @@
+package utils.pool;
+
+/**
+ * Снимок состояния пула соединений на момент запроса.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final int maxSize;
+    private final long created;
+    private final long destroyed;
+    private final long borrows;
+    private final long timeouts;
+    private final long leaksDetected;
+    private final long meanBorrowNanos;
+    private final long maxBorrowNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(int active, int idle, int waiters, int maxSize, long created, long destroyed, long borrows,
+                     long timeouts, long leaksDetected, long meanBorrowNanos, long maxBorrowNanos,
+                     long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.borrows = borrows;
+        this.timeouts = timeouts;
+        this.leaksDetected = leaksDetected;
+        this.meanBorrowNanos = meanBorrowNanos;
+        this.maxBorrowNanos = maxBorrowNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    /**
+     * @return количество выданных и еще не возвращенных соединений
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return количество свободных соединений в пуле
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return количество потоков, ожидающих свободное соединение
+     */
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return количество открытых за все время физических соединений
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return количество закрытых за все время физических соединений
+     */
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * @return количество успешных выдач соединений
+     */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /**
+     * @return количество запросов, не дождавшихся свободного соединения
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return количество обнаруженных утечек соединений
+     */
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    /**
+     * @return среднее время получения соединения в наносекундах
+     */
+    public long getMeanBorrowNanos() {
+        return meanBorrowNanos;
+    }
+
+    /**
+     * @return максимальное время получения соединения в наносекундах
+     */
+    public long getMaxBorrowNanos() {
+        return maxBorrowNanos;
+    }
+
+    /**
+     * @return количество подготовленных запросов, выданных из кэша соединения
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    /**
+     * @return количество подготовленных запросов, подготовленных заново
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    /**
+     * @return количество запросов, закрытых при вытеснении из кэша
+     */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    /**
+     * @return доля подготовленных запросов, выданных из кэша, от 0 до 1
+     */
+    public double getStatementCacheHitRatio() {
+        long total = statementCacheHits + statementCacheMisses;
+        return total == 0 ? 0 : (double) statementCacheHits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{active=" + active + ", idle=" + idle + ", waiters=" + waiters + ", maxSize=" + maxSize +
+                ", created=" + created + ", destroyed=" + destroyed + ", borrows=" + borrows +
+                ", timeouts=" + timeouts + ", leaksDetected=" + leaksDetected +
+                ", meanBorrowNanos=" + meanBorrowNanos + ", maxBorrowNanos=" + maxBorrowNanos +
+                ", statementCacheHits=" + statementCacheHits + ", statementCacheMisses=" + statementCacheMisses +
+                ", statementCacheEvictions=" + statementCacheEvictions + "}";
+    }
+}
@@ -0,0 +1,219 @@
+package utils.pool;
+
+import jfr.RepositoryCallEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Физическое соединение, находящееся под управлением пула.
+ * Вызывающему коду выдается прокси, у которого метод close() возвращает соединение в пул
+ * вместо закрытия физического соединения. Подготовленные запросы prepareStatement(String)
+ * кэшируются вместе с соединением и переиспользуются следующими владельцами.
+ * Все запросы, созданные через прокси, учитываются в статистике запросов пула, см. {@link ProfiledStatement}.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physical;
+
+    /**
+     * Кэш подготовленных запросов или null, если кэш отключен.
+     */
+    private final StatementCache statementCache;
+
+    /**
+     * Порог журнала медленных запросов или 0, если журнал отключен.
+     */
+    private final long slowQueryThresholdNanos;
+
+    /**
+     * Время последнего возврата соединения в пул.
+     */
+    private volatile long lastReleasedNanos = System.nanoTime();
+
+    /**
+     * Время последней выдачи соединения из пула или 0, если соединение еще не выдавалось.
+     */
+    private volatile long borrowedAtNanos;
+
+    /**
+     * Место в коде, где было получено соединение. Заполняется только при включенном обнаружении утечек.
+     */
+    private volatile Throwable borrowSite;
+
+    /**
+     * Признак того, что об утечке этого соединения уже сообщено.
+     */
+    private volatile boolean leakReported;
+
+    /**
+     * Признак того, что вызывающий код менял режим только для чтения.
+     */
+    private boolean readOnlyChanged;
+
+    PooledConnection(ConnectionPool pool, Connection physical, PoolSettings settings) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = settings.getStatementCacheSize() > 0
+                ? new StatementCache(pool, physical, settings.getStatementCacheSize(), settings.getPrepareThreshold())
+                : null;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getSlowQueryThresholdMs());
+    }
+
+    /**
+     * Помечает соединение выданным и создает для него новый прокси.
+     * Каждая выдача получает собственный прокси, чтобы повторный close() или обращение
+     * к уже возвращенному соединению не затрагивали следующего владельца.
+     *
+     * @param borrowSite место получения соединения или null
+     * @return прокси соединения для вызывающего кода
+     */
+    Connection borrow(Throwable borrowSite) {
+        this.borrowedAtNanos = System.nanoTime();
+        this.borrowSite = borrowSite;
+        this.leakReported = false;
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handle());
+    }
+
+    /**
+     * Проверяет работоспособность соединения, если оно простаивало дольше заданного интервала.
+     *
+     * @param intervalNanos  интервал простоя, после которого требуется проверка
+     * @param timeoutSeconds время ожидания ответа базы данных
+     * @return true, если соединение можно выдавать
+     */
+    boolean validateIfIdle(long intervalNanos, int timeoutSeconds) {
+        if (System.nanoTime() - lastReleasedNanos < intervalNanos) {
+            return true;
+        }
+        try {
+            return physical.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает соединение в исходное состояние перед повторным использованием.
+     * Незавершенная транзакция откатывается, незакрытые подготовленные запросы закрываются.
+     *
+     * @return true, если соединение пригодно для повторного использования
+     */
+    boolean reset() {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (statementCache != null) {
+                statementCache.releaseAll();
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (readOnlyChanged) {
+                physical.setReadOnly(false);
+                readOnlyChanged = false;
+            }
+            physical.clearWarnings();
+            lastReleasedNanos = System.nanoTime();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Закрывает физическое соединение.
+     */
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // соединение уже непригодно, ошибка закрытия ничего не меняет
+        }
+    }
+
+    long getBorrowedAtNanos() {
+        return borrowedAtNanos;
+    }
+
+    Throwable getBorrowSite() {
+        return borrowSite;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        this.leakReported = true;
+    }
+
+    /**
+     * Обработчик вызовов выданного прокси.
+     */
+    private class Handle implements InvocationHandler {
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Соединение уже возвращено в пул");
+            }
+            if (method.getName().equals("setReadOnly")) {
+                readOnlyChanged = true;
+            }
+            if (method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                RepositoryCallEvent.onStatement(sql);
+                PreparedStatement statement = statementCache != null && args.length == 1
+                        ? statementCache.prepare(sql, (Connection) proxy)
+                        : (PreparedStatement) invokePhysical(method, args);
+                return ProfiledStatement.wrap(statement, sql, pool.getQueryMetrics(), slowQueryThresholdNanos);
+            }
+            if (method.getName().equals("createStatement")) {
+                return ProfiledStatement.wrap((Statement) invokePhysical(method, args), pool.getQueryMetrics(),
+                        slowQueryThresholdNanos);
+            }
+            return invokePhysical(method, args);
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package utils.pool;
+
+import metrics.QueryMetrics;
+import metrics.QueryTimer;
+import metrics.RequestDbStats;
+import org.slf4j.Logger;
+import utils.LoggerConfig;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Обработчик вызовов прокси запроса, который учитывает время выполнения запроса и чтения его результата
+ * в {@link QueryMetrics} и выводит в журнал запросы дольше порога вместе со значениями параметров.
+ * Каждое выполнение также отмечается в счетчиках обрабатываемого HTTP-запроса ({@link RequestDbStats}).
+ * <p>
+ * Время чтения результата складывается из времени вызовов ResultSet.next(), поэтому обработка строк
+ * вызывающим кодом в него не входит, см. {@link ProfiledResultSet}. Выполнение, вернувшее результат,
+ * записывается при закрытии результата, запроса или при следующем выполнении. Значения параметров
+ * запоминаются, только если журнал медленных запросов включен; значения столбцов с паролями, солями,
+ * сессиями и адресами почты скрываются.
+ * Запрос используется одним потоком за раз, поэтому обработчик не синхронизируется.
+ */
+class ProfiledStatement implements InvocationHandler {
+    private static final Logger logger = LoggerConfig.getLogger();
+
+    /**
+     * Наибольшая длина строкового значения параметра в журнале.
+     */
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final Statement statement;
+    private final QueryMetrics metrics;
+    private final long slowThresholdNanos;
+    private Object proxy;
+
+    /**
+     * Таймер запроса. У запроса без текста (createStatement) определяется при выполнении.
+     */
+    private QueryTimer timer;
+
+    /**
+     * Значения параметров по номерам, начиная с 0, или null, если журнал медленных запросов отключен.
+     */
+    private Object[] binds;
+    private int batchSize;
+
+    /**
+     * Выполнение, результат которого еще читается.
+     */
+    private boolean pending;
+    private long pendingExecuteNanos;
+    private long pendingFetchNanos;
+    private long pendingRows;
+
+    private ProfiledStatement(Statement statement, QueryTimer timer, QueryMetrics metrics, long slowThresholdNanos) {
+        this.statement = statement;
+        this.timer = timer;
+        this.metrics = metrics;
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.binds = slowThresholdNanos > 0 && timer != null
+                ? new Object[timer.getSensitiveParameters().length]
+                : null;
+    }
+
+    /**
+     * Оборачивает подготовленный запрос.
+     *
+     * @param statement          запрос
+     * @param sql                текст запроса
+     * @param metrics            реестр статистики запросов
+     * @param slowThresholdNanos порог журнала медленных запросов или 0
+     * @return прокси запроса
+     */
+    static PreparedStatement wrap(PreparedStatement statement, String sql, QueryMetrics metrics,
+                                  long slowThresholdNanos) {
+        ProfiledStatement handler = new ProfiledStatement(statement, metrics.timer(sql), metrics, slowThresholdNanos);
+        PreparedStatement proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+        handler.proxy = proxy;
+        return proxy;
+    }
+
+    /**
+     * Оборачивает запрос без текста; текст передается при выполнении.
+     *
+     * @param statement          запрос
+     * @param metrics            реестр статистики запросов
+     * @param slowThresholdNanos порог журнала медленных запросов или 0
+     * @return прокси запроса
+     */
+    static Statement wrap(Statement statement, QueryMetrics metrics, long slowThresholdNanos) {
+        ProfiledStatement handler = new ProfiledStatement(statement, null, metrics, slowThresholdNanos);
+        Statement proxy = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, handler);
+        handler.proxy = proxy;
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "execute":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args);
+            case "getResultSet":
+                ResultSet resultSet = (ResultSet) delegate(method, args);
+                return resultSet == null ? null : wrapResultSet(resultSet);
+            case "addBatch":
+                if (args != null && timer == null) {
+                    timer = metrics.timer((String) args[0]);
+                }
+                batchSize++;
+                break;
+            case "clearParameters":
+                if (binds != null) {
+                    Arrays.fill(binds, null);
+                }
+                break;
+            case "close":
+                finish();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ProfiledStatement[" + statement + "]";
+            default:
+                if (binds != null && args != null && args.length >= 2 && args[0] instanceof Integer index
+                        && name.startsWith("set") && method.getDeclaringClass() == PreparedStatement.class) {
+                    bind(index - 1, name.equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+        return delegate(method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finish();
+        if (args != null && args.length > 0 && args[0] instanceof String sql) {
+            timer = metrics.timer(sql);
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            record(System.nanoTime() - start, 0, 0, false, true);
+            batchSize = 0;
+            throw e.getCause();
+        }
+        long executeNanos = System.nanoTime() - start;
+        if (result instanceof ResultSet resultSet) {
+            begin(executeNanos);
+            return wrapResultSet(resultSet);
+        }
+        if (Boolean.TRUE.equals(result)) {
+            begin(executeNanos);
+            return result;
+        }
+        record(executeNanos, 0, updatedRows(result), false, false);
+        batchSize = 0;
+        return result;
+    }
+
+    private void begin(long executeNanos) {
+        pending = true;
+        pendingExecuteNanos = executeNanos;
+        pendingFetchNanos = 0;
+        pendingRows = 0;
+    }
+
+    /**
+     * Учитывает вызов next() результата текущего выполнения.
+     *
+     * @param nanos  длительность вызова в наносекундах
+     * @param hasRow true, если строка прочитана
+     */
+    void fetched(long nanos, boolean hasRow) {
+        pendingFetchNanos += nanos;
+        if (hasRow) {
+            pendingRows++;
+        }
+    }
+
+    /**
+     * Записывает выполнение, результат которого читался, если такое есть.
+     */
+    void finish() {
+        if (pending) {
+            pending = false;
+            record(pendingExecuteNanos, pendingFetchNanos, pendingRows, true, false);
+        }
+    }
+
+    private void record(long executeNanos, long fetchNanos, long rows, boolean fetched, boolean failed) {
+        if (timer == null) {
+            return;
+        }
+        timer.record(executeNanos, fetchNanos, rows, failed);
+        RequestDbStats.onStatement(timer, executeNanos + fetchNanos, fetched ? rows : 0);
+        if (slowThresholdNanos > 0 && executeNanos + fetchNanos >= slowThresholdNanos) {
+            long slowCount = timer.recordSlow();
+            if (slowCount > 0) {
+                logSlow(executeNanos, fetchNanos, rows, failed, slowCount);
+            }
+        }
+    }
+
+    private void logSlow(long executeNanos, long fetchNanos, long rows, boolean failed, long slowCount) {
+        StringBuilder message = new StringBuilder("Медленный запрос ").append(timer.getId()).append(": ")
+                .append(millis(executeNanos + fetchNanos)).append(" мс (выполнение ").append(millis(executeNanos))
+                .append(" мс, чтение результата ").append(millis(fetchNanos)).append(" мс, строк ").append(rows);
+        if (batchSize > 0) {
+            message.append(", пакет из ").append(batchSize);
+        }
+        if (failed) {
+            message.append(", ошибка");
+        }
+        if (slowCount > 1) {
+            message.append(", медленных выполнений с прошлой записи ").append(slowCount);
+        }
+        message.append("): ").append(timer.getSql());
+        if (binds != null && binds.length > 0) {
+            boolean[] sensitive = timer.getSensitiveParameters();
+            message.append("; параметры: [");
+            for (int i = 0; i < binds.length; i++) {
+                if (i > 0) {
+                    message.append(", ");
+                }
+                message.append(i + 1).append('=');
+                appendValue(message, binds[i], i < sensitive.length && sensitive[i]);
+            }
+            message.append(']');
+        }
+        logger.warn(message.toString());
+    }
+
+    private static void appendValue(StringBuilder message, Object value, boolean sensitive) {
+        if (value == null) {
+            message.append("NULL");
+        } else if (sensitive) {
+            message.append("***");
+        } else if (value instanceof String string) {
+            message.append('\'').append(string, 0, Math.min(string.length(), MAX_VALUE_LENGTH));
+            message.append(string.length() > MAX_VALUE_LENGTH ? "...'" : "'");
+        } else if (value instanceof byte[] bytes) {
+            message.append('<').append(bytes.length).append(" байт>");
+        } else if (value instanceof Array || value instanceof InputStream || value instanceof Reader) {
+            message.append('<').append(value.getClass().getSimpleName()).append('>');
+        } else {
+            message.append(value);
+        }
+    }
+
+    private void bind(int index, Object value) {
+        if (index < 0) {
+            return;
+        }
+        if (index >= binds.length) {
+            binds = Arrays.copyOf(binds, index + 1);
+        }
+        binds[index] = value;
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Number number) {
+            return Math.max(0, number.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    private Object delegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) throws SQLException {
+        return new ProfiledResultSet(resultSet, this, (Statement) proxy);
+    }
+}
@@ -0,0 +1,222 @@
+package utils.pool;
+
+import org.postgresql.PGStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Кэш подготовленных запросов одного физического соединения.
+ * Запросы хранятся по тексту SQL в порядке последнего использования, при превышении размера
+ * закрывается давно не использовавшийся свободный запрос. Вызывающему коду выдается прокси,
+ * у которого метод close() очищает параметры и возвращает запрос в кэш.
+ * Соединение используется одним потоком за раз, поэтому кэш не синхронизируется.
+ */
+class StatementCache {
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final int maxSize;
+
+    /**
+     * Количество выполнений запроса, после которого драйвер переходит на именованный
+     * подготовленный запрос на стороне сервера. Значение 0 оставляет настройку драйвера.
+     */
+    private final int prepareThreshold;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(ConnectionPool pool, Connection physical, int maxSize, int prepareThreshold) {
+        this.pool = pool;
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    /**
+     * Выдает подготовленный запрос из кэша или подготавливает новый.
+     * Если запрос с таким текстом уже выдан и не закрыт, готовится отдельный запрос, который
+     * закрывается при вызове close() и в кэш не попадает.
+     *
+     * @param sql        текст запроса
+     * @param connection прокси соединения, возвращаемый методом getConnection() запроса
+     * @return прокси подготовленного запроса
+     * @throws SQLException если запрос не удалось подготовить
+     */
+    PreparedStatement prepare(String sql, Connection connection) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && !entry.inUse) {
+            pool.recordStatementCacheHit();
+            entry.inUse = true;
+            return lease(entry, connection);
+        }
+
+        pool.recordStatementCacheMiss();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (prepareThreshold > 0 && statement.isWrapperFor(PGStatement.class)) {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+        }
+        Entry created = new Entry(sql, statement, entry == null);
+        created.inUse = true;
+        if (created.cached) {
+            entries.put(sql, created);
+            evictOverflow();
+        }
+        return lease(created, connection);
+    }
+
+    /**
+     * Закрывает запросы, которые вызывающий код не закрыл до возврата соединения в пул.
+     * Выданные ранее прокси этих запросов перестают работать.
+     */
+    void releaseAll() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.inUse) {
+                iterator.remove();
+                closeQuietly(entry.statement);
+            }
+        }
+    }
+
+    /**
+     * Забывает все запросы. Вызывается перед закрытием физического соединения,
+     * которое само закрывает свои запросы.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (!eldest.inUse) {
+                iterator.remove();
+                closeQuietly(eldest.statement);
+                pool.recordStatementCacheEviction();
+            }
+        }
+    }
+
+    private PreparedStatement lease(Entry entry, Connection connection) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Lease(entry, connection));
+    }
+
+    /**
+     * Возвращает запрос в кэш после закрытия прокси. Запрос, у которого менялись настройки выполнения
+     * (размер выборки, ограничение строк, время ожидания), закрывается, чтобы следующий владелец
+     * получил запрос с настройками по умолчанию.
+     */
+    private void giveBack(Entry entry, boolean dirty) {
+        boolean current = entry.cached && entries.get(entry.sql) == entry;
+        if (!current || dirty) {
+            if (current) {
+                entries.remove(entry.sql);
+            }
+            closeQuietly(entry.statement);
+            return;
+        }
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.statement.clearWarnings();
+            entry.inUse = false;
+        } catch (SQLException e) {
+            entries.remove(entry.sql);
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // запрос больше не используется, ошибка закрытия ничего не меняет
+        }
+    }
+
+    private static final class Entry {
+        private final String sql;
+        private final PreparedStatement statement;
+
+        /**
+         * Признак того, что запрос хранится в кэше, а не подготовлен для однократного использования.
+         */
+        private final boolean cached;
+        private boolean inUse;
+
+        private Entry(String sql, PreparedStatement statement, boolean cached) {
+            this.sql = sql;
+            this.statement = statement;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * Обработчик вызовов выданного прокси запроса.
+     * Каждая выдача получает собственный прокси, чтобы повторный close() не затрагивал следующего владельца.
+     */
+    private class Lease implements InvocationHandler {
+        private final Entry entry;
+        private final Connection connection;
+        private boolean closed;
+        private boolean dirty;
+
+        private Lease(Entry entry, Connection connection) {
+            this.entry = entry;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack(entry, dirty);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Запрос уже закрыт");
+            }
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (method.getDeclaringClass() == Statement.class
+                    && (name.startsWith("set") || name.equals("closeOnCompletion"))) {
+                dirty = true;
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
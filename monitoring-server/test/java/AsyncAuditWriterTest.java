@@ -0,0 +1,220 @@
+import dao.audit.AuditRepository;
+import dao.audit.AuditWriteResult;
+import model.audit.ActionType;
+import model.audit.AuditLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import service.audit.AsyncAuditWriter;
+import service.audit.AuditWriterSettings;
+import service.audit.AuditWriterSettings.OverflowPolicy;
+import service.audit.AuditWriterStats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncAuditWriterTest {
+    @TempDir
+    Path tempDir;
+
+    private List<List<AuditLog>> batches;
+    private AuditRepository auditRepository;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        batches = Collections.synchronizedList(new ArrayList<>());
+        auditRepository = Mockito.mock(AuditRepository.class);
+        Mockito.when(auditRepository.recordActions(Mockito.anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<AuditLog>>getArgument(0)));
+            return AuditWriteResult.WRITTEN;
+        });
+    }
+
+    private static AuditLog event(int userId, String description) {
+        return new AuditLog(userId, ActionType.LOGIN, LocalDateTime.of(2024, 1, 1, 12, 0), description);
+    }
+
+    private int recorded() {
+        synchronized (batches) {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование записи пакета при наборе размера пакета")
+    public void testFlushesFullBatch() throws Exception {
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(100, 5, 60000, OverflowPolicy.DROP, 0, null));
+
+        for (int i = 0; i < 5; i++) {
+            writer.submit(event(i, "вход"));
+        }
+        for (int i = 0; i < 100 && recorded() < 5; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, batches.size());
+        assertEquals(5, batches.get(0).size());
+        writer.shutdown(1000);
+    }
+
+    @Test
+    @DisplayName("Тестирование записи неполного пакета по истечении интервала")
+    public void testFlushesPartialBatchAfterInterval() throws Exception {
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(100, 50, 20, OverflowPolicy.DROP, 0, null));
+
+        writer.submit(event(1, "вход"));
+        for (int i = 0; i < 100 && recorded() < 1; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, recorded());
+        assertEquals(1, writer.getStats().getLastBatchSize());
+        writer.shutdown(1000);
+    }
+
+    @Test
+    @DisplayName("Тестирование записи оставшихся событий при остановке")
+    public void testShutdownDrainsQueue() {
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(1000, 100, 60000, OverflowPolicy.DROP, 0, null));
+        for (int i = 0; i < 250; i++) {
+            writer.submit(event(i, "вход"));
+        }
+
+        assertTrue(writer.shutdown(5000));
+
+        assertEquals(250, recorded());
+        AuditWriterStats stats = writer.getStats();
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(250, stats.getWritten());
+    }
+
+    @Test
+    @DisplayName("Тестирование отбрасывания событий при заполненной очереди")
+    public void testDropPolicyCountsDroppedEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            batches.add(new ArrayList<>(invocation.<List<AuditLog>>getArgument(0)));
+            return AuditWriteResult.WRITTEN;
+        }).when(auditRepository).recordActions(Mockito.anyList());
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(2, 1, 60000, OverflowPolicy.DROP, 0, null));
+
+        writer.submit(event(1, "вход"));
+        for (int i = 0; i < 100 && writer.getStats().getQueueDepth() > 0; i++) {
+            Thread.sleep(10);
+        }
+        for (int i = 2; i <= 5; i++) {
+            writer.submit(event(i, "вход"));
+        }
+        release.countDown();
+        writer.shutdown(5000);
+
+        assertEquals(2, writer.getStats().getDropped());
+        assertEquals(3, recorded());
+    }
+
+    @Test
+    @DisplayName("Тестирование сохранения в файл и последующей записи в базу данных")
+    public void testSpilledEventsAreReplayed() throws Exception {
+        Path spillFile = tempDir.resolve("audit-spill.log");
+        Mockito.doReturn(AuditWriteResult.FAILED).when(auditRepository).recordActions(Mockito.anyList());
+        AsyncAuditWriter failing = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(10, 10, 10, OverflowPolicy.SPILL, 0, spillFile));
+        failing.submit(event(1, "строка\tс табуляцией\nи переводом строки"));
+        failing.submit(event(2, null));
+        failing.shutdown(1000);
+
+        assertTrue(Files.exists(spillFile));
+        assertEquals(2, failing.getStats().getSpilled());
+
+        Mockito.doAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<AuditLog>>getArgument(0)));
+            return AuditWriteResult.WRITTEN;
+        }).when(auditRepository).recordActions(Mockito.anyList());
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(10, 10, 10, OverflowPolicy.SPILL, 0, spillFile));
+        for (int i = 0; i < 100 && recorded() < 2; i++) {
+            Thread.sleep(10);
+        }
+        writer.shutdown(1000);
+
+        assertEquals(List.of(event(1, "строка\tс табуляцией\nи переводом строки"), event(2, null)), batches.get(0));
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    @DisplayName("Тестирование переноса отклоненных базой данных событий в отдельный файл")
+    public void testRejectedEventsAreIsolated() throws Exception {
+        Path spillFile = tempDir.resolve("audit-spill.log");
+        Mockito.doAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(auditLog -> auditLog.getUserId() % 3 == 0)) {
+                return AuditWriteResult.REJECTED;
+            }
+            batches.add(new ArrayList<>(batch));
+            return AuditWriteResult.WRITTEN;
+        }).when(auditRepository).recordActions(Mockito.anyList());
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(100, 8, 60000, OverflowPolicy.SPILL, 0, spillFile));
+
+        for (int i = 1; i <= 8; i++) {
+            writer.submit(event(i, "вход"));
+        }
+        for (int i = 0; i < 100 && writer.getStats().getRejected() < 2; i++) {
+            Thread.sleep(10);
+        }
+        writer.shutdown(1000);
+
+        assertEquals(6, recorded());
+        AuditWriterStats stats = writer.getStats();
+        assertEquals(6, stats.getWritten());
+        assertEquals(2, stats.getRejected());
+        assertEquals(0, stats.getSpilled());
+        assertFalse(Files.exists(spillFile));
+        List<String> rejected = Files.readAllLines(tempDir.resolve("audit-spill.log.rejected"));
+        assertEquals(2, rejected.size());
+        assertTrue(rejected.get(0).startsWith("3\tLOGIN\t"), rejected.get(0));
+        assertTrue(rejected.get(1).startsWith("6\tLOGIN\t"), rejected.get(1));
+    }
+
+    @Test
+    @DisplayName("Тестирование паузы между попытками перенести файл после ошибки базы данных")
+    public void testReplayBacksOffAfterFailure() throws Exception {
+        Path spillFile = tempDir.resolve("audit-spill.log");
+        AtomicInteger attempts = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            return AuditWriteResult.FAILED;
+        }).when(auditRepository).recordActions(Mockito.anyList());
+        AsyncAuditWriter failing = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(10, 10, 10, OverflowPolicy.SPILL, 0, spillFile));
+        failing.submit(event(1, "вход"));
+        failing.shutdown(1000);
+        attempts.set(0);
+
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(10, 10, 10, OverflowPolicy.SPILL, 0, spillFile, 60000));
+        Thread.sleep(500);
+        writer.shutdown(1000);
+
+        assertTrue(attempts.get() >= 2, "попыток: " + attempts.get());
+        assertTrue(attempts.get() <= 7, "попыток: " + attempts.get());
+        assertEquals(1, Files.readAllLines(spillFile).size());
+    }
+}
@@ -0,0 +1,79 @@
+import dao.audit.AuditRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import service.audit.AuditPartitionMaintenance;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class AuditPartitionMaintenanceTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-15T10:00:00Z"), ZoneOffset.UTC);
+
+    private AuditRepository auditRepository;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        auditRepository = Mockito.mock(AuditRepository.class);
+        Mockito.when(auditRepository.createPartition(Mockito.any())).thenReturn(true);
+        Mockito.when(auditRepository.removePartition(Mockito.any(), Mockito.anyBoolean())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Тестирование создания недостающих секций на месяцы вперед")
+    public void testCreatesMissingFuturePartitions() {
+        Mockito.when(auditRepository.getPartitionMonths())
+                .thenReturn(List.of(YearMonth.of(2024, 5), YearMonth.of(2024, 6)));
+
+        new AuditPartitionMaintenance(auditRepository, CLOCK, 3, 0, false, 24).runOnce();
+
+        Mockito.verify(auditRepository).createPartition(YearMonth.of(2024, 7));
+        Mockito.verify(auditRepository).createPartition(YearMonth.of(2024, 8));
+        Mockito.verify(auditRepository, Mockito.times(2)).createPartition(Mockito.any());
+        Mockito.verify(auditRepository, Mockito.never()).removePartition(Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Тестирование отсоединения секций старше срока хранения")
+    public void testDetachesExpiredPartitions() {
+        Mockito.when(auditRepository.getPartitionMonths()).thenReturn(List.of(
+                YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3), YearMonth.of(2024, 4),
+                YearMonth.of(2024, 5)));
+
+        new AuditPartitionMaintenance(auditRepository, CLOCK, 0, 3, false, 24).runOnce();
+
+        Mockito.verify(auditRepository).removePartition(YearMonth.of(2024, 1), false);
+        Mockito.verify(auditRepository).removePartition(YearMonth.of(2024, 2), false);
+        Mockito.verify(auditRepository, Mockito.times(2)).removePartition(Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Тестирование удаления секций старше срока хранения")
+    public void testDropsExpiredPartitions() {
+        Mockito.when(auditRepository.getPartitionMonths())
+                .thenReturn(List.of(YearMonth.of(2022, 12), YearMonth.of(2024, 5)));
+
+        new AuditPartitionMaintenance(auditRepository, CLOCK, 0, 12, true, 24).runOnce();
+
+        Mockito.verify(auditRepository).removePartition(YearMonth.of(2022, 12), true);
+        Mockito.verify(auditRepository, Mockito.times(1)).removePartition(Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Тестирование создания секций за месяцы из секции по умолчанию")
+    public void testCreatesPartitionsForDefaultPartitionRows() {
+        Mockito.when(auditRepository.getPartitionMonths()).thenReturn(List.of(YearMonth.of(2024, 5)));
+        Mockito.when(auditRepository.getDefaultPartitionMonths())
+                .thenReturn(List.of(YearMonth.of(2023, 11), YearMonth.of(2024, 5)));
+
+        new AuditPartitionMaintenance(auditRepository, CLOCK, 0, 0, false, 24).runOnce();
+
+        Mockito.verify(auditRepository).createPartition(YearMonth.of(2023, 11));
+        Mockito.verify(auditRepository, Mockito.times(1)).createPartition(Mockito.any());
+    }
+}
@@ -0,0 +1,115 @@
+import dao.audit.AuditRepository;
+import model.audit.ActionType;
+import model.audit.AuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import service.audit.AsyncAuditWriter;
+import service.audit.AuditServiceImpl;
+import utils.ServiceFactory;
+import utils.UnitOfWork;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AuditServiceTest {
+    private AsyncAuditWriter auditWriter;
+    private AuditRepository auditRepository;
+    private AuditServiceImpl auditService;
+    private Connection physical;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws SQLException {
+        auditWriter = Mockito.mock(AsyncAuditWriter.class);
+        auditRepository = Mockito.mock(AuditRepository.class);
+        ServiceFactory.setAuditRepository(auditRepository);
+        ServiceFactory.setAuditWriter(auditWriter);
+        auditService = new AuditServiceImpl();
+        physical = Mockito.mock(Connection.class);
+        Mockito.when(physical.getAutoCommit()).thenReturn(true);
+        pool = new ConnectionPool(() -> physical, new PoolSettings(0, 1, 100, 30000, 1, 0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ServiceFactory.setAuditRepository(null);
+        ServiceFactory.setAuditWriter(null);
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование передачи действия без единицы работы сразу")
+    public void testRecordActionWithoutUnitOfWork() {
+        auditService.recordAction(1, ActionType.LOGOUT, "User logged out");
+
+        ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+        Mockito.verify(auditWriter).submit(captor.capture());
+        assertEquals(ActionType.LOGOUT, captor.getValue().getActionType());
+    }
+
+    @Test
+    @DisplayName("Тестирование передачи действия только после фиксации транзакции")
+    public void testRecordActionAfterCommit() throws SQLException {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow)) {
+            unitOfWork.getConnection().close();
+            auditService.recordAction(1, ActionType.REGISTER, "User registered");
+
+            Mockito.verify(auditWriter, Mockito.never()).submit(Mockito.any());
+        }
+
+        Mockito.verify(physical).commit();
+        Mockito.verify(auditWriter).submit(Mockito.any(AuditLog.class));
+    }
+
+    @Test
+    @DisplayName("Тестирование отбрасывания действия при откате транзакции")
+    public void testRecordActionDroppedOnRollback() throws SQLException {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow)) {
+            unitOfWork.getConnection().close();
+            auditService.recordAction(1, ActionType.SUBMIT_READING, "User submitted readings");
+            unitOfWork.setRollbackOnly();
+        }
+
+        Mockito.verify(physical).rollback();
+        Mockito.verify(auditWriter, Mockito.never()).submit(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Тестирование отбрасывания действия при ошибке фиксации транзакции")
+    public void testRecordActionDroppedOnCommitFailure() throws SQLException {
+        Mockito.doThrow(new SQLException("could not serialize access", "40001")).when(physical).commit();
+        UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow);
+        unitOfWork.getConnection().close();
+        auditService.recordAction(1, ActionType.REGISTER, "User registered");
+
+        try {
+            unitOfWork.close();
+        } catch (SQLException expected) {
+            // ошибка фиксации передается вызывающему, действие не записывается
+        }
+
+        Mockito.verify(auditWriter, Mockito.never()).submit(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Тестирование ограничения размера страницы действий пользователя")
+    public void testGetUserActionsPageIsBounded() {
+        LocalDateTime before = LocalDateTime.now();
+
+        auditService.getUserActions(1, null, 10_000);
+        auditService.getUserActions(1, before, 0);
+
+        Mockito.verify(auditRepository).getUserActionsBefore(1, null, 100);
+        Mockito.verify(auditRepository).getUserActionsBefore(1, before, 1);
+    }
+}
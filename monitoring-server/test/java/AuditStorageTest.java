@@ -1,4 +1,5 @@
 import dao.audit.AuditRepositoryImpl;
+import dao.audit.AuditWriteResult;
 import dao.user.UserRepositoryImpl;
 import model.audit.ActionType;
 import model.audit.AuditLog;
@@ -17,10 +18,13 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class AuditStorageTest {
     @Container
@@ -68,6 +72,79 @@ public class AuditStorageTest {
         assertFalse(auditStorage.getUserActions(1).isEmpty());
     }
 
+    @Test
+    @DisplayName("Тестирование метода recordActions")
+    public void testRecordActions() {
+        userStorage.addNewUser("testuser", "testemail", "testpassword", "testSalt");
+        List<AuditLog> auditLogs = List.of(
+                new AuditLog(1, ActionType.LOGIN, LocalDateTime.now(), "Test action"),
+                new AuditLog(1, ActionType.LOGOUT, LocalDateTime.now(), null));
+
+        assertEquals(AuditWriteResult.WRITTEN, auditStorage.recordActions(auditLogs));
+        assertEquals(2, auditStorage.getUserActions(1).size());
+    }
+
+    @Test
+    @DisplayName("Тестирование выборки действий за период и секций журнала")
+    public void testGetUserActionsForPeriod() {
+        userStorage.addNewUser("testuser", "testemail", "testpassword", "testSalt");
+        LocalDateTime now = LocalDateTime.now();
+        auditStorage.recordAction(new AuditLog(1, ActionType.LOGIN, now, "Test action"));
+
+        assertTrue(auditStorage.getPartitionMonths().contains(YearMonth.from(now)));
+        assertEquals(1, auditStorage.getUserActions(1, now.minusHours(1), now.plusHours(1)).size());
+        assertTrue(auditStorage.getUserActions(1, now.minusYears(1), now.minusHours(1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Тестирование выборки всей истории действий пользователя")
+    public void testGetUserActionsReturnsFullHistory() {
+        userStorage.addNewUser("testuser", "testemail", "testpassword", "testSalt");
+        LocalDateTime old = LocalDateTime.now().minusYears(2);
+        assertTrue(auditStorage.createPartition(YearMonth.from(old)));
+        auditStorage.recordAction(new AuditLog(1, ActionType.LOGIN, old, "Old action"));
+        auditStorage.recordAction(new AuditLog(1, ActionType.LOGOUT, LocalDateTime.now(), null));
+
+        List<AuditLog> userActions = auditStorage.getUserActions(1);
+
+        assertEquals(2, userActions.size());
+        assertEquals(ActionType.LOGIN, userActions.get(1).getActionType());
+    }
+
+    @Test
+    @DisplayName("Тестирование постраничной выборки последних действий пользователя")
+    public void testGetUserActionsBefore() {
+        userStorage.addNewUser("testuser", "testemail", "testpassword", "testSalt");
+        LocalDateTime now = LocalDateTime.now();
+        auditStorage.recordActions(List.of(
+                new AuditLog(1, ActionType.LOGIN, now.minusMinutes(2), "First action"),
+                new AuditLog(1, ActionType.SUBMIT_READING, now.minusMinutes(1), "Second action"),
+                new AuditLog(1, ActionType.LOGOUT, now, "Third action")));
+
+        List<AuditLog> firstPage = auditStorage.getUserActionsBefore(1, null, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals(ActionType.LOGOUT, firstPage.get(0).getActionType());
+
+        List<AuditLog> secondPage = auditStorage.getUserActionsBefore(1, firstPage.get(1).getActionTime(), 2);
+        assertFalse(secondPage.isEmpty());
+        assertTrue(secondPage.stream().allMatch(action -> action.getActionTime().isBefore(now.minusMinutes(1))));
+    }
+
+    @Test
+    @DisplayName("Тестирование записи в секцию по умолчанию и переноса строк в созданную секцию")
+    public void testDefaultPartition() {
+        userStorage.addNewUser("testuser", "testemail", "testpassword", "testSalt");
+        LocalDateTime old = LocalDateTime.now().minusYears(3);
+        List<AuditLog> auditLogs = List.of(new AuditLog(1, ActionType.LOGIN, old, "Old action"));
+
+        assertEquals(AuditWriteResult.WRITTEN, auditStorage.recordActions(auditLogs));
+        assertEquals(List.of(YearMonth.from(old)), auditStorage.getDefaultPartitionMonths());
+        assertTrue(auditStorage.createPartition(YearMonth.from(old)));
+        assertTrue(auditStorage.getDefaultPartitionMonths().isEmpty());
+        assertTrue(auditStorage.getPartitionMonths().contains(YearMonth.from(old)));
+        assertEquals(1, auditStorage.getUserActions(1, old.minusDays(1), old.plusDays(1)).size());
+    }
+
     @Test
     @DisplayName("Тестирование метода getUserActions")
     public void testGetUserActions() {
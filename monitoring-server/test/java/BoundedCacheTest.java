@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utils.cache.BoundedCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedCacheTest {
+
+    @Test
+    @DisplayName("Тестирование вытеснения давно не использованных записей")
+    public void testLeastRecentlyUsedEviction() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, 60000);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.getIfPresent(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertEquals("three", cache.getIfPresent(3));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Тестирование истечения времени жизни записи")
+    public void testExpiration() throws InterruptedException {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, value -> value.isEmpty() ? 1 : 60000);
+        cache.put(1, "");
+        cache.put(2, "two");
+        Thread.sleep(20);
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals("two", cache.getIfPresent(2));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    @DisplayName("Тестирование объединения одновременных промахов")
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, 60000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1, key -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "one";
+                })));
+            }
+            while (cache.getStats().getCoalescedLoads() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("one", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("one", cache.getIfPresent(1));
+    }
+
+    @Test
+    @DisplayName("Тестирование удаления записи во время загрузки")
+    public void testInvalidationDuringLoadDiscardsResult() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, 60000);
+
+        String loaded = cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache.getIfPresent(1));
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+    }
+}
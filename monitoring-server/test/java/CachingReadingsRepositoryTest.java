@@ -0,0 +1,141 @@
+import dao.readings.CachingReadingsRepository;
+import dao.readings.ReadingsInsertResult;
+import dao.readings.ReadingsRepository;
+import model.readings.MeterReadings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utils.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingReadingsRepositoryTest {
+    private static final int USER_ID = 1;
+
+    private ReadingsRepository delegate;
+    private CachingReadingsRepository repository;
+    private MeterReadings january;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        delegate = Mockito.mock(ReadingsRepository.class);
+        repository = new CachingReadingsRepository(delegate, 100, 60000, 60000);
+        january = new MeterReadings(Map.of("HEATING", 100, "HOT_WATER", 200), Month.JANUARY);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование повторного чтения показаний из кэша")
+    public void testReadsAreCached() {
+        Mockito.when(delegate.getCurrentReadings(USER_ID)).thenReturn(Optional.of(january));
+        Mockito.when(delegate.getReadingsHistory(USER_ID)).thenReturn(List.of(january));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Optional.of(january), repository.getCurrentReadings(USER_ID));
+            assertEquals(List.of(january), repository.getReadingsHistory(USER_ID));
+        }
+
+        Mockito.verify(delegate, Mockito.times(1)).getCurrentReadings(USER_ID);
+        Mockito.verify(delegate, Mockito.times(1)).getReadingsHistory(USER_ID);
+        assertEquals(4, repository.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Тестирование чтения своих показаний после подачи")
+    public void testReadYourWrites() {
+        Mockito.when(delegate.getReadingsForMonth(USER_ID, Month.JANUARY)).thenReturn(Optional.empty());
+        Mockito.when(delegate.getCurrentReadings(USER_ID)).thenReturn(Optional.empty());
+        Mockito.when(delegate.addNewReadings(USER_ID, january)).thenReturn(ReadingsInsertResult.allRows(
+                january.getReadings().keySet(), ReadingsInsertResult.RowOutcome.INSERTED));
+
+        assertTrue(repository.getReadingsForMonth(USER_ID, Month.JANUARY).isEmpty());
+        assertTrue(repository.getReadingsForMonth(USER_ID, Month.JANUARY).isEmpty());
+        assertTrue(repository.getCurrentReadings(USER_ID).isEmpty());
+        Mockito.verify(delegate, Mockito.times(1)).getReadingsForMonth(USER_ID, Month.JANUARY);
+
+        assertTrue(repository.addNewReadings(USER_ID, january).isSuccess());
+        Mockito.doReturn(Optional.of(january)).when(delegate).getCurrentReadings(USER_ID);
+
+        assertEquals(january.getReadings(), repository.getReadingsForMonth(USER_ID, Month.JANUARY).get().getReadings());
+        assertEquals(Optional.of(january), repository.getCurrentReadings(USER_ID));
+        Mockito.verify(delegate, Mockito.times(1)).getReadingsForMonth(USER_ID, Month.JANUARY);
+        Mockito.verify(delegate, Mockito.times(2)).getCurrentReadings(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения повторной подачи без обращения к базе данных")
+    public void testResubmissionIsRejectedFromCache() {
+        Mockito.when(delegate.getReadingsForMonth(USER_ID, Month.JANUARY)).thenReturn(Optional.of(january));
+
+        repository.getReadingsForMonth(USER_ID, Month.JANUARY);
+        ReadingsInsertResult result = repository.addNewReadings(USER_ID, january);
+
+        assertTrue(result.isAlreadySubmitted());
+        assertFalse(result.isSuccess());
+        Mockito.verify(delegate, Mockito.never()).addNewReadings(Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Тестирование очистки кэша после завершения единицы работы")
+    public void testUnitOfWorkInvalidatesAfterCompletion() throws SQLException {
+        Mockito.when(delegate.getCurrentReadings(USER_ID)).thenReturn(Optional.empty());
+        Mockito.when(delegate.addNewReadings(USER_ID, january)).thenReturn(ReadingsInsertResult.allRows(
+                january.getReadings().keySet(), ReadingsInsertResult.RowOutcome.INSERTED));
+        try (UnitOfWork ignored = UnitOfWork.begin(false, () -> Mockito.mock(Connection.class))) {
+            repository.addNewReadings(USER_ID, january);
+            // чтение в изменяющей единице работы выполняется мимо кэша
+            repository.getCurrentReadings(USER_ID);
+            // чтение другим запросом до фиксации попадает в кэш
+            readInOtherThread();
+            readInOtherThread();
+        }
+        readInOtherThread();
+
+        Mockito.verify(delegate, Mockito.times(3)).getCurrentReadings(USER_ID);
+        assertEquals(january.getReadings(), repository.getReadingsForMonth(USER_ID, Month.JANUARY).get().getReadings());
+        Mockito.verify(delegate, Mockito.never()).getReadingsForMonth(USER_ID, Month.JANUARY);
+    }
+
+    @Test
+    @DisplayName("Тестирование отката единицы работы")
+    public void testRolledBackSubmissionIsNotCached() throws SQLException {
+        Mockito.when(delegate.getReadingsForMonth(USER_ID, Month.JANUARY)).thenReturn(Optional.empty());
+        Mockito.when(delegate.addNewReadings(USER_ID, january)).thenReturn(ReadingsInsertResult.allRows(
+                january.getReadings().keySet(), ReadingsInsertResult.RowOutcome.INSERTED));
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, () -> Mockito.mock(Connection.class))) {
+            repository.addNewReadings(USER_ID, january);
+            unitOfWork.setRollbackOnly();
+        }
+
+        assertTrue(repository.getReadingsForMonth(USER_ID, Month.JANUARY).isEmpty());
+        Mockito.verify(delegate, Mockito.times(1)).getReadingsForMonth(USER_ID, Month.JANUARY);
+    }
+
+    private void readInOtherThread() {
+        Thread thread = new Thread(() -> repository.getCurrentReadings(USER_ID));
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
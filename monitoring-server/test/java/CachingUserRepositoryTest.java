@@ -0,0 +1,129 @@
+import dao.user.CachingUserRepository;
+import dao.user.UserRepository;
+import model.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utils.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingUserRepositoryTest {
+    private static final String EMAIL = "test@mail.ru";
+
+    private UserRepository delegate;
+    private CachingUserRepository repository;
+    private User user;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        delegate = Mockito.mock(UserRepository.class);
+        repository = new CachingUserRepository(delegate, 100, 60000, 60000);
+        user = new User("testuser", EMAIL, "hashedPassword", "salt");
+        user.setId(7);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование одного запроса на все обращения при входе")
+    public void testLoginLookupsHitCache() {
+        Mockito.when(delegate.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Optional.of(user), repository.findByEmail(EMAIL));
+        }
+        assertTrue(repository.validateUser(EMAIL, "hashedPassword"));
+        assertFalse(repository.validateUser(EMAIL, "wrongPassword"));
+        assertEquals(Optional.of(user), repository.findById(7));
+
+        Mockito.verify(delegate, Mockito.times(1)).findByEmail(EMAIL);
+        Mockito.verify(delegate, Mockito.never()).findById(Mockito.any());
+        Mockito.verify(delegate, Mockito.never()).validateUser(Mockito.any(), Mockito.any());
+        assertEquals(5, repository.getEmailCacheStats().getHits());
+        assertEquals(1, repository.getIdCacheStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Тестирование объединения одновременных промахов")
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(delegate.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(user);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> repository.findByEmail(EMAIL)));
+            }
+            while (repository.getEmailCacheStats().getCoalescedLoads() < 15) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<Optional<User>> result : results) {
+                assertEquals(Optional.of(user), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Mockito.verify(delegate, Mockito.times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Тестирование удаления отсутствия пользователя при регистрации")
+    public void testAddNewUserInvalidatesNegativeEntry() {
+        Mockito.when(delegate.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        assertTrue(repository.findByEmail(EMAIL).isEmpty());
+        assertTrue(repository.findByEmail(EMAIL).isEmpty());
+
+        repository.addNewUser("testuser", EMAIL, "hashedPassword", "salt");
+        Mockito.doReturn(Optional.of(user)).when(delegate).findByEmail(EMAIL);
+
+        assertEquals(Optional.of(user), repository.findByEmail(EMAIL));
+        Mockito.verify(delegate, Mockito.times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Тестирование регистрации в единице работы")
+    public void testUncommittedUserIsNotCached() throws SQLException {
+        Mockito.when(delegate.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, () -> Mockito.mock(Connection.class))) {
+            repository.findByEmail(EMAIL);
+            repository.addNewUser("testuser", EMAIL, "hashedPassword", "salt");
+            Mockito.doReturn(Optional.of(user)).when(delegate).findByEmail(EMAIL);
+            assertEquals(Optional.of(user), repository.findByEmail(EMAIL));
+            assertEquals(Optional.of(user), repository.findByEmail(EMAIL));
+            unitOfWork.setRollbackOnly();
+        }
+        Mockito.doReturn(Optional.empty()).when(delegate).findByEmail(EMAIL);
+
+        assertTrue(repository.findByEmail(EMAIL).isEmpty());
+        Mockito.verify(delegate, Mockito.times(4)).findByEmail(EMAIL);
+        assertEquals(0, repository.getEmailCacheStats().getHits());
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utils.cache.ConcurrentExpiringCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentExpiringCacheTest {
+
+    @Test
+    @DisplayName("Тестирование попадания в кэш и отказа от кэширования null")
+    public void testHitsAndNullValues() {
+        ConcurrentExpiringCache<Integer, String> cache = new ConcurrentExpiringCache<>(10, value -> 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1, key -> String.valueOf(loads.incrementAndGet())));
+        assertEquals("1", cache.get(1, key -> String.valueOf(loads.incrementAndGet())));
+        assertNull(cache.get(2, key -> null));
+        assertNull(cache.get(2, key -> null));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(3, cache.getStats().getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Тестирование истечения времени жизни записи")
+    public void testExpiration() throws InterruptedException {
+        ConcurrentExpiringCache<Integer, String> cache =
+                new ConcurrentExpiringCache<>(10, value -> value.isEmpty() ? 1 : 60000);
+        cache.get(1, key -> "");
+        cache.get(2, key -> "two");
+        Thread.sleep(20);
+
+        assertEquals("reloaded", cache.get(1, key -> "reloaded"));
+        assertEquals("two", cache.get(2, key -> "other"));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    @DisplayName("Тестирование передачи исключения источника без кэширования")
+    public void testLoaderFailureIsNotCached() {
+        ConcurrentExpiringCache<Integer, String> cache = new ConcurrentExpiringCache<>(10, value -> 60000);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1, key -> {
+            throw new IllegalStateException("source unavailable");
+        }));
+
+        assertEquals("one", cache.get(1, key -> "one"));
+        assertEquals(1, cache.getStats().getLoadFailures());
+    }
+
+    @Test
+    @DisplayName("Тестирование приблизительного ограничения размера при одновременной записи")
+    public void testSizeIsBoundedUnderConcurrentWrites() throws Exception {
+        int maxSize = 100;
+        int threads = 8;
+        ConcurrentExpiringCache<Integer, Integer> cache = new ConcurrentExpiringCache<>(maxSize, value -> 60000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 10000;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5000; i++) {
+                        cache.get(offset + i, key -> key);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= maxSize + threads, "size " + cache.size());
+        assertTrue(cache.getStats().getEvictions() >= threads * 5000L - maxSize - threads);
+    }
+}
@@ -0,0 +1,236 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+import utils.pool.PoolStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    private List<Connection> physicalConnections;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        physicalConnections = new ArrayList<>();
+    }
+
+    private Connection openMock() throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        physicalConnections.add(connection);
+        return connection;
+    }
+
+    private Connection openMockWithStatements() throws SQLException {
+        Connection connection = openMock();
+        Mockito.when(connection.prepareStatement(Mockito.anyString()))
+                .thenAnswer(invocation -> Mockito.mock(PreparedStatement.class));
+        return connection;
+    }
+
+    private ConnectionPool newPool(int prefill, int maxSize, long validationIntervalMs) {
+        return new ConnectionPool(this::openMock,
+                new PoolSettings(prefill, maxSize, 100, validationIntervalMs, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Тестирование предварительного открытия соединений")
+    public void testPrefill() {
+        ConnectionPool pool = newPool(3, 5, 30000);
+        pool.prefill();
+
+        PoolStats stats = pool.getStats();
+        assertEquals(3, stats.getIdle());
+        assertEquals(0, stats.getActive());
+        assertEquals(3, physicalConnections.size());
+    }
+
+    @Test
+    @DisplayName("Тестирование повторного использования соединения после закрытия")
+    public void testConnectionIsReused() throws SQLException {
+        ConnectionPool pool = newPool(0, 5, 30000);
+
+        pool.borrow().close();
+        pool.borrow().close();
+
+        assertEquals(1, physicalConnections.size());
+        Mockito.verify(physicalConnections.get(0), Mockito.never()).close();
+        assertEquals(2, pool.getStats().getBorrows());
+    }
+
+    @Test
+    @DisplayName("Тестирование ограничения размера пула и времени ожидания")
+    public void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        ConnectionPool pool = newPool(0, 2, 30000);
+        Connection first = pool.borrow();
+        pool.borrow();
+
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+        assertEquals(1, pool.getStats().getTimeouts());
+
+        first.close();
+        assertNotNull(pool.borrow());
+        assertEquals(2, physicalConnections.size());
+    }
+
+    @Test
+    @DisplayName("Тестирование отката незавершенной транзакции при возврате соединения")
+    public void testUncommittedTransactionIsRolledBack() throws SQLException {
+        ConnectionPool pool = newPool(0, 1, 30000);
+        Connection connection = pool.borrow();
+        Connection physical = physicalConnections.get(0);
+        Mockito.when(physical.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        Mockito.verify(physical).rollback();
+        Mockito.verify(physical).setAutoCommit(true);
+    }
+
+    @Test
+    @DisplayName("Тестирование проверки простаивавшего соединения")
+    public void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        ConnectionPool pool = newPool(1, 1, 0);
+        pool.prefill();
+        Mockito.when(physicalConnections.get(0).isValid(Mockito.anyInt())).thenReturn(false);
+
+        pool.borrow();
+
+        assertEquals(2, physicalConnections.size());
+        Mockito.verify(physicalConnections.get(0)).close();
+        assertEquals(1, pool.getStats().getDestroyed());
+    }
+
+    @Test
+    @DisplayName("Тестирование запрета использования возвращенного соединения")
+    public void testClosedHandleCannotBeUsed() throws SQLException {
+        ConnectionPool pool = newPool(0, 1, 30000);
+        Connection connection = pool.borrow();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    @DisplayName("Тестирование закрытия пула")
+    public void testCloseReleasesPhysicalConnections() throws SQLException {
+        ConnectionPool pool = newPool(2, 2, 30000);
+        pool.prefill();
+        Connection borrowed = pool.borrow();
+
+        pool.close();
+        assertThrows(SQLException.class, pool::borrow);
+        borrowed.close();
+
+        for (Connection physical : physicalConnections) {
+            Mockito.verify(physical).close();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование обнаружения утечки соединения")
+    public void testLeakIsDetected() throws Exception {
+        ConnectionPool pool = new ConnectionPool(this::openMock, new PoolSettings(0, 1, 100, 30000, 1, 1));
+        pool.borrow();
+
+        Thread.sleep(1500);
+
+        assertEquals(1, pool.getStats().getLeaksDetected());
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование повторного использования подготовленного запроса следующим владельцем соединения")
+    public void testPreparedStatementIsReusedAcrossBorrows() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(this::openMockWithStatements,
+                new PoolSettings(0, 1, 100, 30000, 1, 0, 2, 0));
+        String sql = "SELECT * FROM users WHERE email = ?";
+
+        PreparedStatement first;
+        try (Connection connection = pool.borrow();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, "first@mail.com");
+            first = statement;
+        }
+        try (Connection connection = pool.borrow();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            assertNotSame(first, statement);
+            assertSame(connection, statement.getConnection());
+        }
+
+        Connection physical = physicalConnections.get(0);
+        Mockito.verify(physical, Mockito.times(1)).prepareStatement(sql);
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::executeQuery);
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getStatementCacheHits());
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(0.5, stats.getStatementCacheHitRatio());
+    }
+
+    @Test
+    @DisplayName("Тестирование вытеснения давно не использовавшегося подготовленного запроса")
+    public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        List<PreparedStatement> prepared = new ArrayList<>();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            Connection connection = openMock();
+            Mockito.when(connection.prepareStatement(Mockito.anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+                prepared.add(statement);
+                return statement;
+            });
+            return connection;
+        }, new PoolSettings(0, 1, 100, 30000, 1, 0, 2, 0));
+
+        try (Connection connection = pool.borrow()) {
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 3").close();
+            connection.prepareStatement("SELECT 1").close();
+        }
+
+        assertEquals(3, prepared.size());
+        Mockito.verify(prepared.get(1)).close();
+        Mockito.verify(prepared.get(0), Mockito.never()).close();
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getStatementCacheHits());
+        assertEquals(1, stats.getStatementCacheEvictions());
+    }
+
+    @Test
+    @DisplayName("Тестирование закрытия измененных и незакрытых подготовленных запросов")
+    public void testModifiedAndLeakedStatementsAreNotCached() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(this::openMockWithStatements,
+                new PoolSettings(0, 1, 100, 30000, 1, 0, 4, 0));
+
+        Connection connection = pool.borrow();
+        PreparedStatement streaming = connection.prepareStatement("SELECT 1");
+        streaming.setFetchSize(500);
+        streaming.close();
+        connection.prepareStatement("SELECT 2");
+        connection.close();
+
+        try (Connection next = pool.borrow()) {
+            next.prepareStatement("SELECT 1").close();
+            next.prepareStatement("SELECT 2").close();
+        }
+
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+        assertEquals(4, pool.getStats().getStatementCacheMisses());
+    }
+}
@@ -0,0 +1,41 @@
+import filter.AuthorizationFilter;
+import filter.MetricsFilter;
+import filter.UnitOfWorkFilter;
+import jakarta.servlet.annotation.WebFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FilterOrderTest {
+
+    @Test
+    @DisplayName("Тестирование порядка фильтров /meter/* в web.xml")
+    public void testFilterOrderIsDeclared() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document webXml = factory.newDocumentBuilder().parse(new File("src/main/webapp/WEB-INF/web.xml"));
+        NodeList mappings = webXml.getElementsByTagNameNS("*", "filter-mapping");
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < mappings.getLength(); i++) {
+            Element mapping = (Element) mappings.item(i);
+            assertEquals("/meter/*", mapping.getElementsByTagNameNS("*", "url-pattern").item(0).getTextContent());
+            order.add(mapping.getElementsByTagNameNS("*", "filter-name").item(0).getTextContent());
+        }
+
+        assertEquals(List.of(filterName(MetricsFilter.class), filterName(AuthorizationFilter.class),
+                filterName(UnitOfWorkFilter.class)), order);
+    }
+
+    private static String filterName(Class<?> filter) {
+        return filter.getAnnotation(WebFilter.class).filterName();
+    }
+}
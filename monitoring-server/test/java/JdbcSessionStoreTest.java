@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import service.session.JdbcSessionStore;
+import service.session.Session;
+import service.session.SessionSettings;
+import utils.UnitOfWork;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Создание сессии в единице работы запроса входа на пуле соединений без базы данных.
+ */
+public class JdbcSessionStoreTest {
+    private static final int POOL_SIZE = 4;
+
+    private PreparedStatement insert;
+    private ConnectionPool pool;
+    private JdbcSessionStore store;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws SQLException {
+        insert = Mockito.mock(PreparedStatement.class);
+        Mockito.when(insert.executeUpdate()).thenReturn(1);
+        pool = new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            Mockito.when(connection.getAutoCommit()).thenReturn(true);
+            Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(insert);
+            return connection;
+        }, new PoolSettings(0, POOL_SIZE, 2000, 30000, 1, 0));
+        SessionSettings settings = new SessionSettings(SessionSettings.StoreType.JDBC, 10000, 60000, 3600000,
+                1000, 100, 600000, 100);
+        store = new JdbcSessionStore(pool::borrow, pool::borrow, settings, Clock.systemUTC());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Имитирует вход: поиск пользователя занимает соединение единицы работы, затем создается сессия.
+     */
+    private Session login(int userId) throws SQLException {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow)) {
+            unitOfWork.getConnection().close();
+            return store.create(userId, "user" + userId);
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование одновременного входа большего числа пользователей, чем соединений в пуле")
+    public void testConcurrentLoginsDoNotExhaustPool() throws Exception {
+        int logins = POOL_SIZE * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Session>> futures = new ArrayList<>();
+        for (int i = 0; i < logins; i++) {
+            int userId = i + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return login(userId);
+            }));
+        }
+        start.countDown();
+
+        for (Future<Session> future : futures) {
+            assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        Mockito.verify(insert, Mockito.times(logins)).executeUpdate();
+        assertEquals(logins, pool.getStats().getBorrows());
+        assertEquals(0, pool.getStats().getTimeouts());
+    }
+
+    @Test
+    @DisplayName("Тестирование снимка статистики без обращения к базе данных")
+    public void testStatsDoNotBorrowConnection() {
+        store.getStats();
+        store.getStats();
+
+        assertEquals(0, pool.getStats().getBorrows());
+    }
+}
@@ -0,0 +1,191 @@
+import dao.audit.AuditRepository;
+import dao.audit.AuditWriteResult;
+import dao.statement.SqlIds;
+import dao.user.UserRepositoryImpl;
+import filter.MetricsFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jfr.JfrRecorder;
+import metrics.MetricsRegistry;
+import model.audit.ActionType;
+import model.audit.AuditLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import service.audit.AsyncAuditWriter;
+import service.audit.AuditWriterSettings;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+import utils.UnitOfWork;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Тестирование событий вызова репозитория и получения соединения")
+    public void testRepositoryAndConnectionEvents() throws Exception {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Connection physical = Mockito.mock(Connection.class);
+        Mockito.when(physical.getAutoCommit()).thenReturn(true);
+        Mockito.when(physical.prepareStatement(Mockito.anyString())).thenReturn(statement);
+        ConnectionPool pool = new ConnectionPool(() -> physical, new PoolSettings(0, 2, 100, 30000, 1, 0, 8, 0));
+
+        List<RecordedEvent> events = record(() -> {
+            TokenClaims.bind(new TokenClaims(7, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+            try (UnitOfWork ignored = UnitOfWork.begin(true, pool::borrow)) {
+                assertTrue(new UserRepositoryImpl().findById(42).isEmpty());
+            } finally {
+                TokenClaims.unbind();
+            }
+        }, "monitoring.RepositoryCall", "monitoring.ConnectionAcquire");
+
+        RecordedEvent call = only(events, "monitoring.RepositoryCall");
+        assertEquals("UserRepositoryImpl", call.getString("repository"));
+        assertEquals("findById", call.getString("method"));
+        assertEquals(7, call.getInt("userId"));
+        assertEquals(1, call.getInt("statements"));
+        assertEquals(SqlIds.of("SELECT user_id, username, email, password, salt, is_admin FROM users"
+                + " WHERE user_id = ?"), call.getString("sqlId"));
+        assertEquals(0, call.getLong("rows"));
+        assertFalse(call.getBoolean("failed"));
+
+        RecordedEvent acquire = only(events, "monitoring.ConnectionAcquire");
+        assertTrue(acquire.getBoolean("opened"));
+        assertFalse(acquire.getBoolean("timedOut"));
+        assertEquals(1, acquire.getInt("active"));
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование события обработки HTTP-запроса")
+    public void testHttpRequestEvent() throws Exception {
+        ServiceFactory.setMetricsRegistry(new MetricsRegistry());
+        MetricsFilter filter = new MetricsFilter();
+        filter.init(null);
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        HttpServletMapping mapping = Mockito.mock(HttpServletMapping.class);
+        Mockito.when(mapping.getServletName()).thenReturn("servlet.HistoryReadingsServlet");
+        Mockito.when(request.getHttpServletMapping()).thenReturn(mapping);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getRequestURI()).thenReturn("/meter/readings/history");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(3, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(response.getStatus()).thenReturn(200);
+        FilterChain chain = Mockito.mock(FilterChain.class);
+
+        List<RecordedEvent> events = record(() -> filter.doFilter(request, response, chain), "monitoring.HttpRequest");
+
+        RecordedEvent event = only(events, "monitoring.HttpRequest");
+        assertEquals("servlet.HistoryReadingsServlet", event.getString("servlet"));
+        assertEquals("GET", event.getString("method"));
+        assertEquals("/meter/readings/history", event.getString("path"));
+        assertEquals(200, event.getInt("status"));
+        assertEquals(3, event.getInt("userId"));
+        ServiceFactory.setMetricsRegistry(null);
+    }
+
+    @Test
+    @DisplayName("Тестирование события записи пакета аудита")
+    public void testAuditFlushEvent() throws Exception {
+        AuditRepository auditRepository = Mockito.mock(AuditRepository.class);
+        Mockito.when(auditRepository.recordActions(Mockito.anyList())).thenReturn(AuditWriteResult.WRITTEN);
+        AsyncAuditWriter writer = new AsyncAuditWriter(auditRepository,
+                new AuditWriterSettings(100, 3, 10, AuditWriterSettings.OverflowPolicy.DROP, 100, null));
+
+        List<RecordedEvent> events = record(() -> {
+            for (int i = 0; i < 3; i++) {
+                writer.submit(new AuditLog(1, ActionType.LOGIN, LocalDateTime.now(), "event " + i));
+            }
+            writer.shutdown(5000);
+        }, "monitoring.AuditFlush");
+
+        RecordedEvent event = only(events, "monitoring.AuditFlush");
+        assertEquals(3, event.getInt("batchSize"));
+        assertTrue(event.getBoolean("success"));
+        assertFalse(event.getBoolean("replay"));
+    }
+
+    @Test
+    @DisplayName("Тестирование записи JFR по запросу: начало, выгрузка без остановки и удаление")
+    public void testRecorder() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(16 * 1024 * 1024, Duration.ofMinutes(1));
+
+        assertEquals(Duration.ofMinutes(1), recorder.start("default", Duration.ofHours(1)));
+        assertThrows(IllegalStateException.class, () -> recorder.start("default", null));
+        Path file = recorder.dump();
+        assertTrue(recorder.isRunning());
+        assertTrue(Files.size(file) > 0);
+        Files.delete(file);
+
+        assertTrue(recorder.stop());
+        assertFalse(recorder.stop());
+        file = recorder.dump();
+        assertNotNull(file);
+        Files.delete(file);
+        assertTrue(recorder.discard());
+        assertNull(recorder.dump());
+        assertThrows(IllegalArgumentException.class, () -> recorder.start("missing", null));
+        assertFalse(recorder.isRunning());
+    }
+
+    @Test
+    @DisplayName("Тестирование нормализации SQL-запросов")
+    public void testSqlIds() {
+        assertEquals("SELECT * FROM t1 WHERE a = ? AND b = ? AND c IN (?, ?) AND \"Col 2\" = $1",
+                SqlIds.normalize("  SELECT *\n  FROM t1\tWHERE a = 'it''s' AND b = 12.5 AND c IN (1, 2)"
+                        + " AND \"Col 2\" = $1\n"));
+        assertEquals(SqlIds.of("SELECT id FROM users WHERE id = 1"), SqlIds.of("SELECT id\nFROM users WHERE id = 2"));
+        assertNotEquals(SqlIds.of("SELECT id FROM users"), SqlIds.of("SELECT id FROM readings"));
+        assertEquals(8, SqlIds.of("SELECT 1").length());
+    }
+
+    private List<RecordedEvent> record(Action action, String... eventNames) throws Exception {
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String eventName : eventNames) {
+                recording.enable(eventName).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), "Событий " + name + ": " + matching.size());
+        return matching.get(0);
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+}
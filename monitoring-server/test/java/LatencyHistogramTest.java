@@ -0,0 +1,96 @@
+import metrics.HistogramSnapshot;
+import metrics.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Тестирование точности процентилей")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100_000_000L, snapshot.getMaxNanos());
+        assertEquals(50000.5 * 1000, snapshot.getMeanNanos(), 0.001);
+        assertWithinBucket(50_000_000L, snapshot.getValueAtPercentile(50));
+        assertWithinBucket(99_000_000L, snapshot.getValueAtPercentile(99));
+        assertWithinBucket(99_900_000L, snapshot.getValueAtPercentile(99.9));
+        assertEquals(100_000_000L, snapshot.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Тестирование точного хранения малых значений и значений за пределами диапазона")
+    public void testSmallAndHugeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(63);
+        histogram.record(Long.MAX_VALUE);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(4, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(25));
+        assertEquals(7, snapshot.getValueAtPercentile(50));
+        assertEquals(63, snapshot.getValueAtPercentile(75));
+        assertEquals(Long.MAX_VALUE, snapshot.getMaxNanos());
+        assertEquals(3, snapshot.getCountAtOrBelow(63));
+        assertEquals(1, snapshot.getCountAtOrBelow(0));
+    }
+
+    @Test
+    @DisplayName("Тестирование одновременной записи из нескольких потоков")
+    public void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 100000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                long value = (t + 1) * 1000L;
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(value);
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(36000L * perThread, snapshot.getTotalNanos());
+        assertEquals(8000, snapshot.getMaxNanos());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32,
+                "Ожидалось значение от " + expected + " до " + (expected + expected / 32) + ", получено " + actual);
+    }
+}
@@ -0,0 +1,74 @@
+import dao.readings.MeterTypeDictionary;
+import dao.readings.ReadingsInsertResult;
+import dao.readings.ReadingsRepository;
+import model.audit.ActionType;
+import model.readings.MeterReadings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import service.audit.AuditService;
+import service.reading.MeterServiceImpl;
+import service.reading.SubmitReadingsResult;
+import utils.ServiceFactory;
+
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MeterServiceTest {
+    private ReadingsRepository readingsRepository;
+    private AuditService auditService;
+    private MeterServiceImpl meterService;
+    private MeterReadings readings;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        readingsRepository = Mockito.mock(ReadingsRepository.class);
+        auditService = Mockito.mock(AuditService.class);
+        MeterTypeDictionary dictionary = Mockito.mock(MeterTypeDictionary.class);
+        Mockito.when(dictionary.getNames()).thenReturn(List.of("HEATING"));
+        ServiceFactory.setReadingsRepository(readingsRepository);
+        ServiceFactory.setAuditService(auditService);
+        ServiceFactory.setMeterTypeDictionary(dictionary);
+        meterService = new MeterServiceImpl();
+        readings = new MeterReadings(Map.of("HEATING", 220, "GAS", 10), Month.JANUARY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ServiceFactory.setReadingsRepository(null);
+        ServiceFactory.setAuditService(null);
+        ServiceFactory.setMeterTypeDictionary(null);
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения неизвестного типа счетчика как некорректных показаний")
+    public void testUnknownMeterTypeIsIncorrectReadings() {
+        Mockito.when(readingsRepository.addNewReadings(1, readings)).thenReturn(new ReadingsInsertResult(
+                Map.of("HEATING", ReadingsInsertResult.RowOutcome.FAILED,
+                        "GAS", ReadingsInsertResult.RowOutcome.UNKNOWN_METER_TYPE), false));
+
+        assertEquals(SubmitReadingsResult.INCORRECT_READINGS, meterService.postCurrentReadings(1, readings));
+        Mockito.verifyNoInteractions(auditService);
+    }
+
+    @Test
+    @DisplayName("Тестирование записи аудита только для сохраненных показаний")
+    public void testAuditOnlyWhenAdded() {
+        Mockito.when(readingsRepository.addNewReadings(1, readings))
+                .thenReturn(ReadingsInsertResult.allRows(readings.getReadings().keySet(),
+                        ReadingsInsertResult.RowOutcome.FAILED))
+                .thenReturn(ReadingsInsertResult.allRows(readings.getReadings().keySet(),
+                        ReadingsInsertResult.RowOutcome.INSERTED));
+
+        assertEquals(SubmitReadingsResult.FAILED, meterService.postCurrentReadings(1, readings));
+        Mockito.verifyNoInteractions(auditService);
+        assertEquals(SubmitReadingsResult.ADDED, meterService.postCurrentReadings(1, readings));
+        Mockito.verify(auditService).recordAction(1, ActionType.SUBMIT_READING, "User submitted readings");
+    }
+}
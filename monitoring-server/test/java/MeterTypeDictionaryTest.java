@@ -0,0 +1,105 @@
+import dao.readings.MeterTypeDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeterTypeDictionaryTest {
+    private Map<Integer, String> table;
+    private AtomicInteger loads;
+    private boolean failLoads;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        table = new LinkedHashMap<>();
+        table.put(1, "HEATING");
+        table.put(2, "HOT_WATER");
+        table.put(3, "COLD_WATER");
+        loads = new AtomicInteger();
+        failLoads = false;
+    }
+
+    private Map<Integer, String> load() throws SQLException {
+        if (failLoads) {
+            throw new SQLException("База данных недоступна");
+        }
+        loads.incrementAndGet();
+        return new LinkedHashMap<>(table);
+    }
+
+    @Test
+    @DisplayName("Тестирование поиска в обе стороны из одной загрузки")
+    public void testBidirectionalLookup() {
+        MeterTypeDictionary dictionary = new MeterTypeDictionary(this::load, 0, 60000);
+
+        assertEquals(2, dictionary.getId("HOT_WATER"));
+        assertEquals("COLD_WATER", dictionary.getName(3));
+        assertEquals(List.of("HEATING", "HOT_WATER", "COLD_WATER"), dictionary.getNames());
+        assertEquals(1, loads.get());
+        assertEquals(3, dictionary.getHits());
+    }
+
+    @Test
+    @DisplayName("Тестирование обновления при обращении к неизвестному типу")
+    public void testMissRefreshesAtMostOncePerInterval() {
+        MeterTypeDictionary dictionary = new MeterTypeDictionary(this::load, 0, 60000);
+        dictionary.getNames();
+        table.put(4, "GAS");
+
+        assertEquals(4, dictionary.getId("GAS"));
+        assertNull(dictionary.getId("ELECTRICITY"));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, dictionary.getMisses());
+    }
+
+    @Test
+    @DisplayName("Тестирование обновления по требованию")
+    public void testRefreshOnDemand() {
+        MeterTypeDictionary dictionary = new MeterTypeDictionary(this::load, 0, 60000);
+        dictionary.getNames();
+        table.put(4, "GAS");
+
+        assertTrue(dictionary.refresh());
+
+        assertEquals(4, dictionary.size());
+        assertEquals(2, dictionary.getRefreshes());
+    }
+
+    @Test
+    @DisplayName("Тестирование сохранения прежнего снимка при ошибке загрузки")
+    public void testFailedRefreshKeepsSnapshot() {
+        MeterTypeDictionary dictionary = new MeterTypeDictionary(this::load, 0, 60000);
+        dictionary.getNames();
+        failLoads = true;
+
+        assertFalse(dictionary.refresh());
+
+        assertEquals(1, dictionary.getId("HEATING"));
+    }
+
+    @Test
+    @DisplayName("Тестирование фонового обновления по истечении времени жизни")
+    public void testExpiredSnapshotIsRefreshedInBackground() throws InterruptedException {
+        MeterTypeDictionary dictionary = new MeterTypeDictionary(this::load, 1, 60000);
+        dictionary.getNames();
+        table.put(4, "GAS");
+        Thread.sleep(5);
+
+        dictionary.getNames();
+        for (int i = 0; i < 100 && dictionary.size() < 4; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(4, dictionary.size());
+        dictionary.shutdown();
+    }
+}
@@ -0,0 +1,85 @@
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracing.MethodTracer;
+import tracing.TraceBuffer;
+import tracing.TraceRecord;
+import utils.ServiceFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Вызовы ServiceFactory перехватываются аспектом, вплетенным в основные классы.
+ */
+public class MethodTracerTest {
+    private final MethodTracer tracer = MethodTracer.getDefault();
+
+    @AfterEach
+    @DisplayName("Выключение трассировки после каждого теста")
+    public void tearDown() {
+        tracer.disable();
+    }
+
+    @Test
+    @DisplayName("Тестирование выбора методов по шаблонам")
+    public void testPatterns() {
+        ServiceFactory.setGson(new Gson());
+        tracer.enable("utils.Service*.getG*, dao.*", 1);
+
+        ServiceFactory.getGson();
+        ServiceFactory.setGson(new Gson());
+        ServiceFactory.getGson();
+
+        List<TraceRecord> records = tracer.dump(100);
+        assertEquals(2, records.size());
+        for (TraceRecord record : records) {
+            assertEquals("ServiceFactory.getGson()", record.getMethod());
+            assertEquals(Thread.currentThread().getName(), record.getThread());
+            assertNull(record.getError());
+        }
+        assertTrue(records.get(0).getSequence() < records.get(1).getSequence());
+        assertEquals(List.of("utils.Service*.getG*", "dao.*"), tracer.session().getPatterns());
+        assertThrows(IllegalArgumentException.class, () -> tracer.enable(" , ", 1));
+    }
+
+    @Test
+    @DisplayName("Тестирование выборки одного из N вызовов")
+    public void testSampling() {
+        ServiceFactory.setGson(new Gson());
+        tracer.enable("utils.ServiceFactory.getGson", 10);
+
+        for (int i = 0; i < 20000; i++) {
+            ServiceFactory.getGson();
+        }
+        tracer.disable();
+        ServiceFactory.getGson();
+
+        int sampled = tracer.dump(Integer.MAX_VALUE).size();
+        assertTrue(sampled > 1600 && sampled < 2400, "Записано вызовов: " + sampled);
+    }
+
+    @Test
+    @DisplayName("Тестирование вытеснения старых записей из кольцевого буфера")
+    public void testRingBuffer() {
+        TraceBuffer buffer = new TraceBuffer(6);
+        assertEquals(8, buffer.getCapacity());
+        for (int i = 0; i < 20; i++) {
+            buffer.add(i, "main", "method" + i, i, null);
+        }
+
+        List<TraceRecord> all = buffer.dump(100);
+        assertEquals(8, all.size());
+        assertEquals("method12", all.get(0).getMethod());
+        assertEquals("method19", all.get(7).getMethod());
+        List<TraceRecord> latest = buffer.dump(3);
+        assertEquals(3, latest.size());
+        assertEquals("method17", latest.get(0).getMethod());
+        assertEquals(20, buffer.getRecorded());
+
+        buffer.clear();
+        assertTrue(buffer.dump(100).isEmpty());
+    }
+}
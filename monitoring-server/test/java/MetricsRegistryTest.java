@@ -0,0 +1,124 @@
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.PrometheusWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    @DisplayName("Тестирование формата счетчиков, показателей и экранирования меток")
+    public void testCountersAndGauges() {
+        Counter get = registry.counter("requests_total", "Handled requests", "method", "GET");
+        registry.counter("requests_total", "Handled requests", "method", "POST").add(3);
+        get.increment();
+        registry.gauge("queue_depth", "Queued items", () -> 2.5, "queue", "a\"b\\c\nd");
+        registry.register(writer -> {
+            writer.family("collected", "Collected value", "gauge");
+            writer.sample("collected", "", 7);
+        });
+
+        String text = registry.scrape();
+
+        assertTrue(text.contains("# HELP requests_total Handled requests\n# TYPE requests_total counter\n"));
+        assertTrue(text.contains("requests_total{method=\"GET\"} 1\n"));
+        assertTrue(text.contains("requests_total{method=\"POST\"} 3\n"));
+        assertTrue(text.contains("queue_depth{queue=\"a\\\"b\\\\c\\nd\"} 2.5\n"));
+        assertTrue(text.contains("# TYPE collected gauge\ncollected 7\n"));
+        assertEquals(1, text.split("# TYPE requests_total", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование накопленных корзин, суммы и количества гистограммы")
+    public void testHistogram() {
+        LatencyHistogram histogram = registry.histogram("duration_seconds", "Duration", "servlet", "login");
+        histogram.record(200_000);
+        histogram.record(2_000_000);
+        histogram.record(20_000_000);
+        histogram.record(20_000_000_000L);
+
+        String text = registry.scrape();
+
+        assertTrue(text.contains("# TYPE duration_seconds histogram\n"));
+        assertTrue(text.contains("duration_seconds_bucket{servlet=\"login\",le=\"5.0E-4\"} 1\n"));
+        assertTrue(text.contains("duration_seconds_bucket{servlet=\"login\",le=\"0.0025\"} 2\n"));
+        assertTrue(text.contains("duration_seconds_bucket{servlet=\"login\",le=\"0.025\"} 3\n"));
+        assertTrue(text.contains("duration_seconds_bucket{servlet=\"login\",le=\"10.0\"} 3\n"));
+        assertTrue(text.contains("duration_seconds_bucket{servlet=\"login\",le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("duration_seconds_sum{servlet=\"login\"} 20.0222\n"));
+        assertTrue(text.contains("duration_seconds_count{servlet=\"login\"} 4\n"));
+        assertEquals(PrometheusWriter.BUCKET_BOUNDS_SECONDS.length + 1,
+                text.split("duration_seconds_bucket", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование повторной регистрации и конфликта типов")
+    public void testRegistration() {
+        Counter first = registry.counter("events_total", "Events", "kind", "a");
+
+        assertSame(first, registry.counter("events_total", "Events", "kind", "a"));
+        assertNotSame(first, registry.counter("events_total", "Events", "kind", "b"));
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("events_total", "Events"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_total", "Odd", "kind"));
+    }
+
+    @Test
+    @DisplayName("Тестирование записи из нескольких потоков во время выгрузки")
+    public void testConcurrentRecording() throws Exception {
+        int threads = 4;
+        int iterations = 100000;
+        Counter counter = registry.counter("ops_total", "Operations");
+        LatencyHistogram histogram = registry.histogram("op_duration_seconds", "Operation duration");
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < iterations; i++) {
+                        counter.increment();
+                        histogram.record(i);
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(registry.scrape().contains("# TYPE ops_total counter"));
+                }
+                return null;
+            }));
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            String text = registry.scrape();
+            assertTrue(text.contains("ops_total " + threads * iterations + "\n"));
+            assertTrue(text.contains("op_duration_seconds_count " + threads * iterations + "\n"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import dao.statement.SqlBinds;
+import dao.statement.SqlIds;
+import metrics.QueryMetrics;
+import metrics.QuerySnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utils.LoggerConfig;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryMetricsTest {
+    private static final String FIND_USER = "SELECT user_id, password FROM users WHERE email = ? AND password = ?";
+    private static final String ADD_USER = "INSERT INTO users (username, email, password, salt) VALUES (?, ?, ?, ?)";
+
+    @Test
+    @DisplayName("Тестирование учета времени выполнения, чтения результата, строк и ошибок")
+    public void testStatementTiming() throws Exception {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getFetchSize()).thenReturn(100);
+        Mockito.when(resultSet.next()).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            return true;
+        }).thenReturn(true).thenReturn(false);
+        PreparedStatement find = Mockito.mock(PreparedStatement.class);
+        Mockito.when(find.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return resultSet;
+        });
+        PreparedStatement add = Mockito.mock(PreparedStatement.class);
+        Mockito.when(add.executeUpdate()).thenReturn(1).thenThrow(new SQLException("duplicate key"));
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.executeUpdate(Mockito.anyString())).thenReturn(3);
+        QueryMetrics metrics = new QueryMetrics();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            Mockito.when(connection.getAutoCommit()).thenReturn(true);
+            Mockito.when(connection.prepareStatement(FIND_USER)).thenReturn(find);
+            Mockito.when(connection.prepareStatement(ADD_USER)).thenReturn(add);
+            Mockito.when(connection.createStatement()).thenReturn(statement);
+            return connection;
+        }, new PoolSettings(0, 1, 100, 30000, 1, 0, 8, 0), metrics);
+
+        try (Connection connection = pool.borrow()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(FIND_USER)) {
+                try (ResultSet rows = preparedStatement.executeQuery()) {
+                    while (rows.next()) {
+                        assertSame(preparedStatement, rows.getStatement());
+                    }
+                }
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement(ADD_USER)) {
+                preparedStatement.executeUpdate();
+                assertThrows(SQLException.class, preparedStatement::executeUpdate);
+            }
+            try (Statement plain = connection.createStatement()) {
+                plain.executeUpdate("DELETE FROM users WHERE user_id < 10");
+                plain.executeUpdate("DELETE FROM users WHERE user_id < 20");
+            }
+        }
+
+        List<QuerySnapshot> top = metrics.top(10, QueryMetrics.Order.TOTAL);
+        assertEquals(3, top.size());
+        QuerySnapshot found = top.get(0);
+        assertEquals(SqlIds.of(FIND_USER), found.getId());
+        assertEquals(1, found.getCalls());
+        assertEquals(2, found.getRows());
+        assertTrue(found.getExecute().getTotalNanos() >= 5_000_000);
+        assertTrue(found.getFetch().getTotalNanos() >= 2_000_000);
+
+        QuerySnapshot added = metrics.timer(ADD_USER).snapshot();
+        assertEquals(2, added.getCalls());
+        assertEquals(1, added.getRows());
+        assertEquals(1, added.getErrors());
+        QuerySnapshot deleted = metrics.timer("DELETE FROM users WHERE user_id < 1").snapshot();
+        assertEquals("DELETE FROM users WHERE user_id < ?", deleted.getSql());
+        assertEquals(2, deleted.getCalls());
+        assertEquals(6, deleted.getRows());
+        assertEquals(2, metrics.top(1, QueryMetrics.Order.CALLS).get(0).getCalls());
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование журнала медленных запросов со скрытыми значениями параметров")
+    public void testSlowQueryLog() throws Exception {
+        PreparedStatement find = Mockito.mock(PreparedStatement.class);
+        Mockito.when(find.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return Mockito.mock(ResultSet.class);
+        });
+        QueryMetrics metrics = new QueryMetrics();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            Mockito.when(connection.getAutoCommit()).thenReturn(true);
+            Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(find);
+            return connection;
+        }, new PoolSettings(0, 1, 100, 30000, 1, 0, 8, 0, 10), metrics);
+        Logger logger = (Logger) LoggerConfig.getLogger();
+        Level level = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.WARN);
+
+        String sql = FIND_USER + " AND user_id = ?";
+        try (Connection connection = pool.borrow()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                    preparedStatement.setString(1, "user@mail.com");
+                    preparedStatement.setString(2, "secret-password");
+                    preparedStatement.setInt(3, 42);
+                    preparedStatement.executeQuery().close();
+                }
+            }
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(level);
+            pool.close();
+        }
+
+        List<String> slow = appender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(message -> message.startsWith("Медленный запрос"))
+                .toList();
+        assertEquals(1, slow.size(), slow.toString());
+        assertTrue(slow.get(0).contains("параметры: [1=***, 2=***, 3=42]"), slow.get(0));
+        assertFalse(slow.get(0).contains("secret-password"));
+        assertEquals(3, metrics.top(1, QueryMetrics.Order.TOTAL).get(0).getSlow());
+    }
+
+    @Test
+    @DisplayName("Тестирование определения столбцов параметров запроса")
+    public void testParameterColumns() {
+        assertEquals(Arrays.asList("username", "email", "password", "salt"), SqlBinds.parameterColumns(ADD_USER));
+        assertEquals(Arrays.asList("user_id", "month", "meter_type_id", "meter_type_id", null),
+                SqlBinds.parameterColumns("SELECT * FROM meter_readings mr WHERE mr.user_id = ? AND month >= ?"
+                        + " AND mr.meter_type_id IN (?, ?) LIMIT ?"));
+        assertEquals(Arrays.asList("session_id", "user_id", "created_at_ms", "last_access_ms"),
+                SqlBinds.parameterColumns("INSERT INTO user_sessions (session_id, user_id, created_at_ms)"
+                        + " VALUES (?, ?, now_ms(?)) ON CONFLICT DO UPDATE SET last_access_ms = ?"));
+        assertEquals(Arrays.asList(null, "value"),
+                SqlBinds.parameterColumns("SELECT unnest(?::INTEGER[]) WHERE 'x = ?' <> value AND value <> ?"));
+        assertArrayEquals(new boolean[]{false, true, true, true}, SqlBinds.sensitiveParameters(ADD_USER));
+    }
+}
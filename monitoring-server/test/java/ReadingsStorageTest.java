@@ -1,3 +1,6 @@
+import dao.readings.ReadingsExportFormat;
+import dao.readings.ReadingsImportResult;
+import dao.readings.ReadingsInsertResult;
 import dao.readings.ReadingsRepositoryImpl;
 import dao.user.UserRepositoryImpl;
 import model.readings.MeterReadings;
@@ -9,12 +12,25 @@ import org.testcontainers.utility.DockerImageName;
 import utils.DBConnectionManager;
 import utils.DBInitializer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -54,6 +70,79 @@ public class ReadingsStorageTest {
         assertNotNull(readingsStorage.getCurrentReadings(1));
     }
 
+    @Test
+    @DisplayName("Тестирование метода addNewReadings с неизвестным типом счетчика")
+    public void testAddNewReadingsWithUnknownMeterType() {
+        Map<String, Integer> readings = new HashMap<>();
+        readings.put("HEATING", 110);
+        readings.put("GAS", 10);
+
+        ReadingsInsertResult result = readingsStorage.addNewReadings(1, new MeterReadings(readings, Month.FEBRUARY));
+
+        assertFalse(result.isSuccess());
+        assertEquals(ReadingsInsertResult.RowOutcome.UNKNOWN_METER_TYPE, result.getOutcomes().get("GAS"));
+        assertFalse(readingsStorage.getReadingsForMonth(1, Month.FEBRUARY).isPresent());
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения повторной подачи показаний за месяц ограничением уникальности")
+    public void testAddNewReadingsForSubmittedMonth() {
+        Map<String, Integer> readings = new HashMap<>();
+        readings.put("HEATING", 150);
+
+        ReadingsInsertResult result = readingsStorage.addNewReadings(1, new MeterReadings(readings, Month.JANUARY));
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.isAlreadySubmitted());
+        assertEquals(ReadingsInsertResult.RowOutcome.ALREADY_SUBMITTED, result.getOutcomes().get("HEATING"));
+        MeterReadings january = readingsStorage.getReadingsHistory(1).stream()
+                .filter(history -> history.getMonth() == Month.JANUARY)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(Integer.valueOf(100), january.getReadings().get("HEATING"));
+    }
+
+    @Test
+    @DisplayName("Тестирование 100 параллельных одинаковых подач показаний за месяц")
+    public void testParallelIdenticalSubmissions() throws Exception {
+        Map<String, Integer> readings = new HashMap<>();
+        readings.put("HEATING", 170);
+        readings.put("HOT_WATER", 270);
+        readings.put("COLD_WATER", 370);
+        MeterReadings submission = new MeterReadings(readings, Month.AUGUST);
+
+        int submissions = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReadingsInsertResult>> results = new ArrayList<>();
+        for (int i = 0; i < submissions; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return readingsStorage.addNewReadings(1, submission);
+            }));
+        }
+        start.countDown();
+
+        int inserted = 0;
+        int alreadySubmitted = 0;
+        for (Future<ReadingsInsertResult> result : results) {
+            ReadingsInsertResult insertResult = result.get(30, TimeUnit.SECONDS);
+            if (insertResult.isSuccess()) {
+                inserted++;
+            } else if (insertResult.isAlreadySubmitted()) {
+                alreadySubmitted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, inserted);
+        assertEquals(submissions - 1, alreadySubmitted);
+        long augustRows = readingsStorage.getReadingsHistory(1).stream()
+                .filter(history -> history.getMonth() == Month.AUGUST)
+                .mapToLong(history -> history.getReadings().size())
+                .sum();
+        assertEquals(3, augustRows);
+    }
 
     @Test
     @DisplayName("Тестирование метода getCurrentReadings")
@@ -63,6 +152,110 @@ public class ReadingsStorageTest {
         assertNotNull(readings);
     }
 
+    @Test
+    @DisplayName("Тестирование обновления текущих показаний при добавлении показаний за более поздний месяц")
+    public void testCurrentReadingsFollowLatestMonth() {
+        Map<String, Integer> readings = new HashMap<>();
+        readings.put("HEATING", 130);
+        readings.put("HOT_WATER", 230);
+        readings.put("COLD_WATER", 330);
+
+        assertTrue(readingsStorage.addNewReadings(1, new MeterReadings(readings, Month.DECEMBER)).isSuccess());
+
+        Optional<MeterReadings> current = readingsStorage.getCurrentReadings(1);
+        assertTrue(current.isPresent());
+        assertEquals(Month.DECEMBER, current.get().getMonth());
+        assertEquals(Integer.valueOf(130), current.get().getReadings().get("HEATING"));
+        assertEquals(Month.DECEMBER, readingsStorage.getAllCurrentReadings().get("testuser").getMonth());
+    }
+
+    @Test
+    @DisplayName("Тестирование пакетной загрузки показаний из CSV")
+    public void testImportReadings() {
+        String csv = """
+                email,meter_type,month,reading
+                testemail,HEATING,MAY,150
+                testemail,HOT_WATER,5,250
+                testemail,HOT_WATER,5,260
+                unknown@mail.com,HEATING,5,100
+                testemail,GAS,5,10
+                testemail,COLD_WATER,13,350
+                testemail,COLD_WATER,5,-1
+                testemail,HEATING,1,100
+                """;
+
+        ReadingsImportResult result = readingsStorage.importReadings(new StringReader(csv));
+
+        assertTrue(result.isSuccess());
+        assertEquals(8, result.getTotal());
+        assertEquals(2, result.getImported());
+        List<ReadingsImportResult.RejectReason> reasons = result.getRejections().stream()
+                .map(ReadingsImportResult.Rejection::getReason)
+                .toList();
+        assertEquals(List.of(
+                ReadingsImportResult.RejectReason.DUPLICATE_IN_FILE,
+                ReadingsImportResult.RejectReason.UNKNOWN_USER,
+                ReadingsImportResult.RejectReason.UNKNOWN_METER_TYPE,
+                ReadingsImportResult.RejectReason.INVALID_MONTH,
+                ReadingsImportResult.RejectReason.INVALID_READING,
+                ReadingsImportResult.RejectReason.ALREADY_SUBMITTED), reasons);
+        assertEquals(3, result.getRejections().get(0).getLine());
+        assertTrue(readingsStorage.getReadingsForMonth(1, Month.MAY).isPresent());
+    }
+
+    @Test
+    @DisplayName("Тестирование параллельной загрузки одних и тех же показаний из CSV")
+    public void testParallelImportsReportAlreadySubmitted() throws Exception {
+        String csv = """
+                email,meter_type,month,reading
+                testemail,HEATING,OCTOBER,190
+                testemail,HOT_WATER,OCTOBER,290
+                testemail,COLD_WATER,OCTOBER,390
+                """;
+
+        int imports = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(imports);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReadingsImportResult>> results = new ArrayList<>();
+        for (int i = 0; i < imports; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return readingsStorage.importReadings(new StringReader(csv));
+            }));
+        }
+        start.countDown();
+
+        long imported = 0;
+        for (Future<ReadingsImportResult> result : results) {
+            ReadingsImportResult importResult = result.get(30, TimeUnit.SECONDS);
+            assertTrue(importResult.isSuccess());
+            assertEquals(3, importResult.getImported() + importResult.getRejections().size());
+            assertTrue(importResult.getRejections().stream()
+                    .allMatch(rejection -> rejection.getReason() == ReadingsImportResult.RejectReason.ALREADY_SUBMITTED));
+            imported += importResult.getImported();
+        }
+        executor.shutdown();
+
+        assertEquals(3, imported);
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки показаний в CSV и NDJSON")
+    public void testExportReadings() throws IOException {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        assertTrue(readingsStorage.exportReadings(1, 1, null, ReadingsExportFormat.CSV, csv));
+        assertTrue(readingsStorage.exportReadings(1, 1, 1, ReadingsExportFormat.NDJSON, ndjson));
+
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("email,username,meter_type,month,reading", csvLines[0]);
+        assertEquals(4, csvLines.length);
+        String[] ndjsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, ndjsonLines.length);
+        assertTrue(ndjsonLines[0].startsWith("{\"email\" : \"testemail\""));
+    }
+
     @Test
     @DisplayName("Тестирование метода getReadingsForMonth")
     public void testGetReadingsForMonth() {
@@ -79,6 +272,19 @@ public class ReadingsStorageTest {
         assertNotNull(readingsHistory);
     }
 
+    @Test
+    @DisplayName("Тестирование постраничного и потокового чтения текущих показаний")
+    public void testCurrentReadingsPageAndStream() {
+        Map<String, MeterReadings> firstPage = readingsStorage.getCurrentReadingsPage(null, 10);
+        Map<String, MeterReadings> streamed = new HashMap<>();
+
+        assertTrue(readingsStorage.streamAllCurrentReadings(streamed::put));
+
+        assertTrue(firstPage.containsKey("testuser"));
+        assertTrue(readingsStorage.getCurrentReadingsPage("testuser", 10).isEmpty());
+        assertEquals(readingsStorage.getAllCurrentReadings().keySet(), streamed.keySet());
+    }
+
     @Test
     @DisplayName("Тестирование метода getAllCurrentReadings")
     public void testGetAllCurrentReadings() {
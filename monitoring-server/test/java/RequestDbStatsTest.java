@@ -0,0 +1,198 @@
+import filter.MetricsFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import metrics.MetricsRegistry;
+import metrics.QueryMetrics;
+import metrics.RequestDbStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import utils.ServiceFactory;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestDbStatsTest {
+    private static final String FIND_READING =
+            "SELECT reading FROM meter_readings WHERE user_id = ? AND meter_type_id = ?";
+    private static final String ADD_READING =
+            "INSERT INTO meter_readings (user_id, meter_type_id, reading) VALUES (?, ?, ?)";
+    private static final String BUDGET = "db.budget.servlet.CurrentReadingsServlet.POST";
+
+    private QueryMetrics metrics;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws SQLException {
+        PreparedStatement find = Mockito.mock(PreparedStatement.class);
+        Mockito.when(find.executeQuery()).thenAnswer(invocation -> {
+            ResultSet resultSet = Mockito.mock(ResultSet.class);
+            Mockito.when(resultSet.next()).thenReturn(true, true, false);
+            return resultSet;
+        });
+        PreparedStatement add = Mockito.mock(PreparedStatement.class);
+        Mockito.when(add.executeUpdate()).thenReturn(1);
+        metrics = new QueryMetrics();
+        pool = new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            Mockito.when(connection.getAutoCommit()).thenReturn(true);
+            Mockito.when(connection.prepareStatement(FIND_READING)).thenReturn(find);
+            Mockito.when(connection.prepareStatement(ADD_READING)).thenReturn(add);
+            return connection;
+        }, new PoolSettings(0, 2, 100, 30000, 1, 0, 8, 0), metrics);
+    }
+
+    @AfterEach
+    @DisplayName("Закрытие пула и удаление настроек после каждого теста")
+    public void tearDown() {
+        pool.close();
+        System.clearProperty(BUDGET);
+        System.clearProperty("db.budget.strict");
+        ServiceFactory.setMetricsRegistry(null);
+    }
+
+    @Test
+    @DisplayName("Тестирование учета запросов, соединений, строк и повторов одного запроса")
+    public void testStatementAccounting() throws Exception {
+        RequestDbStats stats = new RequestDbStats();
+        RequestDbStats previous = stats.attach();
+        try {
+            addReadings(3);
+            try (Connection connection = pool.borrow()) {
+                connection.setAutoCommit(false);
+            }
+        } finally {
+            stats.detach(previous);
+        }
+        addReadings(1);
+
+        assertNull(previous);
+        assertEquals(6, stats.getStatements());
+        assertEquals(4, stats.getConnections());
+        assertEquals(6, stats.getRows());
+        assertTrue(stats.getNanos() > 0);
+        assertEquals(3, stats.getMostRepeatedCount());
+        assertSame(metrics.timer(FIND_READING), stats.getMostRepeated());
+        assertEquals(4, metrics.timer(FIND_READING).snapshot().getCalls());
+    }
+
+    @Test
+    @DisplayName("Тестирование заголовка Server-Timing, метрик сервлета и строгого бюджета запросов")
+    public void testServerTimingAndBudget() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        ServiceFactory.setMetricsRegistry(registry);
+        System.setProperty(BUDGET, "4");
+        System.setProperty("db.budget.strict", "true");
+        MetricsFilter filter = new MetricsFilter();
+        filter.init(null);
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpServletMapping mapping = Mockito.mock(HttpServletMapping.class);
+        Mockito.when(mapping.getServletName()).thenReturn("servlet.CurrentReadingsServlet");
+        Mockito.when(request.getHttpServletMapping()).thenReturn(mapping);
+        Mockito.when(request.getMethod()).thenReturn("POST");
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getStatus()).thenReturn(200);
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        int[] readings = {2};
+        FilterChain chain = (servletRequest, servletResponse) -> {
+            try {
+                addReadings(readings[0]);
+            } catch (SQLException e) {
+                throw new ServletException(e);
+            }
+            servletResponse.getWriter().write("{}");
+        };
+
+        filter.doFilter(request, response, chain);
+        readings[0] = 3;
+        ServletException exception = assertThrows(ServletException.class,
+                () -> filter.doFilter(request, response, chain));
+
+        ArgumentCaptor<String> headers = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(response, Mockito.times(4)).setHeader(Mockito.eq("Server-Timing"), headers.capture());
+        assertTrue(headers.getAllValues().get(0).matches(
+                "db;dur=\\d+\\.\\d{3};desc=\"statements=4 connections=2 rows=4\", total;dur=\\d+\\.\\d{3}"),
+                headers.getAllValues().get(0));
+        assertTrue(headers.getAllValues().get(1).contains("desc=\"statements=4 connections=2 rows=4\""));
+        assertTrue(headers.getAllValues().get(2).contains("desc=\"statements=6 connections=3 rows=6\""));
+        assertTrue(headers.getAllValues().get(3).contains("desc=\"statements=6 connections=3 rows=6\""));
+        assertTrue(exception.getMessage().contains("выполнил 6 SQL-запросов при бюджете 4; чаще всего выполнялся"),
+                exception.getMessage());
+
+        String scrape = registry.scrape();
+        String labels = "{servlet=\"servlet.CurrentReadingsServlet\",method=\"POST\"}";
+        assertTrue(scrape.contains("http_request_db_statements_total" + labels + " 10"), scrape);
+        assertTrue(scrape.contains("http_request_db_connections_total" + labels + " 5"), scrape);
+        assertTrue(scrape.contains("http_request_db_rows_total" + labels + " 10"), scrape);
+        assertTrue(scrape.contains("http_request_db_budget_exceeded_total" + labels + " 1"), scrape);
+        assertTrue(scrape.contains("http_request_db_duration_seconds_count" + labels + " 2"), scrape);
+    }
+
+    @Test
+    @DisplayName("Тестирование учета нестандартных HTTP-методов под одной меткой")
+    public void testUnknownMethodsShareOneSeries() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        ServiceFactory.setMetricsRegistry(registry);
+        MetricsFilter filter = new MetricsFilter();
+        filter.init(null);
+        HttpServletMapping mapping = Mockito.mock(HttpServletMapping.class);
+        Mockito.when(mapping.getServletName()).thenReturn("servlet.CurrentReadingsServlet");
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getStatus()).thenReturn(405);
+        for (String method : new String[]{"GET", "FOO1", "FOO2", "PROPFIND", "get"}) {
+            HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+            Mockito.when(request.getHttpServletMapping()).thenReturn(mapping);
+            Mockito.when(request.getMethod()).thenReturn(method);
+            filter.doFilter(request, response, (servletRequest, servletResponse) -> { });
+        }
+
+        String scrape = registry.scrape();
+        String servlet = "servlet=\"servlet.CurrentReadingsServlet\"";
+        assertTrue(scrape.contains("http_requests_total{" + servlet + ",method=\"other\",status=\"4xx\"} 4"),
+                scrape);
+        assertTrue(scrape.contains("http_requests_total{" + servlet + ",method=\"GET\",status=\"4xx\"} 1"), scrape);
+        assertFalse(scrape.contains("FOO1"), scrape);
+        assertFalse(scrape.contains("PROPFIND"), scrape);
+    }
+
+    /**
+     * Добавляет показания по одному типу счетчика за раз, как до перевода подачи показаний на один запрос:
+     * для каждого типа отдельное соединение, проверка показания и вставка.
+     */
+    private void addReadings(int meterTypes) throws SQLException {
+        for (int meterType = 1; meterType <= meterTypes; meterType++) {
+            try (Connection connection = pool.borrow()) {
+                try (PreparedStatement find = connection.prepareStatement(FIND_READING)) {
+                    find.setInt(1, 7);
+                    find.setInt(2, meterType);
+                    try (ResultSet resultSet = find.executeQuery()) {
+                        while (resultSet.next()) {
+                            resultSet.getInt(1);
+                        }
+                    }
+                }
+                try (PreparedStatement add = connection.prepareStatement(ADD_READING)) {
+                    add.setInt(1, 7);
+                    add.setInt(2, meterType);
+                    add.setInt(3, 100);
+                    add.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.session.Session;
+import service.session.SessionRegistry;
+import service.session.SessionStats;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionRegistryTest {
+    private static final long IDLE_TIMEOUT_MS = 10000;
+    private static final long ABSOLUTE_TIMEOUT_MS = 60000;
+
+    private MutableClock clock;
+    private SessionRegistry registry;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        clock = new MutableClock(1_000_000);
+        registry = new SessionRegistry(IDLE_TIMEOUT_MS, ABSOLUTE_TIMEOUT_MS, 60000, clock);
+    }
+
+    @Test
+    @DisplayName("Тестирование нескольких сессий одного пользователя и выхода из одной из них")
+    public void testMultipleSessionsPerUser() {
+        Session first = registry.create(1, "uname");
+        Session second = registry.create(1, "uname");
+
+        assertNotEquals(first.getId(), second.getId());
+        assertSame(first, registry.touch(first.getId()));
+        assertSame(second, registry.touch(second.getId()));
+
+        assertTrue(registry.invalidate(first.getId()));
+        assertFalse(registry.invalidate(first.getId()));
+        assertNull(registry.touch(first.getId()));
+        assertSame(second, registry.touch(second.getId()));
+        assertEquals(1, registry.getActiveSessions());
+    }
+
+    @Test
+    @DisplayName("Тестирование тайм-аута бездействия и абсолютного срока сессии")
+    public void testIdleAndAbsoluteExpiry() {
+        Session idle = registry.create(1, "uname");
+        Session active = registry.create(2, "other");
+
+        for (int i = 0; i < 5; i++) {
+            clock.advance(IDLE_TIMEOUT_MS - 1000);
+            assertNotNull(registry.touch(active.getId()));
+        }
+        assertNull(registry.touch(idle.getId()));
+
+        clock.advance(ABSOLUTE_TIMEOUT_MS);
+        assertNull(registry.touch(active.getId()));
+
+        SessionStats stats = registry.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getExpiredIdle());
+        assertEquals(1, stats.getExpiredAbsolute());
+        assertEquals(2, stats.getLookupMisses());
+    }
+
+    @Test
+    @DisplayName("Тестирование удаления истекших сессий, к которым больше не обращаются")
+    public void testSweep() {
+        registry.create(1, "uname");
+        registry.create(2, "other");
+        clock.advance(IDLE_TIMEOUT_MS / 2);
+        Session fresh = registry.create(3, "fresh");
+        clock.advance(IDLE_TIMEOUT_MS / 2);
+
+        assertEquals(2, registry.sweep());
+        assertEquals(1, registry.getActiveSessions());
+        assertSame(fresh, registry.touch(fresh.getId()));
+    }
+
+    @Test
+    @DisplayName("Тестирование одновременного создания, поиска и завершения 10000 сессий")
+    public void testConcurrentSessions() throws Exception {
+        int threads = 8;
+        int sessionsPerThread = 1250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int userId = t;
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    List<String> own = new ArrayList<>();
+                    for (int i = 0; i < sessionsPerThread; i++) {
+                        Session session = registry.create(userId, "user" + userId);
+                        ids.add(session.getId());
+                        own.add(session.getId());
+                        for (int j = 0; j < 4; j++) {
+                            String id = own.get(j * own.size() / 4);
+                            if (registry.touch(id) == null) {
+                                throw new AssertionError("Сессия не найдена: " + id);
+                            }
+                        }
+                    }
+                    int invalidated = 0;
+                    for (int i = 0; i < own.size(); i += 2) {
+                        if (registry.invalidate(own.get(i))) {
+                            invalidated++;
+                        }
+                    }
+                    return invalidated;
+                }));
+            }
+            startLatch.countDown();
+            int invalidated = 0;
+            for (Future<Integer> future : futures) {
+                invalidated += future.get(30, TimeUnit.SECONDS);
+            }
+
+            int total = threads * sessionsPerThread;
+            assertEquals(total, ids.size());
+            assertEquals(total / 2, invalidated);
+            SessionStats stats = registry.getStats();
+            assertEquals(total, stats.getCreated());
+            assertEquals(total / 2, stats.getInvalidated());
+            assertEquals(total - total / 2, stats.getActive());
+            assertEquals(total * 4L, stats.getLookups());
+            assertEquals(0, stats.getLookupMisses());
+            assertTrue(stats.getMaxLookupNanos() >= stats.getAverageLookupNanos());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        private MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        private void advance(long deltaMs) {
+            millis.addAndGet(deltaMs);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
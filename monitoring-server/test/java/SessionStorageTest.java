@@ -0,0 +1,157 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.utility.DockerImageName;
+import service.session.JdbcSessionStore;
+import service.session.Session;
+import service.session.SessionSettings;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+import utils.pool.ConnectionFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Два экземпляра хранилища сессий в одной JVM с общей базой данных изображают два экземпляра сервера.
+ */
+public class SessionStorageTest {
+    private static final long IDLE_TIMEOUT_MS = 10000;
+    private static final long ABSOLUTE_TIMEOUT_MS = 60000;
+    private static final long NEAR_CACHE_TTL_MS = 600000;
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer;
+
+    static {
+        postgreSQLContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("test")
+                .withUsername("test")
+                .withPassword("test");
+        postgreSQLContainer.start();
+        DBConnectionManager.setConnectionDetails(
+                postgreSQLContainer.getJdbcUrl(),
+                postgreSQLContainer.getUsername(),
+                postgreSQLContainer.getPassword()
+        );
+    }
+
+    private ConnectionFactory connections;
+    private SessionSettings settings;
+    private JdbcSessionStore nodeA;
+    private JdbcSessionStore nodeB;
+
+    @Before
+    @DisplayName("Инициализация базы данных и двух экземпляров хранилища перед каждым тестом")
+    public void initializeDatabase() {
+        String url = postgreSQLContainer.getJdbcUrl();
+        String user = postgreSQLContainer.getUsername();
+        String password = postgreSQLContainer.getPassword();
+
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            String sql = new String(Files.readAllBytes(Paths.get("test/testResources/init.sql")));
+            Statement statement = conn.createStatement();
+            statement.execute(sql);
+            DBInitializer.initialize();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        // Время хранения в локальном кэше больше времени теста: завершение сессии на другом экземпляре
+        // может стать видно только через уведомление
+        settings = new SessionSettings(SessionSettings.StoreType.JDBC, IDLE_TIMEOUT_MS,
+                ABSOLUTE_TIMEOUT_MS, 3600000, 1000, 100, NEAR_CACHE_TTL_MS, 100);
+        connections = () -> DriverManager.getConnection(url, user, password);
+        nodeA = new JdbcSessionStore(connections, connections, settings, Clock.systemUTC());
+        nodeB = new JdbcSessionStore(connections, connections, settings, Clock.systemUTC());
+        nodeA.start();
+        nodeB.start();
+    }
+
+
+    @After
+    @DisplayName("Остановка экземпляров хранилища после каждого теста")
+    public void stopNodes() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    @DisplayName("Тестирование поиска сессии, созданной на другом экземпляре")
+    public void testSessionVisibleOnOtherNode() {
+        Session created = nodeA.create(1, "testuser");
+
+        Session found = nodeB.touch(created.getId());
+
+        assertNotNull(found);
+        assertEquals(1, found.getUserId());
+        assertEquals("testuser", found.getUsername());
+        assertEquals(created.getExpiresAtMillis(), found.getExpiresAtMillis());
+        assertEquals(1, nodeB.getActiveSessions());
+    }
+
+    @Test
+    @DisplayName("Тестирование завершения сессии на всех экземплярах")
+    public void testLogoutInvalidatesOtherNode() throws InterruptedException {
+        Session session = nodeA.create(1, "testuser");
+        Session other = nodeA.create(1, "testuser");
+        assertNotNull(nodeB.touch(session.getId()));
+        assertNotNull(nodeB.touch(other.getId()));
+        await(nodeB::isSubscribed);
+
+        assertTrue(nodeA.invalidate(session.getId()));
+        assertFalse(nodeA.invalidate(session.getId()));
+
+        await(() -> nodeB.getNotificationsReceived() > 0);
+        assertNull(nodeB.touch(session.getId()));
+        assertNotNull(nodeB.touch(other.getId()));
+        assertEquals(1, nodeB.getActiveSessions());
+    }
+
+    @Test
+    @DisplayName("Тестирование тайм-аута бездействия с учетом обращений на другом экземпляре")
+    public void testIdleTimeoutAcrossNodes() {
+        Instant start = Instant.now();
+        JdbcSessionStore early = new JdbcSessionStore(connections, connections, settings,
+                Clock.fixed(start, ZoneOffset.UTC));
+        JdbcSessionStore later = new JdbcSessionStore(connections, connections, settings,
+                Clock.fixed(start.plusMillis(IDLE_TIMEOUT_MS - 1000), ZoneOffset.UTC));
+        JdbcSessionStore latest = new JdbcSessionStore(connections, connections, settings,
+                Clock.fixed(start.plusMillis(IDLE_TIMEOUT_MS + 1000), ZoneOffset.UTC));
+        JdbcSessionStore idle = new JdbcSessionStore(connections, connections, settings,
+                Clock.fixed(start.plusMillis(IDLE_TIMEOUT_MS * 3), ZoneOffset.UTC));
+
+        Session session = early.create(1, "testuser");
+        Session abandoned = early.create(2, "otheruser");
+
+        assertNotNull(later.touch(session.getId()));
+        assertNotNull(latest.touch(session.getId()));
+        assertNull(latest.touch(abandoned.getId()));
+        assertEquals(1, latest.getStats().getExpiredIdle());
+        assertEquals(1, idle.sweep());
+        assertEquals(0, idle.getActiveSessions());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
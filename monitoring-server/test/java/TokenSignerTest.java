@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utils.TokenClaims;
+import utils.TokenSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenSignerTest {
+    private TokenSigner tokenSigner;
+
+    private static byte[] secret(int value) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) value);
+        return secret;
+    }
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() {
+        tokenSigner = new TokenSigner(secret(1), 60000, 100, 60000);
+    }
+
+    @Test
+    @DisplayName("Тестирование выпуска и проверки токена")
+    public void testIssueAndVerify() {
+        String token = tokenSigner.issue(42, "session-42", "user:name@mail.ru", "Иван:Петров", true);
+
+        TokenClaims claims = tokenSigner.verify("Bearer " + token);
+
+        assertNotNull(claims);
+        assertEquals(42, claims.getUserId());
+        assertEquals("session-42", claims.getSessionId());
+        assertEquals("user:name@mail.ru", claims.getEmail());
+        assertEquals("Иван:Петров", claims.getUsername());
+        assertTrue(claims.isAdmin());
+        assertEquals(claims.getIssuedAtMillis() + 60000, claims.getExpiresAtMillis());
+        assertEquals(42, tokenSigner.verify(token).getUserId());
+    }
+
+    @Test
+    @DisplayName("Тестирование повторной проверки токена из кэша")
+    public void testVerifiedTokenIsCached() {
+        String header = "Bearer " + tokenSigner.issue(1, "session-1", "e@mail.com", "uname", false);
+
+        TokenClaims first = tokenSigner.verify(header);
+        TokenClaims second = tokenSigner.verify(header);
+
+        assertSame(first, second);
+        assertEquals(1, tokenSigner.getCacheStats().getLoads());
+        assertEquals(1, tokenSigner.getCacheStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения измененного токена")
+    public void testTamperedTokenIsRejected() {
+        String token = tokenSigner.issue(1, "session-1", "e@mail.com", "uname", false);
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace(":0:", ":1:").getBytes(StandardCharsets.UTF_8));
+
+        assertNull(tokenSigner.verify(forgedPayload + token.substring(dot)));
+        // первый символ подписи кодирует шесть полных бит, поэтому его замена всегда меняет подпись
+        char signatureStart = token.charAt(dot + 1);
+        assertNull(tokenSigner.verify(token.substring(0, dot + 1) + (signatureStart == 'A' ? 'B' : 'A')
+                + token.substring(dot + 2)));
+        assertNull(new TokenSigner(secret(2), 60000, 100, 60000).verify(token));
+        assertNull(tokenSigner.verify("MTplQG1haWwuY29tOnVuYW1lOmZhbHNl"));
+        assertNull(tokenSigner.verify(null));
+        assertEquals(0, tokenSigner.getCacheStats().getSize());
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения токена с истекшим сроком действия")
+    public void testExpiredTokenIsRejected() {
+        TokenSigner expiring = new TokenSigner(secret(1), -1, 100, 60000);
+
+        assertNull(expiring.verify(expiring.issue(1, "session-1", "e@mail.com", "uname", false)));
+    }
+}
@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utils.UnitOfWork;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkTest {
+    private Connection physical;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws SQLException {
+        physical = Mockito.mock(Connection.class);
+        // откат при возврате соединения в пул проверяется в ConnectionPoolTest
+        Mockito.when(physical.getAutoCommit()).thenReturn(true);
+        pool = new ConnectionPool(() -> physical, new PoolSettings(0, 1, 100, 30000, 1, 0));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.close();
+        }
+        pool.close();
+    }
+
+    /**
+     * Имитирует метод репозитория: получает соединение, работает в собственной транзакции и закрывает его.
+     */
+    private void repositoryWrite() throws SQLException {
+        try (Connection connection = UnitOfWork.current().getConnection()) {
+            connection.setAutoCommit(false);
+            connection.createStatement();
+            connection.commit();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование одного соединения и одной фиксации на всю единицу работы")
+    public void testSingleConnectionAndCommit() throws SQLException {
+        try (UnitOfWork ignored = UnitOfWork.begin(false, pool::borrow)) {
+            repositoryWrite();
+            repositoryWrite();
+            repositoryWrite();
+            Mockito.verify(physical, Mockito.never()).commit();
+        }
+
+        assertEquals(1, pool.getStats().getBorrows());
+        Mockito.verify(physical, Mockito.times(3)).createStatement();
+        Mockito.verify(physical, Mockito.times(1)).commit();
+        Mockito.verify(physical, Mockito.never()).setReadOnly(true);
+        assertNull(UnitOfWork.current());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    @DisplayName("Тестирование транзакции только для чтения")
+    public void testReadOnlyUnit() throws SQLException {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(true, pool::borrow)) {
+            unitOfWork.getConnection().setReadOnly(false);
+
+            Mockito.verify(physical).setAutoCommit(false);
+            Mockito.verify(physical).setReadOnly(true);
+            Mockito.verify(physical, Mockito.never()).setReadOnly(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование отката всей единицы работы после отката в репозитории")
+    public void testRollbackMarksUnitRollbackOnly() throws SQLException {
+        List<Boolean> completions = new ArrayList<>();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow)) {
+            unitOfWork.afterCompletion(completions::add);
+            repositoryWrite();
+            try (Connection connection = unitOfWork.getConnection()) {
+                connection.rollback();
+            }
+            assertTrue(unitOfWork.isRollbackOnly());
+            repositoryWrite();
+        }
+
+        Mockito.verify(physical, Mockito.never()).commit();
+        Mockito.verify(physical, Mockito.times(2)).rollback();
+        assertEquals(List.of(false), completions);
+    }
+
+    @Test
+    @DisplayName("Тестирование единицы работы без обращения к базе данных")
+    public void testConnectionIsBorrowedLazily() throws SQLException {
+        List<Boolean> completions = new ArrayList<>();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(false, pool::borrow)) {
+            unitOfWork.afterCompletion(completions::add);
+            assertThrows(IllegalStateException.class, () -> UnitOfWork.begin(false, pool::borrow));
+        }
+
+        assertEquals(0, pool.getStats().getBorrows());
+        assertEquals(List.of(true), completions);
+    }
+}
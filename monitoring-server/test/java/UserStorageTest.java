@@ -37,12 +37,28 @@ public class UserStorageTest {
         assertTrue(userStorage.findByEmail("testemail").isPresent());
     }
 
+    @Test
+    @DisplayName("Тестирование повторной регистрации с той же электронной почтой")
+    public void testAddExistingUser() {
+        assertFalse(userStorage.addNewUser("otheruser", "testemail", "otherpassword", "otherSalt").isPresent());
+        assertEquals("testuser", userStorage.findByEmail("testemail").get().getUsername());
+    }
+
     @Test
     @DisplayName("Тестирование метода isRegister")
     public void testIsRegister() {
         assertFalse(userStorage.findByEmail("nonexistentemail").isPresent());
     }
 
+    @Test
+    @DisplayName("Тестирование метода findById")
+    public void testFindById() {
+        Integer userId = userStorage.findByEmail("testemail").get().getId();
+
+        assertEquals("testemail", userStorage.findById(userId).get().getEmail());
+        assertFalse(userStorage.findById(-1).isPresent());
+    }
+
     @Test
     @DisplayName("Тестирование метода getUserIdFromName")
     public void testGetUserIdFromName() {
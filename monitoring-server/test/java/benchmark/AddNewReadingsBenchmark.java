@@ -0,0 +1,141 @@
+package benchmark;
+
+import dao.readings.ReadingsRepositoryImpl;
+import model.readings.MeterReadings;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Month;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сравнение прежнего построчного добавления показаний (SELECT meter_type_id и INSERT на каждый тип счетчика)
+ * с пакетным добавлением в ReadingsRepositoryImpl.addNewReadings для 3, 10 и 50 типов счетчиков.
+ * Запускается как обычное приложение, требует Docker для контейнера PostgreSQL.
+ */
+public class AddNewReadingsBenchmark {
+    private static final int[] METER_TYPE_COUNTS = {3, 10, 50};
+    private static final int WARMUP_SUBMISSIONS = 200;
+    private static final int MEASURED_SUBMISSIONS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("bench")
+                .withUsername("bench")
+                .withPassword("bench")) {
+            postgres.start();
+            DBConnectionManager.setConnectionDetails(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword());
+            DBInitializer.initialize();
+            createUsers(MEASURED_SUBMISSIONS);
+
+            ReadingsRepositoryImpl repository = new ReadingsRepositoryImpl();
+            System.out.printf("%-12s %-18s %-18s%n", "meter types", "loop, ms/submit", "batch, ms/submit");
+            for (int meterTypes : METER_TYPE_COUNTS) {
+                ensureMeterTypes(meterTypes);
+                MeterReadings readings = readingsFor(meterTypes);
+
+                run(userId -> legacyAddNewReadings(userId, readings), WARMUP_SUBMISSIONS);
+                double loop = run(userId -> legacyAddNewReadings(userId, readings), MEASURED_SUBMISSIONS);
+
+                run(userId -> repository.addNewReadings(userId, readings), WARMUP_SUBMISSIONS);
+                double batch = run(userId -> repository.addNewReadings(userId, readings), MEASURED_SUBMISSIONS);
+
+                System.out.printf("%-12d %-18.3f %-18.3f%n", meterTypes, loop, batch);
+            }
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    /**
+     * Выполняет заданное количество подач показаний, каждую от имени отдельного пользователя,
+     * и возвращает среднее время одной подачи в миллисекундах.
+     */
+    private static double run(SqlAction action, int submissions) throws SQLException {
+        truncateReadings();
+        long start = System.nanoTime();
+        for (int userId = 1; userId <= submissions; userId++) {
+            action.run(userId);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / submissions;
+    }
+
+    private static MeterReadings readingsFor(int meterTypes) throws SQLException {
+        Map<String, Integer> readings = new LinkedHashMap<>();
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT meter_type FROM meter_types ORDER BY meter_type_id LIMIT " + meterTypes)) {
+            while (resultSet.next()) {
+                readings.put(resultSet.getString(1), 100);
+            }
+        }
+        return new MeterReadings(readings, Month.JANUARY);
+    }
+
+    private static void createUsers(int count) throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, salt) " +
+                    "SELECT 'bench' || g, 'bench' || g || '@mail.com', 'password', 'salt' " +
+                    "FROM generate_series(1, " + count + ") g");
+        }
+    }
+
+    private static void ensureMeterTypes(int count) throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO meter_types (meter_type) " +
+                    "SELECT 'BENCH_' || g FROM generate_series(1, " + count + " - (SELECT COUNT(*) FROM meter_types)) g");
+        }
+    }
+
+    private static void truncateReadings() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE meter_readings");
+        }
+    }
+
+    /**
+     * Прежняя реализация addNewReadings: отдельный запрос типа счетчика и отдельная вставка на каждую строку.
+     */
+    private static void legacyAddNewReadings(int userId, MeterReadings meterReadings) throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            for (Map.Entry<String, Integer> entry : meterReadings.getReadings().entrySet()) {
+                int meterTypeId;
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT meter_type_id FROM meter_types WHERE meter_type = ?")) {
+                    select.setString(1, entry.getKey());
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        resultSet.next();
+                        meterTypeId = resultSet.getInt(1);
+                    }
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO meter_readings (user_id, meter_type_id, reading, month) VALUES (?, ?, ?, ?)")) {
+                    insert.setInt(1, userId);
+                    insert.setInt(2, meterTypeId);
+                    insert.setInt(3, entry.getValue());
+                    insert.setInt(4, meterReadings.getMonth().getValue());
+                    insert.executeUpdate();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run(int userId) throws SQLException;
+    }
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import dao.readings.ReadingsRepositoryImpl;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Сравнение прежнего запроса текущих показаний всех пользователей (коррелированный подзапрос MAX(month)
+ * по meter_readings) с чтением из проекции latest_readings в ReadingsRepositoryImpl.getAllCurrentReadings.
+ * Набор данных: USERS пользователей, по 3 типа счетчиков за 12 месяцев у каждого.
+ * Запускается как обычное приложение, требует Docker для контейнера PostgreSQL.
+ */
+public class CurrentReadingsQueryBenchmark {
+    private static final int USERS = 10_000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    private static final String LEGACY_SQL = """
+            SELECT u.username, mt.meter_type, mr.reading, mr.month
+            FROM users u
+            JOIN meter_readings mr ON u.user_id = mr.user_id
+            JOIN meter_types mt ON mr.meter_type_id = mt.meter_type_id
+            WHERE mr.month = (SELECT MAX(month) FROM meter_readings WHERE user_id = u.user_id)
+            """;
+
+    public static void main(String[] args) throws Exception {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("bench")
+                .withUsername("bench")
+                .withPassword("bench")) {
+            postgres.start();
+            DBConnectionManager.setConnectionDetails(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword());
+            DBInitializer.initialize();
+            generateDataset();
+
+            ReadingsRepositoryImpl repository = new ReadingsRepositoryImpl();
+
+            run(CurrentReadingsQueryBenchmark::legacyAllCurrentReadings, WARMUP_RUNS);
+            double legacy = run(CurrentReadingsQueryBenchmark::legacyAllCurrentReadings, MEASURED_RUNS);
+
+            run(repository::getAllCurrentReadings, WARMUP_RUNS);
+            double projection = run(repository::getAllCurrentReadings, MEASURED_RUNS);
+
+            System.out.printf("%-10s %-22s %-22s%n", "users", "subquery, ms/query", "projection, ms/query");
+            System.out.printf("%-10d %-22.3f %-22.3f%n", USERS, legacy, projection);
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    /**
+     * Выполняет запрос заданное количество раз и возвращает среднее время одного выполнения в миллисекундах.
+     */
+    private static double run(SqlAction action, int runs) throws SQLException {
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            action.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / runs;
+    }
+
+    /**
+     * Заполняет meter_readings и затем проекцию latest_readings тем же запросом, что и миграция.
+     */
+    private static void generateDataset() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, salt) " +
+                    "SELECT 'bench' || g, 'bench' || g || '@mail.com', 'password', 'salt' " +
+                    "FROM generate_series(1, " + USERS + ") g");
+            statement.execute("INSERT INTO meter_readings (user_id, meter_type_id, reading, month) " +
+                    "SELECT u.user_id, mt.meter_type_id, m * 10, m " +
+                    "FROM users u CROSS JOIN meter_types mt CROSS JOIN generate_series(1, 12) m");
+            statement.execute("INSERT INTO latest_readings (user_id, meter_type_id, reading, month) " +
+                    "SELECT DISTINCT ON (user_id, meter_type_id) user_id, meter_type_id, reading, month " +
+                    "FROM meter_readings ORDER BY user_id, meter_type_id, month DESC, reading_id DESC");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    /**
+     * Прежняя реализация getAllCurrentReadings: чтение всех строк результата коррелированного подзапроса.
+     */
+    private static void legacyAllCurrentReadings() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LEGACY_SQL)) {
+            while (resultSet.next()) {
+                resultSet.getString("username");
+                resultSet.getString("meter_type");
+                resultSet.getInt("reading");
+                resultSet.getInt("month");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.ServiceFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы аспекта @Loggable на один вызов.
+ * wovenCall вызывает ServiceFactory.getGson(), в который ajc вплел текущий совет: запись длительности
+ * в гистограмму метода. legacyAdvice повторяет прежний совет вокруг того же метода без аспекта:
+ * два вызова System.out.println со сборкой строк и время в миллисекундах. Стандартный вывод
+ * заменен потоком без записи, поэтому измеряются сборка строк и блокировка PrintStream, но не терминал.
+ * Варианты с суффиксом Contended выполняются в 4 потоках.
+ * Тестовые классы компилируются без ajc, поэтому совет вплетен только в ServiceFactory из основных классов.
+ * Запускается как обычное приложение (JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LoggableAspectBenchmark {
+    private static final String SIGNATURE = "Gson utils.ServiceFactory.getGson()";
+
+    private final Gson gson = new Gson();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggableAspectBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ServiceFactory.setGson(gson);
+    }
+
+    @Benchmark
+    public Gson plainCall() {
+        return gson;
+    }
+
+    @Benchmark
+    public Gson wovenCall() {
+        return ServiceFactory.getGson();
+    }
+
+    @Benchmark
+    public Gson legacyAdvice() {
+        return legacy();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Gson wovenCallContended() {
+        return ServiceFactory.getGson();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Gson legacyAdviceContended() {
+        return legacy();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(1234);
+    }
+
+    private Gson legacy() {
+        System.out.println("Calling method " + SIGNATURE);
+        long start = System.currentTimeMillis();
+        Gson result = gson;
+        long end = System.currentTimeMillis() - start;
+        System.out.println("Execution of method " + SIGNATURE +
+                " finished. Execution time is " + end + " ms.");
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+package benchmark;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Планы и время выполнения запросов репозитория показаний к meter_readings и users
+ * с индексами миграции v2-app-meter-readings-indexes и без них.
+ * Набор данных: USERS пользователей, по 3 типа счетчиков за 12 месяцев у каждого.
+ * Сначала запросы выполняются с индексами, затем индексы удаляются и запросы выполняются снова.
+ * Запускается как обычное приложение, требует Docker для контейнера PostgreSQL.
+ */
+public class MeterReadingsIndexBenchmark {
+    private static final int USERS = 20_000;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 200;
+
+    /**
+     * Запросы в том виде, в котором их выполняет ReadingsRepositoryImpl, с подставленными параметрами.
+     */
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("getReadingsForMonth", """
+                SELECT mr.meter_type_id, mt.meter_type, mr.reading, mr.month
+                FROM meter_readings mr
+                JOIN meter_types mt ON mr.meter_type_id = mt.meter_type_id
+                WHERE mr.user_id = 12345 AND mr.month = 3
+                """);
+        QUERIES.put("getReadingsHistory", """
+                SELECT mt.meter_type, mr.reading, mr.month
+                FROM meter_readings mr
+                JOIN meter_types mt ON mr.meter_type_id = mt.meter_type_id
+                WHERE mr.user_id = 12345
+                ORDER BY mr.month
+                """);
+        QUERIES.put("duplicateCheck", """
+                SELECT 1 FROM meter_readings
+                WHERE user_id = 12345 AND month = 3 AND meter_type_id = 1
+                """);
+        QUERIES.put("exportMonthRange", """
+                SELECT u.email, u.username, mt.meter_type, mr.month, mr.reading
+                FROM meter_readings mr
+                JOIN users u ON u.user_id = mr.user_id
+                JOIN meter_types mt ON mt.meter_type_id = mr.meter_type_id
+                WHERE mr.month BETWEEN 11 AND 12 AND mr.meter_type_id = 1
+                ORDER BY mr.user_id, mr.month, mt.meter_type
+                """);
+        QUERIES.put("getUserIdFromName", """
+                SELECT user_id FROM users WHERE username = 'bench12345'
+                """);
+        QUERIES.put("getCurrentReadingsPage", """
+                WITH page AS (
+                    SELECT DISTINCT u.username
+                    FROM users u
+                    WHERE u.username > 'bench5'
+                      AND EXISTS (SELECT 1 FROM latest_readings lr WHERE lr.user_id = u.user_id)
+                    ORDER BY u.username
+                    LIMIT 100
+                )
+                SELECT u.username, mt.meter_type, lr.reading, lr.month
+                FROM page p
+                JOIN users u ON u.username = p.username
+                JOIN latest_readings lr ON lr.user_id = u.user_id
+                JOIN meter_types mt ON lr.meter_type_id = mt.meter_type_id
+                ORDER BY u.username
+                """);
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("bench")
+                .withUsername("bench")
+                .withPassword("bench")) {
+            postgres.start();
+            DBConnectionManager.setConnectionDetails(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword());
+            DBInitializer.initialize();
+            generateDataset();
+
+            Map<String, Double> indexed = measureAll("with indexes");
+            dropIndexes();
+            Map<String, Double> plain = measureAll("without indexes");
+
+            System.out.printf("%-24s %-22s %-22s%n", "query", "no index, ms/query", "indexed, ms/query");
+            for (String name : QUERIES.keySet()) {
+                System.out.printf("%-24s %-22.3f %-22.3f%n", name, plain.get(name), indexed.get(name));
+            }
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    /**
+     * Печатает план каждого запроса и возвращает среднее время выполнения в миллисекундах.
+     */
+    private static Map<String, Double> measureAll(String title) throws SQLException {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        System.out.println("==== " + title + " ====");
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            System.out.println("-- " + query.getKey());
+            printPlan(query.getValue());
+            run(query.getValue(), WARMUP_RUNS);
+            latencies.put(query.getKey(), run(query.getValue(), MEASURED_RUNS));
+        }
+        return latencies;
+    }
+
+    private static void printPlan(String sql) throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+            while (resultSet.next()) {
+                System.out.println(resultSet.getString(1));
+            }
+        }
+    }
+
+    private static double run(String sql, int runs) throws SQLException {
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            try (Connection connection = DBConnectionManager.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql);
+                 ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getObject(1);
+                }
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / runs;
+    }
+
+    private static void generateDataset() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, salt) " +
+                    "SELECT 'bench' || g, 'bench' || g || '@mail.com', 'password', 'salt' " +
+                    "FROM generate_series(1, " + USERS + ") g");
+            statement.execute("INSERT INTO meter_readings (user_id, meter_type_id, reading, month) " +
+                    "SELECT u.user_id, mt.meter_type_id, m * 10, m " +
+                    "FROM users u CROSS JOIN meter_types mt CROSS JOIN generate_series(1, 12) m");
+            statement.execute("INSERT INTO latest_readings (user_id, meter_type_id, reading, month) " +
+                    "SELECT DISTINCT ON (user_id, meter_type_id) user_id, meter_type_id, reading, month " +
+                    "FROM meter_readings ORDER BY user_id, meter_type_id, month DESC, reading_id DESC");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private static void dropIndexes() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE meter_readings DROP CONSTRAINT uq_meter_readings_user_month_type");
+            statement.execute("DROP INDEX idx_meter_readings_month_type");
+            statement.execute("DROP INDEX idx_users_username");
+            statement.execute("ANALYZE");
+        }
+    }
+}
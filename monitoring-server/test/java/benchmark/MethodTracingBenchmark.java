@@ -0,0 +1,79 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tracing.MethodTracer;
+import utils.ServiceFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы трассировки на вызов метода @Loggable.
+ * wovenCall вызывает ServiceFactory.getGson(), в который ajc вплел совет, в режимах:
+ * OFF — трассировка выключена (одно чтение volatile-поля сверх учета времени);
+ * OTHER — включена для других методов; SAMPLED — включена для этого метода с выборкой 1 из 100;
+ * ALL — записывается каждый вызов. Вариант wovenCallContended выполняется в 4 потоках.
+ * Разница между OFF и LoggableAspectBenchmark.wovenCall показывает цену выключенной трассировки.
+ * Запускается как обычное приложение (JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MethodTracingBenchmark {
+    private final MethodTracer tracer = MethodTracer.getDefault();
+
+    @Param({"OFF", "OTHER", "SAMPLED", "ALL"})
+    public String mode;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MethodTracingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        ServiceFactory.setGson(new Gson());
+        switch (mode) {
+            case "OTHER" -> tracer.enable("dao.*", 1);
+            case "SAMPLED" -> tracer.enable("utils.ServiceFactory.getGson", 100);
+            case "ALL" -> tracer.enable("utils.ServiceFactory.getGson", 1);
+            default -> tracer.disable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracer.disable();
+    }
+
+    @Benchmark
+    public Gson wovenCall() {
+        return ServiceFactory.getGson();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Gson wovenCallContended() {
+        return ServiceFactory.getGson();
+    }
+}
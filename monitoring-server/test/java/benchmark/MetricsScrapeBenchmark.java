@@ -0,0 +1,112 @@
+package benchmark;
+
+import metrics.Counter;
+import metrics.JvmCollector;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.ServerCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.session.JdbcSessionStore;
+import service.session.SessionSettings;
+import utils.ServiceFactory;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость выгрузки метрик и записи в них.
+ * Реестр содержит 500 рядов: 300 счетчиков, 100 показателей и 100 гистограмм с заполненными корзинами,
+ * что соответствует сервлетам, методам репозиториев и кэшам сервера с запасом. Кроме них зарегистрированы
+ * те же сборщики, что и на сервере: метрики JVM и компонентов сервера (пул, кэши, сессии, аудит).
+ * Хранилище сессий - JdbcSessionStore, источник соединений которого всегда завершается ошибкой:
+ * выгрузка не должна обращаться к базе данных, иначе каждый ее вызов ждал бы соединения.
+ * scrape выгружает весь реестр в текст; record и recordContended записывают длительность в гистограмму
+ * и увеличивают счетчик, во втором случае в 4 потоках.
+ * Запускается как обычное приложение (JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MetricsScrapeBenchmark {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private Counter counter;
+    private LatencyHistogram histogram;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MetricsScrapeBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        SessionSettings settings = new SessionSettings(SessionSettings.StoreType.JDBC, 1800000, 86400000, 60000,
+                60000, 1000, 30000, 1000);
+        ServiceFactory.setSessionStore(new JdbcSessionStore(() -> {
+            throw new SQLException("Выгрузка метрик не должна получать соединение");
+        }, () -> {
+            throw new SQLException("Выгрузка метрик не должна получать соединение");
+        }, settings, Clock.systemUTC()));
+        registry.register(new JvmCollector());
+        registry.register(new ServerCollector());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 300; i++) {
+            registry.counter("requests_total", "Requests", "servlet", "servlet" + i / 5,
+                    "status", (i % 5 + 1) + "xx").add(random.nextLong(1_000_000));
+        }
+        for (int i = 0; i < 100; i++) {
+            long value = random.nextLong(10_000);
+            registry.gauge("cache_size", "Cache size", () -> value, "cache", "cache" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            LatencyHistogram latency = registry.histogram("method_duration_seconds", "Method duration",
+                    "class", "Repository" + i / 10, "method", "method" + i);
+            for (int j = 0; j < 10000; j++) {
+                latency.record((long) (Math.exp(random.nextDouble() * 20) * 1000));
+            }
+        }
+        counter = registry.counter("requests_total", "Requests", "servlet", "servlet0", "status", "1xx");
+        histogram = registry.histogram("method_duration_seconds", "Method duration",
+                "class", "Repository0", "method", "method0");
+    }
+
+    @Benchmark
+    public String scrape() {
+        return registry.scrape();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void record() {
+        histogram.record(123_456);
+        counter.increment();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void recordContended() {
+        histogram.record(123_456);
+        counter.increment();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import dao.readings.ReadingsImportResult;
+import dao.readings.ReadingsRepositoryImpl;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Пропускная способность пакетной загрузки показаний ReadingsRepositoryImpl.importReadings.
+ * Файл содержит USERS пользователей по 3 типа счетчиков за 12 месяцев и около 1% отклоняемых строк.
+ * Запускается как обычное приложение, требует Docker для контейнера PostgreSQL.
+ */
+public class ReadingsImportBenchmark {
+    private static final int USERS = 15_000;
+    private static final String[] METER_TYPES = {"HEATING", "HOT_WATER", "COLD_WATER"};
+
+    public static void main(String[] args) throws Exception {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("bench")
+                .withUsername("bench")
+                .withPassword("bench")) {
+            postgres.start();
+            DBConnectionManager.setConnectionDetails(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword());
+            DBInitializer.initialize();
+            createUsers();
+
+            String csv = generateCsv();
+            ReadingsRepositoryImpl repository = new ReadingsRepositoryImpl();
+
+            long start = System.nanoTime();
+            ReadingsImportResult result = repository.importReadings(new StringReader(csv));
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("rows: %d, imported: %d, rejected: %d, %.2f s, %.0f rows/s%n", result.getTotal(),
+                    result.getImported(), result.getRejected(), seconds, result.getTotal() / seconds);
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    private static String generateCsv() {
+        StringBuilder csv = new StringBuilder("email,meter_type,month,reading\n");
+        int line = 0;
+        for (int user = 1; user <= USERS; user++) {
+            for (int month = 1; month <= 12; month++) {
+                for (String meterType : METER_TYPES) {
+                    boolean rejected = ++line % 100 == 0;
+                    csv.append("bench").append(user).append("@mail.com,")
+                            .append(rejected ? "GAS" : meterType).append(',')
+                            .append(month).append(',')
+                            .append(month * 10).append('\n');
+                }
+            }
+        }
+        return csv.toString();
+    }
+
+    private static void createUsers() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, salt) " +
+                    "SELECT 'bench' || g, 'bench' || g || '@mail.com', 'password', 'salt' " +
+                    "FROM generate_series(1, " + USERS + ") g");
+        }
+    }
+}
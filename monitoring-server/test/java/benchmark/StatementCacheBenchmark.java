@@ -0,0 +1,120 @@
+package benchmark;
+
+import dao.readings.ReadingsRepositoryImpl;
+import dao.user.UserRepositoryImpl;
+import model.readings.MeterReadings;
+import model.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import utils.DBConnectionManager;
+import utils.DBInitializer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Влияние кэша подготовленных запросов соединения на UserRepositoryImpl.findByEmail
+ * и ReadingsRepositoryImpl.getReadingsForMonth. Параметр statementCacheSize = 0 соответствует
+ * прежнему поведению: запрос готовится заново при каждом вызове. Доля попаданий в кэш
+ * печатается после каждого прогона.
+ * Запускается как обычное приложение (JMH), требует Docker для контейнера PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class StatementCacheBenchmark {
+    private static final int USERS = 1000;
+
+    @Param({"0", "64"})
+    private int statementCacheSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private UserRepositoryImpl userRepository;
+    private ReadingsRepositoryImpl readingsRepository;
+    private int next;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatementCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty("db.pool.statement.cache.size", String.valueOf(statementCacheSize));
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+                .withDatabaseName("bench")
+                .withUsername("bench")
+                .withPassword("bench");
+        postgres.start();
+        DBConnectionManager.setConnectionDetails(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        DBInitializer.initialize();
+        generateDataset();
+
+        userRepository = new UserRepositoryImpl();
+        readingsRepository = new ReadingsRepositoryImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("statement cache size " + statementCacheSize + ": hit ratio "
+                + DBConnectionManager.getPoolStats().getStatementCacheHitRatio());
+        DBConnectionManager.shutdown();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail("bench" + nextUser() + "@mail.com");
+    }
+
+    @Benchmark
+    public Optional<MeterReadings> getReadingsForMonth() {
+        return readingsRepository.getReadingsForMonth(nextUser(), Month.MARCH);
+    }
+
+    private int nextUser() {
+        next = next % USERS + 1;
+        return next;
+    }
+
+    /**
+     * Создает пользователей с идентификаторами 1..USERS и их показания за 12 месяцев.
+     */
+    private static void generateDataset() throws SQLException {
+        try (Connection connection = DBConnectionManager.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, salt) " +
+                    "SELECT 'bench' || g, 'bench' || g || '@mail.com', 'password', 'salt' " +
+                    "FROM generate_series(1, " + USERS + ") g");
+            statement.execute("INSERT INTO meter_readings (user_id, meter_type_id, reading, month) " +
+                    "SELECT u.user_id, mt.meter_type_id, m * 10, m " +
+                    "FROM users u CROSS JOIN meter_types mt CROSS JOIN generate_series(1, 12) m");
+            statement.execute("ANALYZE");
+        }
+    }
+}
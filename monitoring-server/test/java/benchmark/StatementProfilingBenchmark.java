@@ -0,0 +1,134 @@
+package benchmark;
+
+import metrics.QueryMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.pool.ConnectionPool;
+import utils.pool.PoolSettings;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы учета времени SQL-запросов в соединениях пула.
+ * Драйвер заменен заглушками, которые отвечают мгновенно, поэтому измеряется только работа пула:
+ * direct обращается к заглушке запроса напрямую, pooled получает запрос из кэша соединения пула
+ * и проходит через прокси учета. Запрос подставляет один параметр и читает rows строк по два столбца.
+ * Параметр fetchSize = 0 соответствует обычному запросу, который драйвер читает целиком при выполнении,
+ * fetchSize = 500 - чтению частями, при котором измеряется каждый вызов next().
+ * Запускается как обычное приложение (JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementProfilingBenchmark {
+    private static final String SQL = "SELECT meter_type_id, reading FROM meter_readings WHERE user_id = ?";
+
+    @Param({"1", "100"})
+    private int rows;
+
+    @Param({"0", "500"})
+    private int fetchSize;
+
+    private ConnectionPool pool;
+    private Connection stubConnection;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatementProfilingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stubConnection = stubConnection(rows, fetchSize);
+        pool = new ConnectionPool(() -> stubConnection, new PoolSettings(1, 1, 1000, 30000, 1, 0, 8, 0, 500),
+                new QueryMetrics());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public long direct() throws SQLException {
+        try (PreparedStatement statement = stubConnection.prepareStatement(SQL)) {
+            return read(statement);
+        }
+    }
+
+    @Benchmark
+    public long pooled() throws SQLException {
+        try (Connection connection = pool.borrow();
+             PreparedStatement statement = connection.prepareStatement(SQL)) {
+            return read(statement);
+        }
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        statement.setInt(1, 42);
+        long sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getInt(1) + resultSet.getLong(2);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Заглушка соединения: запрос всегда возвращает rows строк со значениями 1.
+     */
+    private static Connection stubConnection(int rows, int fetchSize) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareStatement" -> stubStatement(rows, fetchSize);
+                    case "getAutoCommit", "isValid" -> true;
+                    case "isClosed" -> false;
+                    default -> null;
+                });
+    }
+
+    private static PreparedStatement stubStatement(int rows, int fetchSize) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> stubResultSet(rows, fetchSize);
+                    case "isWrapperFor", "isClosed" -> false;
+                    default -> null;
+                });
+    }
+
+    private static ResultSet stubResultSet(int rows, int fetchSize) {
+        int[] remaining = {rows};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> remaining[0]-- > 0;
+                    case "getInt" -> 1;
+                    case "getFetchSize" -> fetchSize;
+                    case "getLong" -> 1L;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,125 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.TokenClaims;
+import utils.TokenSigner;
+import utils.cache.BoundedCache;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость разбора токена авторизации на один запрос.
+ * legacyDecode повторяет прежний путь: фильтр декодирует base64 и разбивает строку ради имени пользователя,
+ * затем сервлет делает то же самое ради идентификатора пользователя. signedVerifyUncached проверяет подпись
+ * HMAC-SHA256 и разбирает данные при каждом вызове, signedVerifyCached соответствует повторным запросам
+ * с тем же токеном. Запуск с -prof gc показывает выделение памяти на операцию.
+ * signedVerifyCachedContended проверяет один токен из 8 потоков на общем подписчике, как фильтр авторизации
+ * под нагрузкой; boundedCacheContended для сравнения читает тот же токен из общего {@link BoundedCache},
+ * попадание в который берет монитор кэша.
+ * Запускается как обычное приложение (JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+    private String legacyHeader;
+    private String signedHeader;
+    private TokenSigner cachedSigner;
+    private TokenSigner uncachedSigner;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) 1);
+        cachedSigner = new TokenSigner(secret, 3600000, 1000, 3600000);
+        // кэш на одну запись, в который токен не попадает: срок хранения нулевой
+        uncachedSigner = new TokenSigner(secret, 3600000, 1, 0);
+        legacyHeader = "Bearer " + Base64.getEncoder()
+                .encodeToString("1:e@mail.com:uname:false".getBytes());
+        signedHeader = "Bearer " + cachedSigner.issue(1, "session-1", "e@mail.com", "uname", false);
+    }
+
+    @Benchmark
+    public void legacyDecode(Blackhole blackhole) {
+        String token = legacyHeader.substring(7);
+        blackhole.consume(legacyUsername(token));
+        blackhole.consume(legacyUserId(legacyHeader.replaceFirst("Bearer ", "")));
+    }
+
+    @Benchmark
+    public TokenClaims signedVerifyUncached() {
+        return uncachedSigner.verify(signedHeader);
+    }
+
+    @Benchmark
+    public TokenClaims signedVerifyCached() {
+        return cachedSigner.verify(signedHeader);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TokenClaims signedVerifyCachedContended(SharedSigner shared) {
+        return shared.signer.verify(shared.header);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TokenClaims boundedCacheContended(SharedSigner shared) {
+        return shared.boundedCache.get(shared.header, shared.signer::verify);
+    }
+
+    /**
+     * Подписчик и кэш, общие для всех потоков бенчмарка.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedSigner {
+        private TokenSigner signer;
+        private BoundedCache<String, TokenClaims> boundedCache;
+        private String header;
+
+        @Setup
+        public void setUp() {
+            byte[] secret = new byte[32];
+            Arrays.fill(secret, (byte) 1);
+            signer = new TokenSigner(secret, 3600000, 1000, 3600000);
+            boundedCache = new BoundedCache<>(1000, 3600000);
+            header = "Bearer " + signer.issue(1, "session-1", "e@mail.com", "uname", false);
+        }
+    }
+
+    private static String legacyUsername(String encoded) {
+        String[] parts = new String(Base64.getDecoder().decode(encoded)).split(":");
+        return parts.length > 2 ? parts[2] : null;
+    }
+
+    private static Integer legacyUserId(String encoded) {
+        String[] parts = new String(Base64.getDecoder().decode(encoded)).split(":");
+        return parts.length > 0 ? Integer.parseInt(parts[0]) : null;
+    }
+}
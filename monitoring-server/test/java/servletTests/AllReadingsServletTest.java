@@ -11,12 +11,18 @@ import org.mockito.Mockito;
 import service.reading.MeterService;
 import servlet.AllReadingsServlet;
 import utils.ServiceFactory;
+import utils.TokenClaims;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Month;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class AllReadingsServletTest {
     private AllReadingsServlet servlet;
@@ -24,6 +30,7 @@ public class AllReadingsServletTest {
     private HttpServletResponse response;
     private MeterService meterService;
     private Gson gson;
+    private StringWriter body;
 
     @BeforeEach
     @DisplayName("Настройка тестового окружения перед каждым тестом")
@@ -36,14 +43,16 @@ public class AllReadingsServletTest {
         servlet.init();
         request = Mockito.mock(HttpServletRequest.class);
         response = Mockito.mock(HttpServletResponse.class);
-        PrintWriter writer = new PrintWriter(new StringWriter());
+        body = new StringWriter();
+        PrintWriter writer = new PrintWriter(body);
         Mockito.when(response.getWriter()).thenReturn(writer);
     }
 
     @Test
     @DisplayName("Тестирование метода doGet для администратора")
     public void testDoGetAdmin() throws Exception {
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MToZQG1haWwuY29tOnVuYW1lOnRydWU=");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
         Map<String, MeterReadings> readings = new HashMap<>();
         Mockito.when(meterService.getAllCurrentReadings()).thenReturn(readings);
         Mockito.when(gson.toJson(readings)).thenReturn("{}");
@@ -53,10 +62,65 @@ public class AllReadingsServletTest {
         Mockito.verify(response).setStatus(200);
     }
 
+    @Test
+    @DisplayName("Тестирование потоковой записи показаний всех пользователей")
+    public void testDoGetStreamsAllReadings() throws Exception {
+        ServiceFactory.setGson(new Gson());
+        servlet.init();
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(meterService.streamAllCurrentReadings(Mockito.any())).thenAnswer(invocation -> {
+            BiConsumer<String, MeterReadings> consumer = invocation.getArgument(0);
+            consumer.accept("alice", new MeterReadings(Map.of("HEATING", 100), Month.JANUARY));
+            consumer.accept("bob", new MeterReadings(Map.of("HEATING", 200), Month.FEBRUARY));
+            return true;
+        });
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setStatus(200);
+        Mockito.verify(meterService, Mockito.never()).getAllCurrentReadings();
+        assertEquals("{\"alice\":{\"readings\":{\"HEATING\":100},\"month\":\"JANUARY\"},"
+                + "\"bob\":{\"readings\":{\"HEATING\":200},\"month\":\"FEBRUARY\"}}", body.toString());
+    }
+
+    @Test
+    @DisplayName("Тестирование постраничной выдачи с курсором следующей страницы")
+    public void testDoGetPageSetsNextCursor() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(request.getParameter("after")).thenReturn("alice");
+        Mockito.when(request.getParameter("limit")).thenReturn("2");
+        Map<String, MeterReadings> page = new LinkedHashMap<>();
+        page.put("bob", new MeterReadings(Map.of("HEATING", 200), Month.JANUARY));
+        page.put("carol", new MeterReadings(Map.of("HEATING", 300), Month.JANUARY));
+        Mockito.when(meterService.getCurrentReadingsPage("alice", 2)).thenReturn(page);
+        Mockito.when(gson.toJson(page)).thenReturn("{}");
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setHeader("X-Next-After", "carol");
+        Mockito.verify(response).setStatus(200);
+    }
+
+    @Test
+    @DisplayName("Тестирование недопустимого размера страницы")
+    public void testDoGetPageWithInvalidLimit() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(request.getParameter("limit")).thenReturn("0");
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setStatus(400);
+        Mockito.verify(meterService, Mockito.never()).getCurrentReadingsPage(Mockito.any(), Mockito.anyInt());
+    }
+
     @Test
     @DisplayName("Тестирование метода doGet для не администратора")
     public void testDoGetNonAdmin() throws Exception {
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MToZQG1haWwuY29tOnVuYW1lOmZhbHNl");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
 
         servlet.doGet(request, response);
 
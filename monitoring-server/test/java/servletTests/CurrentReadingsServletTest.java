@@ -9,12 +9,28 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import service.reading.MeterService;
+import service.reading.SubmitReadingsResult;
 import servlet.CurrentReadingsServlet;
+import utils.IdempotencyStore;
 import utils.ServiceFactory;
+import utils.TokenClaims;
+import utils.UnitOfWork;
 
 import java.io.*;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CurrentReadingsServletTest {
     private CurrentReadingsServlet servlet;
@@ -30,6 +46,7 @@ public class CurrentReadingsServletTest {
         gson = Mockito.mock(Gson.class);
         ServiceFactory.setMeterService(meterService);
         ServiceFactory.setGson(gson);
+        ServiceFactory.setIdempotencyStore(new IdempotencyStore(60000, 1000, 5000));
         servlet = new CurrentReadingsServlet();
         servlet.init();
         request = Mockito.mock(HttpServletRequest.class);
@@ -44,7 +61,8 @@ public class CurrentReadingsServletTest {
     @Test
     @DisplayName("Тестирование метода doGet - получение текущих показаний")
     public void testDoGet() throws Exception {
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MToZQG1haWwuY29tOnVuYW1lOmZhbHNl");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
         MeterReadings readings = new MeterReadings(new HashMap<>(), Month.JANUARY);
         Mockito.when(meterService.getCurrentReadings(1)).thenReturn(readings);
         Mockito.when(gson.toJson(readings)).thenReturn("{}");
@@ -58,10 +76,11 @@ public class CurrentReadingsServletTest {
     @DisplayName("Тестирование метода doPost - добавление текущих показаний")
     public void testDoPost() throws Exception {
         // Настройка макетов
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MToZQG1haWwuY29tOnVuYW1lOmZhbHNl");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
         MeterReadings readings = new MeterReadings(new HashMap<>(), Month.JANUARY);
         Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class))).thenReturn(readings);
-        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class))).thenReturn("Readings added");
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class))).thenReturn(SubmitReadingsResult.ADDED);
 
         // Вызов тестируемого метода
         servlet.doPost(request, response);
@@ -69,4 +88,166 @@ public class CurrentReadingsServletTest {
         // Проверка результата
         Mockito.verify(response).setStatus(200);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Тестирование однократной подачи показаний при 100 параллельных запросах с одним ключом идемпотентности")
+    public void testDoPostWithIdempotencyKeyInParallel() throws Exception {
+        Map<String, Integer> values = new HashMap<>();
+        values.put("HEATING", 220);
+        MeterReadings readings = new MeterReadings(values, Month.JANUARY);
+        Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class))).thenReturn(readings);
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class))).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return SubmitReadingsResult.ADDED;
+        });
+
+        int requests = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpServletResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            HttpServletRequest parallelRequest = Mockito.mock(HttpServletRequest.class);
+            HttpServletResponse parallelResponse = Mockito.mock(HttpServletResponse.class);
+            Mockito.when(parallelRequest.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                    .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+            Mockito.when(parallelRequest.getHeader(CurrentReadingsServlet.IDEMPOTENCY_KEY_HEADER)).thenReturn("submit-1");
+            Mockito.when(parallelRequest.getReader()).thenReturn(new BufferedReader(new StringReader("{}")));
+            Mockito.when(parallelResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+            futures.add(executor.submit(() -> {
+                start.await();
+                servlet.doPost(parallelRequest, parallelResponse);
+                return parallelResponse;
+            }));
+        }
+        start.countDown();
+
+        int replayed = 0;
+        for (Future<HttpServletResponse> future : futures) {
+            HttpServletResponse parallelResponse = future.get(10, TimeUnit.SECONDS);
+            if (Mockito.mockingDetails(parallelResponse).getInvocations().stream()
+                    .anyMatch(invocation -> invocation.getMethod().getName().equals("setHeader"))) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+
+        Mockito.verify(meterService, Mockito.times(1)).postCurrentReadings(Mockito.eq(1), Mockito.any(MeterReadings.class));
+        assertEquals(requests - 1, replayed);
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения повторного ключа идемпотентности с другими показаниями")
+    public void testDoPostWithReusedIdempotencyKey() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(request.getHeader(CurrentReadingsServlet.IDEMPOTENCY_KEY_HEADER)).thenReturn("submit-2");
+        Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class)))
+                .thenReturn(new MeterReadings(Map.of("HEATING", 220), Month.JANUARY))
+                .thenReturn(new MeterReadings(Map.of("HEATING", 230), Month.JANUARY));
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class))).thenReturn(SubmitReadingsResult.ADDED);
+
+        servlet.doPost(request, response);
+        servlet.doPost(request, response);
+
+        Mockito.verify(meterService, Mockito.times(1)).postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class));
+        Mockito.verify(response).setStatus(422);
+    }
+
+    @Test
+    @DisplayName("Тестирование ответа 500 при ошибке базы данных и повторной подачи с тем же ключом идемпотентности")
+    public void testDoPostFailureIsNotRetained() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(request.getHeader(CurrentReadingsServlet.IDEMPOTENCY_KEY_HEADER)).thenReturn("submit-3");
+        Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class)))
+                .thenReturn(new MeterReadings(Map.of("HEATING", 220), Month.JANUARY));
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class)))
+                .thenReturn(SubmitReadingsResult.FAILED, SubmitReadingsResult.ADDED);
+
+        servlet.doPost(request, response);
+        servlet.doPost(request, response);
+
+        Mockito.verify(meterService, Mockito.times(2)).postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class));
+        Mockito.verify(response).setStatus(500);
+        Mockito.verify(response).setStatus(200);
+        Mockito.verify(response, Mockito.never()).setHeader(Mockito.eq(CurrentReadingsServlet.IDEMPOTENT_REPLAY_HEADER), Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Тестирование ожидания повтора до фиксации транзакции первого запроса")
+    public void testReplayWaitsForCommit() throws Exception {
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class)))
+                .thenReturn(SubmitReadingsResult.ADDED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            UnitOfWork unitOfWork = UnitOfWork.begin(false);
+            HttpServletResponse first = idempotentPost("submit-4");
+            Future<HttpServletResponse> retry = executor.submit(() -> idempotentPost("submit-4"));
+            assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+
+            unitOfWork.close();
+
+            HttpServletResponse replayed = retry.get(5, TimeUnit.SECONDS);
+            Mockito.verify(first).setStatus(200);
+            Mockito.verify(replayed).setHeader(CurrentReadingsServlet.IDEMPOTENT_REPLAY_HEADER, "true");
+            Mockito.verify(meterService, Mockito.times(1)).postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование повторного выполнения ожидающего повтора после отката транзакции первого запроса")
+    public void testReplayAfterRollbackExecutesAgain() throws Exception {
+        Mockito.when(meterService.postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class)))
+                .thenReturn(SubmitReadingsResult.ADDED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            UnitOfWork unitOfWork = UnitOfWork.begin(false);
+            idempotentPost("submit-5");
+            Future<HttpServletResponse> retry = executor.submit(() -> idempotentPost("submit-5"));
+            assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+
+            unitOfWork.setRollbackOnly();
+            unitOfWork.close();
+
+            HttpServletResponse executed = retry.get(5, TimeUnit.SECONDS);
+            Mockito.verify(executed).setStatus(200);
+            Mockito.verify(executed, Mockito.never()).setHeader(Mockito.eq(CurrentReadingsServlet.IDEMPOTENT_REPLAY_HEADER), Mockito.anyString());
+            Mockito.verify(meterService, Mockito.times(2)).postCurrentReadings(Mockito.anyInt(), Mockito.any(MeterReadings.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Тестирование отклонения пустого тела запроса с ключом идемпотентности")
+    public void testDoPostWithIdempotencyKeyAndEmptyBody() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(request.getHeader(CurrentReadingsServlet.IDEMPOTENCY_KEY_HEADER)).thenReturn("submit-6");
+        Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class)))
+                .thenReturn(null)
+                .thenReturn(new Gson().fromJson("{}", MeterReadings.class));
+
+        servlet.doPost(request, response);
+        servlet.doPost(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(400);
+        Mockito.verifyNoInteractions(meterService);
+    }
+
+    private HttpServletResponse idempotentPost(String idempotencyKey) throws Exception {
+        HttpServletRequest keyedRequest = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse keyedResponse = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(keyedRequest.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(keyedRequest.getHeader(CurrentReadingsServlet.IDEMPOTENCY_KEY_HEADER)).thenReturn(idempotencyKey);
+        Mockito.when(keyedRequest.getReader()).thenReturn(new BufferedReader(new StringReader("{}")));
+        Mockito.when(keyedResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        Mockito.when(gson.fromJson(Mockito.any(BufferedReader.class), Mockito.eq(MeterReadings.class)))
+                .thenReturn(new MeterReadings(Map.of("HEATING", 220), Month.JANUARY));
+        servlet.doPost(keyedRequest, keyedResponse);
+        return keyedResponse;
+    }
+}
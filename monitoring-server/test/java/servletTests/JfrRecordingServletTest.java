@@ -0,0 +1,96 @@
+package servletTests;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jfr.JfrRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import servlet.JfrRecordingServlet;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrRecordingServletTest {
+    private JfrRecordingServlet servlet;
+    private JfrRecorder recorder;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws IOException {
+        recorder = new JfrRecorder(16 * 1024 * 1024, Duration.ofMinutes(1));
+        ServiceFactory.setJfrRecorder(recorder);
+        servlet = new JfrRecordingServlet();
+        servlet.init();
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        Mockito.when(response.getOutputStream()).thenReturn(Mockito.mock(ServletOutputStream.class));
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    @DisplayName("Удаление записи после каждого теста")
+    public void tearDown() {
+        recorder.discard();
+        ServiceFactory.setJfrRecorder(null);
+    }
+
+    @Test
+    @DisplayName("Тестирование начала записи, выгрузки с остановкой и удаления")
+    public void testStartDumpDiscard() throws Exception {
+        Mockito.when(request.getParameter("duration")).thenReturn("30");
+        servlet.doPost(request, response);
+        servlet.doPost(request, response);
+        assertTrue(recorder.isRunning());
+
+        Mockito.when(request.getParameter("stop")).thenReturn("true");
+        servlet.doGet(request, response);
+        assertFalse(recorder.isRunning());
+        servlet.doDelete(request, response);
+        servlet.doGet(request, response);
+
+        Mockito.verify(response, Mockito.times(3)).setStatus(200);
+        Mockito.verify(response).setStatus(409);
+        Mockito.verify(response).setStatus(404);
+        Mockito.verify(response).setContentType("application/octet-stream");
+    }
+
+    @Test
+    @DisplayName("Тестирование начала записи с недопустимыми параметрами")
+    public void testDoPostInvalid() throws Exception {
+        Mockito.when(request.getParameter("duration")).thenReturn("-5");
+        servlet.doPost(request, response);
+        Mockito.when(request.getParameter("duration")).thenReturn(null);
+        Mockito.when(request.getParameter("settings")).thenReturn("missing");
+        servlet.doPost(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(400);
+        assertFalse(recorder.isRunning());
+    }
+
+    @Test
+    @DisplayName("Тестирование управления записью для не администратора")
+    public void testNonAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+
+        servlet.doPost(request, response);
+        servlet.doGet(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(401);
+        assertFalse(recorder.isRunning());
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.Mockito;
 import service.user.UserService;
 import servlet.LogoutServlet;
 import utils.ServiceFactory;
+import utils.TokenClaims;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -36,8 +37,9 @@ public class LogoutServletTest {
     @Test
     @DisplayName("Тестирование метода doGet - успешный выход пользователя")
     public void testDoGet() throws Exception {
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MTplQG1haWwuY29tOnVuYW1lOmZhbHNl");
-        Mockito.when(userService.logout("uname")).thenReturn("You are logged out");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(userService.logout("session-1", 1)).thenReturn("You are logged out");
 
         servlet.doGet(request, response);
 
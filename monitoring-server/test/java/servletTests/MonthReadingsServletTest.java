@@ -11,6 +11,7 @@ import org.mockito.Mockito;
 import service.reading.MeterService;
 import servlet.MonthReadingsServlet;
 import utils.ServiceFactory;
+import utils.TokenClaims;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -43,7 +44,8 @@ public class MonthReadingsServletTest {
     @Test
     @DisplayName("Тестирование метода doGet - получение показаний за конкретный месяц")
     public void testDoGet() throws Exception {
-        Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer MToZQG1haWwuY29tOnVuYW1lOmZhbHNl");
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
         Mockito.when(request.getParameter("month")).thenReturn("JANUARY");
         MeterReadings readings = new MeterReadings(new HashMap<>(), Month.JANUARY);
         Mockito.when(meterService.getReadingsForMonth(1, Month.JANUARY)).thenReturn(readings);
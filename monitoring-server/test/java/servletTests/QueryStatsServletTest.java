@@ -0,0 +1,95 @@
+package servletTests;
+
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import metrics.QueryMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import servlet.QueryStatsServlet;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryStatsServletTest {
+    private QueryStatsServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private StringWriter responseWriter;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws IOException {
+        ServiceFactory.setGson(new Gson());
+        QueryMetrics.getDefault().reset();
+        QueryMetrics.getDefault().timer("SELECT * FROM users WHERE user_id = 1").record(1_000_000, 0, 1, false);
+        QueryMetrics.getDefault().timer("SELECT * FROM users WHERE user_id = 2").record(3_000_000, 0, 1, false);
+        QueryMetrics.getDefault().timer("SELECT * FROM meter_readings").record(2_000_000, 5_000_000, 500, false);
+        servlet = new QueryStatsServlet();
+        servlet.init();
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        responseWriter = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseWriter));
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    @DisplayName("Удаление статистики после каждого теста")
+    public void tearDown() {
+        QueryMetrics.getDefault().reset();
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки самых тяжелых запросов")
+    public void testDoGet() throws Exception {
+        Mockito.when(request.getParameter("limit")).thenReturn("1");
+        Mockito.when(request.getParameter("sort")).thenReturn("calls");
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setStatus(200);
+        String body = responseWriter.toString();
+        assertTrue(body.startsWith("[{\"id\""));
+        assertTrue(body.contains("\"sql\":\"SELECT * FROM users WHERE user_id \\u003d ?\""));
+        assertTrue(body.contains("\"calls\":2"));
+        assertFalse(body.contains("meter_readings"));
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки с недопустимыми параметрами и удаления статистики")
+    public void testInvalidAndDelete() throws Exception {
+        Mockito.when(request.getParameter("sort")).thenReturn("slowest");
+        servlet.doGet(request, response);
+        Mockito.when(request.getParameter("sort")).thenReturn(null);
+        Mockito.when(request.getParameter("limit")).thenReturn("0");
+        servlet.doGet(request, response);
+        servlet.doDelete(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(400);
+        Mockito.verify(response).setStatus(200);
+        assertTrue(QueryMetrics.getDefault().top(10, QueryMetrics.Order.TOTAL).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки статистики для не администратора")
+    public void testNonAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+
+        servlet.doGet(request, response);
+        servlet.doDelete(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(401);
+        assertEquals(2, QueryMetrics.getDefault().top(10, QueryMetrics.Order.TOTAL).size());
+    }
+}
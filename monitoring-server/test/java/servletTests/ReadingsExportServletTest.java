@@ -0,0 +1,85 @@
+package servletTests;
+
+import dao.readings.ReadingsExportFormat;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import service.reading.MeterService;
+import servlet.ReadingsExportServlet;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Month;
+
+public class ReadingsExportServletTest {
+    private ReadingsExportServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private MeterService meterService;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws IOException {
+        meterService = Mockito.mock(MeterService.class);
+        ServiceFactory.setMeterService(meterService);
+        servlet = new ReadingsExportServlet();
+        servlet.init();
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        Mockito.when(response.getOutputStream()).thenReturn(Mockito.mock(ServletOutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки NDJSON за диапазон месяцев")
+    public void testDoGetNdjsonForMonthRange() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(request.getParameter("from")).thenReturn("3");
+        Mockito.when(request.getParameter("to")).thenReturn("june");
+        Mockito.when(request.getParameter("format")).thenReturn("ndjson");
+        Mockito.when(request.getParameter("meterType")).thenReturn("HEATING");
+        Mockito.when(meterService.exportReadings(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(meterService).exportReadings(Mockito.eq(Month.MARCH), Mockito.eq(Month.JUNE),
+                Mockito.eq("HEATING"), Mockito.eq(ReadingsExportFormat.NDJSON), Mockito.any());
+        Mockito.verify(response).setContentType("application/x-ndjson");
+        Mockito.verify(response).setStatus(200);
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки с недопустимым диапазоном месяцев")
+    public void testDoGetWithInvalidRange() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(request.getParameter("from")).thenReturn("10");
+        Mockito.when(request.getParameter("to")).thenReturn("2");
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setStatus(400);
+        Mockito.verifyNoInteractions(meterService);
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки для не администратора")
+    public void testDoGetNonAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+
+        servlet.doGet(request, response);
+
+        Mockito.verify(response).setStatus(401);
+        Mockito.verifyNoInteractions(meterService);
+    }
+}
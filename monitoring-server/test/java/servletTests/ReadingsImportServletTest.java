@@ -0,0 +1,81 @@
+package servletTests;
+
+import com.google.gson.Gson;
+import dao.readings.ReadingsImportResult;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import service.reading.MeterService;
+import servlet.ReadingsImportServlet;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+public class ReadingsImportServletTest {
+    private ReadingsImportServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private MeterService meterService;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws IOException {
+        meterService = Mockito.mock(MeterService.class);
+        ServiceFactory.setMeterService(meterService);
+        ServiceFactory.setGson(new Gson());
+        servlet = new ReadingsImportServlet();
+        servlet.init();
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                "email,meter_type,month,reading\nuser@mail.com,HEATING,1,100\n")));
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+    }
+
+    @Test
+    @DisplayName("Тестирование метода doPost для администратора")
+    public void testDoPostAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(meterService.importReadings(Mockito.any()))
+                .thenReturn(new ReadingsImportResult(1, 1, 0, List.of()));
+
+        servlet.doPost(request, response);
+
+        Mockito.verify(response).setStatus(200);
+    }
+
+    @Test
+    @DisplayName("Тестирование метода doPost при ошибке загрузки")
+    public void testDoPostImportFailed() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+        Mockito.when(meterService.importReadings(Mockito.any()))
+                .thenReturn(ReadingsImportResult.failed("extra data after last expected column"));
+
+        servlet.doPost(request, response);
+
+        Mockito.verify(response).setStatus(400);
+    }
+
+    @Test
+    @DisplayName("Тестирование метода doPost для не администратора")
+    public void testDoPostNonAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+
+        servlet.doPost(request, response);
+
+        Mockito.verify(response).setStatus(401);
+        Mockito.verify(meterService, Mockito.never()).importReadings(Mockito.any());
+    }
+}
@@ -0,0 +1,91 @@
+package servletTests;
+
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import servlet.TraceServlet;
+import tracing.MethodTracer;
+import utils.ServiceFactory;
+import utils.TokenClaims;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceServletTest {
+    private TraceServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private StringWriter responseWriter;
+
+    @BeforeEach
+    @DisplayName("Настройка тестового окружения перед каждым тестом")
+    public void setUp() throws IOException {
+        ServiceFactory.setGson(new Gson());
+        servlet = new TraceServlet();
+        servlet.init();
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        responseWriter = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseWriter));
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", true, 0, Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    @DisplayName("Выключение трассировки после каждого теста")
+    public void tearDown() {
+        MethodTracer.getDefault().disable();
+    }
+
+    @Test
+    @DisplayName("Тестирование включения трассировки, выгрузки записей и выключения")
+    public void testEnableDumpDisable() throws Exception {
+        Mockito.when(request.getParameter("pattern")).thenReturn("utils.ServiceFactory.getGson");
+        Mockito.when(request.getParameter("sample")).thenReturn("1");
+
+        servlet.doPost(request, response);
+        ServiceFactory.getGson();
+        ServiceFactory.getGson();
+        servlet.doDelete(request, response);
+        ServiceFactory.getGson();
+        servlet.doGet(request, response);
+
+        Mockito.verify(response, Mockito.times(3)).setStatus(200);
+        String body = responseWriter.toString();
+        assertTrue(body.contains("\"enabled\":false"));
+        assertEquals(2, body.split("\"method\":\"ServiceFactory.getGson\\(\\)\"", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование включения трассировки без шаблона и с недопустимой частотой выборки")
+    public void testDoPostInvalid() throws Exception {
+        servlet.doPost(request, response);
+        Mockito.when(request.getParameter("pattern")).thenReturn("dao.*");
+        Mockito.when(request.getParameter("sample")).thenReturn("0");
+        servlet.doPost(request, response);
+
+        Mockito.verify(response, Mockito.times(2)).setStatus(400);
+        assertNull(MethodTracer.getDefault().session());
+    }
+
+    @Test
+    @DisplayName("Тестирование управления трассировкой для не администратора")
+    public void testNonAdmin() throws Exception {
+        Mockito.when(request.getAttribute(TokenClaims.REQUEST_ATTRIBUTE))
+                .thenReturn(new TokenClaims(1, "session-1", "e@mail.com", "uname", false, 0, Long.MAX_VALUE));
+        Mockito.when(request.getParameter("pattern")).thenReturn("dao.*");
+
+        servlet.doPost(request, response);
+
+        Mockito.verify(response).setStatus(401);
+        assertNull(MethodTracer.getDefault().session());
+    }
+}